@@ -0,0 +1,93 @@
+package de.wlsc.management;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to look an account up by id, depending on the number of accounts in the store and where
+ * it keeps balances. Setup prints the heap the store retains per account and how long a full
+ * garbage collection takes with the store in place. Every customer owns two accounts and is
+ * decoded into a separate but equal object for each of them, like requests do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-XX:+UseParallelGC"})
+public class AccountStoreBenchmark {
+
+  private static final int LOOKUPS = 4096;
+  private static final Currency[] CURRENCIES = {
+      Currency.getInstance("EUR"), Currency.getInstance("USD"), Currency.getInstance("GBP")};
+
+  @Param({"1000000"})
+  private int accounts;
+
+  @Param({"HEAP", "OFF_HEAP"})
+  private StoreMemory storeMemory;
+
+  private final String[] lookups = new String[LOOKUPS];
+  private AccountStore accountStore;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookups[i] = TransferWorkload.accountId(random.nextInt(accounts));
+    }
+    long heapBefore = usedHeap();
+    accountStore = new AccountStore(storeMemory);
+    for (int i = 0; i < accounts; i++) {
+      accountStore.add(Account.builder()
+          .id(TransferWorkload.accountId(i))
+          .amount(i)
+          .currency(CURRENCIES[i % CURRENCIES.length])
+          .customer(Customer.builder()
+              .id("cust" + i / 2)
+              .firstname("Erika")
+              .lastname("Mustermann")
+              .locale(Locale.GERMANY)
+              .build())
+          .build(), i);
+    }
+    long heapAfter = usedHeap();
+    long gcStart = System.nanoTime();
+    System.gc();
+    long gcMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - gcStart);
+    System.out.printf("%nStore retains %d bytes of heap per account, a full collection takes %d ms%n",
+        (heapAfter - heapBefore) / accounts, gcMillis);
+  }
+
+  @Benchmark
+  public StoredAccount find() {
+    String accountId = lookups[next];
+    next = (next + 1) & (LOOKUPS - 1);
+    return accountStore.find(accountId);
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
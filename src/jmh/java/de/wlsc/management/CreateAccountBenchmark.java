@@ -0,0 +1,43 @@
+package de.wlsc.management;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Accounts created per second by concurrent clients. Every iteration starts with an empty store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(8)
+public class CreateAccountBenchmark {
+
+  private final AtomicInteger nextAccount = new AtomicInteger();
+  private AccountManagement accountManagement;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    accountManagement = new AccountManagement();
+    nextAccount.set(0);
+  }
+
+  @Benchmark
+  public void create() {
+    accountManagement.create(TransferWorkload.account(nextAccount.getAndIncrement()));
+  }
+}
@@ -0,0 +1,102 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountManagementEndpoint.TRANSFER_MONEY_FROM_TO_ACCOUNT;
+
+import de.wlsc.management.TransferWorkload.Distribution;
+import de.wlsc.management.execution.ExecutionModel;
+import de.wlsc.model.MoneyTransfer;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.runtime.server.EmbeddedServer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test of the transfer endpoint through the Micronaut HTTP client against an embedded
+ * server in the same JVM. Reports throughput together with the latency distribution for each
+ * execution model; virtual threads need the benchmark to run on Java 21 or newer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(32)
+public class EndpointLoadBenchmark {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int CONNECTIONS = 32;
+  private static final int TRANSFERS_PER_THREAD = 1 << 12;
+
+  @Param({"IO_POOL", "EVENT_LOOP", "VIRTUAL_THREADS"})
+  private ExecutionModel execution;
+
+  private EmbeddedServer embeddedServer;
+  private HttpClient httpClient;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    embeddedServer = ApplicationContext.run(EmbeddedServer.class, Map.of(
+        "micronaut.http.client.pool.enabled", true,
+        "micronaut.http.client.pool.max-connections", CONNECTIONS,
+        "endpoint.execution", execution));
+    AccountManagement accountManagement = embeddedServer.getApplicationContext().getBean(AccountManagement.class);
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accountManagement.create(TransferWorkload.account(i));
+    }
+    httpClient = embeddedServer.getApplicationContext().createBean(HttpClient.class, embeddedServer.getURL());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    httpClient.close();
+    embeddedServer.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Client {
+
+    private static final AtomicLong SEEDS = new AtomicLong();
+
+    private BlockingHttpClient blockingHttpClient;
+    private MoneyTransfer[] moneyTransfers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(final EndpointLoadBenchmark benchmark) {
+      blockingHttpClient = benchmark.httpClient.toBlocking();
+      moneyTransfers = TransferWorkload.transfers(Distribution.UNIFORM, ACCOUNTS, TRANSFERS_PER_THREAD,
+          SEEDS.incrementAndGet());
+    }
+
+    HttpResponse<?> transferMoney() {
+      MoneyTransfer moneyTransfer = moneyTransfers[next];
+      next = (next + 1) & (TRANSFERS_PER_THREAD - 1);
+      return blockingHttpClient.exchange(HttpRequest.POST(TRANSFER_MONEY_FROM_TO_ACCOUNT, moneyTransfer));
+    }
+  }
+
+  @Benchmark
+  public HttpResponse<?> transferMoney(final Client client) {
+    return client.transferMoney();
+  }
+}
@@ -0,0 +1,74 @@
+package de.wlsc.management;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to find the accounts of a customer through the secondary index compared with a scan of
+ * all accounts, depending on the number of accounts in the store. Every customer has
+ * {@value #ACCOUNTS_PER_CUSTOMER} accounts. The estimated index memory is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FindAccountsBenchmark {
+
+  private static final int ACCOUNTS_PER_CUSTOMER = 4;
+
+  @Param({"10000", "1000000"})
+  private int accounts;
+
+  private AccountManagement accountManagement;
+  private String customerId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    accountManagement = new AccountManagement();
+    for (int i = 0; i < accounts; i++) {
+      accountManagement.create(TransferWorkload.account(i).toBuilder()
+          .customer(Customer.builder().id(customerId(i / ACCOUNTS_PER_CUSTOMER)).build())
+          .build());
+    }
+    customerId = customerId(accounts / ACCOUNTS_PER_CUSTOMER / 2);
+    System.out.printf("%nIndexes of %d accounts take about %d bytes%n", accounts,
+        accountManagement.indexEstimatedBytes());
+  }
+
+  @Benchmark
+  public List<Account> findByIndex() {
+    return accountManagement.accountsOfCustomer(customerId);
+  }
+
+  @Benchmark
+  public List<Account> findByScan() {
+    List<Account> found = new ArrayList<>();
+    for (Account account : accountManagement.accountsInCreationOrder()) {
+      if (customerId.equals(account.getCustomer().getId())) {
+        found.add(account);
+      }
+    }
+    return found;
+  }
+
+  private static String customerId(final int number) {
+    return "cust" + number;
+  }
+}
@@ -0,0 +1,109 @@
+package de.wlsc.management;
+
+import de.wlsc.management.TransferWorkload.Distribution;
+import de.wlsc.management.deduplication.DeduplicationConfiguration;
+import de.wlsc.management.deduplication.TransferDeduplication;
+import de.wlsc.management.exception.TransferRateExceededException;
+import de.wlsc.management.fx.FxRateTable;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.logging.TransferAudit;
+import de.wlsc.management.metrics.TransferMetrics;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.MoneyTransfer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of transfers without hot account tracking, with tracking only and with hot accounts
+ * rate limited, for uniformly distributed accounts and for a few hot accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HotAccountBenchmark {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int TRANSFERS_PER_THREAD = 1 << 12;
+
+  public enum RateLimit {
+    OFF,
+    TRACKED,
+    LIMITED
+  }
+
+  @Param({"UNIFORM", "ZIPFIAN"})
+  private Distribution distribution;
+
+  @Param({"OFF", "TRACKED", "LIMITED"})
+  private RateLimit rateLimit;
+
+  private AccountManagement accountManagement;
+
+  @Setup
+  public void setUp() {
+    RateLimitConfiguration rateLimitConfiguration = new RateLimitConfiguration();
+    if (rateLimit == RateLimit.OFF) {
+      rateLimitConfiguration.setHotAccounts(0);
+    } else if (rateLimit == RateLimit.LIMITED) {
+      rateLimitConfiguration.setTransfersPerSecond(10_000);
+    }
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()), new TransferDeduplication(new DeduplicationConfiguration()),
+        TransferMetrics.disabled(), TransferAudit.disabled(), FxRateTable.bundled(), new ShardingConfiguration(),
+        new StoreConfiguration(), rateLimitConfiguration);
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accountManagement.create(TransferWorkload.account(i));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Transfers {
+
+    private static final AtomicLong SEEDS = new AtomicLong();
+
+    private MoneyTransfer[] moneyTransfers;
+    private int next;
+
+    @Setup
+    public void setUp(final HotAccountBenchmark benchmark) {
+      moneyTransfers = TransferWorkload.transfers(benchmark.distribution, ACCOUNTS, TRANSFERS_PER_THREAD,
+          SEEDS.incrementAndGet());
+    }
+
+    MoneyTransfer next() {
+      MoneyTransfer moneyTransfer = moneyTransfers[next];
+      next = (next + 1) & (TRANSFERS_PER_THREAD - 1);
+      return moneyTransfer;
+    }
+  }
+
+  /**
+   * Rejected transfers are part of the measured latency, as they are answered like any other.
+   */
+  @Benchmark
+  public boolean transferMoney(final Transfers transfers) {
+    try {
+      accountManagement.transferMoney(transfers.next());
+      return true;
+    } catch (TransferRateExceededException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_IMPORT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.wire.CsvAccounts;
+import de.wlsc.management.wire.NdjsonAccounts;
+import de.wlsc.model.Account;
+import de.wlsc.model.ImportReport;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.runtime.server.EmbeddedServer;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Accounts per second loaded into an empty store through the HTTP API of an embedded server: as
+ * one streamed bulk import of NDJSON or CSV, or as one {@code PUT /accounts} per account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@OperationsPerInvocation(ImportAccountsBenchmark.NUMBER_OF_ACCOUNTS)
+public class ImportAccountsBenchmark {
+
+  static final int NUMBER_OF_ACCOUNTS = 20_000;
+
+  public enum Format {
+    NDJSON,
+    CSV,
+    PUT_PER_ACCOUNT
+  }
+
+  @Param({"NDJSON", "CSV", "PUT_PER_ACCOUNT"})
+  private Format format;
+
+  private EmbeddedServer embeddedServer;
+  private HttpClient httpClient;
+  private BlockingHttpClient blockingHttpClient;
+  private Account[] accounts;
+  private byte[] body;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    embeddedServer = ApplicationContext.run(EmbeddedServer.class);
+    httpClient = embeddedServer.getApplicationContext().createBean(HttpClient.class, embeddedServer.getURL());
+    blockingHttpClient = httpClient.toBlocking();
+    ObjectMapper objectMapper = embeddedServer.getApplicationContext().getBean(ObjectMapper.class);
+
+    accounts = new Account[NUMBER_OF_ACCOUNTS];
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    if (format == Format.CSV) {
+      output.writeBytes(CsvAccounts.header().getBytes(UTF_8));
+    }
+    for (int i = 0; i < NUMBER_OF_ACCOUNTS; i++) {
+      accounts[i] = TransferWorkload.account(i);
+      output.writeBytes(format == Format.CSV
+          ? CsvAccounts.write(accounts[i]).getBytes(UTF_8)
+          : NdjsonAccounts.write(objectMapper, accounts[i]));
+    }
+    body = output.toByteArray();
+  }
+
+  @Setup(Level.Invocation)
+  public void removeAccounts() {
+    blockingHttpClient.exchange(HttpRequest.DELETE(ACCOUNTS));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    httpClient.close();
+    embeddedServer.close();
+  }
+
+  @Benchmark
+  public long load() {
+    switch (format) {
+      case NDJSON:
+        return importBody(NdjsonAccounts.MEDIA_TYPE);
+      case CSV:
+        return importBody(CsvAccounts.MEDIA_TYPE);
+      default:
+        for (Account account : accounts) {
+          blockingHttpClient.exchange(HttpRequest.PUT(ACCOUNTS, account));
+        }
+        return accounts.length;
+    }
+  }
+
+  private long importBody(final String mediaType) {
+    return blockingHttpClient.retrieve(HttpRequest.POST(ACCOUNTS_IMPORT, body).contentType(mediaType),
+        ImportReport.class).getImported();
+  }
+}
@@ -0,0 +1,44 @@
+package de.wlsc.management;
+
+import de.wlsc.model.Account;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to list all accounts depending on the number of accounts in the store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ListAccountsBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  private int accounts;
+
+  private AccountManagement accountManagement;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    accountManagement = TransferWorkload.accountManagement(accounts);
+  }
+
+  @Benchmark
+  public Collection<Account> listAccounts() {
+    return accountManagement.listAccounts();
+  }
+}
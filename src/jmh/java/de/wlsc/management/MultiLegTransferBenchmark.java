@@ -0,0 +1,112 @@
+package de.wlsc.management;
+
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferLeg;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multi-leg transfers per second by concurrent clients, each splitting a debit across several
+ * creditors. With disjoint legs every client pays between accounts of its own, so the
+ * transfers share no lock stripe; with overlapping legs all clients pay between a few hot accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class MultiLegTransferBenchmark {
+
+  private static final int THREADS = 8;
+  private static final int ACCOUNTS_PER_THREAD = 10_000;
+  private static final int HOT_ACCOUNTS = 16;
+  private static final int TRANSFERS_PER_THREAD = 1 << 14;
+
+  @Param({"2", "8"})
+  private int legs;
+
+  @Param({"true", "false"})
+  private boolean disjoint;
+
+  @Param({"false", "true"})
+  private boolean sharded;
+
+  private AccountManagement accountManagement;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ShardingConfiguration shardingConfiguration = new ShardingConfiguration();
+    shardingConfiguration.setEnabled(sharded);
+    accountManagement = TransferWorkload.accountManagement(THREADS * ACCOUNTS_PER_THREAD, shardingConfiguration);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    accountManagement.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Transfers {
+
+    private static final AtomicInteger THREAD_NUMBERS = new AtomicInteger();
+
+    private MultiLegTransfer[] multiLegTransfers;
+    private int next;
+
+    /**
+     * Only accounts with even numbers take part, so all legs stay in EUR.
+     */
+    @Setup(Level.Trial)
+    public void setUp(final MultiLegTransferBenchmark benchmark) {
+      int threadNumber = THREAD_NUMBERS.getAndIncrement() % THREADS;
+      int firstAccount = benchmark.disjoint ? threadNumber * ACCOUNTS_PER_THREAD : 0;
+      int accounts = benchmark.disjoint ? ACCOUNTS_PER_THREAD : HOT_ACCOUNTS;
+      SplittableRandom random = new SplittableRandom(threadNumber);
+      multiLegTransfers = new MultiLegTransfer[TRANSFERS_PER_THREAD];
+      for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+        String payer = TransferWorkload.accountId(firstAccount + random.nextInt(accounts / 2) * 2);
+        List<TransferLeg> transferLegs = new ArrayList<>(benchmark.legs);
+        for (int leg = 0; leg < benchmark.legs; leg++) {
+          transferLegs.add(TransferLeg.builder()
+              .fromAccountId(payer)
+              .toAccountId(TransferWorkload.accountId(firstAccount + random.nextInt(accounts / 2) * 2))
+              .amount(1 + random.nextInt(100))
+              .build());
+        }
+        multiLegTransfers[i] = MultiLegTransfer.builder()
+            .legs(transferLegs)
+            .build();
+      }
+    }
+
+    MultiLegTransfer next() {
+      MultiLegTransfer multiLegTransfer = multiLegTransfers[next];
+      next = (next + 1) & (TRANSFERS_PER_THREAD - 1);
+      return multiLegTransfer;
+    }
+  }
+
+  @Benchmark
+  public void transferMoney(final Transfers transfers) {
+    accountManagement.transferMoney(transfers.next());
+  }
+}
@@ -0,0 +1,90 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.TransferWorkload.INITIAL_AMOUNT;
+import static de.wlsc.management.TransferWorkload.accountId;
+
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.model.MoneyTransfer;
+import io.micronaut.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of transfers that are rejected, answered with the bad request the endpoint responds
+ * with, compared to accepted transfers. Run with {@code -prof gc} for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectedTransferBenchmark {
+
+  private static final int ACCOUNTS = 1_000;
+  private static final int TRANSFERS = 1 << 10;
+
+  public enum Rejection {
+    NONE,
+    NOT_ENOUGH_MONEY,
+    UNKNOWN_ACCOUNT,
+    NEGATIVE_AMOUNT
+  }
+
+  @Param({"NONE", "NOT_ENOUGH_MONEY", "UNKNOWN_ACCOUNT", "NEGATIVE_AMOUNT"})
+  private Rejection rejection;
+
+  private AccountManagement accountManagement;
+  private MoneyTransfer[] moneyTransfers;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    accountManagement = TransferWorkload.accountManagement(ACCOUNTS);
+    moneyTransfers = new MoneyTransfer[TRANSFERS];
+    for (int i = 0; i < TRANSFERS; i++) {
+      moneyTransfers[i] = MoneyTransfer.builder()
+          .fromAccountId(accountId(i % ACCOUNTS))
+          .toAccountId(rejection == Rejection.UNKNOWN_ACCOUNT ? "unknown" : accountId((i + 2) % ACCOUNTS))
+          .amount(amount())
+          .build();
+    }
+  }
+
+  private long amount() {
+    switch (rejection) {
+      case NOT_ENOUGH_MONEY:
+        return INITIAL_AMOUNT + 1;
+      case NEGATIVE_AMOUNT:
+        return -1;
+      default:
+        return 1;
+    }
+  }
+
+  /**
+   * Same outcome as {@link AccountManagementEndpoint#transferMoney(MoneyTransfer)}. The transfers
+   * carry no id, so every rejection is produced anew instead of replayed by the deduplication.
+   */
+  @Benchmark
+  public HttpResponse<?> transferMoney() {
+    MoneyTransfer moneyTransfer = moneyTransfers[next];
+    next = (next + 1) & (TRANSFERS - 1);
+    try {
+      accountManagement.transferMoney(moneyTransfer);
+    } catch (TransferRejectedException e) {
+      return HttpResponse.badRequest(e.getResponseBody());
+    }
+    return HttpResponse.ok();
+  }
+}
@@ -0,0 +1,99 @@
+package de.wlsc.management;
+
+import de.wlsc.management.TransferWorkload.Distribution;
+import de.wlsc.management.replication.Replica;
+import de.wlsc.model.MoneyTransfer;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.runtime.server.EmbeddedServer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time from a transfer on the leader until a follower applied it, with a leader and a follower
+ * running as embedded servers in the same JVM, for asynchronous replication and for transfers
+ * waiting for the follower's acknowledgement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplicationLagBenchmark {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int TRANSFERS = 1 << 12;
+
+  @Param({"1ms", "10ms"})
+  private String pollInterval;
+
+  @Param({"0", "1"})
+  private int minAcks;
+
+  private EmbeddedServer leader;
+  private EmbeddedServer follower;
+  private AccountManagement accountManagement;
+  private Replica leaderReplica;
+  private Replica followerReplica;
+  private MoneyTransfer[] moneyTransfers;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    leader = ApplicationContext.run(EmbeddedServer.class, Map.of(
+        "micronaut.server.port", -1,
+        "replication.role", "LEADER",
+        "replication.min-acks", minAcks));
+    follower = ApplicationContext.run(EmbeddedServer.class, Map.of(
+        "micronaut.server.port", -1,
+        "replication.role", "FOLLOWER",
+        "replication.leader-url", leader.getURL().toString(),
+        "replication.poll-interval", pollInterval));
+    accountManagement = leader.getApplicationContext().getBean(AccountManagement.class);
+    leaderReplica = leader.getApplicationContext().getBean(Replica.class);
+    followerReplica = follower.getApplicationContext().getBean(Replica.class);
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accountManagement.create(TransferWorkload.account(i));
+    }
+    moneyTransfers = TransferWorkload.transfers(Distribution.UNIFORM, ACCOUNTS, TRANSFERS, 1);
+    awaitFollower();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    follower.close();
+    leader.close();
+  }
+
+  /**
+   * Transfers on the leader and waits until the follower reached the leader's position.
+   */
+  @Benchmark
+  public long replicateTransfer() {
+    accountManagement.transferMoney(moneyTransfers[next]);
+    next = (next + 1) & (TRANSFERS - 1);
+    return awaitFollower();
+  }
+
+  private long awaitFollower() {
+    long position = leaderReplica.status().getPosition();
+    long followerPosition;
+    while ((followerPosition = followerReplica.status().getPosition()) < position) {
+      Thread.onSpinWait();
+    }
+    return followerPosition;
+  }
+}
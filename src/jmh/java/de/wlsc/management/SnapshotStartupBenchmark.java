@@ -0,0 +1,118 @@
+package de.wlsc.management;
+
+import de.wlsc.management.journal.DurabilityMode;
+import de.wlsc.management.journal.FileTransferJournal;
+import de.wlsc.management.journal.JournalConfiguration;
+import de.wlsc.management.journal.TransferJournal;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time until a restarted store is ready, either from a snapshot plus the journal written after
+ * it or from the whole journal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class SnapshotStartupBenchmark {
+
+  private static final int TRANSFERS_AFTER_SNAPSHOT = 100_000;
+
+  public enum Recovery {
+    SNAPSHOT_AND_JOURNAL,
+    JOURNAL_ONLY
+  }
+
+  @Param({"1000000", "10000000"})
+  private int accounts;
+
+  @Param({"SNAPSHOT_AND_JOURNAL", "JOURNAL_ONLY"})
+  private Recovery recovery;
+
+  private Path directory;
+  private TransferJournal restartedJournal;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("snapshot-benchmark");
+    try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+      for (int i = 0; i < accounts; i++) {
+        accountManagement.create(Account.builder()
+            .id("acc" + i)
+            .amount(1_000_000)
+            .currency(Currency.getInstance("EUR"))
+            .build());
+      }
+      if (recovery == Recovery.SNAPSHOT_AND_JOURNAL) {
+        accountManagement.takeSnapshot();
+      }
+      SplittableRandom random = new SplittableRandom(42);
+      for (int i = 0; i < TRANSFERS_AFTER_SNAPSHOT; i++) {
+        accountManagement.transferMoney(MoneyTransfer.builder()
+            .fromAccountId("acc" + random.nextInt(accounts))
+            .toAccountId("acc" + random.nextInt(accounts))
+            .amount(1)
+            .build());
+      }
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeRestartedJournal() {
+    restartedJournal.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public AccountManagement restart() {
+    restartedJournal = new FileTransferJournal(journalConfiguration());
+    return new AccountManagement(restartedJournal, accountSnapshots());
+  }
+
+  private JournalConfiguration journalConfiguration() {
+    JournalConfiguration journalConfiguration = new JournalConfiguration();
+    journalConfiguration.setMode(DurabilityMode.FLUSH_INTERVAL);
+    journalConfiguration.setDirectory(directory.resolve("journal").toString());
+    return journalConfiguration;
+  }
+
+  private AccountSnapshots accountSnapshots() {
+    SnapshotConfiguration snapshotConfiguration = new SnapshotConfiguration();
+    snapshotConfiguration.setEnabled(recovery == Recovery.SNAPSHOT_AND_JOURNAL);
+    snapshotConfiguration.setDirectory(directory.resolve("snapshot").toString());
+    return new AccountSnapshots(snapshotConfiguration);
+  }
+}
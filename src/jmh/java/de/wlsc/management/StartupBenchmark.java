@@ -0,0 +1,194 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS;
+import static de.wlsc.management.AccountManagementEndpoint.TRANSFER_MONEY_FROM_TO_ACCOUNT;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time from launching the shadow jar in a process of its own until it answers the first request,
+ * and until it applied the first transfer, with and without the OpenJ9 shared class cache and
+ * warm-up. Like the {@code Dockerfile}, the cache is filled by a training run before the trial and
+ * opened read-only afterwards, so the benchmark needs the OpenJ9 JVM of the runtime image. The
+ * jar is the one built by {@code ./gradlew shadowJar}, another one and another JVM can be given as
+ * system properties {@code startup.jar} and {@code startup.java}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+  private static final String ACCOUNT = "{\"id\":\"%s\",\"amount\":1000,\"currency\":\"EUR\"}";
+  private static final String TRANSFER = "{\"fromAccountId\":\"acc1\",\"toAccountId\":\"acc2\",\"amount\":100}";
+  private static final String CACHE_NAME = "money-transfer";
+
+  public enum SharedClasses {
+    /**
+     * No shared class cache at all.
+     */
+    NONE,
+    /**
+     * The cache of the JDK and application classes and their AOT code filled by a training run.
+     */
+    APPLICATION
+  }
+
+  @Param({"NONE", "APPLICATION"})
+  private SharedClasses sharedClasses;
+
+  @Param({"false", "true"})
+  private boolean warmUp;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(1))
+      .build();
+  private String java;
+  private Path jar;
+  private Path cacheDirectory;
+  private Process process;
+  private URI uri;
+
+  /**
+   * Fills a fresh shared class cache the way the {@code Dockerfile} does, with a training run that
+   * exits once the warmed-up server is ready.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    java = System.getProperty("startup.java", ProcessHandle.current().info().command().orElse("java"));
+    jar = Paths.get(System.getProperty("startup.jar", "build/libs/money-transfer-0.1-all.jar")).toAbsolutePath();
+    if (!Files.exists(jar)) {
+      throw new IllegalStateException("Run ./gradlew shadowJar to build " + jar);
+    }
+    if (sharedClasses == SharedClasses.APPLICATION) {
+      cacheDirectory = Files.createTempDirectory("shareclasses");
+      Process trainingRun = new ProcessBuilder(java, "-Xshareclasses:name=" + CACHE_NAME + ",cacheDir=" + cacheDirectory,
+          "-Xscmx64m", "-Dwarm-up.enabled=true", "-Dwarm-up.exit-when-ready=true", "-Dmicronaut.server.port=-1",
+          "-jar", jar.toString())
+          .redirectErrorStream(true)
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .start();
+      if (!trainingRun.waitFor(STARTUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || trainingRun.exitValue() != 0) {
+        trainingRun.destroyForcibly();
+        throw new IllegalStateException("Training run has failed, " + java + " must be an OpenJ9 JVM");
+      }
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void stop() throws InterruptedException {
+    process.destroyForcibly();
+    process.waitFor();
+  }
+
+  /**
+   * Launches the service and waits until it lists its accounts.
+   */
+  @Benchmark
+  public int startUp() throws Exception {
+    launch();
+    return awaitReady();
+  }
+
+  /**
+   * Launches the service, waits until it answers, creates two accounts and transfers between them.
+   */
+  @Benchmark
+  public int firstTransfer() throws Exception {
+    launch();
+    awaitReady();
+    send(HttpRequest.newBuilder(uri.resolve(ACCOUNTS)).PUT(json(String.format(ACCOUNT, "acc1"))));
+    send(HttpRequest.newBuilder(uri.resolve(ACCOUNTS)).PUT(json(String.format(ACCOUNT, "acc2"))));
+    return send(HttpRequest.newBuilder(uri.resolve(TRANSFER_MONEY_FROM_TO_ACCOUNT)).POST(json(TRANSFER)));
+  }
+
+  private void launch() throws IOException {
+    int port = freePort();
+    uri = URI.create("http://localhost:" + port);
+    List<String> command = new ArrayList<>();
+    command.add(java);
+    if (sharedClasses == SharedClasses.APPLICATION) {
+      command.add("-Xshareclasses:name=" + CACHE_NAME + ",cacheDir=" + cacheDirectory + ",readonly");
+    } else {
+      command.add("-Xshareclasses:none");
+    }
+    command.add("-Dmicronaut.server.port=" + port);
+    command.add("-Dwarm-up.enabled=" + warmUp);
+    command.add("-cp");
+    command.add(jar.toString());
+    command.add("de.wlsc.Application");
+    process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start();
+  }
+
+  private int awaitReady() throws Exception {
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    HttpRequest request = HttpRequest.newBuilder(uri.resolve(ACCOUNTS)).GET().build();
+    while (true) {
+      try {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      } catch (ConnectException e) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("Service has exited with " + process.exitValue(), e);
+        }
+        if (System.nanoTime() > deadline) {
+          throw new IllegalStateException("Service has not started within " + STARTUP_TIMEOUT, e);
+        }
+        Thread.sleep(1);
+      }
+    }
+  }
+
+  private int send(final HttpRequest.Builder request) throws Exception {
+    int status = httpClient.send(request.header("Content-Type", "application/json").build(),
+        HttpResponse.BodyHandlers.discarding()).statusCode();
+    if (status >= 300) {
+      throw new IllegalStateException("Request has failed with " + status);
+    }
+    return status;
+  }
+
+  private static HttpRequest.BodyPublisher json(final String body) {
+    return HttpRequest.BodyPublishers.ofString(body);
+  }
+
+  private static int freePort() {
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      return serverSocket.getLocalPort();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
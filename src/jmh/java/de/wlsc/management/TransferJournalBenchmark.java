@@ -0,0 +1,114 @@
+package de.wlsc.management;
+
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.journal.DurabilityMode;
+import de.wlsc.management.journal.FileTransferJournal;
+import de.wlsc.management.journal.JournalConfiguration;
+import de.wlsc.management.journal.TransferJournal;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transfers per second for every {@link DurabilityMode}, with enough threads that group commit
+ * has concurrent transfers to batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class TransferJournalBenchmark {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int TRANSFERS_PER_THREAD = 4096;
+
+  @Param({"NONE", "FLUSH_INTERVAL", "FSYNC_PER_BATCH"})
+  private DurabilityMode mode;
+
+  private Path directory;
+  private TransferJournal transferJournal;
+  private AccountManagement accountManagement;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("journal-benchmark");
+    if (mode == DurabilityMode.NONE) {
+      transferJournal = new DisabledTransferJournal();
+    } else {
+      JournalConfiguration journalConfiguration = new JournalConfiguration();
+      journalConfiguration.setMode(mode);
+      journalConfiguration.setDirectory(directory.toString());
+      transferJournal = new FileTransferJournal(journalConfiguration);
+    }
+    accountManagement = new AccountManagement(transferJournal);
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accountManagement.create(Account.builder()
+          .id("acc" + i)
+          .amount(Long.MAX_VALUE / 2)
+          .currency(Currency.getInstance("EUR"))
+          .build());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    transferJournal.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Transfers {
+
+    private final MoneyTransfer[] moneyTransfers = new MoneyTransfer[TRANSFERS_PER_THREAD];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+      for (int i = 0; i < moneyTransfers.length; i++) {
+        moneyTransfers[i] = MoneyTransfer.builder()
+            .fromAccountId("acc" + random.nextInt(ACCOUNTS))
+            .toAccountId("acc" + random.nextInt(ACCOUNTS))
+            .amount(1)
+            .build();
+      }
+    }
+
+    MoneyTransfer next() {
+      MoneyTransfer moneyTransfer = moneyTransfers[next];
+      next = (next + 1) % moneyTransfers.length;
+      return moneyTransfer;
+    }
+  }
+
+  @Benchmark
+  public void transferMoney(final Transfers transfers) {
+    accountManagement.transferMoney(transfers.next());
+  }
+}
@@ -0,0 +1,148 @@
+package de.wlsc.management;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import de.wlsc.management.TransferWorkload.Distribution;
+import de.wlsc.management.logging.TransferLogConfiguration;
+import de.wlsc.management.logging.TransferLogSampler;
+import de.wlsc.model.MoneyTransfer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of a transfer together with the diagnostic log lines the endpoint writes for it, logged
+ * to a file on the calling thread for every transfer, through an async appender for every
+ * transfer or through an async appender for sampled transfers only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransferLoggingBenchmark {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int TRANSFERS_PER_THREAD = 1 << 12;
+
+  public enum Logging {
+    SYNC,
+    ASYNC,
+    ASYNC_SAMPLED
+  }
+
+  @Param({"SYNC", "ASYNC", "ASYNC_SAMPLED"})
+  private Logging logging;
+
+  private Path logFile;
+  private LoggerContext loggerContext;
+  private Logger log;
+  private TransferLogSampler transferLogSampler;
+  private AccountManagement accountManagement;
+
+  @Setup(org.openjdk.jmh.annotations.Level.Trial)
+  public void setUp() throws IOException {
+    logFile = Files.createTempFile("transfer-logging-benchmark", ".log");
+    loggerContext = new LoggerContext();
+
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(loggerContext);
+    encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+    encoder.start();
+
+    FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+    fileAppender.setContext(loggerContext);
+    fileAppender.setFile(logFile.toString());
+    fileAppender.setEncoder(encoder);
+    fileAppender.start();
+
+    Appender<ILoggingEvent> appender = fileAppender;
+    if (logging != Logging.SYNC) {
+      AsyncAppender asyncAppender = new AsyncAppender();
+      asyncAppender.setContext(loggerContext);
+      asyncAppender.setQueueSize(8192);
+      asyncAppender.setNeverBlock(true);
+      asyncAppender.addAppender(fileAppender);
+      asyncAppender.start();
+      appender = asyncAppender;
+    }
+
+    log = loggerContext.getLogger(AccountManagementEndpoint.class);
+    log.setLevel(Level.INFO);
+    log.setAdditive(false);
+    log.addAppender(appender);
+
+    TransferLogConfiguration transferLogConfiguration = new TransferLogConfiguration();
+    transferLogConfiguration.setSampleRate(logging == Logging.ASYNC_SAMPLED ? 100 : 1);
+    transferLogConfiguration.setMaxPerSecond(logging == Logging.ASYNC_SAMPLED ? 100 : 0);
+    transferLogSampler = new TransferLogSampler(transferLogConfiguration);
+
+    accountManagement = TransferWorkload.accountManagement(ACCOUNTS);
+  }
+
+  @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+  public void tearDown() throws IOException {
+    loggerContext.stop();
+    Files.deleteIfExists(logFile);
+  }
+
+  @State(Scope.Thread)
+  public static class Transfers {
+
+    private static final AtomicLong SEEDS = new AtomicLong();
+
+    private MoneyTransfer[] moneyTransfers;
+    private int next;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() {
+      moneyTransfers = TransferWorkload.transfers(Distribution.UNIFORM, ACCOUNTS, TRANSFERS_PER_THREAD,
+          SEEDS.incrementAndGet());
+    }
+
+    MoneyTransfer next() {
+      MoneyTransfer moneyTransfer = moneyTransfers[next];
+      next = (next + 1) & (TRANSFERS_PER_THREAD - 1);
+      return moneyTransfer;
+    }
+  }
+
+  /**
+   * Same logging as {@link AccountManagementEndpoint#transferMoney(MoneyTransfer)}.
+   */
+  @Benchmark
+  public void transferMoney(final Transfers transfers) {
+    MoneyTransfer moneyTransfer = transfers.next();
+    boolean sampled = transferLogSampler.sample();
+    if (sampled) {
+      log.info("Initializing money transfer from {} to {} account...", moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
+    }
+    accountManagement.transferMoney(moneyTransfer);
+    if (sampled) {
+      log.info("Money transfer from {} to {} account was successful", moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
+    }
+  }
+}
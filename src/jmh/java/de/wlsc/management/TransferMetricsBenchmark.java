@@ -0,0 +1,72 @@
+package de.wlsc.management;
+
+import de.wlsc.management.TransferWorkload.Distribution;
+import de.wlsc.management.deduplication.DeduplicationConfiguration;
+import de.wlsc.management.deduplication.TransferDeduplication;
+import de.wlsc.management.fx.FxRateTable;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.logging.TransferAudit;
+import de.wlsc.management.metrics.TransferMetrics;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.MoneyTransfer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording transfer metrics, comparing transfers with metrics recorded into a registry
+ * against transfers with metrics recorded nowhere.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferMetricsBenchmark {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int TRANSFERS = 1 << 16;
+
+  @Param({"false", "true"})
+  private boolean recorded;
+
+  private AccountManagement accountManagement;
+  private MoneyTransfer[] moneyTransfers;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    TransferMetrics transferMetrics = recorded ? new TransferMetrics(new SimpleMeterRegistry()) : TransferMetrics.disabled();
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()),
+        new TransferDeduplication(new DeduplicationConfiguration()),
+        transferMetrics,
+        TransferAudit.disabled(),
+        FxRateTable.bundled(),
+        new ShardingConfiguration(),
+        new StoreConfiguration());
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accountManagement.create(TransferWorkload.account(i));
+    }
+    moneyTransfers = TransferWorkload.transfers(Distribution.UNIFORM, ACCOUNTS, TRANSFERS, 1);
+  }
+
+  @Benchmark
+  public void transferMoney() {
+    accountManagement.transferMoney(moneyTransfers[next]);
+    next = (next + 1) & (TRANSFERS - 1);
+  }
+}
@@ -0,0 +1,83 @@
+package de.wlsc.management;
+
+import de.wlsc.management.TransferWorkload.Distribution;
+import de.wlsc.model.MoneyTransfer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transfers per second by concurrent clients for uniformly distributed, hot spot and cross
+ * currency traffic, applied under lock stripes or by single-writer shards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransferMoneyBenchmark {
+
+  private static final int ACCOUNTS = 100_000;
+  private static final int TRANSFERS_PER_THREAD = 1 << 16;
+
+  @Param({"UNIFORM", "ZIPFIAN", "CROSS_CURRENCY"})
+  private Distribution distribution;
+
+  @Param({"false", "true"})
+  private boolean sharded;
+
+  private AccountManagement accountManagement;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ShardingConfiguration shardingConfiguration = new ShardingConfiguration();
+    shardingConfiguration.setEnabled(sharded);
+    accountManagement = TransferWorkload.accountManagement(ACCOUNTS, shardingConfiguration);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    accountManagement.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Transfers {
+
+    private static final AtomicLong SEEDS = new AtomicLong();
+
+    private MoneyTransfer[] moneyTransfers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(final TransferMoneyBenchmark benchmark) {
+      moneyTransfers = TransferWorkload.transfers(benchmark.distribution, ACCOUNTS, TRANSFERS_PER_THREAD,
+          SEEDS.incrementAndGet());
+    }
+
+    MoneyTransfer next() {
+      MoneyTransfer moneyTransfer = moneyTransfers[next];
+      next = (next + 1) & (TRANSFERS_PER_THREAD - 1);
+      return moneyTransfer;
+    }
+  }
+
+  @Benchmark
+  public void transferMoney(final Transfers transfers) {
+    accountManagement.transferMoney(transfers.next());
+  }
+}
@@ -0,0 +1,119 @@
+package de.wlsc.management;
+
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.SplittableRandom;
+
+/**
+ * Accounts and pre-generated transfers shared by the benchmarks, so that generating keys is not
+ * part of the measured time.
+ */
+public final class TransferWorkload {
+
+  static final long INITIAL_AMOUNT = Long.MAX_VALUE / 4;
+
+  private static final Currency EUR = Currency.getInstance("EUR");
+  private static final Currency USD = Currency.getInstance("USD");
+
+  public enum Distribution {
+    /**
+     * Every account is equally likely to be source or destination.
+     */
+    UNIFORM,
+    /**
+     * Zipf distributed accounts with exponent 0.99, a few hot accounts take most of the traffic.
+     */
+    ZIPFIAN,
+    /**
+     * Uniformly distributed transfers from accounts in EUR to accounts in USD.
+     */
+    CROSS_CURRENCY
+  }
+
+  private TransferWorkload() {
+  }
+
+  /**
+   * Accounts with even numbers are kept in EUR, accounts with odd numbers in USD.
+   */
+  static Account account(final int number) {
+    return Account.builder()
+        .id(accountId(number))
+        .amount(INITIAL_AMOUNT)
+        .currency(number % 2 == 0 ? EUR : USD)
+        .build();
+  }
+
+  static String accountId(final int number) {
+    return "acc" + number;
+  }
+
+  static AccountManagement accountManagement(final int numberOfAccounts) {
+    return accountManagement(numberOfAccounts, new ShardingConfiguration());
+  }
+
+  static AccountManagement accountManagement(final int numberOfAccounts,
+                                             final ShardingConfiguration shardingConfiguration) {
+    AccountManagement accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()), shardingConfiguration);
+    for (int i = 0; i < numberOfAccounts; i++) {
+      accountManagement.create(account(i));
+    }
+    return accountManagement;
+  }
+
+  static MoneyTransfer[] transfers(final Distribution distribution,
+                                   final int numberOfAccounts,
+                                   final int numberOfTransfers,
+                                   final long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] zipfDistribution = distribution == Distribution.ZIPFIAN ? zipfDistribution(numberOfAccounts) : null;
+    MoneyTransfer[] moneyTransfers = new MoneyTransfer[numberOfTransfers];
+    for (int i = 0; i < numberOfTransfers; i++) {
+      int source;
+      int destination;
+      switch (distribution) {
+        case ZIPFIAN:
+          source = zipf(zipfDistribution, random);
+          destination = zipf(zipfDistribution, random);
+          break;
+        case CROSS_CURRENCY:
+          source = random.nextInt(numberOfAccounts / 2) * 2;
+          destination = random.nextInt(numberOfAccounts / 2) * 2 + 1;
+          break;
+        default:
+          source = random.nextInt(numberOfAccounts);
+          destination = random.nextInt(numberOfAccounts);
+      }
+      moneyTransfers[i] = MoneyTransfer.builder()
+          .fromAccountId(accountId(source))
+          .toAccountId(accountId(destination))
+          .amount(1 + random.nextInt(100))
+          .build();
+    }
+    return moneyTransfers;
+  }
+
+  private static double[] zipfDistribution(final int numberOfAccounts) {
+    double[] cumulative = new double[numberOfAccounts];
+    double sum = 0;
+    for (int rank = 0; rank < numberOfAccounts; rank++) {
+      sum += 1 / Math.pow(rank + 1, 0.99);
+      cumulative[rank] = sum;
+    }
+    for (int rank = 0; rank < numberOfAccounts; rank++) {
+      cumulative[rank] /= sum;
+    }
+    return cumulative;
+  }
+
+  private static int zipf(final double[] cumulative, final SplittableRandom random) {
+    int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min(rank < 0 ? -rank - 1 : rank, cumulative.length - 1);
+  }
+}
@@ -0,0 +1,121 @@
+package de.wlsc.management;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.wire.BinaryWireFormat;
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import de.wlsc.model.MoneyTransfer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding cost of a transfer and an account as JSON and in the binary wire format.
+ * The payload sizes are printed at setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ByteBuf buffer = Unpooled.buffer(256);
+  private final MoneyTransfer moneyTransfer = MoneyTransfer.builder()
+      .id("7c9e6679-7425-40de-944b-e07fc1f90ae7")
+      .fromAccountId("acc12345")
+      .toAccountId("acc67890")
+      .amount(125_000)
+      .build();
+  private final Account account = Account.builder()
+      .id("acc12345")
+      .amount(1_000_000)
+      .currency(Currency.getInstance("EUR"))
+      .customer(Customer.builder()
+          .id("cust12345")
+          .firstname("Erika")
+          .lastname("Mustermann")
+          .locale(Locale.GERMANY)
+          .build())
+      .build();
+
+  private byte[] transferJson;
+  private byte[] accountJson;
+  private ByteBuf transferBinary;
+  private ByteBuf accountBinary;
+
+  @Setup(Level.Trial)
+  public void setUp() throws JsonProcessingException {
+    transferJson = objectMapper.writeValueAsBytes(moneyTransfer);
+    accountJson = objectMapper.writeValueAsBytes(account);
+    transferBinary = Unpooled.buffer();
+    BinaryWireFormat.writeTransfer(moneyTransfer, transferBinary);
+    accountBinary = Unpooled.buffer();
+    BinaryWireFormat.writeAccount(account, accountBinary);
+    System.out.printf("%nTransfer: %d bytes JSON, %d bytes binary%n", transferJson.length,
+        transferBinary.readableBytes());
+    System.out.printf("Account: %d bytes JSON, %d bytes binary%n", accountJson.length,
+        accountBinary.readableBytes());
+  }
+
+  @Benchmark
+  public byte[] encodeTransferJson() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(moneyTransfer);
+  }
+
+  @Benchmark
+  public ByteBuf encodeTransferBinary() {
+    buffer.clear();
+    BinaryWireFormat.writeTransfer(moneyTransfer, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public MoneyTransfer decodeTransferJson() throws IOException {
+    return objectMapper.readValue(transferJson, MoneyTransfer.class);
+  }
+
+  @Benchmark
+  public MoneyTransfer decodeTransferBinary() {
+    return BinaryWireFormat.readTransfer(transferBinary.duplicate());
+  }
+
+  @Benchmark
+  public byte[] encodeAccountJson() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(account);
+  }
+
+  @Benchmark
+  public ByteBuf encodeAccountBinary() {
+    buffer.clear();
+    BinaryWireFormat.writeAccount(account, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public Account decodeAccountJson() throws IOException {
+    return objectMapper.readValue(accountJson, Account.class);
+  }
+
+  @Benchmark
+  public Account decodeAccountBinary() {
+    return BinaryWireFormat.readAccount(accountBinary.duplicate());
+  }
+}
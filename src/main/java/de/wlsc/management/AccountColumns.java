@@ -0,0 +1,31 @@
+package de.wlsc.management;
+
+/**
+ * Columns of the accounts of a store generation, addressed by handle: id, balance, last journal
+ * sequence and the handles of customer and currency. Rows are only added by the single writer of
+ * the generation, which publishes them by its size afterwards. Balances are read and written with
+ * volatile semantics, as they are read without locks.
+ */
+interface AccountColumns {
+
+  void add(int handle, String id, long amount, long lastSequence, int customer, int currency);
+
+  String id(int handle);
+
+  /**
+   * Compares the id of the account with the given one, without creating a string if possible.
+   */
+  boolean idMatches(int handle, String id);
+
+  long amount(int handle);
+
+  void amount(int handle, long amount);
+
+  long lastSequence(int handle);
+
+  void lastSequence(int handle, long lastSequence);
+
+  int customer(int handle);
+
+  int currency(int handle);
+}
@@ -0,0 +1,47 @@
+package de.wlsc.management;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.ImportConflict;
+import de.wlsc.model.ImportReport;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the accounts of one import batch by batch and keeps count of them. Records are
+ * numbered from 1 in the order they were read, so conflicts can be traced back to the input.
+ * Batches are added one after the other, never concurrently.
+ */
+final class AccountImporter {
+
+  static final String CONFLICT_MESSAGE = "Account does already exist";
+
+  private final AccountManagement accountManagement;
+  private final List<ImportConflict> conflicts = new ArrayList<>();
+  private long records;
+  private long imported;
+
+  AccountImporter(final AccountManagement accountManagement) {
+    this.accountManagement = accountManagement;
+  }
+
+  AccountImporter add(final List<Account> accounts) {
+    List<Integer> skipped = accountManagement.createAll(accounts);
+    for (int index : skipped) {
+      conflicts.add(ImportConflict.builder()
+          .record(records + index + 1)
+          .accountId(accounts.get(index).getId())
+          .message(CONFLICT_MESSAGE)
+          .build());
+    }
+    records += accounts.size();
+    imported += accounts.size() - skipped.size();
+    return this;
+  }
+
+  ImportReport report() {
+    return ImportReport.builder()
+        .imported(imported)
+        .conflicts(conflicts)
+        .build();
+  }
+}
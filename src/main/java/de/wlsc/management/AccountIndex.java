@@ -0,0 +1,74 @@
+package de.wlsc.management;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from a key to the handles of the accounts having it, in creation order.
+ * Entries are only appended by the single writer of the owning {@link AccountStore.Generation},
+ * readers never lock and only touch the accounts of the requested key.
+ */
+final class AccountIndex<K> {
+
+  /**
+   * Estimated bytes of a key with compressed references: the hash map node and its table slot,
+   * plus the postings object and the header of its array.
+   */
+  private static final long KEY_BYTES = 32 + 4 + 24 + 16;
+  private static final int INITIAL_CAPACITY = 2;
+
+  private final Map<K, Postings> postingsByKey = new ConcurrentHashMap<>();
+
+  void add(final K key, final int handle) {
+    if (key != null) {
+      postingsByKey.computeIfAbsent(key, ignored -> new Postings()).append(handle);
+    }
+  }
+
+  /**
+   * Returns the handles of the accounts with the given key, which were added before the call.
+   */
+  int[] get(final K key) {
+    Postings postings = postingsByKey.get(key);
+    return postings == null ? new int[0] : postings.toArray();
+  }
+
+  long estimatedBytes() {
+    long bytes = 0;
+    for (Postings postings : postingsByKey.values()) {
+      bytes += KEY_BYTES + (long) Integer.BYTES * postings.capacity();
+    }
+    return bytes;
+  }
+
+  private static final class Postings {
+
+    private volatile int[] handles = new int[INITIAL_CAPACITY];
+    private volatile int size;
+
+    /**
+     * Publishes a grown array before the new size, so readers of the size always see an array
+     * holding that many handles.
+     */
+    void append(final int handle) {
+      int index = size;
+      int[] currentHandles = handles;
+      if (index == currentHandles.length) {
+        currentHandles = Arrays.copyOf(currentHandles, index * 2);
+      }
+      currentHandles[index] = handle;
+      handles = currentHandles;
+      size = index + 1;
+    }
+
+    int[] toArray() {
+      int currentSize = size;
+      return Arrays.copyOf(handles, currentSize);
+    }
+
+    int capacity() {
+      return handles.length;
+    }
+  }
+}
@@ -1,90 +1,1073 @@
 package de.wlsc.management;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.wlsc.management.deduplication.DeduplicationConfiguration;
+import de.wlsc.management.deduplication.TransferDeduplication;
 import de.wlsc.management.exception.AccountAlreadyExistException;
 import de.wlsc.management.exception.AccountNotFoundException;
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.InvalidCursorException;
+import de.wlsc.management.exception.MalformedPayloadException;
 import de.wlsc.management.exception.NegativeAmountTransferException;
 import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.exception.ReplicationPendingException;
+import de.wlsc.management.exception.TransferRateExceededException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.exception.UnknownCurrencyException;
+import de.wlsc.management.fx.FxRateTable;
+import de.wlsc.management.fx.FxRates;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.journal.JournalListener;
+import de.wlsc.management.journal.JournalRecord;
+import de.wlsc.management.journal.ReplicationLog;
+import de.wlsc.management.journal.TransferJournal;
+import de.wlsc.management.logging.TransferAudit;
+import de.wlsc.management.metrics.TransferMetrics;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.management.snapshot.SnapshotWriter;
 import de.wlsc.model.Account;
+import de.wlsc.model.AccountAggregates;
+import de.wlsc.model.AccountPage;
+import de.wlsc.model.ConservationCheck;
+import de.wlsc.model.CurrencyAggregate;
+import de.wlsc.model.Customer;
+import de.wlsc.model.HotAccount;
 import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferHistoryPage;
+import de.wlsc.model.TransferLeg;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Currency;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
-public class AccountManagement {
+public class AccountManagement implements AutoCloseable {
+
+  private static final int DEFAULT_LOCK_STRIPES = 1024;
+
+  private final AccountStore accountStore;
+  private final LockStripes lockStripes = new LockStripes(DEFAULT_LOCK_STRIPES);
+  private final TransferJournal transferJournal;
+  private final AccountSnapshots accountSnapshots;
+  private final TransferDeduplication transferDeduplication;
+  private final TransferMetrics transferMetrics;
+  private final TransferAudit transferAudit;
+  private final FxRateTable fxRateTable;
+  private final TransferShards transferShards;
+  private final HotAccounts hotAccounts;
+
+  public AccountManagement() {
+    this(new DisabledTransferJournal());
+  }
+
+  public AccountManagement(final TransferJournal transferJournal) {
+    this(transferJournal, new AccountSnapshots(new SnapshotConfiguration()));
+  }
+
+  public AccountManagement(final TransferJournal transferJournal, final AccountSnapshots accountSnapshots) {
+    this(transferJournal, accountSnapshots, new ShardingConfiguration());
+  }
+
+  public AccountManagement(final TransferJournal transferJournal,
+                           final AccountSnapshots accountSnapshots,
+                           final ShardingConfiguration shardingConfiguration) {
+    this(transferJournal, accountSnapshots, shardingConfiguration, new StoreConfiguration());
+  }
+
+  public AccountManagement(final TransferJournal transferJournal,
+                           final AccountSnapshots accountSnapshots,
+                           final ShardingConfiguration shardingConfiguration,
+                           final StoreConfiguration storeConfiguration) {
+    this(transferJournal, accountSnapshots, new TransferDeduplication(new DeduplicationConfiguration()),
+        TransferMetrics.disabled(), TransferAudit.disabled(), FxRateTable.bundled(), shardingConfiguration,
+        storeConfiguration);
+  }
+
+  public AccountManagement(final TransferJournal transferJournal,
+                           final AccountSnapshots accountSnapshots,
+                           final TransferDeduplication transferDeduplication,
+                           final TransferMetrics transferMetrics,
+                           final TransferAudit transferAudit,
+                           final FxRateTable fxRateTable,
+                           final ShardingConfiguration shardingConfiguration,
+                           final StoreConfiguration storeConfiguration) {
+    this(transferJournal, accountSnapshots, transferDeduplication, transferMetrics, transferAudit, fxRateTable,
+        shardingConfiguration, storeConfiguration, new RateLimitConfiguration());
+  }
 
-  private final Map<String, Account> IN_MEMORY_STORE_ACCOUNT_TO_ID = new ConcurrentHashMap<>();
+  /**
+   * Restores the store from the latest snapshot and the journal records newer than it. With
+   * sharding enabled, the shards take over the restored accounts afterwards.
+   */
+  @Inject
+  public AccountManagement(final TransferJournal transferJournal,
+                           final AccountSnapshots accountSnapshots,
+                           final TransferDeduplication transferDeduplication,
+                           final TransferMetrics transferMetrics,
+                           final TransferAudit transferAudit,
+                           final FxRateTable fxRateTable,
+                           final ShardingConfiguration shardingConfiguration,
+                           final StoreConfiguration storeConfiguration,
+                           final RateLimitConfiguration rateLimitConfiguration) {
+    this.accountStore = new AccountStore(storeConfiguration.getMemory(), storeConfiguration.getHistoryDepth());
+    this.transferJournal = transferJournal;
+    this.accountSnapshots = accountSnapshots;
+    this.transferDeduplication = transferDeduplication;
+    this.transferMetrics = transferMetrics;
+    this.transferAudit = transferAudit;
+    this.fxRateTable = fxRateTable;
+    this.hotAccounts = new HotAccounts(rateLimitConfiguration);
+    transferMetrics.monitorLockContention(lockStripes, LockStripes::contendedAcquisitions, LockStripes::contendedNanos);
+    transferMetrics.monitorIndexFootprint(accountStore, store -> store.generation().indexEstimatedBytes());
+    long snapshotSequence = accountSnapshots.load(accountStore::add);
+    transferJournal.replay(new JournalReplay(snapshotSequence));
+    this.transferShards = shardingConfiguration.isEnabled()
+        ? new TransferShards(shardingConfiguration, accountStore, transferJournal, fxRateTable)
+        : null;
+  }
 
   public Collection<Account> listAccounts() {
-    return IN_MEMORY_STORE_ACCOUNT_TO_ID.values();
+    List<Account> accounts = new ArrayList<>(accountStore.size());
+    for (Account account : accountsInCreationOrder()) {
+      accounts.add(account);
+    }
+    return accounts;
+  }
+
+  /**
+   * Lazily snapshots one account after the other, so callers can stream any number of accounts
+   * without holding all of them in memory. Accounts created after the iteration started are not
+   * part of it.
+   */
+  public Iterable<Account> accountsInCreationOrder() {
+    return () -> new Iterator<>() {
+
+      private final AccountStore.Generation generation = accountStore.generation();
+      private final int size = generation.size();
+      private int ordinal;
+
+      @Override
+      public boolean hasNext() {
+        return ordinal < size;
+      }
+
+      @Override
+      public Account next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return generation.get(ordinal++).toAccount();
+      }
+    };
+  }
+
+  public AccountPage listAccounts(final String cursor, final int limit) {
+    int from = cursor == null ? 0 : (int) Math.min(parseCursor(cursor), Integer.MAX_VALUE);
+    AccountStore.Generation generation = accountStore.generation();
+    int size = generation.size();
+    int to = (int) Math.min(size, (long) from + limit);
+
+    List<Account> accounts = new ArrayList<>(Math.max(0, to - from));
+    for (int ordinal = from; ordinal < to; ordinal++) {
+      accounts.add(generation.get(ordinal).toAccount());
+    }
+    return AccountPage.builder()
+        .accounts(accounts)
+        .nextCursor(to < size ? Integer.toString(to) : null)
+        .build();
+  }
+
+  /**
+   * Looks the accounts of the customer up in the secondary index, in creation order.
+   */
+  public List<Account> accountsOfCustomer(final String customerId) {
+    return toAccounts(accountStore.generation().ofCustomer(customerId));
+  }
+
+  /**
+   * Looks the accounts in the currency up in the secondary index, in creation order.
+   */
+  public List<Account> accountsInCurrency(final String currencyCode) {
+    Currency currency;
+    try {
+      currency = Currency.getInstance(currencyCode);
+    } catch (IllegalArgumentException e) {
+      throw new UnknownCurrencyException("Currency " + currencyCode + " is not known");
+    }
+    return toAccounts(accountStore.generation().inCurrency(currency));
+  }
+
+  /**
+   * Estimated heap bytes of the secondary indexes on top of the accounts themselves.
+   */
+  public long indexEstimatedBytes() {
+    return accountStore.generation().indexEstimatedBytes();
+  }
+
+  /**
+   * Total balance, accounts and transfer volume per currency, maintained while accounts are
+   * created and transfers applied, so reading them does not visit any account. Accounts without
+   * currency are only part of the account count.
+   */
+  public AccountAggregates aggregates() {
+    return accountStore.generation().aggregates();
+  }
+
+  /**
+   * Recounts the balances of all accounts while no transfer is applied and compares them per
+   * currency with the running totals, which only change by money opened with an account and by
+   * recorded withdrawals and deposits. Any difference means money was created or lost outside of
+   * them. Pauses transfers for a full pass over the accounts, so it is meant for reconciliation,
+   * not for monitoring.
+   */
+  public ConservationCheck checkConservation() {
+    return atomically(this::recount);
+  }
+
+  /**
+   * Runs the action while no account is created or removed and no transfer is applied, so it
+   * sees the store between two changes.
+   */
+  public <T> T atomically(final Supplier<T> action) {
+    if (transferShards != null) {
+      return transferShards.quiesce(action);
+    }
+
+    lockStripes.lockAll();
+    try {
+      return action.get();
+    } finally {
+      lockStripes.unlockAll();
+    }
+  }
+
+  private ConservationCheck recount() {
+    AccountStore.Generation generation = accountStore.generation();
+    Map<String, Long> recounted = new TreeMap<>();
+    for (int ordinal = 0; ordinal < generation.size(); ordinal++) {
+      StoredAccount storedAccount = generation.get(ordinal);
+      Currency currency = storedAccount.getCurrency();
+      if (currency != null) {
+        recounted.merge(currency.getCurrencyCode(), storedAccount.getAmount(), Long::sum);
+      }
+    }
+
+    Map<String, CurrencyAggregate> aggregated = generation.aggregates().getCurrencies();
+    Map<String, Long> discrepancies = new TreeMap<>();
+    recounted.forEach((currency, amount) -> {
+      CurrencyAggregate currencyAggregate = aggregated.get(currency);
+      long difference = amount - (currencyAggregate == null ? 0 : currencyAggregate.getBalance());
+      if (difference != 0) {
+        discrepancies.put(currency, difference);
+      }
+    });
+    return ConservationCheck.builder()
+        .conserved(discrepancies.isEmpty())
+        .recounted(recounted)
+        .discrepancies(discrepancies)
+        .build();
+  }
+
+  /**
+   * Accounts taking part in most of the recent transfers, estimated from a sample of them. Single
+   * transfers of these accounts are rate limited if configured, batches are not.
+   */
+  public List<HotAccount> hotAccounts() {
+    return hotAccounts.hotAccounts();
+  }
+
+  /**
+   * Pages through the last transfers of the account, newest first. Only the configured number of
+   * transfers is kept per account and none of them survives a restart.
+   */
+  public TransferHistoryPage transferHistory(final String accountId, final String cursor, final int limit) {
+    StoredAccount account = findAccount(accountId, AccountNotFoundException.ACCOUNT);
+    return account.history(cursor == null ? Long.MAX_VALUE : parseCursor(cursor), limit);
+  }
+
+  private static List<Account> toAccounts(final StoredAccount[] storedAccounts) {
+    List<Account> accounts = new ArrayList<>(storedAccounts.length);
+    for (StoredAccount storedAccount : storedAccounts) {
+      accounts.add(storedAccount.toAccount());
+    }
+    return accounts;
   }
 
   public void create(final Account account) {
-    Account previousAccount = IN_MEMORY_STORE_ACCOUNT_TO_ID.putIfAbsent(account.getId(), account);
-    if (previousAccount != null) {
-      throw new AccountAlreadyExistException("Account does already exist");
+    transferJournal.awaitDurable(createJournaled(account));
+  }
+
+  /**
+   * Creates the accounts one after the other and waits for the journal once for all of them.
+   * Accounts whose id does already exist are skipped without affecting the others.
+   *
+   * @return the indexes of the skipped accounts
+   */
+  public List<Integer> createAll(final List<Account> accounts) {
+    List<Integer> conflicts = new ArrayList<>();
+    JournalRecord lastJournalRecord = null;
+    for (int i = 0; i < accounts.size(); i++) {
+      try {
+        lastJournalRecord = createJournaled(accounts.get(i));
+      } catch (AccountAlreadyExistException e) {
+        conflicts.add(i);
+      }
+    }
+    if (lastJournalRecord != null) {
+      transferJournal.awaitDurable(lastJournalRecord);
+    }
+    return conflicts;
+  }
+
+  /**
+   * Journals the creation before the account becomes visible, so a journal refusing the record
+   * leaves no account behind that a restart would not recover.
+   */
+  private JournalRecord createJournaled(final Account account) {
+    checkFieldLengths(account);
+    if (transferShards != null) {
+      return transferShards.create(account);
+    }
+
+    int stripe = lockStripes.stripeOf(account.getId());
+    JournalRecord journalRecord;
+
+    lockStripes.lock(stripe, stripe);
+    try {
+      if (accountStore.find(account.getId()) != null) {
+        throw new AccountAlreadyExistException("Account does already exist");
+      }
+      journalRecord = transferJournal.appendCreation(account);
+      accountStore.add(account, journalRecord.getSequence());
+    } finally {
+      lockStripes.unlock(stripe, stripe);
+    }
+    return journalRecord;
+  }
+
+  /**
+   * Refuses fields longer than a snapshot can store, as a single such account would make every
+   * later snapshot fail and keep the journal from ever being truncated.
+   */
+  private static void checkFieldLengths(final Account account) {
+    checkFieldLength("Account id", account.getId());
+    Customer customer = account.getCustomer();
+    if (customer != null) {
+      checkFieldLength("Customer id", customer.getId());
+      checkFieldLength("Customer firstname", customer.getFirstname());
+      checkFieldLength("Customer lastname", customer.getLastname());
+      checkFieldLength("Customer locale", customer.getLocale() == null ? null : customer.getLocale().toLanguageTag());
+    }
+  }
+
+  private static void checkFieldLength(final String field, final String value) {
+    if (value != null && value.length() > AccountSnapshots.MAX_FIELD_BYTES / 3
+        && value.getBytes(UTF_8).length > AccountSnapshots.MAX_FIELD_BYTES) {
+      throw new MalformedPayloadException(field + " exceeds " + AccountSnapshots.MAX_FIELD_BYTES + " bytes");
     }
   }
 
   public void removeAccounts() {
-    IN_MEMORY_STORE_ACCOUNT_TO_ID.clear();
+    if (transferShards != null) {
+      transferJournal.awaitDurable(transferShards.quiesce(() -> {
+        JournalRecord journalRecord = transferJournal.appendRemoval();
+        accountStore.clear();
+        return journalRecord;
+      }));
+      return;
+    }
+
+    JournalRecord journalRecord;
+
+    lockStripes.lockAll();
+    try {
+      journalRecord = transferJournal.appendRemoval();
+      accountStore.clear();
+    } finally {
+      lockStripes.unlockAll();
+    }
+    transferJournal.awaitDurable(journalRecord);
+  }
+
+  /**
+   * Replaces all accounts by those of the leader's store, as a follower starting over. The
+   * accounts are journaled like the changes of the leader, so a promoted follower recovers them
+   * after a restart.
+   */
+  public void restoreReplica(final Collection<Account> accounts) {
+    requireUnsharded();
+    JournalRecord lastJournalRecord;
+
+    lockStripes.lockAll();
+    try {
+      accountStore.clear();
+      lastJournalRecord = transferJournal.appendRemoval();
+      for (Account account : accounts) {
+        StoredAccount storedAccount = accountStore.add(account, 0);
+        lastJournalRecord = transferJournal.appendCreation(account);
+        storedAccount.setLastSequence(lastJournalRecord.getSequence());
+      }
+    } finally {
+      lockStripes.unlockAll();
+    }
+    transferJournal.awaitDurable(lastJournalRecord);
+  }
+
+  /**
+   * Applies changes the leader already validated, as read from its replication log, each under
+   * the locks a change of the leader would take, and journals them before returning.
+   */
+  public void replicate(final ByteBuffer changes) {
+    requireUnsharded();
+    ReplicaUpdate replicaUpdate = new ReplicaUpdate();
+    ReplicationLog.apply(changes, replicaUpdate);
+    if (replicaUpdate.lastJournalRecord != null) {
+      transferJournal.awaitDurable(replicaUpdate.lastJournalRecord);
+    }
+  }
+
+  private void requireUnsharded() {
+    if (transferShards != null) {
+      throw new IllegalStateException("Followers do not support sharding");
+    }
   }
 
+  /**
+   * Transfers the money once per transfer id, retries of a known transfer get its original
+   * outcome.
+   */
   public void transferMoney(final MoneyTransfer moneyTransfer) {
+    long start = transferMetrics.start();
+    try {
+      if (!transferDeduplication.replay(moneyTransfer)) {
+        admit(moneyTransfer);
+        transferDeduplication.execute(moneyTransfer, applied -> transferMoneyOnce(moneyTransfer, applied));
+      }
+    } catch (RuntimeException e) {
+      transferMetrics.failed(start, e);
+      throw e;
+    }
+    transferMetrics.succeeded(start);
+  }
+
+  /**
+   * Rate limits a transfer whose id is not known yet before it is deduplicated, so that a rejection
+   * is not remembered and a retry after the rate recovered is admitted. Retries of a known transfer
+   * are answered with its outcome beforehand and take no slot.
+   */
+  private void admit(final MoneyTransfer moneyTransfer) {
+    try {
+      hotAccounts.admit(moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
+    } catch (TransferRateExceededException e) {
+      transferAudit.rejected(moneyTransfer, e);
+      throw e;
+    }
+  }
+
+  private void transferMoneyOnce(final MoneyTransfer moneyTransfer, final Runnable applied) {
+    try {
+      applyTransfer(moneyTransfer, applied);
+    } catch (ReplicationPendingException e) {
+      transferAudit.succeeded(moneyTransfer);
+      throw e;
+    } catch (RuntimeException e) {
+      transferAudit.rejected(moneyTransfer, e);
+      throw e;
+    }
+    transferAudit.succeeded(moneyTransfer);
+  }
+
+  /**
+   * Runs {@code applied} once the balances have changed, before waiting for the journal.
+   */
+  private void applyTransfer(final MoneyTransfer moneyTransfer, final Runnable applied) {
 
     if (moneyTransfer.getAmount() < 0) {
-      throw new NegativeAmountTransferException("Negative amount of money is not accepted");
+      throw NegativeAmountTransferException.NEGATIVE_AMOUNT;
     }
 
     String sourceAccountId = moneyTransfer.getFromAccountId();
     String destinationAccountId = moneyTransfer.getToAccountId();
 
-    if (isNotFound(sourceAccountId)) {
-      throw new AccountNotFoundException("Source account not found");
-    } else if (isNotFound(destinationAccountId)) {
-      throw new AccountNotFoundException("Destination account not found");
+    if (transferShards != null) {
+      JournalRecord journalRecord = transferShards.transfer(sourceAccountId, destinationAccountId, moneyTransfer.getAmount());
+      applied.run();
+      transferJournal.awaitDurable(journalRecord);
+      return;
+    }
+
+    int sourceStripe = lockStripes.stripeOf(sourceAccountId);
+    int destinationStripe = lockStripes.stripeOf(destinationAccountId);
+
+    JournalRecord journalRecord;
+
+    lockStripes.lock(sourceStripe, destinationStripe);
+    try {
+      journalRecord = transferMoneyLocked(sourceAccountId, destinationAccountId, moneyTransfer.getAmount());
+    } finally {
+      lockStripes.unlock(sourceStripe, destinationStripe);
+    }
+    applied.run();
+    transferJournal.awaitDurable(journalRecord);
+  }
+
+  /**
+   * Applies all transfers or none of them. Every account touched by the batch stays locked until
+   * the whole batch was validated against tentative balances and applied in the given order. The
+   * batch is journaled as one record, so it is replayed and replicated all or none as well. With
+   * sharding enabled, the batch is applied while all shards are quiescent instead. Transfers with
+   * an id are applied once, a batch retrying a known id fails at its index without applying any.
+   */
+  public void transferMoney(final List<MoneyTransfer> moneyTransfers) {
+    transferDeduplication.execute(moneyTransfers, applied -> transferMoney(moneyTransfers, applied));
+  }
+
+  private void transferMoney(final List<MoneyTransfer> moneyTransfers, final Runnable applied) {
+    try {
+      applyTransfers(moneyTransfers, applied);
+    } catch (ReplicationPendingException e) {
+      moneyTransfers.forEach(transferAudit::succeeded);
+      throw e;
+    } catch (RuntimeException e) {
+      moneyTransfers.stream()
+          .filter(Objects::nonNull)
+          .forEach(moneyTransfer -> transferAudit.rejected(moneyTransfer, e));
+      throw e;
+    }
+    moneyTransfers.forEach(transferAudit::succeeded);
+  }
+
+  /**
+   * Applies all legs or none of them, once per transfer id, such as a payment split across several
+   * creditors and a fee account. The legs are applied like an all-or-nothing batch: the lock stripes
+   * of all accounts they touch are taken in ascending order, so transfers with disjoint accounts run
+   * in parallel and overlapping ones cannot deadlock. A failed leg is reported by its index, a
+   * transfer without legs is malformed.
+   */
+  public void transferMoney(final MultiLegTransfer multiLegTransfer) {
+    long start = transferMetrics.start();
+    try {
+      List<MoneyTransfer> legs = toMoneyTransfers(multiLegTransfer);
+      if (!transferDeduplication.replay(multiLegTransfer)) {
+        admit(legs);
+        transferDeduplication.execute(multiLegTransfer, applied -> transferMoney(legs, applied));
+      }
+    } catch (RuntimeException e) {
+      transferMetrics.failed(start, e);
+      throw e;
+    }
+    transferMetrics.succeeded(start);
+  }
+
+  /**
+   * Rate limits all legs of a transfer whose id is not known yet before it is deduplicated and the
+   * locks are taken, admitting every leg or none of them.
+   */
+  private void admit(final List<MoneyTransfer> legs) {
+    String[] fromAccountIds = new String[legs.size()];
+    String[] toAccountIds = new String[legs.size()];
+    for (int i = 0; i < legs.size(); i++) {
+      fromAccountIds[i] = legs.get(i).getFromAccountId();
+      toAccountIds[i] = legs.get(i).getToAccountId();
+    }
+    try {
+      hotAccounts.admit(fromAccountIds, toAccountIds);
+    } catch (TransferRateExceededException e) {
+      legs.forEach(leg -> transferAudit.rejected(leg, e));
+      throw e;
+    }
+  }
+
+  /**
+   * Every leg carries the id of the multi-leg transfer, so its audit entry names the transfer.
+   */
+  private static List<MoneyTransfer> toMoneyTransfers(final MultiLegTransfer multiLegTransfer) {
+    if (multiLegTransfer.getLegs() == null || multiLegTransfer.getLegs().isEmpty()) {
+      throw new MalformedPayloadException("Multi-leg transfer has no legs");
+    }
+    List<MoneyTransfer> moneyTransfers = new ArrayList<>(multiLegTransfer.getLegs().size());
+    for (int i = 0; i < multiLegTransfer.getLegs().size(); i++) {
+      TransferLeg transferLeg = multiLegTransfer.getLegs().get(i);
+      if (transferLeg == null) {
+        throw new BatchTransferFailedException(i,
+            new MalformedPayloadException(MalformedPayloadException.MISSING_TRANSFER));
+      }
+      moneyTransfers.add(MoneyTransfer.builder()
+          .id(multiLegTransfer.getId())
+          .fromAccountId(transferLeg.getFromAccountId())
+          .toAccountId(transferLeg.getToAccountId())
+          .amount(transferLeg.getAmount())
+          .build());
+    }
+    return moneyTransfers;
+  }
+
+  private void applyTransfers(final List<MoneyTransfer> moneyTransfers, final Runnable applied) {
+
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      if (moneyTransfers.get(i) == null) {
+        throw new BatchTransferFailedException(i,
+            new MalformedPayloadException(MalformedPayloadException.MISSING_TRANSFER));
+      }
+      if (moneyTransfers.get(i).getAmount() < 0) {
+        throw new BatchTransferFailedException(i,
+            NegativeAmountTransferException.NEGATIVE_AMOUNT);
+      }
+    }
+
+    if (moneyTransfers.isEmpty()) {
+      return;
     }
 
-    Account source = IN_MEMORY_STORE_ACCOUNT_TO_ID.get(sourceAccountId);
+    if (transferShards != null) {
+      JournalRecord journalRecord = transferShards.quiesce(() -> transferMoneyLocked(moneyTransfers));
+      applied.run();
+      transferJournal.awaitDurable(journalRecord);
+      return;
+    }
+
+    int[] stripes = stripesOf(moneyTransfers);
+    JournalRecord journalRecord;
+
+    lockStripes.lock(stripes);
+    try {
+      journalRecord = transferMoneyLocked(moneyTransfers);
+    } finally {
+      lockStripes.unlock(stripes);
+    }
+    applied.run();
+    transferJournal.awaitDurable(journalRecord);
+  }
+
+  /**
+   * Journals the transfer before the balances change, so a journal refusing the record leaves
+   * them untouched and a retry of the transfer cannot move the money twice.
+   */
+  private JournalRecord transferMoneyLocked(final String sourceAccountId,
+                                   final String destinationAccountId,
+                                   final long amount) {
+
+    StoredAccount source = findAccount(sourceAccountId, AccountNotFoundException.SOURCE_ACCOUNT);
+    StoredAccount destination = findAccount(destinationAccountId, AccountNotFoundException.DESTINATION_ACCOUNT);
+
+    if ((source.getAmount() - amount) < 0) {
+      throw NotEnoughMoneyException.SOURCE_ACCOUNT;
+    }
+
+    long transferAmount = amountInDestinationCurrency(fxRateTable.current(), source, destination, amount);
+
+    JournalRecord journalRecord = transferJournal.appendTransfer(sourceAccountId, destinationAccountId, amount, transferAmount);
+    source.withdraw(amount);
+    destination.deposit(transferAmount);
+    source.setLastSequence(journalRecord.getSequence());
+    destination.setLastSequence(journalRecord.getSequence());
+    long epochSecond = TransferHistory.now();
+    source.recordTransfer(journalRecord.getSequence(), destination, -amount, epochSecond);
+    destination.recordTransfer(journalRecord.getSequence(), source, transferAmount, epochSecond);
+    return journalRecord;
+  }
 
-    if ((source.getAmount() - moneyTransfer.getAmount()) < 0) {
-      throw new NotEnoughMoneyException("Source account has not enough money to transfer");
+  private JournalRecord transferMoneyLocked(final List<MoneyTransfer> moneyTransfers) {
+
+    FxRates fxRates = fxRateTable.current();
+    Map<StoredAccount, Long> tentativeAmounts = new HashMap<>();
+    StoredAccount[] sources = new StoredAccount[moneyTransfers.size()];
+    StoredAccount[] destinations = new StoredAccount[moneyTransfers.size()];
+    long[] transferAmounts = new long[moneyTransfers.size()];
+
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      MoneyTransfer moneyTransfer = moneyTransfers.get(i);
+      try {
+        StoredAccount source = findAccount(moneyTransfer.getFromAccountId(), AccountNotFoundException.SOURCE_ACCOUNT);
+        StoredAccount destination = findAccount(moneyTransfer.getToAccountId(), AccountNotFoundException.DESTINATION_ACCOUNT);
+
+        long sourceAmount = tentativeAmounts.getOrDefault(source, source.getAmount());
+        if ((sourceAmount - moneyTransfer.getAmount()) < 0) {
+          throw NotEnoughMoneyException.SOURCE_ACCOUNT;
+        }
+        long transferAmount = amountInDestinationCurrency(fxRates, source, destination, moneyTransfer.getAmount());
+
+        tentativeAmounts.put(source, sourceAmount - moneyTransfer.getAmount());
+        tentativeAmounts.put(destination, tentativeAmounts.getOrDefault(destination, destination.getAmount()) + transferAmount);
+        sources[i] = source;
+        destinations[i] = destination;
+        transferAmounts[i] = transferAmount;
+      } catch (TransferRejectedException | IllegalArgumentException e) {
+        throw new BatchTransferFailedException(i, e);
+      }
+    }
+
+    String[] fromAccountIds = new String[moneyTransfers.size()];
+    String[] toAccountIds = new String[moneyTransfers.size()];
+    long[] withdrawals = new long[moneyTransfers.size()];
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      MoneyTransfer moneyTransfer = moneyTransfers.get(i);
+      fromAccountIds[i] = moneyTransfer.getFromAccountId();
+      toAccountIds[i] = moneyTransfer.getToAccountId();
+      withdrawals[i] = moneyTransfer.getAmount();
     }
+    JournalRecord journalRecord = transferJournal.appendTransfers(fromAccountIds, toAccountIds, withdrawals,
+        transferAmounts);
+    long epochSecond = TransferHistory.now();
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      sources[i].withdraw(withdrawals[i]);
+      destinations[i].deposit(transferAmounts[i]);
+      sources[i].setLastSequence(journalRecord.getSequence());
+      destinations[i].setLastSequence(journalRecord.getSequence());
+      sources[i].recordTransfer(journalRecord.getSequence(), destinations[i], -withdrawals[i], epochSecond);
+      destinations[i].recordTransfer(journalRecord.getSequence(), sources[i], transferAmounts[i], epochSecond);
+    }
+    return journalRecord;
+  }
+
+  private int[] stripesOf(final List<MoneyTransfer> moneyTransfers) {
+    int[] stripes = new int[moneyTransfers.size() * 2];
+    int i = 0;
+    for (MoneyTransfer moneyTransfer : moneyTransfers) {
+      stripes[i++] = lockStripes.stripeOf(moneyTransfer.getFromAccountId());
+      stripes[i++] = lockStripes.stripeOf(moneyTransfer.getToAccountId());
+    }
+    return IntStream.of(stripes).sorted().distinct().toArray();
+  }
 
+  private StoredAccount findAccount(final String accountId, final AccountNotFoundException notFound) {
+    StoredAccount account = accountStore.find(accountId);
+    if (account == null) {
+      throw notFound;
+    }
+    return account;
+  }
+
+  private static long parseCursor(final String cursor) {
+    try {
+      long ordinal = Long.parseLong(cursor);
+      if (ordinal < 0) {
+        throw new InvalidCursorException("Cursor must not be negative");
+      }
+      return ordinal;
+    } catch (NumberFormatException e) {
+      throw new InvalidCursorException("Cursor is not valid");
+    }
+  }
+
+  static long amountInDestinationCurrency(final FxRates fxRates,
+                                                  final StoredAccount source,
+                                                  final StoredAccount destination,
+                                                  final long amount) {
     Currency sourceCurrency = source.getCurrency();
-    Account destination = IN_MEMORY_STORE_ACCOUNT_TO_ID.get(destinationAccountId);
     Currency destinationCurrency = destination.getCurrency();
-    long transferAmount;
 
     if (Objects.equals(sourceCurrency, destinationCurrency)) {
-      transferAmount = moneyTransfer.getAmount();
-    } else {
-      transferAmount = convertToDestinationCurrency(sourceCurrency, destinationCurrency, moneyTransfer.getAmount());
+      return amount;
+    }
+    return fxRates.convert(sourceCurrency, destinationCurrency, amount);
+  }
+
+  /**
+   * Writes the current store to a new snapshot without pausing transfers. Each account is read
+   * under its own lock stripe together with the sequence of the last journal record applied to
+   * it; together with the journal this is enough to restore a consistent state, even though the
+   * accounts are captured at different points in time.
+   */
+  public void takeSnapshot() {
+    if (transferShards != null) {
+      takeSnapshotOfShards();
+      return;
     }
 
-    Account sourceAfterWithdraw = source.toBuilder()
-        .amount(source.getAmount() - moneyTransfer.getAmount())
-        .build();
-    Account destinationAfterDeposit = destination.toBuilder()
-        .amount(destination.getAmount() + transferAmount)
-        .build();
+    long journalSegment = transferJournal.roll();
+    long startSequence = transferJournal.lastSequence();
+    AccountStore.Generation generation = accountStore.generation();
+    int size = generation.size();
+
+    try (SnapshotWriter snapshotWriter = accountSnapshots.write(startSequence, size)) {
+      for (int ordinal = 0; ordinal < size; ordinal++) {
+        StoredAccount storedAccount = generation.get(ordinal);
+        int stripe = lockStripes.stripeOf(storedAccount.getId());
+        long amount;
+        long lastSequence;
+
+        lockStripes.lock(stripe, stripe);
+        try {
+          amount = storedAccount.getAmount();
+          lastSequence = storedAccount.getLastSequence();
+        } finally {
+          lockStripes.unlock(stripe, stripe);
+        }
+        snapshotWriter.writeAccount(storedAccount.getId(), amount, lastSequence,
+            storedAccount.getCurrency(), storedAccount.getCustomer());
+      }
+      snapshotWriter.commit();
+    }
+    accountSnapshots.deleteSnapshotsBefore(startSequence);
+    transferJournal.deleteSegmentsBefore(journalSegment);
+  }
+
+  /**
+   * Shards take no locks, so balances and last sequences are copied while the shards are
+   * quiescent, when no deposit is in flight, and written to the snapshot after the shards have
+   * resumed.
+   */
+  private void takeSnapshotOfShards() {
+    BalanceCopy balanceCopy = transferShards.quiesce(() -> new BalanceCopy(transferJournal.roll(),
+        transferJournal.lastSequence(), accountStore.generation()));
+
+    try (SnapshotWriter snapshotWriter = accountSnapshots.write(balanceCopy.startSequence, balanceCopy.amounts.length)) {
+      for (int ordinal = 0; ordinal < balanceCopy.amounts.length; ordinal++) {
+        StoredAccount storedAccount = balanceCopy.generation.get(ordinal);
+        snapshotWriter.writeAccount(storedAccount.getId(), balanceCopy.amounts[ordinal],
+            balanceCopy.lastSequences[ordinal], storedAccount.getCurrency(), storedAccount.getCustomer());
+      }
+      snapshotWriter.commit();
+    }
+    accountSnapshots.deleteSnapshotsBefore(balanceCopy.startSequence);
+    transferJournal.deleteSegmentsBefore(balanceCopy.journalSegment);
+  }
 
-    IN_MEMORY_STORE_ACCOUNT_TO_ID.put(sourceAfterWithdraw.getId(), sourceAfterWithdraw);
-    IN_MEMORY_STORE_ACCOUNT_TO_ID.put(destinationAfterDeposit.getId(), destinationAfterDeposit);
+  /**
+   * Stops the shards, if sharding is enabled.
+   */
+  @PreDestroy
+  @Override
+  public void close() {
+    if (transferShards != null) {
+      transferShards.close();
+    }
   }
 
-  private boolean isNotFound(final String accountId) {
-    return !IN_MEMORY_STORE_ACCOUNT_TO_ID.containsKey(accountId);
+  private static final class BalanceCopy {
+
+    private final long journalSegment;
+    private final long startSequence;
+    private final AccountStore.Generation generation;
+    private final long[] amounts;
+    private final long[] lastSequences;
+
+    BalanceCopy(final long journalSegment, final long startSequence, final AccountStore.Generation generation) {
+      this.journalSegment = journalSegment;
+      this.startSequence = startSequence;
+      this.generation = generation;
+      int size = generation.size();
+      this.amounts = new long[size];
+      this.lastSequences = new long[size];
+      for (int ordinal = 0; ordinal < size; ordinal++) {
+        StoredAccount storedAccount = generation.get(ordinal);
+        amounts[ordinal] = storedAccount.getAmount();
+        lastSequences[ordinal] = storedAccount.getLastSequence();
+      }
+    }
   }
 
-  private long convertToDestinationCurrency(final Currency sourceCurrency,
-                                            final Currency destinationCurrency,
-                                            final long transferAmount) {
-    // #TODO: here implementation of conversion from source currency into destination's currency
-    // for the sake of simplicity remains unimplemented
-    return transferAmount;
+  /**
+   * Applies and journals the changes of the leader, recording the transfers in the history under
+   * their position in the replication log.
+   */
+  private final class ReplicaUpdate implements JournalListener {
+
+    private JournalRecord lastJournalRecord;
+
+    @Override
+    public void onCreation(final long position, final Account account) {
+      int stripe = lockStripes.stripeOf(account.getId());
+
+      lockStripes.lock(stripe, stripe);
+      try {
+        StoredAccount storedAccount = accountStore.add(account, 0);
+        if (storedAccount == null) {
+          throw new IllegalStateException("Replicated change " + position + " creates an existing account");
+        }
+        lastJournalRecord = transferJournal.appendCreation(account);
+        storedAccount.setLastSequence(lastJournalRecord.getSequence());
+      } finally {
+        lockStripes.unlock(stripe, stripe);
+      }
+    }
+
+    @Override
+    public void onTransfer(final long position,
+                           final String fromAccountId,
+                           final String toAccountId,
+                           final long withdrawal,
+                           final long deposit) {
+      int sourceStripe = lockStripes.stripeOf(fromAccountId);
+      int destinationStripe = lockStripes.stripeOf(toAccountId);
+
+      lockStripes.lock(sourceStripe, destinationStripe);
+      try {
+        StoredAccount source = accountStore.find(fromAccountId);
+        StoredAccount destination = accountStore.find(toAccountId);
+        if (source == null || destination == null) {
+          throw new IllegalStateException("Replicated change " + position + " transfers from or to an unknown account");
+        }
+        source.withdraw(withdrawal);
+        destination.deposit(deposit);
+        lastJournalRecord = transferJournal.appendTransfer(fromAccountId, toAccountId, withdrawal, deposit);
+        source.setLastSequence(lastJournalRecord.getSequence());
+        destination.setLastSequence(lastJournalRecord.getSequence());
+        long epochSecond = TransferHistory.now();
+        source.recordTransfer(position, destination, -withdrawal, epochSecond);
+        destination.recordTransfer(position, source, deposit, epochSecond);
+      } finally {
+        lockStripes.unlock(sourceStripe, destinationStripe);
+      }
+    }
+
+    @Override
+    public void onTransfers(final long position,
+                            final String[] fromAccountIds,
+                            final String[] toAccountIds,
+                            final long[] withdrawals,
+                            final long[] deposits) {
+      int[] stripes = new int[fromAccountIds.length * 2];
+      for (int i = 0; i < fromAccountIds.length; i++) {
+        stripes[2 * i] = lockStripes.stripeOf(fromAccountIds[i]);
+        stripes[2 * i + 1] = lockStripes.stripeOf(toAccountIds[i]);
+      }
+      stripes = IntStream.of(stripes).sorted().distinct().toArray();
+
+      lockStripes.lock(stripes);
+      try {
+        StoredAccount[] sources = new StoredAccount[fromAccountIds.length];
+        StoredAccount[] destinations = new StoredAccount[fromAccountIds.length];
+        for (int i = 0; i < fromAccountIds.length; i++) {
+          sources[i] = accountStore.find(fromAccountIds[i]);
+          destinations[i] = accountStore.find(toAccountIds[i]);
+          if (sources[i] == null || destinations[i] == null) {
+            throw new IllegalStateException("Replicated change " + position + " transfers from or to an unknown account");
+          }
+        }
+        for (int i = 0; i < fromAccountIds.length; i++) {
+          sources[i].withdraw(withdrawals[i]);
+          destinations[i].deposit(deposits[i]);
+        }
+        lastJournalRecord = transferJournal.appendTransfers(fromAccountIds, toAccountIds, withdrawals, deposits);
+        long epochSecond = TransferHistory.now();
+        for (int i = 0; i < fromAccountIds.length; i++) {
+          sources[i].setLastSequence(lastJournalRecord.getSequence());
+          destinations[i].setLastSequence(lastJournalRecord.getSequence());
+          sources[i].recordTransfer(position, destinations[i], -withdrawals[i], epochSecond);
+          destinations[i].recordTransfer(position, sources[i], deposits[i], epochSecond);
+        }
+      } finally {
+        lockStripes.unlock(stripes);
+      }
+    }
+
+    @Override
+    public void onRemoval(final long position) {
+      lockStripes.lockAll();
+      try {
+        accountStore.clear();
+        lastJournalRecord = transferJournal.appendRemoval();
+      } finally {
+        lockStripes.unlockAll();
+      }
+    }
+  }
+
+  /**
+   * Applies journal records newer than the snapshot. Records up to the snapshot sequence are
+   * contained in the snapshot, newer ones may be contained for single accounts only, which is
+   * why transfers are applied per account depending on the account's last sequence.
+   */
+  private final class JournalReplay implements JournalListener {
+
+    private final long snapshotSequence;
+
+    JournalReplay(final long snapshotSequence) {
+      this.snapshotSequence = snapshotSequence;
+    }
+
+    @Override
+    public void onCreation(final long sequence, final Account account) {
+      if (sequence > snapshotSequence) {
+        accountStore.add(account, sequence);
+      }
+    }
+
+    @Override
+    public void onTransfer(final long sequence,
+                           final String fromAccountId,
+                           final String toAccountId,
+                           final long withdrawal,
+                           final long deposit) {
+      if (sequence <= snapshotSequence) {
+        return;
+      }
+      StoredAccount source = accountStore.find(fromAccountId);
+      StoredAccount destination = accountStore.find(toAccountId);
+      if (source == null || destination == null) {
+        throw new IllegalStateException("Journal contains transfer " + sequence + " of an unknown account");
+      }
+      boolean sourceMissesTransfer = sequence > source.getLastSequence();
+      boolean destinationMissesTransfer = sequence > destination.getLastSequence();
+      if (sourceMissesTransfer) {
+        source.withdraw(withdrawal);
+        source.setLastSequence(sequence);
+      }
+      if (destinationMissesTransfer) {
+        destination.deposit(deposit);
+        destination.setLastSequence(sequence);
+      }
+    }
+
+    /**
+     * Whether an account misses the transfers is decided before any of them is applied, as the
+     * first transfer of an account raises its last sequence to the sequence of the record.
+     */
+    @Override
+    public void onTransfers(final long sequence,
+                            final String[] fromAccountIds,
+                            final String[] toAccountIds,
+                            final long[] withdrawals,
+                            final long[] deposits) {
+      if (sequence <= snapshotSequence) {
+        return;
+      }
+      Map<StoredAccount, Boolean> missesTransfers = new HashMap<>();
+      StoredAccount[] sources = new StoredAccount[fromAccountIds.length];
+      StoredAccount[] destinations = new StoredAccount[fromAccountIds.length];
+      for (int i = 0; i < fromAccountIds.length; i++) {
+        sources[i] = accountStore.find(fromAccountIds[i]);
+        destinations[i] = accountStore.find(toAccountIds[i]);
+        if (sources[i] == null || destinations[i] == null) {
+          throw new IllegalStateException("Journal contains transfer " + sequence + " of an unknown account");
+        }
+        missesTransfers.put(sources[i], sequence > sources[i].getLastSequence());
+        missesTransfers.put(destinations[i], sequence > destinations[i].getLastSequence());
+      }
+      for (int i = 0; i < fromAccountIds.length; i++) {
+        if (missesTransfers.get(sources[i])) {
+          sources[i].withdraw(withdrawals[i]);
+          sources[i].setLastSequence(sequence);
+        }
+        if (missesTransfers.get(destinations[i])) {
+          destinations[i].deposit(deposits[i]);
+          destinations[i].setLastSequence(sequence);
+        }
+      }
+    }
+
+    @Override
+    public void onRemoval(final long sequence) {
+      if (sequence > snapshotSequence) {
+        accountStore.clear();
+      }
+    }
   }
 }
@@ -1,29 +1,70 @@
 package de.wlsc.management;
 
+import static de.wlsc.model.BatchMode.BEST_EFFORT;
+import static io.micronaut.http.HttpHeaders.RETRY_AFTER;
 import static io.micronaut.http.HttpResponse.badRequest;
 import static io.micronaut.http.HttpResponse.created;
 import static io.micronaut.http.HttpResponse.notModified;
 import static io.micronaut.http.HttpResponse.status;
+import static io.micronaut.http.HttpStatus.ACCEPTED;
 import static io.micronaut.http.HttpStatus.OK;
+import static io.micronaut.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static io.micronaut.http.HttpStatus.TOO_MANY_REQUESTS;
 import static io.micronaut.http.MediaType.APPLICATION_JSON;
+import static io.micronaut.http.MediaType.MULTIPART_FORM_DATA;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.wlsc.management.exception.AccountAlreadyExistException;
-import de.wlsc.management.exception.AccountNotFoundException;
-import de.wlsc.management.exception.NegativeAmountTransferException;
-import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.CurrencyConversionException;
+import de.wlsc.management.exception.InvalidCursorException;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.management.exception.NotLeaderException;
+import de.wlsc.management.exception.ReplicationPendingException;
+import de.wlsc.management.exception.TransferIdConflictException;
+import de.wlsc.management.exception.TransferRateExceededException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.exception.UnknownCurrencyException;
+import de.wlsc.management.execution.EndpointExecutor;
+import de.wlsc.management.logging.TransferLogSampler;
+import de.wlsc.management.replication.Replica;
+import de.wlsc.management.wire.AccountRecordReader;
+import de.wlsc.management.wire.BinaryWireFormat;
+import de.wlsc.management.wire.CsvAccounts;
+import de.wlsc.management.wire.NdjsonAccounts;
 import de.wlsc.model.Account;
+import de.wlsc.model.AccountAggregates;
+import de.wlsc.model.AccountPage;
+import de.wlsc.model.BatchTransfer;
+import de.wlsc.model.ConservationCheck;
+import de.wlsc.model.HotAccount;
+import de.wlsc.model.ImportReport;
 import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferHistoryPage;
+import de.wlsc.model.TransferResult;
 import io.micronaut.core.version.annotation.Version;
+import io.micronaut.http.HttpMethod;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Delete;
 import io.micronaut.http.annotation.Error;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.PathVariable;
 import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.Put;
+import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.http.multipart.PartData;
+import io.micronaut.http.multipart.StreamingFileUpload;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,47 +74,331 @@ public class AccountManagementEndpoint {
 
   static final String ACCOUNTS = "/accounts";
   static final String TRANSFER_MONEY_FROM_TO_ACCOUNT = "/accounts/transfer";
+  static final String ACCOUNTS_PAGE = "/accounts/page";
+  static final String ACCOUNTS_EXPORT = "/accounts/export";
+  static final String ACCOUNTS_EXPORT_NDJSON = "/accounts/export/ndjson";
+  static final String ACCOUNTS_EXPORT_CSV = "/accounts/export/csv";
+  static final String ACCOUNTS_IMPORT = "/accounts/import";
+  static final String ACCOUNTS_OF_CUSTOMER = "/accounts/customer/{customerId}";
+  static final String ACCOUNTS_IN_CURRENCY = "/accounts/currency/{currency}";
+  static final String ACCOUNTS_TOTALS = "/accounts/totals";
+  static final String ACCOUNTS_CONSERVATION = "/accounts/totals/conservation";
+  static final String ACCOUNT_HISTORY = "/accounts/history/{accountId}";
+  static final String HOT_ACCOUNTS = "/accounts/hot";
+  static final String TRANSFER_MONEY_BATCH = "/accounts/transfer/batch";
+  static final String TRANSFER_MONEY_MULTI_LEG = "/accounts/transfer/multi-leg";
+  static final int DEFAULT_PAGE_SIZE = 100;
+  static final int MAX_PAGE_SIZE = 1000;
+  static final int EXPORT_CHUNK_SIZE = 256;
+  static final int IMPORT_BATCH_SIZE = 1000;
+  static final int IMPORT_PREFETCH = 1;
 
   private final AccountManagement accountManagement;
+  private final BatchTransferProcessor batchTransferProcessor;
+  private final TransferLogSampler transferLogSampler;
+  private final EndpointExecutor endpointExecutor;
   private final ObjectMapper objectMapper;
+  private final Replica replica;
 
   @Inject
-  public AccountManagementEndpoint(final AccountManagement accountManagement, final ObjectMapper objectMapper) {
+  public AccountManagementEndpoint(final AccountManagement accountManagement,
+                                   final BatchTransferProcessor batchTransferProcessor,
+                                   final TransferLogSampler transferLogSampler,
+                                   final EndpointExecutor endpointExecutor,
+                                   final ObjectMapper objectMapper,
+                                   final Replica replica) {
     this.accountManagement = accountManagement;
+    this.batchTransferProcessor = batchTransferProcessor;
+    this.transferLogSampler = transferLogSampler;
+    this.endpointExecutor = endpointExecutor;
     this.objectMapper = objectMapper;
+    this.replica = replica;
   }
 
   @Get(uri = ACCOUNTS, produces = APPLICATION_JSON)
   @Version("1")
-  public String listAccounts() throws JsonProcessingException {
-    return objectMapper.writeValueAsString(accountManagement.listAccounts());
+  public Flowable<Account> listAccounts() {
+    return Flowable.fromIterable(accountManagement.accountsInCreationOrder());
+  }
+
+  /**
+   * Streams the accounts in the binary wire format, a chunk of accounts per buffer. Has its own
+   * path, as routes are not selected by the accepted media type.
+   */
+  @Get(uri = ACCOUNTS_EXPORT, produces = BinaryWireFormat.MEDIA_TYPE)
+  @Version("1")
+  public Flowable<ByteBuf> exportAccounts() {
+    return Flowable.fromIterable(accountManagement.accountsInCreationOrder())
+        .buffer(EXPORT_CHUNK_SIZE)
+        .map(accounts -> {
+          ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+          accounts.forEach(account -> BinaryWireFormat.writeAccount(account, buffer));
+          return buffer;
+        });
+  }
+
+  @Get(uri = ACCOUNTS_EXPORT_NDJSON, produces = NdjsonAccounts.MEDIA_TYPE)
+  @Version("1")
+  public Flowable<ByteBuf> exportAccountsAsNdjson() {
+    return exportAccounts(Flowable.fromIterable(accountManagement.accountsInCreationOrder())
+        .map(account -> NdjsonAccounts.write(objectMapper, account)));
+  }
+
+  @Get(uri = ACCOUNTS_EXPORT_CSV, produces = CsvAccounts.MEDIA_TYPE)
+  @Version("1")
+  public Flowable<ByteBuf> exportAccountsAsCsv() {
+    return exportAccounts(Flowable.just(CsvAccounts.header())
+        .concatWith(Flowable.fromIterable(accountManagement.accountsInCreationOrder()).map(CsvAccounts::write))
+        .map(line -> line.getBytes(UTF_8)));
+  }
+
+  private static Flowable<ByteBuf> exportAccounts(final Flowable<byte[]> records) {
+    return records
+        .buffer(EXPORT_CHUNK_SIZE)
+        .map(chunk -> {
+          ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+          chunk.forEach(buffer::writeBytes);
+          return buffer;
+        });
+  }
+
+  @Post(uri = ACCOUNTS_IMPORT, consumes = NdjsonAccounts.MEDIA_TYPE, produces = APPLICATION_JSON)
+  @Version("1")
+  public Single<ImportReport> importAccountsFromNdjson(@Body final Flowable<byte[]> body) {
+    return importAccounts(body, NdjsonAccounts.reader(objectMapper));
+  }
+
+  @Post(uri = ACCOUNTS_IMPORT, consumes = CsvAccounts.MEDIA_TYPE, produces = APPLICATION_JSON)
+  @Version("1")
+  public Single<ImportReport> importAccountsFromCsv(@Body final Flowable<byte[]> body) {
+    return importAccounts(body, CsvAccounts.reader());
+  }
+
+  /**
+   * Imports the accounts of an uploaded file, for imports larger than the maximum request size.
+   * The file is streamed like a plain body, limited by the maximum file size of uploads instead.
+   * Its format is selected by the content type of the part, or by a {@code .csv} file name.
+   */
+  @Post(uri = ACCOUNTS_IMPORT, consumes = MULTIPART_FORM_DATA, produces = APPLICATION_JSON)
+  @Version("1")
+  public Single<ImportReport> importAccountsFromUpload(final StreamingFileUpload accounts) {
+    AccountRecordReader reader = isCsv(accounts) ? CsvAccounts.reader() : NdjsonAccounts.reader(objectMapper);
+    return importAccounts(Flowable.fromPublisher(accounts).map(PartData::getBytes), reader);
+  }
+
+  private static boolean isCsv(final StreamingFileUpload upload) {
+    return upload.getContentType().map(contentType -> CsvAccounts.MEDIA_TYPE.equals(contentType.getName())).orElse(false)
+        || upload.getFilename().endsWith(".csv");
+  }
+
+  /**
+   * Parses the body as it arrives and creates the accounts batch by batch, logging once per
+   * import instead of once per account. Chunks are only requested from the body while a batch is
+   * being filled, and the next batch only once the previous one is stored, so at most a batch
+   * being stored, one being filled and a prefetched chunk are held however large the body is.
+   * Duplicates are reported per record, malformed records abort the import after the batches
+   * stored so far.
+   */
+  private Single<ImportReport> importAccounts(final Flowable<byte[]> body, final AccountRecordReader reader) {
+    if (replica.isFollower()) {
+      return Single.error(new NotLeaderException("Imports are not forwarded by followers, import into the leader"));
+    }
+    AccountImporter accountImporter = new AccountImporter(accountManagement);
+    log.info("Requested import of accounts");
+    return body.concatMapIterable(reader::read, IMPORT_PREFETCH)
+        .concatWith(Flowable.defer(() -> Flowable.fromIterable(reader.finish())))
+        .buffer(IMPORT_BATCH_SIZE)
+        .concatMapSingle(accounts -> toSingle(endpointExecutor.supply(() -> accountImporter.add(accounts))),
+            IMPORT_PREFETCH)
+        .ignoreElements()
+        .toSingle(accountImporter::report)
+        .doOnSuccess(report -> log.info("{} accounts imported, {} conflicts", report.getImported(),
+            report.getConflicts().size()));
+  }
+
+  private static <T> Single<T> toSingle(final CompletableFuture<T> future) {
+    return Single.create(emitter -> future.whenComplete((result, failure) -> {
+      if (failure != null) {
+        emitter.onError(failure);
+      } else {
+        emitter.onSuccess(result);
+      }
+    }));
+  }
+
+  @Get(uri = ACCOUNTS_PAGE, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<AccountPage> listAccounts(@QueryValue @Nullable final String cursor,
+                                                     @QueryValue(defaultValue = "" + DEFAULT_PAGE_SIZE) final int limit) {
+    return endpointExecutor.supply(() -> accountManagement.listAccounts(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+  }
+
+  @Get(uri = ACCOUNTS_OF_CUSTOMER, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<List<Account>> listAccountsOfCustomer(@PathVariable final String customerId) {
+    return endpointExecutor.supply(() -> accountManagement.accountsOfCustomer(customerId));
+  }
+
+  @Get(uri = ACCOUNTS_IN_CURRENCY, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<List<Account>> listAccountsInCurrency(@PathVariable final String currency) {
+    return endpointExecutor.supply(() -> accountManagement.accountsInCurrency(currency));
+  }
+
+  @Get(uri = ACCOUNT_HISTORY, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<TransferHistoryPage> transferHistory(@PathVariable final String accountId,
+                                                                @QueryValue @Nullable final String cursor,
+                                                                @QueryValue(defaultValue = "" + DEFAULT_PAGE_SIZE) final int limit) {
+    return endpointExecutor.supply(() -> accountManagement.transferHistory(accountId, cursor,
+        Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+  }
+
+  @Get(uri = ACCOUNTS_TOTALS, produces = APPLICATION_JSON)
+  @Version("1")
+  public AccountAggregates totals() {
+    return accountManagement.aggregates();
+  }
+
+  @Get(uri = HOT_ACCOUNTS, produces = APPLICATION_JSON)
+  @Version("1")
+  public List<HotAccount> hotAccounts() {
+    return accountManagement.hotAccounts();
+  }
+
+  @Get(uri = ACCOUNTS_CONSERVATION, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<ConservationCheck> checkConservation() {
+    return endpointExecutor.supply(accountManagement::checkConservation);
   }
 
   @Put(uri = ACCOUNTS, consumes = APPLICATION_JSON)
   @Version("1")
-  public HttpResponse<?> create(@Body final Account account) {
-    log.info("Requested account creation");
-    accountManagement.create(account);
-    log.info("Account {} created", account.getId());
-    return created("/account/" + account.getId());
+  public CompletableFuture<HttpResponse<?>> create(@Body final Account account) {
+    if (replica.isFollower()) {
+      return replica.forward(HttpMethod.PUT, ACCOUNTS, account);
+    }
+    return endpointExecutor.supply(() -> {
+      log.info("Requested account creation");
+      accountManagement.create(account);
+      log.info("Account {} created", account.getId());
+      return created("/account/" + account.getId());
+    });
+  }
+
+  /**
+   * Decodes the account on the event loop, before the request and its buffer are released.
+   */
+  @Put(uri = ACCOUNTS, consumes = BinaryWireFormat.MEDIA_TYPE)
+  @Version("1")
+  public CompletableFuture<HttpResponse<?>> createFromBinary(@Body final ByteBuf body) {
+    return create(BinaryWireFormat.readAccount(body));
   }
 
   @Delete(ACCOUNTS)
   @Version("1")
-  public HttpResponse<?> removeAccounts() {
-    log.info("Requested removal of all accounts");
-    accountManagement.removeAccounts();
-    log.info("All accounts were removed");
-    return status(OK);
+  public CompletableFuture<HttpResponse<?>> removeAccounts() {
+    if (replica.isFollower()) {
+      return replica.forward(HttpMethod.DELETE, ACCOUNTS, null);
+    }
+    return endpointExecutor.supply(() -> {
+      log.info("Requested removal of all accounts");
+      accountManagement.removeAccounts();
+      log.info("All accounts were removed");
+      return status(OK);
+    });
   }
 
   @Post(uri = TRANSFER_MONEY_FROM_TO_ACCOUNT, consumes = APPLICATION_JSON)
   @Version("1")
-  public HttpResponse<?> transferMoney(@Body final MoneyTransfer moneyTransfer) {
-    log.info("Initializing money transfer from {} to {} account...", moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
-    accountManagement.transferMoney(moneyTransfer);
-    log.info("Money transfer from {} to {} account was successful", moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
-    return HttpResponse.ok();
+  public CompletableFuture<HttpResponse<?>> transferMoney(@Body final MoneyTransfer moneyTransfer) {
+    if (replica.isFollower()) {
+      return replica.forward(HttpMethod.POST, TRANSFER_MONEY_FROM_TO_ACCOUNT, moneyTransfer);
+    }
+    return endpointExecutor.supply(() -> {
+      boolean sampled = transferLogSampler.sample();
+      if (sampled) {
+        log.info("Initializing money transfer from {} to {} account...", moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
+      }
+      try {
+        accountManagement.transferMoney(moneyTransfer);
+      } catch (TransferRejectedException e) {
+        return respondWithRejection(sampled, e);
+      }
+      if (sampled) {
+        log.info("Money transfer from {} to {} account was successful", moneyTransfer.getFromAccountId(), moneyTransfer.getToAccountId());
+      }
+      return HttpResponse.ok();
+    });
+  }
+
+  @Post(uri = TRANSFER_MONEY_FROM_TO_ACCOUNT, consumes = BinaryWireFormat.MEDIA_TYPE)
+  @Version("1")
+  public CompletableFuture<HttpResponse<?>> transferMoneyFromBinary(@Body final ByteBuf body) {
+    return transferMoney(BinaryWireFormat.readTransfer(body));
+  }
+
+  /**
+   * Applies all legs or none of them, a failed leg is answered with its index and the reason.
+   */
+  @Post(uri = TRANSFER_MONEY_MULTI_LEG, consumes = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<HttpResponse<?>> transferMoneyInLegs(@Body final MultiLegTransfer multiLegTransfer) {
+    if (replica.isFollower()) {
+      return replica.forward(HttpMethod.POST, TRANSFER_MONEY_MULTI_LEG, multiLegTransfer);
+    }
+    return endpointExecutor.supply(() -> {
+      boolean sampled = transferLogSampler.sample();
+      if (sampled) {
+        log.info("Initializing money transfer in {} legs...",
+            multiLegTransfer.getLegs() == null ? 0 : multiLegTransfer.getLegs().size());
+      }
+      try {
+        accountManagement.transferMoney(multiLegTransfer);
+      } catch (BatchTransferFailedException e) {
+        if (sampled) {
+          log.info("Leg {} of money transfer has failed: {}", e.getFailedTransferIndex(), e.getMessage());
+        }
+        return badRequest("Leg " + e.getFailedTransferIndex() + ": " + e.getMessage());
+      }
+      return HttpResponse.ok();
+    });
+  }
+
+  @Post(uri = TRANSFER_MONEY_BATCH, consumes = APPLICATION_JSON, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<HttpResponse<?>> transferMoneyInBatch(@Body final BatchTransfer batchTransfer) {
+    if (replica.isFollower()) {
+      return replica.forward(HttpMethod.POST, TRANSFER_MONEY_BATCH, batchTransfer);
+    }
+    return endpointExecutor.supply(() -> processBatch(batchTransfer));
+  }
+
+  @Post(uri = TRANSFER_MONEY_BATCH, consumes = BinaryWireFormat.MEDIA_TYPE, produces = BinaryWireFormat.MEDIA_TYPE)
+  @Version("1")
+  public CompletableFuture<HttpResponse<ByteBuf>> transferMoneyInBatchFromBinary(@Body final ByteBuf body) {
+    BatchTransfer batchTransfer = BinaryWireFormat.readBatch(body);
+    if (replica.isFollower()) {
+      return CompletableFuture.failedFuture(
+          new NotLeaderException("Binary batches are not forwarded by followers, send them to the leader"));
+    }
+    return endpointExecutor.supply(() -> {
+      HttpResponse<List<TransferResult>> response = processBatch(batchTransfer);
+      ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+      BinaryWireFormat.writeResults(response.body(), buffer);
+      return HttpResponse.<ByteBuf>status(response.status()).body(buffer);
+    });
+  }
+
+  private HttpResponse<List<TransferResult>> processBatch(final BatchTransfer batchTransfer) {
+    log.info("Initializing {} batch of money transfers...", batchTransfer.getMode());
+    List<TransferResult> results = batchTransferProcessor.process(batchTransfer);
+    long successful = results.stream().filter(TransferResult::isSuccessful).count();
+    log.info("Batch of money transfers finished, {} of {} were successful", successful, results.size());
+    if (batchTransfer.getMode() != BEST_EFFORT && successful < results.size()) {
+      return badRequest(results);
+    }
+    return HttpResponse.ok(results);
   }
 
   @Error(AccountAlreadyExistException.class)
@@ -83,23 +408,75 @@ public class AccountManagementEndpoint {
     return notModified();
   }
 
-  @Error(NegativeAmountTransferException.class)
-  public HttpResponse<?> onNegativeAmountTransfer(final NegativeAmountTransferException e) {
+  @Error(TransferRejectedException.class)
+  public HttpResponse<?> onTransferRejected(final TransferRejectedException e) {
+    return respondWithRejection(transferLogSampler.sample(), e);
+  }
+
+  @Error(InvalidCursorException.class)
+  public HttpResponse<?> onInvalidCursor(final InvalidCursorException e) {
     return respondWithBadRequest(e);
   }
 
-  @Error(AccountNotFoundException.class)
-  public HttpResponse<?> onAccountNotFound(final AccountNotFoundException e) {
+  @Error(CurrencyConversionException.class)
+  public HttpResponse<?> onCurrencyConversion(final CurrencyConversionException e) {
     return respondWithBadRequest(e);
   }
 
-  @Error(NotEnoughMoneyException.class)
-  public HttpResponse<?> onNotEnoughMoney(final NotEnoughMoneyException e) {
+  @Error(UnknownCurrencyException.class)
+  public HttpResponse<?> onUnknownCurrency(final UnknownCurrencyException e) {
     return respondWithBadRequest(e);
   }
 
-  private HttpResponse<?> respondWithBadRequest(final Exception e) {
+  @Error(MalformedPayloadException.class)
+  public HttpResponse<?> onMalformedPayload(final MalformedPayloadException e) {
+    return respondWithBadRequest(e);
+  }
+
+  /**
+   * Followers forward single changes, but no imports and binary batches, which have to be sent
+   * to the leader directly.
+   */
+  @Error(NotLeaderException.class)
+  public HttpResponse<?> onNotLeader(final NotLeaderException e) {
     log.info(e.getMessage());
+    return status(SERVICE_UNAVAILABLE).body(e.getMessage());
+  }
+
+  /**
+   * The change stays applied, so it is accepted rather than failed, and a retry with the same
+   * transfer id is answered as succeeded.
+   */
+  @Error(ReplicationPendingException.class)
+  public HttpResponse<?> onReplicationPending(final ReplicationPendingException e) {
+    log.warn(e.getMessage());
+    return status(ACCEPTED).body(e.getMessage());
+  }
+
+  @Error(TransferIdConflictException.class)
+  public HttpResponse<?> onTransferIdConflict(final TransferIdConflictException e) {
+    return respondWithBadRequest(e);
+  }
+
+  /**
+   * Rejections carry no stack trace worth logging, and their message is the response body as is,
+   * encoded once by the rejection. Transfers beyond the rate of a hot account may be retried after
+   * a second.
+   */
+  private HttpResponse<?> respondWithRejection(final boolean sampled, final TransferRejectedException e) {
+    if (sampled) {
+      log.info(e.getMessage());
+    }
+    if (e instanceof TransferRateExceededException) {
+      return status(TOO_MANY_REQUESTS).header(RETRY_AFTER, "1").body(e.getResponseBody());
+    }
+    return badRequest(e.getResponseBody());
+  }
+
+  private HttpResponse<?> respondWithBadRequest(final Exception e) {
+    if (transferLogSampler.sample()) {
+      log.info(e.getMessage());
+    }
     log.debug(e.getMessage(), e);
     return badRequest(e.getMessage());
   }
@@ -0,0 +1,32 @@
+package de.wlsc.management;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+@Singleton
+@Requires(property = "snapshot.enabled", value = "true")
+@Slf4j
+public class AccountSnapshotScheduler {
+
+  private final AccountManagement accountManagement;
+
+  @Inject
+  public AccountSnapshotScheduler(final AccountManagement accountManagement) {
+    this.accountManagement = accountManagement;
+  }
+
+  @Scheduled(fixedDelay = "${snapshot.interval}", initialDelay = "${snapshot.interval}")
+  public void takeSnapshot() {
+    long start = System.nanoTime();
+    try {
+      accountManagement.takeSnapshot();
+      log.info("Snapshot of accounts taken in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (RuntimeException e) {
+      log.error("Snapshot of accounts has failed", e);
+    }
+  }
+}
@@ -0,0 +1,254 @@
+package de.wlsc.management;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.AccountAggregates;
+import de.wlsc.model.CurrencyAggregate;
+import de.wlsc.model.Customer;
+import de.wlsc.model.TransferHistoryEntry;
+import de.wlsc.model.TransferHistoryPage;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accounts in creation order, stored column by column in chunks. The handle of an account is its
+ * position in these columns and never changes until the store is cleared, which gives paging a
+ * stable cursor without sorting. Ids are mapped to handles by an open addressing table,
+ * customers and currencies are deduplicated and referenced by handle, so an account costs no
+ * object of its own. The fixed-width columns are kept on or off the heap depending on the
+ * {@link StoreMemory}. Each generation also indexes its accounts by customer and currency and
+ * keeps running totals per currency and the last transfers of each account, so clearing the store
+ * drops all of them along with it.
+ */
+final class AccountStore {
+
+  static final int CHUNK_SHIFT = 12;
+  static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final StoreMemory storeMemory;
+  private final int historyDepth;
+  private volatile Generation generation;
+
+  AccountStore() {
+    this(StoreMemory.HEAP);
+  }
+
+  /**
+   * Creates a store which keeps no transfer history.
+   */
+  AccountStore(final StoreMemory storeMemory) {
+    this(storeMemory, 0);
+  }
+
+  AccountStore(final StoreMemory storeMemory, final int historyDepth) {
+    this.storeMemory = storeMemory;
+    this.historyDepth = historyDepth;
+    this.generation = newGeneration();
+  }
+
+  StoredAccount find(final String accountId) {
+    return generation.find(accountId);
+  }
+
+  /**
+   * Returns the added account or null, if an account with the same id does already exist.
+   */
+  synchronized StoredAccount add(final Account account, final long lastSequence) {
+    if (generation.find(account.getId()) != null) {
+      return null;
+    }
+    return generation.append(account, lastSequence);
+  }
+
+  synchronized void clear() {
+    generation = newGeneration();
+  }
+
+  int size() {
+    return generation.size();
+  }
+
+  /**
+   * Accounts in creation order since the last {@link #clear()}. A generation stays readable after
+   * the store was cleared, so iterating it never races with a removal of all accounts.
+   */
+  Generation generation() {
+    return generation;
+  }
+
+  private Generation newGeneration() {
+    return new Generation(storeMemory == StoreMemory.OFF_HEAP ? new OffHeapAccountColumns() : new HeapAccountColumns(),
+        historyDepth);
+  }
+
+  static final class Generation implements HandleTable.Keys {
+
+    private final HandleTable handles = new HandleTable(this);
+    private final Interner<Customer> customers = new Interner<>();
+    private final Interner<Currency> currencies = new Interner<>();
+    private final AccountIndex<String> byCustomer = new AccountIndex<>();
+    private final AccountIndex<Currency> byCurrency = new AccountIndex<>();
+    private final AccountTotals totals = new AccountTotals();
+    private final AccountColumns columns;
+    private final TransferHistory history;
+    private volatile int size;
+
+    private Generation(final AccountColumns columns, final int historyDepth) {
+      this.columns = columns;
+      this.history = new TransferHistory(historyDepth);
+    }
+
+    int size() {
+      return size;
+    }
+
+    /**
+     * Returns the account with the given handle, which has to be lower than a previously read
+     * {@link #size()}.
+     */
+    StoredAccount get(final int handle) {
+      return new StoredAccount(this, handle);
+    }
+
+    StoredAccount find(final String accountId) {
+      int handle = handles.find(accountId, accountId.hashCode());
+      return handle < 0 ? null : get(handle);
+    }
+
+    StoredAccount[] ofCustomer(final String customerId) {
+      return toStoredAccounts(byCustomer.get(customerId));
+    }
+
+    StoredAccount[] inCurrency(final Currency currency) {
+      return toStoredAccounts(byCurrency.get(currency));
+    }
+
+    long indexEstimatedBytes() {
+      return byCustomer.estimatedBytes() + byCurrency.estimatedBytes();
+    }
+
+    /**
+     * Reads the running totals without visiting any account. Totals of different currencies are
+     * read one after the other, so they are only consistent with each other while no transfer is
+     * applied.
+     */
+    AccountAggregates aggregates() {
+      Map<String, CurrencyAggregate> currencyAggregates = new TreeMap<>();
+      for (int currency = 0; currency < currencies.size(); currency++) {
+        AccountTotals.CurrencyTotals currencyTotals = totals.of(currency);
+        if (currencyTotals != null) {
+          currencyAggregates.put(currencies.get(currency).getCurrencyCode(), CurrencyAggregate.builder()
+              .accounts(currencyTotals.accounts())
+              .balance(currencyTotals.balance())
+              .opened(currencyTotals.opened())
+              .deposited(currencyTotals.deposited())
+              .withdrawn(currencyTotals.withdrawn())
+              .build());
+        }
+      }
+      return AccountAggregates.builder()
+          .accounts(size)
+          .transfers(totals.transfers())
+          .currencies(currencyAggregates)
+          .build();
+    }
+
+    /**
+     * Reads up to {@code limit} transfers of the account older than the cursor {@code before},
+     * newest first.
+     */
+    TransferHistoryPage history(final int handle, final long before, final int limit) {
+      TransferHistory.Slice slice = history.read(handle, before, limit);
+      List<TransferHistoryEntry> transfers = new ArrayList<>(slice.entries.size());
+      for (TransferHistory.Entry entry : slice.entries) {
+        transfers.add(TransferHistoryEntry.builder()
+            .sequence(entry.sequence)
+            .counterpartyAccountId(id(entry.counterparty))
+            .amount(entry.amount)
+            .epochSecond(entry.epochSecond)
+            .build());
+      }
+      return TransferHistoryPage.builder()
+          .transfers(transfers)
+          .nextCursor(slice.hasOlder() ? Long.toString(slice.from) : null)
+          .build();
+    }
+
+    void record(final int handle, final long sequence, final int counterparty, final long amount,
+                final long epochSecond) {
+      history.record(handle, sequence, counterparty, amount, epochSecond);
+    }
+
+    String id(final int handle) {
+      return columns.id(handle);
+    }
+
+    Currency currency(final int handle) {
+      int currency = columns.currency(handle);
+      return currency < 0 ? null : currencies.get(currency);
+    }
+
+    Customer customer(final int handle) {
+      int customer = columns.customer(handle);
+      return customer < 0 ? null : customers.get(customer);
+    }
+
+    long amount(final int handle) {
+      return columns.amount(handle);
+    }
+
+    void withdraw(final int handle, final long withdrawal) {
+      columns.amount(handle, columns.amount(handle) - withdrawal);
+      totals.withdrawn(columns.currency(handle), withdrawal);
+    }
+
+    void deposit(final int handle, final long deposit) {
+      columns.amount(handle, columns.amount(handle) + deposit);
+      totals.deposited(columns.currency(handle), deposit);
+    }
+
+    long lastSequence(final int handle) {
+      return columns.lastSequence(handle);
+    }
+
+    void lastSequence(final int handle, final long lastSequence) {
+      columns.lastSequence(handle, lastSequence);
+    }
+
+    @Override
+    public boolean matches(final int handle, final Object key) {
+      return columns.idMatches(handle, (String) key);
+    }
+
+    /**
+     * Fills the columns of the new handle and its totals before publishing the size and the id,
+     * so readers never see a partially stored account.
+     */
+    private StoredAccount append(final Account account, final long lastSequence) {
+      int handle = size;
+      Customer customer = account.getCustomer();
+      Currency currency = account.getCurrency();
+      int currencyHandle = currency == null ? -1 : currencies.intern(currency);
+      totals.opened(currencyHandle, account.getAmount());
+      columns.add(handle, account.getId(), account.getAmount(), lastSequence,
+          customer == null ? -1 : customers.intern(customer), currencyHandle);
+      history.added(handle);
+      size = handle + 1;
+      handles.add(handle, account.getId().hashCode());
+      byCustomer.add(customer == null ? null : customer.getId(), handle);
+      byCurrency.add(currency, handle);
+      return get(handle);
+    }
+
+    private StoredAccount[] toStoredAccounts(final int[] accountHandles) {
+      StoredAccount[] storedAccounts = new StoredAccount[accountHandles.length];
+      for (int i = 0; i < accountHandles.length; i++) {
+        storedAccounts[i] = get(accountHandles[i]);
+      }
+      return storedAccounts;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package de.wlsc.management;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of a store generation per currency handle, updated with every account added and
+ * every withdrawal and deposit applied, so reading them costs the same no matter how many
+ * accounts are stored. Balances are derived from what was opened, deposited and withdrawn. The
+ * counters are striped, so concurrent transfers do not contend on them. Currencies are only added
+ * by the single writer adding accounts, before any account in the currency is published.
+ */
+final class AccountTotals {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private final LongAdder transfers = new LongAdder();
+  private volatile CurrencyTotals[] currencies = new CurrencyTotals[INITIAL_CAPACITY];
+
+  /**
+   * Accounts without currency are totalled under the handle -1.
+   */
+  void opened(final int currency, final long amount) {
+    int slot = currency + 1;
+    CurrencyTotals[] currentCurrencies = currencies;
+    if (slot >= currentCurrencies.length) {
+      currentCurrencies = Arrays.copyOf(currentCurrencies, Math.max(slot + 1, currentCurrencies.length * 2));
+    }
+    if (currentCurrencies[slot] == null) {
+      currentCurrencies[slot] = new CurrencyTotals();
+    }
+    currencies = currentCurrencies;
+    currentCurrencies[slot].accounts.increment();
+    currentCurrencies[slot].opened.add(amount);
+  }
+
+  void withdrawn(final int currency, final long amount) {
+    transfers.increment();
+    currencies[currency + 1].withdrawn.add(amount);
+  }
+
+  void deposited(final int currency, final long amount) {
+    currencies[currency + 1].deposited.add(amount);
+  }
+
+  long transfers() {
+    return transfers.sum();
+  }
+
+  /**
+   * Returns the totals of the currency or null, if no account in the currency was added.
+   */
+  CurrencyTotals of(final int currency) {
+    CurrencyTotals[] currentCurrencies = currencies;
+    return currency + 1 < currentCurrencies.length ? currentCurrencies[currency + 1] : null;
+  }
+
+  static final class CurrencyTotals {
+
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder withdrawn = new LongAdder();
+    private final LongAdder deposited = new LongAdder();
+
+    long accounts() {
+      return accounts.sum();
+    }
+
+    long opened() {
+      return opened.sum();
+    }
+
+    long withdrawn() {
+      return withdrawn.sum();
+    }
+
+    long deposited() {
+      return deposited.sum();
+    }
+
+    long balance() {
+      return opened() + deposited() - withdrawn();
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package de.wlsc.management;
+
+import static de.wlsc.model.BatchMode.BEST_EFFORT;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.management.exception.ReplicationPendingException;
+import de.wlsc.model.BatchTransfer;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.TransferResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Applies batch transfers, all-or-nothing or best-effort. Independent groups of a best-effort batch
+ * run on an executor of their own, as the caller blocks until they are done. On the IO pool that
+ * runs the requests, every thread of a busy pool could be waiting for groups queued behind it.
+ */
+@Singleton
+public class BatchTransferProcessor {
+
+  static final String EXECUTOR = "batch-transfers";
+
+  static final String ROLLED_BACK_MESSAGE = "Transfer was not applied, because another transfer of the batch has failed";
+
+  private static final int PARALLEL_EXECUTION_THRESHOLD = 64;
+
+  private final AccountManagement accountManagement;
+  private final ExecutorService executorService;
+  private final int parallelism;
+
+  @Inject
+  public BatchTransferProcessor(final AccountManagement accountManagement,
+                                @Named(EXECUTOR) final ExecutorService executorService) {
+    this(accountManagement, executorService, Runtime.getRuntime().availableProcessors());
+  }
+
+  BatchTransferProcessor(final AccountManagement accountManagement,
+                         final ExecutorService executorService,
+                         final int parallelism) {
+    this.accountManagement = accountManagement;
+    this.executorService = executorService;
+    this.parallelism = parallelism;
+  }
+
+  public List<TransferResult> process(final BatchTransfer batchTransfer) {
+    List<MoneyTransfer> moneyTransfers = batchTransfer.getTransfers() == null ? emptyList() : batchTransfer.getTransfers();
+    if (batchTransfer.getMode() == BEST_EFFORT) {
+      return processBestEffort(moneyTransfers);
+    }
+    return processAllOrNothing(moneyTransfers);
+  }
+
+  private List<TransferResult> processAllOrNothing(final List<MoneyTransfer> moneyTransfers) {
+    try {
+      accountManagement.transferMoney(moneyTransfers);
+      return moneyTransfers.stream()
+          .map(BatchTransferProcessor::succeeded)
+          .collect(toList());
+    } catch (BatchTransferFailedException e) {
+      List<TransferResult> results = new ArrayList<>(moneyTransfers.size());
+      for (int i = 0; i < moneyTransfers.size(); i++) {
+        String message = i == e.getFailedTransferIndex() ? e.getMessage() : ROLLED_BACK_MESSAGE;
+        results.add(failed(moneyTransfers.get(i), message));
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Transfers touching a common account end up in the same group and are applied one after
+   * another in request order, while independent groups are spread over the executor. Any failure
+   * of a transfer is reported as its result, so the results of the others are never lost.
+   */
+  private List<TransferResult> processBestEffort(final List<MoneyTransfer> moneyTransfers) {
+    TransferResult[] results = new TransferResult[moneyTransfers.size()];
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      if (moneyTransfers.get(i) == null) {
+        results[i] = failed(null, MalformedPayloadException.MISSING_TRANSFER);
+      }
+    }
+    List<int[]> groups = groupByAccounts(moneyTransfers);
+
+    if (moneyTransfers.size() < PARALLEL_EXECUTION_THRESHOLD || groups.size() == 1 || parallelism == 1) {
+      for (int[] group : groups) {
+        processGroup(moneyTransfers, group, results);
+      }
+      return Arrays.asList(results);
+    }
+
+    List<List<int[]>> buckets = distribute(groups);
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[buckets.size()];
+    for (int i = 0; i < buckets.size(); i++) {
+      List<int[]> bucket = buckets.get(i);
+      futures[i] = CompletableFuture.runAsync(() -> {
+        for (int[] group : bucket) {
+          processGroup(moneyTransfers, group, results);
+        }
+      }, executorService);
+    }
+    CompletableFuture.allOf(futures).join();
+    return Arrays.asList(results);
+  }
+
+  private void processGroup(final List<MoneyTransfer> moneyTransfers,
+                            final int[] group,
+                            final TransferResult[] results) {
+    for (int index : group) {
+      MoneyTransfer moneyTransfer = moneyTransfers.get(index);
+      try {
+        accountManagement.transferMoney(moneyTransfer);
+        results[index] = succeeded(moneyTransfer);
+      } catch (ReplicationPendingException e) {
+        results[index] = succeeded(moneyTransfer).toBuilder().message(e.getMessage()).build();
+      } catch (RuntimeException e) {
+        results[index] = failed(moneyTransfer, e.getMessage());
+      }
+    }
+  }
+
+  private List<List<int[]>> distribute(final List<int[]> groups) {
+    List<int[]> largestFirst = new ArrayList<>(groups);
+    largestFirst.sort(Comparator.comparingInt((int[] group) -> group.length).reversed());
+
+    int numberOfBuckets = Math.min(parallelism, groups.size());
+    List<List<int[]>> buckets = new ArrayList<>(numberOfBuckets);
+    int[] bucketSizes = new int[numberOfBuckets];
+    for (int i = 0; i < numberOfBuckets; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (int[] group : largestFirst) {
+      int smallestBucket = 0;
+      for (int i = 1; i < numberOfBuckets; i++) {
+        if (bucketSizes[i] < bucketSizes[smallestBucket]) {
+          smallestBucket = i;
+        }
+      }
+      buckets.get(smallestBucket).add(group);
+      bucketSizes[smallestBucket] += group.length;
+    }
+    return buckets;
+  }
+
+  /**
+   * Missing transfers belong to no group.
+   */
+  static List<int[]> groupByAccounts(final List<MoneyTransfer> moneyTransfers) {
+    Map<String, Integer> accountToNode = new HashMap<>();
+    int[] parents = new int[moneyTransfers.size() * 2];
+    int[] transferToNode = new int[moneyTransfers.size()];
+
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      MoneyTransfer moneyTransfer = moneyTransfers.get(i);
+      if (moneyTransfer == null) {
+        continue;
+      }
+      int source = nodeOf(moneyTransfer.getFromAccountId(), accountToNode, parents);
+      int destination = nodeOf(moneyTransfer.getToAccountId(), accountToNode, parents);
+      parents[root(parents, source)] = root(parents, destination);
+      transferToNode[i] = source;
+    }
+
+    Map<Integer, List<Integer>> rootToTransfers = new HashMap<>();
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      if (moneyTransfers.get(i) == null) {
+        continue;
+      }
+      rootToTransfers.computeIfAbsent(root(parents, transferToNode[i]), root -> new ArrayList<>()).add(i);
+    }
+    return rootToTransfers.values().stream()
+        .map(indices -> indices.stream().mapToInt(Integer::intValue).toArray())
+        .collect(toList());
+  }
+
+  private static int nodeOf(final String accountId, final Map<String, Integer> accountToNode, final int[] parents) {
+    Integer node = accountToNode.get(accountId);
+    if (node == null) {
+      node = accountToNode.size();
+      accountToNode.put(accountId, node);
+      parents[node] = node;
+    }
+    return node;
+  }
+
+  private static int root(final int[] parents, final int node) {
+    int root = node;
+    while (parents[root] != root) {
+      parents[root] = parents[parents[root]];
+      root = parents[root];
+    }
+    return root;
+  }
+
+  private static TransferResult succeeded(final MoneyTransfer moneyTransfer) {
+    return TransferResult.builder()
+        .id(moneyTransfer.getId())
+        .successful(true)
+        .build();
+  }
+
+  private static TransferResult failed(final MoneyTransfer moneyTransfer, final String message) {
+    return TransferResult.builder()
+        .id(moneyTransfer == null ? null : moneyTransfer.getId())
+        .successful(false)
+        .message(message)
+        .build();
+  }
+}
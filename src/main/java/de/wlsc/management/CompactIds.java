@@ -0,0 +1,50 @@
+package de.wlsc.management;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Account ids as stored by the store: ids made of Latin-1 characters only, which are all ids in
+ * practice, are kept as their bare bytes without a string object around them. Other ids are
+ * kept as strings. Comparisons work on the compact form without decoding it.
+ */
+final class CompactIds {
+
+  private CompactIds() {
+    // utility
+  }
+
+  static Object compact(final String id) {
+    byte[] bytes = new byte[id.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      char character = id.charAt(i);
+      if (character > 0xFF) {
+        return id;
+      }
+      bytes[i] = (byte) character;
+    }
+    return bytes;
+  }
+
+  static boolean matches(final Object compactId, final String id) {
+    if (compactId instanceof String) {
+      return compactId.equals(id);
+    }
+    byte[] bytes = (byte[]) compactId;
+    if (bytes.length != id.length()) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if ((bytes[i] & 0xFF) != id.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static String toString(final Object compactId) {
+    if (compactId instanceof String) {
+      return (String) compactId;
+    }
+    return new String((byte[]) compactId, ISO_8859_1);
+  }
+}
@@ -0,0 +1,101 @@
+package de.wlsc.management;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open addressing hash table from keys to dense int handles, which stores nothing but the
+ * handles and the hashes of their keys. The keys themselves stay with their owner, which hashes
+ * and compares them by handle, so an entry costs a few bytes of the slot array instead of a map
+ * node and a boxed value. The hash kept in the slot spares comparing keys which can not match.
+ * <p>
+ * Handles are only added by a single writer, readers never lock: slots are written with volatile
+ * semantics after the owner has stored the key, and a grown array is published as a whole.
+ */
+final class HandleTable {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final long EMPTY = 0;
+
+  private final Keys keys;
+  private volatile AtomicLongArray slots = new AtomicLongArray(INITIAL_CAPACITY);
+  private int size;
+
+  HandleTable(final Keys keys) {
+    this.keys = keys;
+  }
+
+  /**
+   * Returns the handle of the key or -1, if the key was not added.
+   */
+  int find(final Object key, final int hash) {
+    AtomicLongArray currentSlots = slots;
+    int mask = currentSlots.length() - 1;
+    for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+      long entry = currentSlots.get(slot);
+      if (entry == EMPTY) {
+        return -1;
+      }
+      if ((int) (entry >>> 32) == hash && keys.matches(handleOf(entry), key)) {
+        return handleOf(entry);
+      }
+    }
+  }
+
+  /**
+   * Adds the handle of a key which is not in the table yet. Keeps the load factor below 3/4, so
+   * probe sequences stay short.
+   */
+  void add(final int handle, final int hash) {
+    if ((size + 1) * 4L > slots.length() * 3L) {
+      grow();
+    }
+    insert(slots, handle, hash);
+    size++;
+  }
+
+  long estimatedBytes() {
+    return 16 + (long) Long.BYTES * slots.length();
+  }
+
+  private void grow() {
+    AtomicLongArray currentSlots = slots;
+    AtomicLongArray grownSlots = new AtomicLongArray(currentSlots.length() * 2);
+    for (int slot = 0; slot < currentSlots.length(); slot++) {
+      long entry = currentSlots.get(slot);
+      if (entry != EMPTY) {
+        insert(grownSlots, handleOf(entry), (int) (entry >>> 32));
+      }
+    }
+    slots = grownSlots;
+  }
+
+  private static void insert(final AtomicLongArray targetSlots, final int handle, final int hash) {
+    int mask = targetSlots.length() - 1;
+    int slot = spread(hash) & mask;
+    while (targetSlots.get(slot) != EMPTY) {
+      slot = (slot + 1) & mask;
+    }
+    targetSlots.set(slot, (long) hash << 32 | (handle + 1L));
+  }
+
+  private static int handleOf(final long entry) {
+    return (int) entry - 1;
+  }
+
+  /**
+   * Spreads the bits of hash codes like string hashes of sequential ids, which differ in their
+   * low bits only.
+   */
+  private static int spread(final int hash) {
+    int spread = hash * 0x9E3779B9;
+    return spread ^ (spread >>> 16);
+  }
+
+  /**
+   * Keys of the table, held by its owner.
+   */
+  interface Keys {
+
+    boolean matches(int handle, Object key);
+  }
+}
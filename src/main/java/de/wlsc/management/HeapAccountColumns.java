@@ -0,0 +1,89 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountStore.CHUNK_MASK;
+import static de.wlsc.management.AccountStore.CHUNK_SHIFT;
+import static de.wlsc.management.AccountStore.CHUNK_SIZE;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Account columns in chunked arrays on the heap, with ids in their {@link CompactIds compact}
+ * form.
+ */
+final class HeapAccountColumns implements AccountColumns {
+
+  private volatile Chunk[] chunks = new Chunk[0];
+
+  @Override
+  public void add(final int handle, final String id, final long amount, final long lastSequence,
+                  final int customer, final int currency) {
+    int chunkIndex = handle >>> CHUNK_SHIFT;
+    Chunk[] currentChunks = chunks;
+    if (chunkIndex == currentChunks.length) {
+      currentChunks = Arrays.copyOf(currentChunks, chunkIndex + 1);
+      currentChunks[chunkIndex] = new Chunk();
+      chunks = currentChunks;
+    }
+    Chunk chunk = currentChunks[chunkIndex];
+    int index = handle & CHUNK_MASK;
+    chunk.ids[index] = CompactIds.compact(id);
+    chunk.customers[index] = customer;
+    chunk.currencies[index] = (short) currency;
+    chunk.lastSequences[index] = lastSequence;
+    chunk.amounts.set(index, amount);
+  }
+
+  @Override
+  public String id(final int handle) {
+    return CompactIds.toString(chunk(handle).ids[handle & CHUNK_MASK]);
+  }
+
+  @Override
+  public boolean idMatches(final int handle, final String id) {
+    return CompactIds.matches(chunk(handle).ids[handle & CHUNK_MASK], id);
+  }
+
+  @Override
+  public long amount(final int handle) {
+    return chunk(handle).amounts.get(handle & CHUNK_MASK);
+  }
+
+  @Override
+  public void amount(final int handle, final long amount) {
+    chunk(handle).amounts.set(handle & CHUNK_MASK, amount);
+  }
+
+  @Override
+  public long lastSequence(final int handle) {
+    return chunk(handle).lastSequences[handle & CHUNK_MASK];
+  }
+
+  @Override
+  public void lastSequence(final int handle, final long lastSequence) {
+    chunk(handle).lastSequences[handle & CHUNK_MASK] = lastSequence;
+  }
+
+  @Override
+  public int customer(final int handle) {
+    return chunk(handle).customers[handle & CHUNK_MASK];
+  }
+
+  @Override
+  public int currency(final int handle) {
+    return chunk(handle).currencies[handle & CHUNK_MASK];
+  }
+
+  private Chunk chunk(final int handle) {
+    return chunks[handle >>> CHUNK_SHIFT];
+  }
+
+  private static final class Chunk {
+
+    private final Object[] ids = new Object[CHUNK_SIZE];
+    private final int[] customers = new int[CHUNK_SIZE];
+    private final short[] currencies = new short[CHUNK_SIZE];
+    private final long[] lastSequences = new long[CHUNK_SIZE];
+    private final AtomicLongArray amounts = new AtomicLongArray(CHUNK_SIZE);
+  }
+}
@@ -0,0 +1,261 @@
+package de.wlsc.management;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+import de.wlsc.management.exception.TransferRateExceededException;
+import de.wlsc.model.HotAccount;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Accounts taking part in most of the recent transfers, found by counting a sample of the
+ * transfers in a fixed number of counters with the Space-Saving algorithm. The counts are halved
+ * whenever the hot accounts are determined anew, so an account cools down once its traffic stops.
+ * <p>
+ * Only hot accounts are rate limited, each by a token bucket kept as the earliest time of its next
+ * transfer, refilled lazily and advanced by compare and set. An account exceeding its rate takes
+ * part in a large share of the transfers and is found among the hot accounts, unless more accounts
+ * than tracked exceed it, while all other accounts only pay for a random sample and a lookup.
+ */
+final class HotAccounts {
+
+  private static final int COUNTERS_PER_HOT_ACCOUNT = 4;
+  private static final int SAMPLES_PER_REFRESH = 256;
+
+  private final int size;
+  private final int sampleRate;
+  private final long interval;
+  private final long tolerance;
+  private final long maxDelay;
+  private final long origin = System.nanoTime();
+  private final Map<String, Counter> counters = new HashMap<>();
+  private long sampledTransfers;
+  private int samplesSinceRefresh;
+  private volatile Map<String, Bucket> buckets = Collections.emptyMap();
+
+  HotAccounts(final RateLimitConfiguration rateLimitConfiguration) {
+    int transfersPerSecond = rateLimitConfiguration.getTransfersPerSecond();
+    this.size = rateLimitConfiguration.getHotAccounts();
+    this.sampleRate = Math.max(1, rateLimitConfiguration.getSampleRate());
+    this.interval = transfersPerSecond > 0 ? SECONDS.toNanos(1) / transfersPerSecond : 0;
+    this.tolerance = interval * rateLimitConfiguration.getBurst();
+    this.maxDelay = rateLimitConfiguration.getMaxDelay().toNanos();
+  }
+
+  /**
+   * Counts the transfer towards the hot accounts and waits until both of its accounts are within
+   * their rate, or rejects it if that would take longer than the configured delay. A rejected
+   * transfer takes the slot of neither account.
+   */
+  void admit(final String sourceAccountId, final String destinationAccountId) {
+    if (size == 0) {
+      return;
+    }
+    if (ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+      sample(sourceAccountId, destinationAccountId);
+    }
+
+    Map<String, Bucket> currentBuckets = buckets;
+    if (currentBuckets.isEmpty()) {
+      return;
+    }
+    Bucket source = currentBuckets.get(sourceAccountId);
+    Bucket destination = currentBuckets.get(destinationAccountId);
+    if (source == null && destination == null) {
+      return;
+    }
+    long now = System.nanoTime() - origin;
+    long sourceDelay = acquire(source, now);
+    long destinationDelay;
+    try {
+      destinationDelay = destination == source ? 0 : acquire(destination, now);
+    } catch (TransferRateExceededException e) {
+      release(source);
+      throw e;
+    }
+    long delay = Math.max(sourceDelay, destinationDelay);
+    if (delay > 0) {
+      LockSupport.parkNanos(delay);
+    }
+  }
+
+  /**
+   * Counts every leg of a multi-leg transfer and waits until all of its accounts are within their
+   * rate, taking one slot of every hot account it touches, or rejects it taking none.
+   */
+  void admit(final String[] sourceAccountIds, final String[] destinationAccountIds) {
+    if (size == 0) {
+      return;
+    }
+    for (int i = 0; i < sourceAccountIds.length; i++) {
+      if (ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+        sample(sourceAccountIds[i], destinationAccountIds[i]);
+      }
+    }
+
+    Map<String, Bucket> currentBuckets = buckets;
+    if (currentBuckets.isEmpty()) {
+      return;
+    }
+    List<Bucket> taken = new ArrayList<>();
+    long now = System.nanoTime() - origin;
+    long delay = 0;
+    try {
+      for (int i = 0; i < sourceAccountIds.length; i++) {
+        delay = Math.max(delay, acquireOnce(currentBuckets.get(sourceAccountIds[i]), now, taken));
+        delay = Math.max(delay, acquireOnce(currentBuckets.get(destinationAccountIds[i]), now, taken));
+      }
+    } catch (TransferRateExceededException e) {
+      taken.forEach(this::release);
+      throw e;
+    }
+    if (delay > 0) {
+      LockSupport.parkNanos(delay);
+    }
+  }
+
+  /**
+   * Hottest accounts first, each with the share of recent transfers it took part in at least.
+   */
+  synchronized List<HotAccount> hotAccounts() {
+    Map<String, Bucket> currentBuckets = buckets;
+    List<HotAccount> hotAccounts = new ArrayList<>(size);
+    for (Map.Entry<String, Counter> entry : hottest()) {
+      Counter counter = entry.getValue();
+      Bucket bucket = currentBuckets.get(entry.getKey());
+      hotAccounts.add(HotAccount.builder()
+          .accountId(entry.getKey())
+          .share(sampledTransfers == 0 ? 0 : (double) (counter.count - counter.error) / sampledTransfers)
+          .rateLimited(bucket != null)
+          .rejectedTransfers(bucket == null ? 0 : bucket.rejected.sum())
+          .build());
+    }
+    return hotAccounts;
+  }
+
+  /**
+   * Takes the next transfer slot of the account and returns how long to wait for it, not waiting
+   * at all while the account is within its burst.
+   */
+  private long acquire(final Bucket bucket, final long now) {
+    if (bucket == null) {
+      return 0;
+    }
+    while (true) {
+      long next = bucket.next.get();
+      long delay = Math.max(next, now) - now - tolerance;
+      if (delay > maxDelay) {
+        bucket.rejected.increment();
+        throw TransferRateExceededException.ACCOUNT;
+      }
+      if (bucket.next.compareAndSet(next, Math.max(next, now) + interval)) {
+        return delay;
+      }
+    }
+  }
+
+  private long acquireOnce(final Bucket bucket, final long now, final List<Bucket> taken) {
+    if (bucket == null || taken.contains(bucket)) {
+      return 0;
+    }
+    long delay = acquire(bucket, now);
+    taken.add(bucket);
+    return delay;
+  }
+
+  /**
+   * Hands a slot taken by a rejected transfer back, so the next transfer may take it.
+   */
+  private void release(final Bucket bucket) {
+    if (bucket != null) {
+      bucket.next.addAndGet(-interval);
+    }
+  }
+
+  private synchronized void sample(final String sourceAccountId, final String destinationAccountId) {
+    count(sourceAccountId);
+    if (!sourceAccountId.equals(destinationAccountId)) {
+      count(destinationAccountId);
+    }
+    sampledTransfers++;
+    if (++samplesSinceRefresh == SAMPLES_PER_REFRESH) {
+      samplesSinceRefresh = 0;
+      refresh();
+    }
+  }
+
+  private void count(final String accountId) {
+    Counter counter = counters.get(accountId);
+    if (counter == null) {
+      counter = counters.size() < size * COUNTERS_PER_HOT_ACCOUNT ? new Counter() : evictColdest();
+      counters.put(accountId, counter);
+    }
+    counter.count++;
+  }
+
+  /**
+   * Hands the counter of the coldest account over to a new one, which might have been counted
+   * as often before it was evicted.
+   */
+  private Counter evictColdest() {
+    Map.Entry<String, Counter> coldest = null;
+    for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+      if (coldest == null || entry.getValue().count < coldest.getValue().count) {
+        coldest = entry;
+      }
+    }
+    Counter counter = counters.remove(coldest.getKey());
+    counter.error = counter.count;
+    return counter;
+  }
+
+  private void refresh() {
+    if (interval > 0) {
+      Map<String, Bucket> refreshedBuckets = new HashMap<>();
+      for (Map.Entry<String, Counter> entry : hottest()) {
+        Bucket bucket = buckets.get(entry.getKey());
+        refreshedBuckets.put(entry.getKey(), bucket == null ? new Bucket() : bucket);
+      }
+      buckets = refreshedBuckets;
+    }
+
+    sampledTransfers >>= 1;
+    for (Iterator<Counter> iterator = counters.values().iterator(); iterator.hasNext(); ) {
+      Counter counter = iterator.next();
+      counter.count >>= 1;
+      counter.error >>= 1;
+      if (counter.count == 0) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private List<Map.Entry<String, Counter>> hottest() {
+    return counters.entrySet().stream()
+        .sorted(comparingLong((Map.Entry<String, Counter> entry) -> entry.getValue().count).reversed())
+        .limit(size)
+        .collect(toList());
+  }
+
+  private static final class Counter {
+
+    private long count;
+    private long error;
+  }
+
+  private static final class Bucket {
+
+    private final AtomicLong next = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+  }
+}
@@ -0,0 +1,53 @@
+package de.wlsc.management;
+
+import java.util.Arrays;
+
+/**
+ * Deduplicates equal values, such as the customer decoded anew with every account, into one
+ * instance per value and hands out a dense int handle for it. Values are only interned by a
+ * single writer, readers never lock.
+ */
+final class Interner<T> implements HandleTable.Keys {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final HandleTable handles = new HandleTable(this);
+  private volatile Object[] values = new Object[INITIAL_CAPACITY];
+  private volatile int size;
+
+  /**
+   * Returns the handle of an equal value interned before or of the given value, which is
+   * interned otherwise.
+   */
+  int intern(final T value) {
+    int hash = value.hashCode();
+    int handle = handles.find(value, hash);
+    if (handle >= 0) {
+      return handle;
+    }
+    handle = size;
+    Object[] currentValues = values;
+    if (handle == currentValues.length) {
+      currentValues = Arrays.copyOf(currentValues, handle * 2);
+    }
+    currentValues[handle] = value;
+    values = currentValues;
+    size = handle + 1;
+    handles.add(handle, hash);
+    return handle;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  T get(final int handle) {
+    return (T) values[handle];
+  }
+
+  @Override
+  public boolean matches(final int handle, final Object key) {
+    return values[handle].equals(key);
+  }
+}
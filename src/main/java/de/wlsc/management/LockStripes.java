@@ -0,0 +1,103 @@
+package de.wlsc.management;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class LockStripes {
+
+  private final ReentrantLock[] locks;
+  private final int mask;
+  private final LongAdder contendedAcquisitions = new LongAdder();
+  private final LongAdder contendedNanos = new LongAdder();
+
+  LockStripes(final int stripes) {
+    if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+      throw new IllegalArgumentException("Number of lock stripes must be a positive power of two");
+    }
+    this.locks = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.mask = stripes - 1;
+  }
+
+  int stripeOf(final String accountId) {
+    int hash = accountId.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /**
+   * Locks both stripes, always the lower index first, so that two transfers in opposite
+   * directions can never deadlock each other.
+   */
+  void lock(final int firstStripe, final int secondStripe) {
+    if (firstStripe == secondStripe) {
+      acquire(locks[firstStripe]);
+    } else if (firstStripe < secondStripe) {
+      acquire(locks[firstStripe]);
+      acquire(locks[secondStripe]);
+    } else {
+      acquire(locks[secondStripe]);
+      acquire(locks[firstStripe]);
+    }
+  }
+
+  void unlock(final int firstStripe, final int secondStripe) {
+    locks[firstStripe].unlock();
+    if (firstStripe != secondStripe) {
+      locks[secondStripe].unlock();
+    }
+  }
+
+  /**
+   * Locks the given stripes, which have to be sorted ascending and free of duplicates.
+   */
+  void lock(final int[] sortedStripes) {
+    for (int stripe : sortedStripes) {
+      acquire(locks[stripe]);
+    }
+  }
+
+  void unlock(final int[] sortedStripes) {
+    for (int i = sortedStripes.length - 1; i >= 0; i--) {
+      locks[sortedStripes[i]].unlock();
+    }
+  }
+
+  void lockAll() {
+    for (ReentrantLock lock : locks) {
+      acquire(lock);
+    }
+  }
+
+  void unlockAll() {
+    for (int i = locks.length - 1; i >= 0; i--) {
+      locks[i].unlock();
+    }
+  }
+
+  /**
+   * Number of lock acquisitions which had to wait for another thread.
+   */
+  long contendedAcquisitions() {
+    return contendedAcquisitions.sum();
+  }
+
+  long contendedNanos() {
+    return contendedNanos.sum();
+  }
+
+  /**
+   * Takes the lock without waiting if possible and only measures acquisitions which had to wait,
+   * so that uncontended locking stays as cheap as before.
+   */
+  private void acquire(final ReentrantLock lock) {
+    if (lock.tryLock()) {
+      return;
+    }
+    long start = System.nanoTime();
+    lock.lock();
+    contendedNanos.add(System.nanoTime() - start);
+    contendedAcquisitions.increment();
+  }
+}
@@ -0,0 +1,154 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountStore.CHUNK_MASK;
+import static de.wlsc.management.AccountStore.CHUNK_SHIFT;
+import static de.wlsc.management.AccountStore.CHUNK_SIZE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Account columns in direct buffers outside of the heap: one row of {@value #ROW_BYTES} bytes per
+ * account, and the UTF-8 encoded ids, each prefixed by its length, appended to id buffers the rows
+ * point into. The garbage collector only sees a few buffers per chunk of accounts, no matter how
+ * many accounts are stored, so its pauses do not grow with the number of accounts. Buffers are
+ * released by the garbage collector once the generation is no longer reachable; their total size
+ * is limited by {@code -XX:MaxDirectMemorySize}.
+ * <p>
+ * Rows are laid out so that longs are 8-byte aligned, which volatile access requires.
+ */
+final class OffHeapAccountColumns implements AccountColumns {
+
+  private static final int AMOUNT = 0;
+  private static final int LAST_SEQUENCE = 8;
+  private static final int ID = 16;
+  private static final int CUSTOMER = 24;
+  private static final int CURRENCY = 28;
+  private static final int ROW_BYTES = 32;
+  private static final int ID_BUFFER_BYTES = 1 << 20;
+
+  private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+  private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+  private volatile ByteBuffer[] rows = new ByteBuffer[0];
+  private volatile ByteBuffer[] idBuffers = new ByteBuffer[0];
+
+  @Override
+  public void add(final int handle, final String id, final long amount, final long lastSequence,
+                  final int customer, final int currency) {
+    int chunkIndex = handle >>> CHUNK_SHIFT;
+    ByteBuffer[] currentRows = rows;
+    if (chunkIndex == currentRows.length) {
+      currentRows = Arrays.copyOf(currentRows, chunkIndex + 1);
+      currentRows[chunkIndex] = ByteBuffer.allocateDirect(CHUNK_SIZE * ROW_BYTES).order(ByteOrder.nativeOrder());
+      rows = currentRows;
+    }
+    ByteBuffer chunk = currentRows[chunkIndex];
+    int row = row(handle);
+    LONGS.set(chunk, row + ID, appendId(id.getBytes(UTF_8)));
+    INTS.set(chunk, row + CUSTOMER, customer);
+    INTS.set(chunk, row + CURRENCY, currency);
+    LONGS.set(chunk, row + LAST_SEQUENCE, lastSequence);
+    LONGS.setVolatile(chunk, row + AMOUNT, amount);
+  }
+
+  @Override
+  public String id(final int handle) {
+    long idReference = (long) LONGS.get(chunk(handle), row(handle) + ID);
+    ByteBuffer idBuffer = idBuffers[(int) (idReference >>> 32)];
+    int position = (int) idReference;
+    byte[] bytes = new byte[(int) INTS.get(idBuffer, position)];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = idBuffer.get(position + Integer.BYTES + i);
+    }
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * Compares ASCII ids byte by byte with the characters of the given id, which is what ids
+   * consist of in practice, and decodes other ids.
+   */
+  @Override
+  public boolean idMatches(final int handle, final String id) {
+    long idReference = (long) LONGS.get(chunk(handle), row(handle) + ID);
+    ByteBuffer idBuffer = idBuffers[(int) (idReference >>> 32)];
+    int position = (int) idReference;
+    int length = (int) INTS.get(idBuffer, position);
+    if (length < id.length()) {
+      return false;
+    }
+    int start = position + Integer.BYTES;
+    for (int i = 0; i < length; i++) {
+      byte character = idBuffer.get(start + i);
+      if (character < 0) {
+        return id(handle).equals(id);
+      }
+      if (i == id.length() || character != id.charAt(i)) {
+        return false;
+      }
+    }
+    return length == id.length();
+  }
+
+  @Override
+  public long amount(final int handle) {
+    return (long) LONGS.getVolatile(chunk(handle), row(handle) + AMOUNT);
+  }
+
+  @Override
+  public void amount(final int handle, final long amount) {
+    LONGS.setVolatile(chunk(handle), row(handle) + AMOUNT, amount);
+  }
+
+  @Override
+  public long lastSequence(final int handle) {
+    return (long) LONGS.get(chunk(handle), row(handle) + LAST_SEQUENCE);
+  }
+
+  @Override
+  public void lastSequence(final int handle, final long lastSequence) {
+    LONGS.set(chunk(handle), row(handle) + LAST_SEQUENCE, lastSequence);
+  }
+
+  @Override
+  public int customer(final int handle) {
+    return (int) INTS.get(chunk(handle), row(handle) + CUSTOMER);
+  }
+
+  @Override
+  public int currency(final int handle) {
+    return (int) INTS.get(chunk(handle), row(handle) + CURRENCY);
+  }
+
+  /**
+   * Appends the length prefixed id to the last id buffer, or to a new one if it does not fit, and
+   * returns the index of the buffer in the upper and the position in the lower half.
+   */
+  private long appendId(final byte[] id) {
+    int length = Integer.BYTES + id.length;
+    ByteBuffer[] currentIdBuffers = idBuffers;
+    int index = currentIdBuffers.length - 1;
+    if (index < 0 || currentIdBuffers[index].remaining() < length) {
+      index++;
+      currentIdBuffers = Arrays.copyOf(currentIdBuffers, index + 1);
+      currentIdBuffers[index] = ByteBuffer.allocateDirect(Math.max(ID_BUFFER_BYTES, length)).order(ByteOrder.nativeOrder());
+      idBuffers = currentIdBuffers;
+    }
+    ByteBuffer idBuffer = currentIdBuffers[index];
+    int position = idBuffer.position();
+    idBuffer.putInt(id.length).put(id);
+    return (long) index << 32 | position;
+  }
+
+  private ByteBuffer chunk(final int handle) {
+    return rows[handle >>> CHUNK_SHIFT];
+  }
+
+  private static int row(final int handle) {
+    return (handle & CHUNK_MASK) * ROW_BYTES;
+  }
+}
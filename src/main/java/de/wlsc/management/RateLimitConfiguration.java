@@ -0,0 +1,37 @@
+package de.wlsc.management;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("rate-limit")
+@Getter
+@Setter
+public class RateLimitConfiguration {
+
+  /**
+   * Number of hot accounts tracked and rate limited, 0 turns both off.
+   */
+  private int hotAccounts = 16;
+
+  /**
+   * One in this many transfers is counted towards the hot accounts.
+   */
+  private int sampleRate = 64;
+
+  /**
+   * Transfers per second a hot account may take part in, 0 only tracks hot accounts.
+   */
+  private int transfersPerSecond;
+
+  /**
+   * Transfers a hot account may take part in at once, beyond its rate.
+   */
+  private int burst = 100;
+
+  /**
+   * How long a transfer beyond the rate waits for its turn before it is rejected.
+   */
+  private Duration maxDelay = Duration.ZERO;
+}
@@ -0,0 +1,74 @@
+package de.wlsc.management;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring buffer for many producers and a single consumer. Producers claim a position with
+ * one CAS and publish their element through the sequence of its slot, so neither side ever
+ * takes a lock and the consumer does not even need a CAS.
+ */
+final class ShardRingBuffer<T> {
+
+  private final Object[] elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  ShardRingBuffer(final int capacity) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity of a ring buffer must be a positive power of two");
+    }
+    this.elements = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Returns false, if the buffer is full.
+   */
+  boolean offer(final T element) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements[index] = element;
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Returns the oldest element or null, if the buffer is empty. Must only be called by the
+   * consumer.
+   */
+  @SuppressWarnings("unchecked")
+  T poll() {
+    int index = (int) head & mask;
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+    T element = (T) elements[index];
+    elements[index] = null;
+    sequences.set(index, head + elements.length);
+    head++;
+    return element;
+  }
+
+  boolean isEmpty() {
+    return sequences.get((int) head & mask) != head + 1;
+  }
+}
@@ -0,0 +1,94 @@
+package de.wlsc.management;
+
+import de.wlsc.management.journal.JournalRecord;
+import de.wlsc.model.Account;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Creation or transfer handed to a shard. Every calling thread reuses its own task, which is safe
+ * because the caller waits until the shards are done with it, so submitting does not allocate.
+ */
+final class ShardTask {
+
+  private static final int AWAIT_SPINS = 100;
+
+  enum Type {
+    CREATION,
+    TRANSFER
+  }
+
+  private final Thread caller = Thread.currentThread();
+  private volatile boolean done;
+
+  Type type;
+  Account account;
+  String fromAccountId;
+  String toAccountId;
+  long amount;
+
+  StoredAccount source;
+  StoredAccount destination;
+  long deposit;
+  long epochSecond;
+  JournalRecord journalRecord;
+  RuntimeException failure;
+  ShardTask nextCredit;
+
+  void creation(final Account account) {
+    reset(Type.CREATION);
+    this.account = account;
+  }
+
+  void transfer(final String fromAccountId, final String toAccountId, final long amount) {
+    reset(Type.TRANSFER);
+    this.fromAccountId = fromAccountId;
+    this.toAccountId = toAccountId;
+    this.amount = amount;
+  }
+
+  void complete() {
+    done = true;
+    LockSupport.unpark(caller);
+  }
+
+  void fail(final RuntimeException failure) {
+    this.failure = failure;
+    complete();
+  }
+
+  /**
+   * Waits for the shards, spinning briefly first as most tasks are done within microseconds, and
+   * returns the journal record or throws the failure of the task.
+   */
+  JournalRecord await() {
+    int spins = 0;
+    while (!done) {
+      if (spins < AWAIT_SPINS) {
+        spins++;
+        Thread.onSpinWait();
+      } else {
+        LockSupport.park(this);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return journalRecord;
+  }
+
+  private void reset(final Type type) {
+    this.type = type;
+    this.account = null;
+    this.fromAccountId = null;
+    this.toAccountId = null;
+    this.amount = 0;
+    this.source = null;
+    this.destination = null;
+    this.deposit = 0;
+    this.epochSecond = 0;
+    this.journalRecord = null;
+    this.failure = null;
+    this.nextCredit = null;
+    this.done = false;
+  }
+}
@@ -0,0 +1,15 @@
+package de.wlsc.management;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("sharding")
+@Getter
+@Setter
+public class ShardingConfiguration {
+
+  private boolean enabled;
+  private int shards = Runtime.getRuntime().availableProcessors();
+  private int queueCapacity = 1024;
+}
@@ -0,0 +1,17 @@
+package de.wlsc.management;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("store")
+@Getter
+@Setter
+public class StoreConfiguration {
+
+  private StoreMemory memory = StoreMemory.HEAP;
+  /**
+   * Number of last transfers kept per account, 0 keeps no history.
+   */
+  private int historyDepth = 16;
+}
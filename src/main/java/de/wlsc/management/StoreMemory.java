@@ -0,0 +1,18 @@
+package de.wlsc.management;
+
+/**
+ * Where the store keeps the fixed-width columns of accounts.
+ */
+public enum StoreMemory {
+
+  /**
+   * Chunked arrays on the heap.
+   */
+  HEAP,
+
+  /**
+   * Direct buffers outside of the heap, which keeps garbage collection independent of the number
+   * of accounts.
+   */
+  OFF_HEAP
+}
@@ -0,0 +1,92 @@
+package de.wlsc.management;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import de.wlsc.model.TransferHistoryPage;
+import java.util.Currency;
+
+/**
+ * View of an account stored under its handle in a store generation. Views are cheap to create,
+ * two views of the same account are equal. The balance is only written while holding the
+ * account's lock stripe, or by the shard owning the account, and is read and written with
+ * volatile semantics so that readers without the lock always see a complete value. The sequence
+ * of the last journal record applied to the account is guarded the same way.
+ */
+final class StoredAccount {
+
+  private final AccountStore.Generation generation;
+  private final int handle;
+
+  StoredAccount(final AccountStore.Generation generation, final int handle) {
+    this.generation = generation;
+    this.handle = handle;
+  }
+
+  String getId() {
+    return generation.id(handle);
+  }
+
+  Currency getCurrency() {
+    return generation.currency(handle);
+  }
+
+  Customer getCustomer() {
+    return generation.customer(handle);
+  }
+
+  long getAmount() {
+    return generation.amount(handle);
+  }
+
+  long getLastSequence() {
+    return generation.lastSequence(handle);
+  }
+
+  void setLastSequence(final long lastSequence) {
+    generation.lastSequence(handle, lastSequence);
+  }
+
+  void withdraw(final long withdrawal) {
+    generation.withdraw(handle, withdrawal);
+  }
+
+  void deposit(final long deposit) {
+    generation.deposit(handle, deposit);
+  }
+
+  /**
+   * Records a transfer with the counterparty in the history of the account, a negative amount
+   * for a withdrawal. Guarded like the balance.
+   */
+  void recordTransfer(final long sequence, final StoredAccount counterparty, final long amount,
+                      final long epochSecond) {
+    generation.record(handle, sequence, counterparty.handle, amount, epochSecond);
+  }
+
+  TransferHistoryPage history(final long before, final int limit) {
+    return generation.history(handle, before, limit);
+  }
+
+  Account toAccount() {
+    return Account.builder()
+        .id(getId())
+        .amount(getAmount())
+        .currency(getCurrency())
+        .customer(getCustomer())
+        .build();
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof StoredAccount)) {
+      return false;
+    }
+    StoredAccount storedAccount = (StoredAccount) other;
+    return generation == storedAccount.generation && handle == storedAccount.handle;
+  }
+
+  @Override
+  public int hashCode() {
+    return handle;
+  }
+}
@@ -0,0 +1,159 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountStore.CHUNK_MASK;
+import static de.wlsc.management.AccountStore.CHUNK_SHIFT;
+import static de.wlsc.management.AccountStore.CHUNK_SIZE;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The last transfers of every account of a store generation, each account in a ring of
+ * {@code depth} entries which is allocated with the first transfer of the account, so memory
+ * stays bounded by the number of accounts that ever transferred money and old entries age out.
+ * An entry takes three longs: the journal sequence, the signed amount and the counterparty's
+ * handle together with the time in epoch seconds.
+ * <p>
+ * A ring is only written by the owner of its account, the holder of the account's lock stripe or
+ * its shard, so writing takes no lock of its own. Readers never lock: the writer counts an entry
+ * as started before it overwrites the oldest one and as completed afterwards, and readers drop
+ * entries which may have been overwritten while they copied them.
+ */
+final class TransferHistory {
+
+  private static final int STARTED = 0;
+  private static final int COMPLETED = 1;
+  private static final int HEADER_LONGS = 2;
+  private static final int ENTRY_LONGS = 3;
+
+  private static final VarHandle RINGS = MethodHandles.arrayElementVarHandle(long[][].class);
+  private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private final int depth;
+  private volatile long[][][] chunks = new long[0][][];
+
+  TransferHistory(final int depth) {
+    this.depth = depth;
+  }
+
+  /**
+   * Makes room for the ring of a new account. Called by the single writer adding accounts, before
+   * the account is published.
+   */
+  void added(final int handle) {
+    int chunkIndex = handle >>> CHUNK_SHIFT;
+    if (depth > 0 && chunkIndex == chunks.length) {
+      long[][][] grownChunks = Arrays.copyOf(chunks, chunkIndex + 1);
+      grownChunks[chunkIndex] = new long[CHUNK_SIZE][];
+      chunks = grownChunks;
+    }
+  }
+
+  /**
+   * Time of a transfer as recorded, read once per transfer for both of its entries, as reading
+   * the clock costs about as much as writing an entry.
+   */
+  static long now() {
+    return System.currentTimeMillis() / 1000;
+  }
+
+  /**
+   * Records a transfer of the account, a negative amount for a withdrawal. Only called by the
+   * owner of the account.
+   */
+  void record(final int handle, final long sequence, final int counterparty, final long amount,
+              final long epochSecond) {
+    if (depth == 0) {
+      return;
+    }
+    long[][] chunk = chunks[handle >>> CHUNK_SHIFT];
+    long[] ring = chunk[handle & CHUNK_MASK];
+    if (ring == null) {
+      ring = new long[HEADER_LONGS + depth * ENTRY_LONGS];
+      RINGS.setRelease(chunk, handle & CHUNK_MASK, ring);
+    }
+    long index = ring[COMPLETED];
+    int entry = offset(index);
+    COUNTS.setOpaque(ring, STARTED, index + 1);
+    VarHandle.storeStoreFence();
+    ring[entry] = sequence;
+    ring[entry + 1] = amount;
+    ring[entry + 2] = (long) counterparty << 32 | (epochSecond & 0xFFFFFFFFL);
+    COUNTS.setRelease(ring, COMPLETED, index + 1);
+  }
+
+  /**
+   * Reads up to {@code limit} entries with an index below {@code before}, newest first. Indexes
+   * count the transfers of the account from 0 and serve as cursor.
+   */
+  Slice read(final int handle, final long before, final int limit) {
+    long[][][] currentChunks = chunks;
+    int chunkIndex = handle >>> CHUNK_SHIFT;
+    long[] ring = chunkIndex < currentChunks.length
+        ? (long[]) RINGS.getAcquire(currentChunks[chunkIndex], handle & CHUNK_MASK)
+        : null;
+    if (ring == null) {
+      return new Slice(new ArrayList<>(), 0, 0);
+    }
+
+    long completed = (long) COUNTS.getAcquire(ring, COMPLETED);
+    long to = Math.min(before, completed);
+    long from = Math.max(Math.max(0, completed - depth), to - limit);
+    long[] copy = new long[(int) Math.max(0, to - from) * ENTRY_LONGS];
+    for (long index = from; index < to; index++) {
+      System.arraycopy(ring, offset(index), copy, (int) (index - from) * ENTRY_LONGS, ENTRY_LONGS);
+    }
+    VarHandle.loadLoadFence();
+    long oldest = Math.max(0, (long) COUNTS.getOpaque(ring, STARTED) - depth);
+
+    List<Entry> entries = new ArrayList<>();
+    for (long index = to - 1; index >= Math.max(from, oldest); index--) {
+      int entry = (int) (index - from) * ENTRY_LONGS;
+      entries.add(new Entry(copy[entry], copy[entry + 1], (int) (copy[entry + 2] >>> 32),
+          copy[entry + 2] & 0xFFFFFFFFL));
+    }
+    return new Slice(entries, Math.max(from, oldest), oldest);
+  }
+
+  private int offset(final long index) {
+    return HEADER_LONGS + (int) (index % depth) * ENTRY_LONGS;
+  }
+
+  static final class Slice {
+
+    final List<Entry> entries;
+    final long from;
+    final long oldest;
+
+    Slice(final List<Entry> entries, final long from, final long oldest) {
+      this.entries = entries;
+      this.from = from;
+      this.oldest = oldest;
+    }
+
+    /**
+     * Whether older entries than the ones read are still retained.
+     */
+    boolean hasOlder() {
+      return from > oldest;
+    }
+  }
+
+  static final class Entry {
+
+    final long sequence;
+    final long amount;
+    final int counterparty;
+    final long epochSecond;
+
+    Entry(final long sequence, final long amount, final int counterparty, final long epochSecond) {
+      this.sequence = sequence;
+      this.amount = amount;
+      this.counterparty = counterparty;
+      this.epochSecond = epochSecond;
+    }
+  }
+}
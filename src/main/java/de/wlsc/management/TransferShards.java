@@ -0,0 +1,307 @@
+package de.wlsc.management;
+
+import de.wlsc.management.exception.AccountAlreadyExistException;
+import de.wlsc.management.exception.AccountNotFoundException;
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.fx.FxRateTable;
+import de.wlsc.management.journal.JournalRecord;
+import de.wlsc.management.journal.TransferJournal;
+import de.wlsc.model.Account;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accounts partitioned across shards, each owned by a single thread which is the only writer of
+ * its accounts' balances and applies creations and transfers one after the other from a bounded
+ * ring buffer. No lock is taken, so a hot account never makes other transfers wait for a lock.
+ * <p>
+ * A transfer between two shards is applied in two phases: the source shard checks, journals and
+ * withdraws the money, then hands the deposit off to the destination shard. Hand-offs go through
+ * an unbounded stack instead of the ring buffer, so shards never wait for each other and can not
+ * deadlock.
+ * <p>
+ * Operations spanning all accounts run while the shards are quiescent: new tasks are held back
+ * until every submitted task including its deposit is applied, so no money is in flight.
+ */
+@Slf4j
+final class TransferShards implements AutoCloseable {
+
+  private static final int IDLE_SPINS = 100;
+
+  private final AccountStore accountStore;
+  private final TransferJournal transferJournal;
+  private final FxRateTable fxRateTable;
+  private final Shard[] shards;
+  private final ThreadLocal<ShardTask> tasks = ThreadLocal.withInitial(ShardTask::new);
+  private final AtomicLong submittedTasks = new AtomicLong();
+  private final ReentrantLock quiescence = new ReentrantLock();
+  private final ReentrantLock pauseLock = new ReentrantLock();
+  private final Condition resumed = pauseLock.newCondition();
+  private volatile boolean paused;
+  private volatile boolean running = true;
+
+  TransferShards(final ShardingConfiguration shardingConfiguration,
+                 final AccountStore accountStore,
+                 final TransferJournal transferJournal,
+                 final FxRateTable fxRateTable) {
+    if (shardingConfiguration.getShards() <= 0) {
+      throw new IllegalArgumentException("Number of shards must be positive");
+    }
+    this.accountStore = accountStore;
+    this.transferJournal = transferJournal;
+    this.fxRateTable = fxRateTable;
+    this.shards = new Shard[shardingConfiguration.getShards()];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard(i, shardingConfiguration.getQueueCapacity());
+    }
+    for (Shard shard : shards) {
+      shard.thread.start();
+    }
+    log.info("Transfers are applied by {} shards", shards.length);
+  }
+
+  JournalRecord create(final Account account) {
+    ShardTask task = tasks.get();
+    task.creation(account);
+    return submit(shardOf(account.getId()), task);
+  }
+
+  JournalRecord transfer(final String fromAccountId, final String toAccountId, final long amount) {
+    ShardTask task = tasks.get();
+    task.transfer(fromAccountId, toAccountId, amount);
+    return submit(shardOf(fromAccountId), task);
+  }
+
+  /**
+   * Runs the action while no task is being applied by any shard. Tasks submitted in the meantime
+   * wait until the action is done.
+   */
+  <T> T quiesce(final Supplier<T> action) {
+    quiescence.lock();
+    paused = true;
+    try {
+      while (submittedTasks.get() != 0) {
+        Thread.yield();
+      }
+      return action.get();
+    } finally {
+      pauseLock.lock();
+      try {
+        paused = false;
+        resumed.signalAll();
+      } finally {
+        pauseLock.unlock();
+      }
+      quiescence.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    for (Shard shard : shards) {
+      LockSupport.unpark(shard.thread);
+    }
+  }
+
+  private JournalRecord submit(final Shard shard, final ShardTask task) {
+    awaitResumption();
+    shard.offer(task);
+    return task.await();
+  }
+
+  private void awaitResumption() {
+    while (true) {
+      submittedTasks.incrementAndGet();
+      if (!paused) {
+        return;
+      }
+      submittedTasks.decrementAndGet();
+      pauseLock.lock();
+      try {
+        while (paused) {
+          resumed.awaitUninterruptibly();
+        }
+      } finally {
+        pauseLock.unlock();
+      }
+    }
+  }
+
+  private Shard shardOf(final String accountId) {
+    int hash = accountId.hashCode();
+    return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+  }
+
+  private void complete(final ShardTask task) {
+    submittedTasks.decrementAndGet();
+    task.complete();
+  }
+
+  private void fail(final ShardTask task, final RuntimeException failure) {
+    submittedTasks.decrementAndGet();
+    task.fail(failure);
+  }
+
+  private StoredAccount findAccount(final String accountId, final AccountNotFoundException notFound) {
+    StoredAccount account = accountStore.find(accountId);
+    if (account == null) {
+      throw notFound;
+    }
+    return account;
+  }
+
+  private final class Shard implements Runnable {
+
+    private final ShardRingBuffer<ShardTask> queue;
+    private final AtomicReference<ShardTask> credits = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean parked;
+
+    Shard(final int index, final int queueCapacity) {
+      this.queue = new ShardRingBuffer<>(queueCapacity);
+      this.thread = new Thread(this, "transfer-shard-" + index);
+      this.thread.setDaemon(true);
+    }
+
+    /**
+     * Waits while the ring buffer is full, which throttles callers to the pace of the shard.
+     */
+    void offer(final ShardTask task) {
+      while (!queue.offer(task)) {
+        Thread.yield();
+      }
+      wakeUp();
+    }
+
+    void handOff(final ShardTask task) {
+      ShardTask head;
+      do {
+        head = credits.get();
+        task.nextCredit = head;
+      } while (!credits.compareAndSet(head, task));
+      wakeUp();
+    }
+
+    @Override
+    public void run() {
+      int idleSpins = 0;
+      while (running) {
+        boolean applied = applyCredits();
+        ShardTask task = queue.poll();
+        if (task != null) {
+          apply(task);
+          applied = true;
+        }
+        if (applied) {
+          idleSpins = 0;
+        } else if (idleSpins < IDLE_SPINS) {
+          idleSpins++;
+          Thread.onSpinWait();
+        } else {
+          park();
+        }
+      }
+    }
+
+    private void wakeUp() {
+      if (parked) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    private void park() {
+      parked = true;
+      if (running && queue.isEmpty() && credits.get() == null) {
+        LockSupport.park(this);
+      }
+      parked = false;
+    }
+
+    private void apply(final ShardTask task) {
+      try {
+        if (task.type == ShardTask.Type.CREATION) {
+          applyCreation(task);
+        } else {
+          applyWithdrawal(task);
+        }
+      } catch (RuntimeException e) {
+        fail(task, e);
+      }
+    }
+
+    /**
+     * Journals the creation before the account becomes visible, so no transfer of the account
+     * can be journaled ahead of its creation.
+     */
+    private void applyCreation(final ShardTask task) {
+      if (accountStore.find(task.account.getId()) != null) {
+        throw new AccountAlreadyExistException("Account does already exist");
+      }
+      JournalRecord journalRecord = transferJournal.appendCreation(task.account);
+      accountStore.add(task.account, journalRecord.getSequence());
+      task.journalRecord = journalRecord;
+      complete(task);
+    }
+
+    private void applyWithdrawal(final ShardTask task) {
+      StoredAccount source = findAccount(task.fromAccountId, AccountNotFoundException.SOURCE_ACCOUNT);
+      StoredAccount destination = findAccount(task.toAccountId, AccountNotFoundException.DESTINATION_ACCOUNT);
+
+      if ((source.getAmount() - task.amount) < 0) {
+        throw NotEnoughMoneyException.SOURCE_ACCOUNT;
+      }
+
+      long deposit = AccountManagement.amountInDestinationCurrency(fxRateTable.current(), source, destination,
+          task.amount);
+      JournalRecord journalRecord = transferJournal.appendTransfer(task.fromAccountId, task.toAccountId,
+          task.amount, deposit);
+      source.withdraw(task.amount);
+      source.setLastSequence(journalRecord.getSequence());
+      task.epochSecond = TransferHistory.now();
+      source.recordTransfer(journalRecord.getSequence(), destination, -task.amount, task.epochSecond);
+
+      task.source = source;
+      task.destination = destination;
+      task.deposit = deposit;
+      task.journalRecord = journalRecord;
+      Shard destinationShard = shardOf(task.toAccountId);
+      if (destinationShard == this) {
+        applyDeposit(task);
+      } else {
+        destinationShard.handOff(task);
+      }
+    }
+
+    private boolean applyCredits() {
+      if (credits.get() == null) {
+        return false;
+      }
+      ShardTask task = credits.getAndSet(null);
+      while (task != null) {
+        ShardTask next = task.nextCredit;
+        task.nextCredit = null;
+        applyDeposit(task);
+        task = next;
+      }
+      return true;
+    }
+
+    /**
+     * Deposits may arrive out of journal order, the last sequence of the destination therefore
+     * only moves forward.
+     */
+    private void applyDeposit(final ShardTask task) {
+      StoredAccount destination = task.destination;
+      destination.deposit(task.deposit);
+      destination.setLastSequence(Math.max(destination.getLastSequence(), task.journalRecord.getSequence()));
+      destination.recordTransfer(task.journalRecord.getSequence(), task.source, task.deposit, task.epochSecond);
+      complete(task);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package de.wlsc.management.deduplication;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("deduplication")
+@Getter
+@Setter
+public class DeduplicationConfiguration {
+
+  private int maxSize = 1_000_000;
+  private Duration expireAfter = Duration.ofMinutes(10);
+}
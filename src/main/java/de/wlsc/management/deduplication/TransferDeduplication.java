@@ -0,0 +1,400 @@
+package de.wlsc.management.deduplication;
+
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.TransferIdConflictException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferLeg;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Remembers the outcome of transfers by their id, so that a retried transfer is answered with the
+ * original outcome instead of being applied again. Outcomes expire a fixed time after the
+ * transfer was first seen, which makes insertion order the eviction order for both the time and
+ * the size bound, so a plain queue is enough to evict in constant time.
+ *
+ * <p>Only business rejections ({@link TransferRejectedException} and
+ * {@link IllegalArgumentException}) are remembered as failures. Any other failure forgets the id
+ * again, so that the client can retry, unless the transfer has already changed the balances. Such
+ * a transfer is remembered as succeeded, as applying it again would move the money twice.
+ */
+@Singleton
+public class TransferDeduplication implements MeterBinder {
+
+  /**
+   * Approximate bytes of a remembered outcome without its strings on a 64-bit JVM with compressed
+   * references: outcome, map node and table slot, queue node and the transfer itself.
+   */
+  private static final long ENTRY_OVERHEAD = 128;
+  private static final long MULTI_LEG_OVERHEAD = 64;
+  private static final long LEG_OVERHEAD = 40;
+
+  private final int maxSize;
+  private final long expireAfterNanos;
+  private final LongSupplier nanoTime;
+  private final Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+  private final Queue<Outcome> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final LongAdder retainedBytes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @Inject
+  public TransferDeduplication(final DeduplicationConfiguration deduplicationConfiguration) {
+    this(deduplicationConfiguration, System::nanoTime);
+  }
+
+  TransferDeduplication(final DeduplicationConfiguration deduplicationConfiguration, final LongSupplier nanoTime) {
+    this.maxSize = deduplicationConfiguration.getMaxSize();
+    this.expireAfterNanos = deduplicationConfiguration.getExpireAfter().toNanos();
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Runs the transfer, unless a transfer with the same id was seen before. A known transfer waits
+   * for the original one to finish and then completes the same way, a different transfer reusing
+   * a known id is rejected. Transfers without id are never deduplicated.
+   */
+  public void execute(final MoneyTransfer moneyTransfer, final Runnable transfer) {
+    execute(moneyTransfer, applied -> transfer.run());
+  }
+
+  /**
+   * Runs the transfer like {@link #execute(MoneyTransfer, Runnable)}, remembering it as succeeded
+   * from the moment it reports its balance changes as applied, whatever fails afterwards.
+   */
+  public void execute(final MoneyTransfer moneyTransfer, final Transfer transfer) {
+    execute(moneyTransfer.getId(), moneyTransfer, transferBytes(moneyTransfer), transfer);
+  }
+
+  /**
+   * Runs the multi-leg transfer once per id, sharing the ids with single transfers.
+   */
+  public void execute(final MultiLegTransfer multiLegTransfer, final Transfer transfer) {
+    execute(multiLegTransfer.getId(), multiLegTransfer, transferBytes(multiLegTransfer), transfer);
+  }
+
+  /**
+   * Answers a retry of a known transfer with its original outcome, waiting for it if it is still
+   * running, and returns whether the transfer was known. Lets a caller skip work which only new
+   * transfers need, such as rate limiting, before {@link #execute(MoneyTransfer, Transfer)}.
+   */
+  public boolean replay(final MoneyTransfer moneyTransfer) {
+    return replay(moneyTransfer.getId(), moneyTransfer);
+  }
+
+  /**
+   * Answers a retry of a known multi-leg transfer like {@link #replay(MoneyTransfer)}.
+   */
+  public boolean replay(final MultiLegTransfer multiLegTransfer) {
+    return replay(multiLegTransfer.getId(), multiLegTransfer);
+  }
+
+  /**
+   * Runs an all-or-nothing batch once per transfer id. All ids of the batch are remembered before
+   * it runs. A transfer whose id is known already fails the batch at its index before anything is
+   * applied: an applied transfer as already applied, a rejected one with its original rejection,
+   * and one still running, possibly in the same batch, as conflicting instead of waiting for it.
+   * The ids of a batch that was not applied are forgotten again, as none of its transfers was.
+   */
+  public void execute(final List<MoneyTransfer> moneyTransfers, final Transfer transfer) {
+    if (maxSize <= 0) {
+      transfer.run(() -> { });
+      return;
+    }
+
+    long now = nanoTime.getAsLong();
+    List<Outcome> remembered = new ArrayList<>(moneyTransfers.size());
+    for (int i = 0; i < moneyTransfers.size(); i++) {
+      MoneyTransfer moneyTransfer = moneyTransfers.get(i);
+      if (moneyTransfer == null || moneyTransfer.getId() == null) {
+        continue;
+      }
+      Outcome outcome = new Outcome(moneyTransfer.getId(), moneyTransfer,
+          ENTRY_OVERHEAD + transferBytes(moneyTransfer), now);
+      Outcome known = remember(outcome, now);
+      if (known != outcome) {
+        BatchTransferFailedException rejection = new BatchTransferFailedException(i, known.rejectRetry(moneyTransfer));
+        remembered.forEach(rememberedOutcome -> fail(rememberedOutcome, rejection));
+        throw rejection;
+      }
+      remembered.add(outcome);
+    }
+    evict(now);
+
+    boolean[] applied = new boolean[1];
+    try {
+      transfer.run(() -> applied[0] = true);
+      remembered.forEach(outcome -> outcome.complete(null));
+    } catch (RuntimeException | Error e) {
+      if (applied[0]) {
+        remembered.forEach(outcome -> outcome.complete(null));
+      } else {
+        remembered.forEach(outcome -> fail(outcome, e));
+      }
+      throw e;
+    }
+  }
+
+  private void execute(final String id, final Object request, final long requestBytes, final Transfer transfer) {
+    if (id == null || maxSize <= 0) {
+      transfer.run(() -> { });
+      return;
+    }
+
+    long now = nanoTime.getAsLong();
+    Outcome outcome = new Outcome(id, request, ENTRY_OVERHEAD + requestBytes, now);
+    Outcome known = remember(outcome, now);
+    if (known != outcome) {
+      known.replay(request);
+      return;
+    }
+    evict(now);
+
+    boolean[] applied = new boolean[1];
+    try {
+      transfer.run(() -> applied[0] = true);
+      outcome.complete(null);
+    } catch (TransferRejectedException | IllegalArgumentException e) {
+      outcome.complete(applied[0] ? null : e);
+      throw e;
+    } catch (RuntimeException | Error e) {
+      if (applied[0]) {
+        outcome.complete(null);
+      } else {
+        fail(outcome, e);
+      }
+      throw e;
+    }
+  }
+
+  private boolean replay(final String id, final Object request) {
+    if (id == null || maxSize <= 0) {
+      return false;
+    }
+    Outcome known = outcomes.get(id);
+    if (known == null || known.isExpired(nanoTime.getAsLong())) {
+      return false;
+    }
+    hits.increment();
+    known.replay(request);
+    return true;
+  }
+
+  /**
+   * Remembers the outcome for its id and returns it, or returns the outcome already known for the
+   * id as long as it has not expired.
+   */
+  private Outcome remember(final Outcome outcome, final long now) {
+    Outcome known = outcomes.putIfAbsent(outcome.id, outcome);
+    while (known != null) {
+      if (!known.isExpired(now)) {
+        hits.increment();
+        return known;
+      }
+      if (outcomes.replace(outcome.id, known, outcome)) {
+        retainedBytes.add(-known.retainedBytes);
+        break;
+      }
+      known = outcomes.putIfAbsent(outcome.id, outcome);
+    }
+    misses.increment();
+    retainedBytes.add(outcome.retainedBytes);
+    insertionOrder.offer(outcome);
+    return outcome;
+  }
+
+  /**
+   * Forgets a transfer that was not applied, so that it can be retried, and fails those waiting
+   * for it meanwhile.
+   */
+  private void fail(final Outcome outcome, final Throwable failure) {
+    forget(outcome);
+    outcome.complete(failure);
+  }
+
+  public int size() {
+    return outcomes.size();
+  }
+
+  /**
+   * Approximate heap retained by the remembered outcomes.
+   */
+  public long retainedBytes() {
+    return retainedBytes.sum();
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    Gauge.builder("transfer.deduplication.size", this, TransferDeduplication::size)
+        .description("Transfer ids currently remembered")
+        .register(registry);
+    Gauge.builder("transfer.deduplication.memory", this, TransferDeduplication::retainedBytes)
+        .description("Approximate heap retained by remembered transfer outcomes")
+        .baseUnit("bytes")
+        .register(registry);
+    FunctionCounter.builder("transfer.deduplication.requests", hits, LongAdder::sum)
+        .description("Transfers with an id seen before")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("transfer.deduplication.requests", misses, LongAdder::sum)
+        .description("Transfers with an id not seen before")
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder("transfer.deduplication.evictions", evictions, LongAdder::sum)
+        .description("Transfer ids forgotten because of size or age")
+        .register(registry);
+  }
+
+  private void evict(final long now) {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      Outcome oldest;
+      while ((oldest = insertionOrder.peek()) != null && (outcomes.size() > maxSize || oldest.isExpired(now))) {
+        insertionOrder.poll();
+        if (forget(oldest)) {
+          evictions.increment();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private boolean forget(final Outcome outcome) {
+    if (outcomes.remove(outcome.id, outcome)) {
+      retainedBytes.add(-outcome.retainedBytes);
+      return true;
+    }
+    return false;
+  }
+
+  private static long transferBytes(final MoneyTransfer moneyTransfer) {
+    return stringBytes(moneyTransfer.getId()) + stringBytes(moneyTransfer.getFromAccountId())
+        + stringBytes(moneyTransfer.getToAccountId());
+  }
+
+  /**
+   * The legs come with a list of their own and about 40 bytes each, besides their strings.
+   */
+  private static long transferBytes(final MultiLegTransfer multiLegTransfer) {
+    long bytes = MULTI_LEG_OVERHEAD + stringBytes(multiLegTransfer.getId());
+    if (multiLegTransfer.getLegs() != null) {
+      for (TransferLeg transferLeg : multiLegTransfer.getLegs()) {
+        bytes += LEG_OVERHEAD + stringBytes(transferLeg.getFromAccountId()) + stringBytes(transferLeg.getToAccountId());
+      }
+    }
+    return bytes;
+  }
+
+  private static long stringBytes(final String value) {
+    return value == null ? 0 : 40 + ((value.length() + 7) & ~7);
+  }
+
+  /**
+   * A transfer reporting when its balance changes are applied, before it waits for them to become
+   * durable.
+   */
+  @FunctionalInterface
+  public interface Transfer {
+
+    void run(Runnable applied);
+  }
+
+  private final class Outcome {
+
+    private final String id;
+    private final Object request;
+    private final long retainedBytes;
+    private final long createdNanos;
+    private final CountDownLatch completion = new CountDownLatch(1);
+    private volatile Throwable failure;
+
+    Outcome(final String id, final Object request, final long retainedBytes, final long createdNanos) {
+      this.id = id;
+      this.request = request;
+      this.retainedBytes = retainedBytes;
+      this.createdNanos = createdNanos;
+    }
+
+    boolean isExpired(final long now) {
+      return now - createdNanos >= expireAfterNanos;
+    }
+
+    void complete(final Throwable failure) {
+      this.failure = failure;
+      completion.countDown();
+    }
+
+    /**
+     * Rejection of a retry within a batch, which must not wait for the original transfer, as that
+     * may be a transfer of the same batch.
+     */
+    RuntimeException rejectRetry(final Object retriedRequest) {
+      if (!request.equals(retriedRequest)) {
+        return new TransferIdConflictException("Transfer id was already used for a different transfer");
+      }
+      if (completion.getCount() > 0) {
+        return new TransferIdConflictException("Transfer id is used by a transfer still running");
+      }
+      if (failure == null) {
+        return new TransferIdConflictException("Transfer was already applied");
+      }
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      return (RuntimeException) failure;
+    }
+
+    void replay(final Object retriedRequest) {
+      if (!request.equals(retriedRequest)) {
+        throw new TransferIdConflictException("Transfer id was already used for a different transfer");
+      }
+      Throwable originalFailure = awaitCompletion();
+      if (originalFailure instanceof RuntimeException) {
+        throw (RuntimeException) originalFailure;
+      }
+      if (originalFailure instanceof Error) {
+        throw (Error) originalFailure;
+      }
+    }
+
+    /**
+     * Waits on a latch instead of a monitor, so that a waiting virtual thread does not pin its
+     * carrier thread.
+     */
+    private Throwable awaitCompletion() {
+      boolean interrupted = false;
+      while (completion.getCount() > 0) {
+        try {
+          completion.await();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return failure;
+    }
+  }
+}
@@ -1,6 +1,12 @@
 package de.wlsc.management.exception;
 
-public class AccountNotFoundException extends IllegalArgumentException {
+public class AccountNotFoundException extends TransferRejectedException {
+
+  public static final AccountNotFoundException ACCOUNT = new AccountNotFoundException("Account not found");
+  public static final AccountNotFoundException SOURCE_ACCOUNT =
+      new AccountNotFoundException("Source account not found");
+  public static final AccountNotFoundException DESTINATION_ACCOUNT =
+      new AccountNotFoundException("Destination account not found");
 
   public AccountNotFoundException(final String message) {
     super(message);
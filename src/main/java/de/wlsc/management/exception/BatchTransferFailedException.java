@@ -0,0 +1,15 @@
+package de.wlsc.management.exception;
+
+public class BatchTransferFailedException extends IllegalArgumentException {
+
+  private final int failedTransferIndex;
+
+  public BatchTransferFailedException(final int failedTransferIndex, final RuntimeException cause) {
+    super(cause.getMessage(), cause);
+    this.failedTransferIndex = failedTransferIndex;
+  }
+
+  public int getFailedTransferIndex() {
+    return failedTransferIndex;
+  }
+}
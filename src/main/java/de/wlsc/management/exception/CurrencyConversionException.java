@@ -0,0 +1,8 @@
+package de.wlsc.management.exception;
+
+public class CurrencyConversionException extends IllegalArgumentException {
+
+  public CurrencyConversionException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package de.wlsc.management.exception;
+
+public class InvalidCursorException extends IllegalArgumentException {
+
+  public InvalidCursorException(final String message) {
+    super(message);
+  }
+}
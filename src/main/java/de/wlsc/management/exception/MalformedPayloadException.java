@@ -0,0 +1,14 @@
+package de.wlsc.management.exception;
+
+public class MalformedPayloadException extends IllegalArgumentException {
+
+  public static final String MISSING_TRANSFER = "Transfer is missing";
+
+  public MalformedPayloadException(final String message) {
+    super(message);
+  }
+
+  public MalformedPayloadException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -1,6 +1,9 @@
 package de.wlsc.management.exception;
 
-public class NegativeAmountTransferException extends IllegalArgumentException {
+public class NegativeAmountTransferException extends TransferRejectedException {
+
+  public static final NegativeAmountTransferException NEGATIVE_AMOUNT =
+      new NegativeAmountTransferException("Negative amount of money is not accepted");
 
   public NegativeAmountTransferException(final String message) {
     super(message);
@@ -1,6 +1,9 @@
 package de.wlsc.management.exception;
 
-public class NotEnoughMoneyException extends IllegalArgumentException {
+public class NotEnoughMoneyException extends TransferRejectedException {
+
+  public static final NotEnoughMoneyException SOURCE_ACCOUNT =
+      new NotEnoughMoneyException("Source account has not enough money to transfer");
 
   public NotEnoughMoneyException(final String message) {
     super(message);
@@ -0,0 +1,8 @@
+package de.wlsc.management.exception;
+
+public class NotLeaderException extends IllegalArgumentException {
+
+  public NotLeaderException(final String message) {
+    super(message);
+  }
+}
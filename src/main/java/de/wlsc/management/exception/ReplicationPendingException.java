@@ -0,0 +1,12 @@
+package de.wlsc.management.exception;
+
+/**
+ * The change was applied and journaled, but not enough followers acknowledged it in time. It is
+ * not rolled back, a retry with the same transfer id is answered as succeeded.
+ */
+public class ReplicationPendingException extends RuntimeException {
+
+  public ReplicationPendingException(final String message) {
+    super(message);
+  }
+}
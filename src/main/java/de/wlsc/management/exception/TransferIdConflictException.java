@@ -0,0 +1,8 @@
+package de.wlsc.management.exception;
+
+public class TransferIdConflictException extends IllegalArgumentException {
+
+  public TransferIdConflictException(final String message) {
+    super(message);
+  }
+}
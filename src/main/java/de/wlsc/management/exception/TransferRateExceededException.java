@@ -0,0 +1,11 @@
+package de.wlsc.management.exception;
+
+public class TransferRateExceededException extends TransferRejectedException {
+
+  public static final TransferRateExceededException ACCOUNT =
+      new TransferRateExceededException("Account takes part in too many transfers, retry later");
+
+  public TransferRateExceededException(final String message) {
+    super(message);
+  }
+}
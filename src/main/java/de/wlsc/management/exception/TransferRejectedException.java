@@ -0,0 +1,27 @@
+package de.wlsc.management.exception;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Rejection of a transfer the client caused, such as a transfer from an unknown account. These
+ * are a regular outcome under load, so they are created without a stack trace and without
+ * suppression, which also makes the preallocated common ones safe to share between threads. The
+ * response body is encoded along with the exception, so a preallocated rejection answers every
+ * request with the same bytes.
+ */
+public abstract class TransferRejectedException extends RuntimeException {
+
+  private final byte[] responseBody;
+
+  protected TransferRejectedException(final String message) {
+    super(message, null, false, false);
+    this.responseBody = message.getBytes(UTF_8);
+  }
+
+  /**
+   * The message encoded as response body, shared by all responses and never to be modified.
+   */
+  public byte[] getResponseBody() {
+    return responseBody;
+  }
+}
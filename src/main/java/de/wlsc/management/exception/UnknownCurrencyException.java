@@ -0,0 +1,8 @@
+package de.wlsc.management.exception;
+
+public class UnknownCurrencyException extends IllegalArgumentException {
+
+  public UnknownCurrencyException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,97 @@
+package de.wlsc.management.execution;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import io.micronaut.scheduling.TaskExecutors;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the endpoint's requests according to the configured {@link ExecutionModel}. The endpoint
+ * returns the resulting future, so the event loop never waits for a request it handed off.
+ */
+@Singleton
+@Slf4j
+public class EndpointExecutor implements AutoCloseable {
+
+  private final ExecutionModel executionModel;
+  private final Executor executor;
+  private final ExecutorService virtualThreadExecutor;
+
+  @Inject
+  public EndpointExecutor(final ExecutionConfiguration executionConfiguration,
+                          @Named(TaskExecutors.IO) final ExecutorService ioExecutor) {
+    this.executionModel = executionConfiguration.getExecution();
+    switch (executionModel) {
+      case EVENT_LOOP:
+        this.virtualThreadExecutor = null;
+        this.executor = Runnable::run;
+        break;
+      case VIRTUAL_THREADS:
+        this.virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+        this.executor = virtualThreadExecutor;
+        break;
+      default:
+        this.virtualThreadExecutor = null;
+        this.executor = ioExecutor;
+    }
+    log.info("Endpoint requests are executed by {}", executionModel);
+  }
+
+  public ExecutionModel getExecutionModel() {
+    return executionModel;
+  }
+
+  /**
+   * Completes the future with the result of the action or with exactly the exception it threw, so
+   * that the endpoint's error handlers see the original exception.
+   */
+  public <T> CompletableFuture<T> supply(final Supplier<T> action) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        result.complete(action.get());
+      } catch (RuntimeException | Error e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  @PreDestroy
+  @Override
+  public void close() {
+    if (virtualThreadExecutor != null) {
+      virtualThreadExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Looked up reflectively, so that the application still builds and runs on Java 11 as long as
+   * virtual threads are not configured.
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    MethodHandle factory;
+    try {
+      factory = MethodHandles.publicLookup()
+          .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException("Virtual threads require Java 21 or newer, but running on " + Runtime.version(), e);
+    }
+    try {
+      return (ExecutorService) factory.invoke();
+    } catch (Throwable e) {
+      throw new IllegalStateException("Virtual thread executor could not be created", e);
+    }
+  }
+}
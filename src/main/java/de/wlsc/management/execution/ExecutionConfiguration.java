@@ -0,0 +1,13 @@
+package de.wlsc.management.execution;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("endpoint")
+@Getter
+@Setter
+public class ExecutionConfiguration {
+
+  private ExecutionModel execution = ExecutionModel.IO_POOL;
+}
@@ -0,0 +1,22 @@
+package de.wlsc.management.execution;
+
+public enum ExecutionModel {
+
+  /**
+   * Requests are handed to the bounded I/O thread pool, like blocking controller methods are by
+   * default. Concurrency is limited by the size of the pool.
+   */
+  IO_POOL,
+
+  /**
+   * Requests run directly on the Netty event loop which received them. Cheapest as long as nothing
+   * blocks, but a blocking journal or rate lookup stalls every connection of the event loop.
+   */
+  EVENT_LOOP,
+
+  /**
+   * Every request runs on its own virtual thread, so blocking is cheap and concurrency is not
+   * bounded by a pool. Requires a Java 21 or newer runtime.
+   */
+  VIRTUAL_THREADS
+}
@@ -0,0 +1,79 @@
+package de.wlsc.management.fx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Properties;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Local stand-in for a rate service, reading the rates from a properties file with one
+ * {@code SOURCE/DESTINATION=rate} entry per currency pair. The file is read again on every
+ * refresh, so rates can be changed while the application is running.
+ */
+@Singleton
+public class FileFxRateProvider implements FxRateProvider {
+
+  static final String BUNDLED_RATES = "fx-rates.properties";
+
+  private final String ratesFile;
+
+  @Inject
+  public FileFxRateProvider(final FxConfiguration fxConfiguration) {
+    this.ratesFile = fxConfiguration.getRatesFile();
+  }
+
+  @Override
+  public List<FxRate> fetchRates() {
+    Properties properties = new Properties();
+    try (InputStream input = open();
+         Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Exchange rates could not be read", e);
+    }
+
+    List<FxRate> fxRates = new ArrayList<>(properties.size());
+    for (String pair : properties.stringPropertyNames()) {
+      fxRates.add(parse(pair, properties.getProperty(pair)));
+    }
+    return fxRates;
+  }
+
+  private InputStream open() throws IOException {
+    if (ratesFile != null) {
+      return Files.newInputStream(Paths.get(ratesFile));
+    }
+    InputStream bundledRates = FileFxRateProvider.class.getClassLoader().getResourceAsStream(BUNDLED_RATES);
+    if (bundledRates == null) {
+      throw new IOException("Bundled exchange rates " + BUNDLED_RATES + " are missing");
+    }
+    return bundledRates;
+  }
+
+  private static FxRate parse(final String pair, final String rate) {
+    String[] currencies = pair.split("/");
+    if (currencies.length != 2) {
+      throw new IllegalStateException("Currency pair " + pair + " is not of the form SOURCE/DESTINATION");
+    }
+    try {
+      return FxRate.builder()
+          .source(Currency.getInstance(currencies[0].trim()))
+          .destination(Currency.getInstance(currencies[1].trim()))
+          .rate(new BigDecimal(rate.trim()))
+          .build();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Exchange rate " + pair + "=" + rate + " is not valid", e);
+    }
+  }
+}
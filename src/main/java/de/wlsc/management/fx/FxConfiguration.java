@@ -0,0 +1,18 @@
+package de.wlsc.management.fx;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("fx")
+@Getter
+@Setter
+public class FxConfiguration {
+
+  /**
+   * Properties file with rates like {@code EUR/USD=1.0842}, the bundled rates are used if unset.
+   */
+  private String ratesFile;
+  private Duration refreshInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,18 @@
+package de.wlsc.management.fx;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Units of the destination currency paid for one unit of the source currency.
+ */
+@Value
+@Builder(toBuilder = true)
+public class FxRate {
+
+  private final Currency source;
+  private final Currency destination;
+  private final BigDecimal rate;
+}
@@ -0,0 +1,11 @@
+package de.wlsc.management.fx;
+
+import java.util.List;
+
+/**
+ * Source of exchange rates, asked for the complete set of rates whenever they are refreshed.
+ */
+public interface FxRateProvider {
+
+  List<FxRate> fetchRates();
+}
@@ -0,0 +1,27 @@
+package de.wlsc.management.fx;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+@Singleton
+@Slf4j
+public class FxRateRefresher {
+
+  private final FxRateTable fxRateTable;
+
+  @Inject
+  public FxRateRefresher(final FxRateTable fxRateTable) {
+    this.fxRateTable = fxRateTable;
+  }
+
+  @Scheduled(fixedDelay = "${fx.refresh-interval}", initialDelay = "${fx.refresh-interval}")
+  public void refresh() {
+    try {
+      fxRateTable.refresh();
+    } catch (RuntimeException e) {
+      log.error("Exchange rates could not be refreshed, previous rates stay in use", e);
+    }
+  }
+}
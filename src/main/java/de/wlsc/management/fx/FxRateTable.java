@@ -0,0 +1,54 @@
+package de.wlsc.management.fx;
+
+import java.util.Currency;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Current exchange rates. An update builds a complete new {@link FxRates} and publishes it with a
+ * single volatile write, so transfers never wait for an update and always convert with one
+ * consistent version of the rates.
+ */
+@Singleton
+@Slf4j
+public class FxRateTable {
+
+  private final FxRateProvider fxRateProvider;
+  private volatile FxRates fxRates;
+
+  @Inject
+  public FxRateTable(final FxRateProvider fxRateProvider) {
+    this.fxRateProvider = fxRateProvider;
+    this.fxRates = FxRates.of(1, fxRateProvider.fetchRates());
+  }
+
+  /**
+   * Rates bundled with the application, for account management created outside of the
+   * application context.
+   */
+  public static FxRateTable bundled() {
+    return new FxRateTable(new FileFxRateProvider(new FxConfiguration()));
+  }
+
+  public FxRates current() {
+    return fxRates;
+  }
+
+  public long convert(final Currency source, final Currency destination, final long amount) {
+    return fxRates.convert(source, destination, amount);
+  }
+
+  /**
+   * Fetches the rates from the provider and publishes them as new version. Only one refresh runs
+   * at a time, transfers keep using the previous version until the new one is complete.
+   */
+  public synchronized FxRates refresh() {
+    List<FxRate> rates = fxRateProvider.fetchRates();
+    FxRates refreshedRates = FxRates.of(fxRates.getVersion() + 1, rates);
+    fxRates = refreshedRates;
+    log.debug("Exchange rates version {} with {} rates published", refreshedRates.getVersion(), rates.size());
+    return refreshedRates;
+  }
+}
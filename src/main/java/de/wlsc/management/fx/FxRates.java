@@ -0,0 +1,175 @@
+package de.wlsc.management.fx;
+
+import static java.math.RoundingMode.HALF_EVEN;
+
+import de.wlsc.management.exception.CurrencyConversionException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned set of exchange rates. Currencies are indexed by their ISO 4217 numeric
+ * code and every currency pair holds a fixed-point multiplier and divisor, which already include
+ * the difference of the fraction digits of both currencies. Converting an amount in minor units
+ * therefore is two array lookups and a 128-bit multiplication and division, rounded half even to
+ * the minor unit of the destination currency.
+ */
+public final class FxRates {
+
+  static final int RATE_SCALE = 9;
+
+  private static final int NUMERIC_CODES = 1000;
+  private static final long[] POWERS_OF_TEN = {
+      1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+      10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L
+  };
+
+  private final long version;
+  private final int[] indexByNumericCode;
+  private final int currencies;
+  private final long[] multipliers;
+  private final long[] divisors;
+
+  private FxRates(final long version,
+                  final int[] indexByNumericCode,
+                  final int currencies,
+                  final long[] multipliers,
+                  final long[] divisors) {
+    this.version = version;
+    this.indexByNumericCode = indexByNumericCode;
+    this.currencies = currencies;
+    this.multipliers = multipliers;
+    this.divisors = divisors;
+  }
+
+  /**
+   * Builds the rates, deriving the rate of a pair from its inverse pair if only that is given.
+   */
+  static FxRates of(final long version, final Collection<FxRate> fxRates) {
+    Map<Currency, Integer> indexByCurrency = new HashMap<>();
+    int[] indexByNumericCode = new int[NUMERIC_CODES];
+    Arrays.fill(indexByNumericCode, -1);
+    for (FxRate fxRate : fxRates) {
+      index(fxRate.getSource(), indexByCurrency, indexByNumericCode);
+      index(fxRate.getDestination(), indexByCurrency, indexByNumericCode);
+    }
+
+    int currencies = indexByCurrency.size();
+    long[] multipliers = new long[currencies * currencies];
+    long[] divisors = new long[currencies * currencies];
+    for (FxRate fxRate : fxRates) {
+      if (fxRate.getRate().signum() <= 0) {
+        throw new IllegalStateException("Exchange rate " + fxRate + " is not positive");
+      }
+      BigDecimal inverseRate = BigDecimal.ONE.divide(fxRate.getRate(), RATE_SCALE, HALF_EVEN);
+      int pair = indexByCurrency.get(fxRate.getSource()) * currencies + indexByCurrency.get(fxRate.getDestination());
+      int inversePair = indexByCurrency.get(fxRate.getDestination()) * currencies + indexByCurrency.get(fxRate.getSource());
+      put(pair, fxRate.getSource(), fxRate.getDestination(), fxRate.getRate(), multipliers, divisors);
+      if (multipliers[inversePair] == 0 && inverseRate.signum() > 0) {
+        put(inversePair, fxRate.getDestination(), fxRate.getSource(), inverseRate, multipliers, divisors);
+      }
+    }
+    return new FxRates(version, indexByNumericCode, currencies, multipliers, divisors);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Converts an amount in minor units of the source currency into minor units of the destination
+   * currency without allocating.
+   */
+  public long convert(final Currency source, final Currency destination, final long amount) {
+    int sourceIndex = indexOf(source);
+    int destinationIndex = indexOf(destination);
+    int pair = sourceIndex * currencies + destinationIndex;
+    if (sourceIndex < 0 || destinationIndex < 0 || multipliers[pair] == 0) {
+      throw new CurrencyConversionException("Exchange rate from " + source + " to " + destination + " is not available");
+    }
+    return multiplyDivide(amount, multipliers[pair], divisors[pair]);
+  }
+
+  /**
+   * Returns {@code value * multiplier / divisor} rounded half even, computed on the 128-bit
+   * product. The divisor has to be below 2^47, so that every step of the long division by 16-bit
+   * limbs fits into a long.
+   */
+  static long multiplyDivide(final long value, final long multiplier, final long divisor) {
+    if (value < 0) {
+      throw new CurrencyConversionException("Negative amount of money can not be converted");
+    }
+    long high = Math.multiplyHigh(value, multiplier);
+    long low = value * multiplier;
+
+    long remainder = 0;
+    long quotientHigh = 0;
+    for (int shift = 48; shift >= 0; shift -= 16) {
+      remainder = (remainder << 16) | ((high >>> shift) & 0xFFFF);
+      quotientHigh |= (remainder / divisor) << shift;
+      remainder = remainder % divisor;
+    }
+    long quotient = 0;
+    for (int shift = 48; shift >= 0; shift -= 16) {
+      remainder = (remainder << 16) | ((low >>> shift) & 0xFFFF);
+      quotient |= (remainder / divisor) << shift;
+      remainder = remainder % divisor;
+    }
+    if (quotientHigh != 0 || quotient < 0) {
+      throw new CurrencyConversionException("Converted amount of money is too large");
+    }
+
+    long twiceRemainder = remainder * 2;
+    if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) == 1)) {
+      if (quotient == Long.MAX_VALUE) {
+        throw new CurrencyConversionException("Converted amount of money is too large");
+      }
+      quotient++;
+    }
+    return quotient;
+  }
+
+  private int indexOf(final Currency currency) {
+    if (currency == null) {
+      return -1;
+    }
+    int numericCode = currency.getNumericCode();
+    return numericCode > 0 && numericCode < NUMERIC_CODES ? indexByNumericCode[numericCode] : -1;
+  }
+
+  private static void index(final Currency currency,
+                            final Map<Currency, Integer> indexByCurrency,
+                            final int[] indexByNumericCode) {
+    if (indexByCurrency.containsKey(currency)) {
+      return;
+    }
+    int numericCode = currency.getNumericCode();
+    if (numericCode <= 0 || numericCode >= NUMERIC_CODES || indexByNumericCode[numericCode] >= 0) {
+      throw new IllegalStateException("Currency " + currency + " has no unique ISO 4217 numeric code");
+    }
+    if (currency.getDefaultFractionDigits() < 0) {
+      throw new IllegalStateException("Currency " + currency + " has no minor unit");
+    }
+    indexByNumericCode[numericCode] = indexByCurrency.size();
+    indexByCurrency.put(currency, indexByCurrency.size());
+  }
+
+  private static void put(final int pair,
+                          final Currency source,
+                          final Currency destination,
+                          final BigDecimal rate,
+                          final long[] multipliers,
+                          final long[] divisors) {
+    long fixedPointRate = rate.setScale(RATE_SCALE, HALF_EVEN).unscaledValue().longValueExact();
+    if (fixedPointRate == 0) {
+      throw new IllegalStateException("Exchange rate from " + source + " to " + destination
+          + " has more than " + RATE_SCALE + " decimal places");
+    }
+    int fractionDigitsDifference = destination.getDefaultFractionDigits() - source.getDefaultFractionDigits();
+    multipliers[pair] = Math.multiplyExact(fixedPointRate, POWERS_OF_TEN[Math.max(0, fractionDigitsDifference)]);
+    divisors[pair] = POWERS_OF_TEN[RATE_SCALE + Math.max(0, -fractionDigitsDifference)];
+  }
+}
@@ -0,0 +1,64 @@
+package de.wlsc.management.journal;
+
+import de.wlsc.model.Account;
+
+public final class DisabledTransferJournal implements TransferJournal {
+
+  private static final JournalRecord NOT_JOURNALED = new JournalRecord(JournalRecord.Type.REMOVAL, 0);
+
+  @Override
+  public void replay(final JournalListener journalListener) {
+    // nothing was journaled
+  }
+
+  @Override
+  public JournalRecord appendCreation(final Account account) {
+    return NOT_JOURNALED;
+  }
+
+  @Override
+  public JournalRecord appendTransfer(final String fromAccountId,
+                                      final String toAccountId,
+                                      final long withdrawal,
+                                      final long deposit) {
+    return NOT_JOURNALED;
+  }
+
+  @Override
+  public JournalRecord appendTransfers(final String[] fromAccountIds,
+                                       final String[] toAccountIds,
+                                       final long[] withdrawals,
+                                       final long[] deposits) {
+    return NOT_JOURNALED;
+  }
+
+  @Override
+  public JournalRecord appendRemoval() {
+    return NOT_JOURNALED;
+  }
+
+  @Override
+  public void awaitDurable(final JournalRecord journalRecord) {
+    // nothing to wait for
+  }
+
+  @Override
+  public long lastSequence() {
+    return 0;
+  }
+
+  @Override
+  public long roll() {
+    return 0;
+  }
+
+  @Override
+  public void deleteSegmentsBefore(final long segment) {
+    // nothing was journaled
+  }
+
+  @Override
+  public void close() {
+    // nothing to close
+  }
+}
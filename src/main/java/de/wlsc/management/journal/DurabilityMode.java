@@ -0,0 +1,21 @@
+package de.wlsc.management.journal;
+
+public enum DurabilityMode {
+
+  /**
+   * Nothing is journaled, every balance is lost on restart.
+   */
+  NONE,
+
+  /**
+   * Records are written as soon as possible and forced to disk at most one flush interval later.
+   * Transfers do not wait for the disk, a power loss may lose the last interval.
+   */
+  FLUSH_INTERVAL,
+
+  /**
+   * Every transfer returns only after the batch containing its record was forced to disk. One
+   * fsync covers all records which arrived while the previous batch was written.
+   */
+  FSYNC_PER_BATCH
+}
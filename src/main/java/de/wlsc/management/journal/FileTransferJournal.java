@@ -0,0 +1,324 @@
+package de.wlsc.management.journal;
+
+import static de.wlsc.management.journal.JournalCodec.HEADER_SIZE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.toList;
+
+import de.wlsc.model.Account;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Journal split into numbered segment files. Appending threads only enqueue their record, a
+ * dedicated writer thread drains everything queued so far into one write and, depending on the
+ * {@link DurabilityMode}, one fsync for the whole batch (group commit).
+ */
+@Slf4j
+public final class FileTransferJournal implements TransferJournal {
+
+  private static final Pattern SEGMENT_FILE = Pattern.compile("transfers-(\\d{20})\\.journal");
+  private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+  private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+  private final DurabilityMode mode;
+  private final long flushIntervalNanos;
+  private final int maxBatchSize;
+  private final Path directory;
+  private final LinkedTransferQueue<JournalRecord> queue = new LinkedTransferQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Thread writer;
+  private FileChannel channel;
+  private volatile long segment;
+  private volatile boolean running = true;
+  private volatile Exception failure;
+
+  public FileTransferJournal(final JournalConfiguration journalConfiguration) {
+    this.mode = journalConfiguration.getMode();
+    this.flushIntervalNanos = journalConfiguration.getFlushInterval().toNanos();
+    this.maxBatchSize = journalConfiguration.getMaxBatchSize();
+    this.directory = Paths.get(journalConfiguration.getDirectory());
+    try {
+      Files.createDirectories(directory);
+      List<Long> segments = segments();
+      this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+      this.channel = FileChannel.open(segmentFile(segment), CREATE, READ, WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Journal could not be opened", e);
+    }
+    this.writer = new Thread(this::writeBatches, "transfer-journal-writer");
+    this.writer.setDaemon(true);
+  }
+
+  public static String segmentFileName(final long segment) {
+    return String.format("transfers-%020d.journal", segment);
+  }
+
+  /**
+   * Appenders take their sequence before they enqueue, so records of different accounts may be
+   * written out of sequence order. Appending continues after the highest sequence written, not
+   * after the one of the last record.
+   */
+  @Override
+  public void replay(final JournalListener journalListener) {
+    long lastSequence = 0;
+    long validLength = 0;
+    try {
+      for (long replayedSegment : segments()) {
+        CRC32 crc32 = new CRC32();
+        validLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(segmentFile(replayedSegment)), WRITE_BUFFER_SIZE))) {
+          while (true) {
+            int payloadLength = input.readInt();
+            int checksum = input.readInt();
+            if (payloadLength <= 0 || payloadLength > MAX_PAYLOAD_SIZE) {
+              break;
+            }
+            byte[] payload = new byte[payloadLength];
+            input.readFully(payload);
+            crc32.reset();
+            crc32.update(payload);
+            if ((int) crc32.getValue() != checksum) {
+              break;
+            }
+            ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+            lastSequence = Math.max(lastSequence, payloadBuffer.getLong(1));
+            JournalCodec.decodePayload(payloadBuffer, journalListener);
+            validLength += HEADER_SIZE + payloadLength;
+          }
+        } catch (EOFException e) {
+          // regular end of the segment or a torn last record
+        }
+        if (replayedSegment != segment && validLength < Files.size(segmentFile(replayedSegment))) {
+          throw new IllegalStateException("Journal segment " + replayedSegment + " is corrupt");
+        }
+      }
+
+      if (validLength < channel.size()) {
+        log.warn("Journal has {} bytes of torn or corrupt records at its end, truncating them", channel.size() - validLength);
+        channel.truncate(validLength);
+      }
+      channel.position(validLength);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Journal could not be replayed", e);
+    }
+    sequence.set(lastSequence);
+    log.info("Journal replayed up to sequence {}", lastSequence);
+    writer.start();
+  }
+
+  @Override
+  public JournalRecord appendCreation(final Account account) {
+    return enqueue(JournalRecord.creation(sequence.incrementAndGet(), account));
+  }
+
+  @Override
+  public JournalRecord appendTransfer(final String fromAccountId,
+                                      final String toAccountId,
+                                      final long withdrawal,
+                                      final long deposit) {
+    return enqueue(JournalRecord.transfer(sequence.incrementAndGet(), fromAccountId, toAccountId, withdrawal, deposit));
+  }
+
+  @Override
+  public JournalRecord appendTransfers(final String[] fromAccountIds,
+                                       final String[] toAccountIds,
+                                       final long[] withdrawals,
+                                       final long[] deposits) {
+    return enqueue(JournalRecord.transfers(sequence.incrementAndGet(), fromAccountIds, toAccountIds, withdrawals,
+        deposits));
+  }
+
+  @Override
+  public JournalRecord appendRemoval() {
+    return enqueue(new JournalRecord(JournalRecord.Type.REMOVAL, sequence.incrementAndGet()));
+  }
+
+  @Override
+  public void awaitDurable(final JournalRecord journalRecord) {
+    if (mode != DurabilityMode.FSYNC_PER_BATCH) {
+      checkWritable();
+      return;
+    }
+    journalRecord.awaitDurable();
+    checkWritable();
+  }
+
+  @Override
+  public long lastSequence() {
+    return sequence.get();
+  }
+
+  @Override
+  public long roll() {
+    enqueue(new JournalRecord(JournalRecord.Type.ROLL, 0)).awaitDurable();
+    checkWritable();
+    return segment;
+  }
+
+  @Override
+  public void deleteSegmentsBefore(final long oldestKeptSegment) {
+    try {
+      for (long existingSegment : segments()) {
+        if (existingSegment < oldestKeptSegment) {
+          Files.deleteIfExists(segmentFile(existingSegment));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Journal segments could not be deleted", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Journal could not be closed", e);
+    }
+  }
+
+  /**
+   * Refuses records once the writer has died, as nobody drains the queue anymore. A record
+   * offered while the writer fails is released here, as the writer may have drained the queue
+   * for the last time before it arrived; waiting for it then reports the failure.
+   */
+  private JournalRecord enqueue(final JournalRecord journalRecord) {
+    checkWritable();
+    queue.offer(journalRecord);
+    if (failure != null) {
+      queue.remove(journalRecord);
+      journalRecord.markDurable();
+    }
+    return journalRecord;
+  }
+
+  private void checkWritable() {
+    if (failure != null) {
+      throw new IllegalStateException("Journal is not writable anymore", failure);
+    }
+  }
+
+  private void writeBatches() {
+    List<JournalRecord> batch = new ArrayList<>(maxBatchSize);
+    ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    ByteBuffer scratch = ByteBuffer.allocate(256);
+    CRC32 crc32 = new CRC32();
+    long lastForce = System.nanoTime();
+    boolean unforcedWrites = false;
+
+    try {
+      while (running || !queue.isEmpty()) {
+        JournalRecord first = queue.poll(flushIntervalNanos, NANOSECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, maxBatchSize - 1);
+          for (JournalRecord journalRecord : batch) {
+            if (journalRecord.getType() == JournalRecord.Type.ROLL) {
+              flush(writeBuffer);
+              rollSegment();
+              continue;
+            }
+            ByteBuffer payload = JournalCodec.encodePayload(journalRecord, scratch);
+            scratch = payload.capacity() > scratch.capacity() ? payload : scratch;
+            if (writeBuffer.remaining() < HEADER_SIZE + payload.remaining()) {
+              flush(writeBuffer);
+            }
+            crc32.reset();
+            crc32.update(payload.duplicate());
+            writeBuffer.putInt(payload.remaining());
+            writeBuffer.putInt((int) crc32.getValue());
+            if (writeBuffer.remaining() < payload.remaining()) {
+              flush(writeBuffer);
+              while (payload.hasRemaining()) {
+                channel.write(payload);
+              }
+            } else {
+              writeBuffer.put(payload);
+            }
+          }
+          flush(writeBuffer);
+          unforcedWrites = true;
+        }
+
+        long now = System.nanoTime();
+        if (unforcedWrites && (mode == DurabilityMode.FSYNC_PER_BATCH || now - lastForce >= flushIntervalNanos)) {
+          channel.force(false);
+          lastForce = now;
+          unforcedWrites = false;
+        }
+        for (JournalRecord journalRecord : batch) {
+          journalRecord.markDurable();
+        }
+        batch.clear();
+      }
+      if (unforcedWrites) {
+        channel.force(false);
+      }
+    } catch (IOException | InterruptedException e) {
+      log.error("Journal writer has failed, transfers are not journaled anymore", e);
+      failure = e;
+      batch.forEach(JournalRecord::markDurable);
+      JournalRecord journalRecord;
+      while ((journalRecord = queue.poll()) != null) {
+        journalRecord.markDurable();
+      }
+    }
+  }
+
+  private void rollSegment() throws IOException {
+    channel.force(false);
+    channel.close();
+    channel = FileChannel.open(segmentFile(segment + 1), CREATE, READ, WRITE);
+    segment = segment + 1;
+  }
+
+  private void flush(final ByteBuffer writeBuffer) throws IOException {
+    writeBuffer.flip();
+    while (writeBuffer.hasRemaining()) {
+      channel.write(writeBuffer);
+    }
+    writeBuffer.clear();
+  }
+
+  private List<Long> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+          .filter(Matcher::matches)
+          .map(matcher -> Long.parseLong(matcher.group(1)))
+          .sorted()
+          .collect(toList());
+    }
+  }
+
+  private Path segmentFile(final long segmentNumber) {
+    return directory.resolve(segmentFileName(segmentNumber));
+  }
+}
@@ -0,0 +1,176 @@
+package de.wlsc.management.journal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Currency;
+import java.util.Locale;
+
+/**
+ * Binary layout of a journal record: {@code int payloadLength, int crc32(payload), payload}. The
+ * payload starts with the record type and sequence followed by the type specific fields, strings
+ * are written as {@code int byteLength} (-1 for null) followed by their UTF-8 bytes.
+ */
+final class JournalCodec {
+
+  static final int HEADER_SIZE = Integer.BYTES * 2;
+
+  private JournalCodec() {
+    // utility
+  }
+
+  static ByteBuffer encodePayload(final JournalRecord journalRecord, final ByteBuffer scratch) {
+    return encodePayload(journalRecord, journalRecord.getSequence(), scratch);
+  }
+
+  /**
+   * Encodes the record under another sequence, as the replication log numbers records by its own
+   * positions.
+   */
+  static ByteBuffer encodePayload(final JournalRecord journalRecord, final long sequence, final ByteBuffer scratch) {
+    ByteBuffer buffer = scratch;
+    while (true) {
+      buffer.clear();
+      if (tryEncode(journalRecord, sequence, buffer)) {
+        buffer.flip();
+        return buffer;
+      }
+      buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+    }
+  }
+
+  static void decodePayload(final ByteBuffer payload, final JournalListener journalListener) {
+    JournalRecord.Type type = JournalRecord.Type.of(payload.get());
+    long sequence = payload.getLong();
+    switch (type) {
+      case CREATION:
+        journalListener.onCreation(sequence, readAccount(payload));
+        break;
+      case TRANSFER:
+        journalListener.onTransfer(sequence, readString(payload), readString(payload), payload.getLong(), payload.getLong());
+        break;
+      case TRANSFERS:
+        readTransfers(sequence, payload, journalListener);
+        break;
+      case REMOVAL:
+        journalListener.onRemoval(sequence);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown journal record type " + type);
+    }
+  }
+
+  private static boolean tryEncode(final JournalRecord journalRecord, final long sequence, final ByteBuffer buffer) {
+    try {
+      buffer.put(journalRecord.getType().getCode());
+      buffer.putLong(sequence);
+      switch (journalRecord.getType()) {
+        case CREATION:
+          writeAccount(journalRecord.getAccount(), buffer);
+          break;
+        case TRANSFER:
+          writeString(journalRecord.getFromAccountId(), buffer);
+          writeString(journalRecord.getToAccountId(), buffer);
+          buffer.putLong(journalRecord.getWithdrawal());
+          buffer.putLong(journalRecord.getDeposit());
+          break;
+        case TRANSFERS:
+          buffer.putInt(journalRecord.getWithdrawals().length);
+          for (int i = 0; i < journalRecord.getWithdrawals().length; i++) {
+            writeString(journalRecord.getFromAccountIds()[i], buffer);
+            writeString(journalRecord.getToAccountIds()[i], buffer);
+            buffer.putLong(journalRecord.getWithdrawals()[i]);
+            buffer.putLong(journalRecord.getDeposits()[i]);
+          }
+          break;
+        case REMOVAL:
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown journal record type " + journalRecord.getType());
+      }
+      return true;
+    } catch (BufferOverflowException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Transfers are written as {@code int count} followed by the fields of every transfer.
+   */
+  private static void readTransfers(final long sequence, final ByteBuffer payload, final JournalListener journalListener) {
+    int count = payload.getInt();
+    String[] fromAccountIds = new String[count];
+    String[] toAccountIds = new String[count];
+    long[] withdrawals = new long[count];
+    long[] deposits = new long[count];
+    for (int i = 0; i < count; i++) {
+      fromAccountIds[i] = readString(payload);
+      toAccountIds[i] = readString(payload);
+      withdrawals[i] = payload.getLong();
+      deposits[i] = payload.getLong();
+    }
+    journalListener.onTransfers(sequence, fromAccountIds, toAccountIds, withdrawals, deposits);
+  }
+
+  private static void writeAccount(final Account account, final ByteBuffer buffer) {
+    writeString(account.getId(), buffer);
+    buffer.putLong(account.getAmount());
+    writeString(account.getCurrency() == null ? null : account.getCurrency().getCurrencyCode(), buffer);
+    Customer customer = account.getCustomer();
+    buffer.put(customer == null ? (byte) 0 : (byte) 1);
+    if (customer != null) {
+      writeString(customer.getId(), buffer);
+      writeString(customer.getFirstname(), buffer);
+      writeString(customer.getLastname(), buffer);
+      writeString(customer.getLocale() == null ? null : customer.getLocale().toLanguageTag(), buffer);
+    }
+  }
+
+  private static Account readAccount(final ByteBuffer buffer) {
+    String id = readString(buffer);
+    long amount = buffer.getLong();
+    String currencyCode = readString(buffer);
+    Customer customer = null;
+    if (buffer.get() == 1) {
+      String customerId = readString(buffer);
+      String firstname = readString(buffer);
+      String lastname = readString(buffer);
+      String languageTag = readString(buffer);
+      customer = Customer.builder()
+          .id(customerId)
+          .firstname(firstname)
+          .lastname(lastname)
+          .locale(languageTag == null ? null : Locale.forLanguageTag(languageTag))
+          .build();
+    }
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(currencyCode == null ? null : Currency.getInstance(currencyCode))
+        .customer(customer)
+        .build();
+  }
+
+  private static void writeString(final String value, final ByteBuffer buffer) {
+    if (value == null) {
+      buffer.putInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String readString(final ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
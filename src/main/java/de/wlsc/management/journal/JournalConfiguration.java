@@ -0,0 +1,17 @@
+package de.wlsc.management.journal;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("journal")
+@Getter
+@Setter
+public class JournalConfiguration {
+
+  private DurabilityMode mode = DurabilityMode.NONE;
+  private String directory = "journal";
+  private Duration flushInterval = Duration.ofMillis(100);
+  private int maxBatchSize = 4096;
+}
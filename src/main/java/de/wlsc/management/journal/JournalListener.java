@@ -0,0 +1,17 @@
+package de.wlsc.management.journal;
+
+import de.wlsc.model.Account;
+
+public interface JournalListener {
+
+  void onCreation(long sequence, Account account);
+
+  void onTransfer(long sequence, String fromAccountId, String toAccountId, long withdrawal, long deposit);
+
+  /**
+   * Transfers journaled as one record, to be applied all or none.
+   */
+  void onTransfers(long sequence, String[] fromAccountIds, String[] toAccountIds, long[] withdrawals, long[] deposits);
+
+  void onRemoval(long sequence);
+}
@@ -0,0 +1,178 @@
+package de.wlsc.management.journal;
+
+import de.wlsc.model.Account;
+import java.util.concurrent.locks.LockSupport;
+
+public final class JournalRecord {
+
+  enum Type {
+
+    CREATION((byte) 1),
+    TRANSFER((byte) 2),
+    REMOVAL((byte) 3),
+    /**
+     * Transfers applied all or none, such as the legs of a multi-leg transfer.
+     */
+    TRANSFERS((byte) 4),
+    /**
+     * Marker asking the writer to start a new segment, never written itself.
+     */
+    ROLL((byte) 0);
+
+    private final byte code;
+
+    Type(final byte code) {
+      this.code = code;
+    }
+
+    byte getCode() {
+      return code;
+    }
+
+    static Type of(final byte code) {
+      for (Type type : values()) {
+        if (type.code == code) {
+          return type;
+        }
+      }
+      throw new IllegalArgumentException("Unknown journal record type " + code);
+    }
+  }
+
+  private final Type type;
+  private final long sequence;
+  private Account account;
+  private String fromAccountId;
+  private String toAccountId;
+  private long withdrawal;
+  private long deposit;
+  private String[] fromAccountIds;
+  private String[] toAccountIds;
+  private long[] withdrawals;
+  private long[] deposits;
+  private JournalRecord journaled;
+  private long position;
+  private volatile boolean durable;
+  private volatile Thread waiter;
+
+  JournalRecord(final Type type, final long sequence) {
+    this.type = type;
+    this.sequence = sequence;
+  }
+
+  static JournalRecord creation(final long sequence, final Account account) {
+    JournalRecord journalRecord = new JournalRecord(Type.CREATION, sequence);
+    journalRecord.account = account;
+    return journalRecord;
+  }
+
+  static JournalRecord transfer(final long sequence,
+                                final String fromAccountId,
+                                final String toAccountId,
+                                final long withdrawal,
+                                final long deposit) {
+    JournalRecord journalRecord = new JournalRecord(Type.TRANSFER, sequence);
+    journalRecord.fromAccountId = fromAccountId;
+    journalRecord.toAccountId = toAccountId;
+    journalRecord.withdrawal = withdrawal;
+    journalRecord.deposit = deposit;
+    return journalRecord;
+  }
+
+  static JournalRecord transfers(final long sequence,
+                                 final String[] fromAccountIds,
+                                 final String[] toAccountIds,
+                                 final long[] withdrawals,
+                                 final long[] deposits) {
+    JournalRecord journalRecord = new JournalRecord(Type.TRANSFERS, sequence);
+    journalRecord.fromAccountIds = fromAccountIds;
+    journalRecord.toAccountIds = toAccountIds;
+    journalRecord.withdrawals = withdrawals;
+    journalRecord.deposits = deposits;
+    return journalRecord;
+  }
+
+  static JournalRecord removal(final long sequence) {
+    return new JournalRecord(Type.REMOVAL, sequence);
+  }
+
+  /**
+   * Marks the record as the replicated counterpart of the journaled one, at the given position
+   * of the replication log.
+   */
+  void replicate(final JournalRecord journaledRecord, final long replicationPosition) {
+    this.journaled = journaledRecord;
+    this.position = replicationPosition;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  Type getType() {
+    return type;
+  }
+
+  Account getAccount() {
+    return account;
+  }
+
+  String getFromAccountId() {
+    return fromAccountId;
+  }
+
+  String getToAccountId() {
+    return toAccountId;
+  }
+
+  long getWithdrawal() {
+    return withdrawal;
+  }
+
+  long getDeposit() {
+    return deposit;
+  }
+
+  String[] getFromAccountIds() {
+    return fromAccountIds;
+  }
+
+  String[] getToAccountIds() {
+    return toAccountIds;
+  }
+
+  long[] getWithdrawals() {
+    return withdrawals;
+  }
+
+  long[] getDeposits() {
+    return deposits;
+  }
+
+  JournalRecord getJournaled() {
+    return journaled;
+  }
+
+  long getPosition() {
+    return position;
+  }
+
+  void markDurable() {
+    durable = true;
+    Thread waitingThread = waiter;
+    if (waitingThread != null) {
+      LockSupport.unpark(waitingThread);
+    }
+  }
+
+  void awaitDurable() {
+    if (durable) {
+      return;
+    }
+    waiter = Thread.currentThread();
+    while (!durable) {
+      LockSupport.park(this);
+    }
+    waiter = null;
+  }
+}
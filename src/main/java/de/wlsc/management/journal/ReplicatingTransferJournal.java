@@ -0,0 +1,102 @@
+package de.wlsc.management.journal;
+
+import de.wlsc.management.exception.ReplicationPendingException;
+import de.wlsc.model.Account;
+import java.time.Duration;
+
+/**
+ * Journal of a node taking part in replication, which also appends every change to the
+ * replication log for the followers. Waiting for durability includes waiting until the
+ * configured number of followers applied the change, so that it survives the loss of this node.
+ * Changes journaled while this node follows a leader are not logged and wait for the journal only.
+ * A change the followers do not acknowledge in time stays applied and is reported as pending.
+ */
+public final class ReplicatingTransferJournal implements TransferJournal {
+
+  private final TransferJournal transferJournal;
+  private final ReplicationLog replicationLog;
+  private final int minAcknowledgements;
+  private final Duration acknowledgementTimeout;
+
+  public ReplicatingTransferJournal(final TransferJournal transferJournal,
+                                    final ReplicationLog replicationLog,
+                                    final int minAcknowledgements,
+                                    final Duration acknowledgementTimeout) {
+    this.transferJournal = transferJournal;
+    this.replicationLog = replicationLog;
+    this.minAcknowledgements = minAcknowledgements;
+    this.acknowledgementTimeout = acknowledgementTimeout;
+  }
+
+  @Override
+  public void replay(final JournalListener journalListener) {
+    transferJournal.replay(journalListener);
+  }
+
+  @Override
+  public JournalRecord appendCreation(final Account account) {
+    JournalRecord journaled = transferJournal.appendCreation(account);
+    return replicate(JournalRecord.creation(journaled.getSequence(), account), journaled);
+  }
+
+  @Override
+  public JournalRecord appendTransfer(final String fromAccountId,
+                                      final String toAccountId,
+                                      final long withdrawal,
+                                      final long deposit) {
+    JournalRecord journaled = transferJournal.appendTransfer(fromAccountId, toAccountId, withdrawal, deposit);
+    return replicate(JournalRecord.transfer(journaled.getSequence(), fromAccountId, toAccountId, withdrawal, deposit),
+        journaled);
+  }
+
+  @Override
+  public JournalRecord appendTransfers(final String[] fromAccountIds,
+                                       final String[] toAccountIds,
+                                       final long[] withdrawals,
+                                       final long[] deposits) {
+    JournalRecord journaled = transferJournal.appendTransfers(fromAccountIds, toAccountIds, withdrawals, deposits);
+    return replicate(JournalRecord.transfers(journaled.getSequence(), fromAccountIds, toAccountIds, withdrawals,
+        deposits), journaled);
+  }
+
+  @Override
+  public JournalRecord appendRemoval() {
+    JournalRecord journaled = transferJournal.appendRemoval();
+    return replicate(JournalRecord.removal(journaled.getSequence()), journaled);
+  }
+
+  private JournalRecord replicate(final JournalRecord change, final JournalRecord journaled) {
+    replicationLog.append(change, journaled);
+    return change;
+  }
+
+  @Override
+  public void awaitDurable(final JournalRecord journalRecord) {
+    transferJournal.awaitDurable(journalRecord.getJournaled());
+    if (minAcknowledgements > 0 && journalRecord.getPosition() > 0
+        && !replicationLog.awaitAcknowledged(journalRecord.getPosition(), minAcknowledgements, acknowledgementTimeout)) {
+      throw new ReplicationPendingException("Change was applied but is not yet replicated to " + minAcknowledgements
+          + " followers");
+    }
+  }
+
+  @Override
+  public long lastSequence() {
+    return transferJournal.lastSequence();
+  }
+
+  @Override
+  public long roll() {
+    return transferJournal.roll();
+  }
+
+  @Override
+  public void deleteSegmentsBefore(final long segment) {
+    transferJournal.deleteSegmentsBefore(segment);
+  }
+
+  @Override
+  public void close() {
+    transferJournal.close();
+  }
+}
@@ -0,0 +1,300 @@
+package de.wlsc.management.journal;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The most recent changes of the account store for followers to pull, numbered by their position
+ * in the log and encoded like journal payloads. Only the last {@code capacity} changes are kept, a
+ * follower falling further behind starts over from a snapshot of the store.
+ * <p>
+ * Positions continue across a promotion: the log of a promoted follower starts at the position
+ * the follower had reached, under a new id, and remembers the log it continues. Followers of the
+ * former leader which are exactly at that position follow on without starting over.
+ * <p>
+ * While the node follows a leader, the changes it journals are not logged, as nobody follows the
+ * log of a follower and nobody could acknowledge them.
+ */
+public final class ReplicationLog {
+
+  private static final int SLOT_SIZE = 128;
+  private static final int BYTES_PER_CHANGE = 64;
+
+  private final ByteBuffer[] slots;
+  private final AtomicLongArray publishedPositions;
+  private final AtomicLong lastPosition = new AtomicLong();
+  private final Map<String, Long> acknowledgedPositions = new ConcurrentHashMap<>();
+  private final ReentrantLock acknowledgementLock = new ReentrantLock();
+  private final Condition acknowledged = acknowledgementLock.newCondition();
+  private volatile Origin origin = new Origin(UUID.randomUUID().toString(), null, 0);
+  private volatile boolean following;
+
+  /**
+   * Preallocates a slot for each of the {@code capacity} changes, large enough for a transfer
+   * between accounts with ids of usual length. A slot only grows for a larger change.
+   */
+  public ReplicationLog(final int capacity) {
+    this.slots = new ByteBuffer[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = ByteBuffer.allocate(SLOT_SIZE);
+    }
+    this.publishedPositions = new AtomicLongArray(capacity);
+  }
+
+  /**
+   * Appends the change while the accounts it touches are locked, so the log orders the changes
+   * of every account the way they were applied. Changes of disjoint accounts take their position
+   * without a lock and are encoded into the slot of that position, which is marked by the negated
+   * position while it is written and published with the position once the change is complete.
+   * The store-store fence keeps the encoding from becoming visible before the mark, so a reader
+   * seeing the old position after copying the slot has copied the old change.
+   * <p>
+   * With more than {@code capacity} appends in flight, two of them share a slot. The newer one
+   * waits until the older one has published, and an older one finding its slot taken by a newer
+   * one skips writing it, as a follower needing it has fallen behind and starts over anyway.
+   */
+  void append(final JournalRecord change, final JournalRecord journaled) {
+    if (following) {
+      change.replicate(journaled, 0);
+      return;
+    }
+    long position = lastPosition.incrementAndGet();
+    int slot = slotOf(position);
+    if (claim(slot, position)) {
+      VarHandle.storeStoreFence();
+      slots[slot] = JournalCodec.encodePayload(change, position, slots[slot]);
+      publishedPositions.set(slot, position);
+    }
+    change.replicate(journaled, position);
+  }
+
+  private boolean claim(final int slot, final long position) {
+    while (true) {
+      long published = publishedPositions.get(slot);
+      if (Math.abs(published) > position) {
+        return false;
+      }
+      if (published < 0) {
+        Thread.onSpinWait();
+      } else if (publishedPositions.compareAndSet(slot, published, -position)) {
+        return true;
+      }
+    }
+  }
+
+  public String id() {
+    return origin.id;
+  }
+
+  public long lastPosition() {
+    return lastPosition.get();
+  }
+
+  /**
+   * Reads up to {@code limit} changes following the given position of the given log, or returns
+   * null if the log cannot continue there and the follower has to start over. The batch ends
+   * early at a change still being appended. A slot overwritten while it is copied shows a newer
+   * position afterwards, as the follower fell behind the oldest kept change then.
+   */
+  public Batch read(final String logId, final long after, final int limit) {
+    Origin currentOrigin = origin;
+    long batchLastPosition = lastPosition.get();
+    boolean continuesThisLog = currentOrigin.id.equals(logId)
+        && after >= currentOrigin.startPosition && after <= batchLastPosition;
+    boolean continuesPredecessor = logId != null && logId.equals(currentOrigin.predecessorId)
+        && after == currentOrigin.startPosition;
+    if (!continuesThisLog && !continuesPredecessor) {
+      return null;
+    }
+
+    long end = Math.min(batchLastPosition, after + limit);
+    ByteBuffer changes = ByteBuffer.allocate((int) Math.min(end - after, 1 << 16) * BYTES_PER_CHANGE);
+    long position = after;
+    while (position < end) {
+      long next = position + 1;
+      int slot = slotOf(next);
+      long published = publishedPositions.get(slot);
+      if (Math.abs(published) > next) {
+        return null;
+      }
+      if (published != next) {
+        break;
+      }
+      ByteBuffer entry = slots[slot];
+      int length = entry.limit();
+      if (changes.remaining() < Integer.BYTES + length) {
+        changes = grow(changes, Integer.BYTES + length);
+      }
+      changes.putInt(length);
+      changes.put(entry.array(), 0, length);
+      VarHandle.acquireFence();
+      if (publishedPositions.get(slot) != next) {
+        return null;
+      }
+      position = next;
+    }
+    changes.flip();
+    return new Batch(currentOrigin.id, position, batchLastPosition, changes);
+  }
+
+  /**
+   * Starts the log anew at the position a promoted follower reached in the log it followed.
+   * Nothing is appended while the node follows, so no append races with the reset.
+   */
+  public void continueFrom(final String followedLogId, final long position) {
+    for (int i = 0; i < slots.length; i++) {
+      publishedPositions.set(i, 0);
+    }
+    lastPosition.set(position);
+    origin = new Origin(UUID.randomUUID().toString(), followedLogId, position);
+    following = false;
+  }
+
+  /**
+   * Stops logging changes until the log continues from the position of a promotion.
+   */
+  public void follow() {
+    following = true;
+  }
+
+  /**
+   * Records that the follower applied all changes up to the position.
+   */
+  public void acknowledge(final String follower, final long position) {
+    acknowledgedPositions.merge(follower, position, Math::max);
+    acknowledgementLock.lock();
+    try {
+      acknowledged.signalAll();
+    } finally {
+      acknowledgementLock.unlock();
+    }
+  }
+
+  /**
+   * Waits until at least {@code followers} followers applied the change at the position and tells
+   * whether they did within the timeout. Waits on a condition instead of a monitor, so that a
+   * waiting virtual thread does not pin its carrier thread.
+   */
+  boolean awaitAcknowledged(final long position, final int followers, final Duration timeout) {
+    if (acknowledgedBy(position) >= followers) {
+      return true;
+    }
+    long remaining = timeout.toNanos();
+    acknowledgementLock.lock();
+    try {
+      while (acknowledgedBy(position) < followers) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = acknowledged.awaitNanos(remaining);
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      acknowledgementLock.unlock();
+    }
+  }
+
+  /**
+   * Position each follower acknowledged last, by node id.
+   */
+  public Map<String, Long> acknowledgedPositions() {
+    return new TreeMap<>(acknowledgedPositions);
+  }
+
+  private long acknowledgedBy(final long position) {
+    return acknowledgedPositions.values().stream().filter(acknowledged -> acknowledged >= position).count();
+  }
+
+  private int slotOf(final long position) {
+    return (int) (position % slots.length);
+  }
+
+  private static ByteBuffer grow(final ByteBuffer buffer, final int required) {
+    ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+    buffer.flip();
+    return grown.put(buffer);
+  }
+
+  /**
+   * Feeds the changes of a batch as written by {@link Batch#writeTo(ByteBuffer)} to the listener,
+   * with their positions as sequences.
+   */
+  public static void apply(final ByteBuffer changes, final JournalListener journalListener) {
+    while (changes.hasRemaining()) {
+      int length = changes.getInt();
+      ByteBuffer payload = changes.slice();
+      payload.limit(length);
+      JournalCodec.decodePayload(payload, journalListener);
+      changes.position(changes.position() + length);
+    }
+  }
+
+  private static final class Origin {
+
+    private final String id;
+    private final String predecessorId;
+    private final long startPosition;
+
+    Origin(final String id, final String predecessorId, final long startPosition) {
+      this.id = id;
+      this.predecessorId = predecessorId;
+      this.startPosition = startPosition;
+    }
+  }
+
+  public static final class Batch {
+
+    private final String logId;
+    private final long position;
+    private final long lastPosition;
+    private final ByteBuffer changes;
+
+    Batch(final String logId, final long position, final long lastPosition, final ByteBuffer changes) {
+      this.logId = logId;
+      this.position = position;
+      this.lastPosition = lastPosition;
+      this.changes = changes;
+    }
+
+    public String getLogId() {
+      return logId;
+    }
+
+    /**
+     * Position of the last change in the batch.
+     */
+    public long getPosition() {
+      return position;
+    }
+
+    /**
+     * Position of the last change in the log when the batch was read.
+     */
+    public long getLastPosition() {
+      return lastPosition;
+    }
+
+    public int size() {
+      return changes.remaining();
+    }
+
+    /**
+     * Writes every change as {@code int length} followed by its payload.
+     */
+    public void writeTo(final ByteBuffer buffer) {
+      buffer.put(changes.duplicate());
+    }
+  }
+}
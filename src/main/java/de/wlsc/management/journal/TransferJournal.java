@@ -0,0 +1,49 @@
+package de.wlsc.management.journal;
+
+import de.wlsc.model.Account;
+
+/**
+ * Append-only log of every change applied to the account store. Appending happens while the
+ * touched accounts are locked, so the order of records of one account is the order in which the
+ * changes were applied; waiting for durability happens after the locks were released.
+ */
+public interface TransferJournal extends AutoCloseable {
+
+  /**
+   * Feeds all journaled records to the listener. Has to be called once, before anything is
+   * appended.
+   */
+  void replay(JournalListener journalListener);
+
+  JournalRecord appendCreation(Account account);
+
+  JournalRecord appendTransfer(String fromAccountId, String toAccountId, long withdrawal, long deposit);
+
+  /**
+   * Appends transfers as one record, so that they are replayed and replicated all or none.
+   */
+  JournalRecord appendTransfers(String[] fromAccountIds, String[] toAccountIds, long[] withdrawals, long[] deposits);
+
+  JournalRecord appendRemoval();
+
+  /**
+   * Blocks until the record is as durable as the configured {@link DurabilityMode} promises.
+   */
+  void awaitDurable(JournalRecord journalRecord);
+
+  long lastSequence();
+
+  /**
+   * Starts a new segment and returns its number. Every record appended before the call is
+   * written to an older segment once this method returns.
+   */
+  long roll();
+
+  /**
+   * Deletes all segments older than the given one, e.g. when a snapshot covers them.
+   */
+  void deleteSegmentsBefore(long segment);
+
+  @Override
+  void close();
+}
@@ -0,0 +1,35 @@
+package de.wlsc.management.journal;
+
+import de.wlsc.management.replication.ReplicationConfiguration;
+import de.wlsc.model.ReplicationRole;
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Factory;
+import javax.inject.Singleton;
+
+@Factory
+public class TransferJournalFactory {
+
+  /**
+   * Followers replicate too, as any of them may be promoted to leader.
+   */
+  @Singleton
+  @Bean(preDestroy = "close")
+  public TransferJournal transferJournal(final JournalConfiguration journalConfiguration,
+                                         final ReplicationConfiguration replicationConfiguration,
+                                         final ReplicationLog replicationLog) {
+    TransferJournal transferJournal = journalConfiguration.getMode() == DurabilityMode.NONE
+        ? new DisabledTransferJournal()
+        : new FileTransferJournal(journalConfiguration);
+    if (replicationConfiguration.getRole() == ReplicationRole.NONE) {
+      return transferJournal;
+    }
+    return new ReplicatingTransferJournal(transferJournal, replicationLog, replicationConfiguration.getMinAcks(),
+        replicationConfiguration.getAckTimeout());
+  }
+
+  @Singleton
+  public ReplicationLog replicationLog(final ReplicationConfiguration replicationConfiguration) {
+    return new ReplicationLog(replicationConfiguration.getRole() == ReplicationRole.NONE
+        ? 1 : replicationConfiguration.getLogCapacity());
+  }
+}
@@ -0,0 +1,83 @@
+package de.wlsc.management.logging;
+
+import de.wlsc.model.MoneyTransfer;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Audit trail of money transfers, one JSON object per transfer on the {@code audit} logger.
+ * It is configured apart from diagnostic logging, so it is neither sampled nor dropped when the
+ * diagnostic log is under pressure.
+ */
+@Singleton
+public class TransferAudit {
+
+  static final String AUDIT_LOGGER = "audit";
+
+  private static final String SUCCESS = "success";
+
+  private final Logger auditLog;
+
+  public TransferAudit() {
+    this(LoggerFactory.getLogger(AUDIT_LOGGER));
+  }
+
+  TransferAudit(final Logger auditLog) {
+    this.auditLog = auditLog;
+  }
+
+  /**
+   * Audit trail written nowhere, for account management created outside of the application
+   * context.
+   */
+  public static TransferAudit disabled() {
+    return new TransferAudit(NOPLogger.NOP_LOGGER);
+  }
+
+  public void succeeded(final MoneyTransfer moneyTransfer) {
+    if (auditLog.isInfoEnabled()) {
+      auditLog.info(record(moneyTransfer, SUCCESS));
+    }
+  }
+
+  public void rejected(final MoneyTransfer moneyTransfer, final RuntimeException rejection) {
+    if (auditLog.isInfoEnabled()) {
+      auditLog.info(record(moneyTransfer, rejection.getClass().getSimpleName()));
+    }
+  }
+
+  static String record(final MoneyTransfer moneyTransfer, final String outcome) {
+    StringBuilder record = new StringBuilder(160);
+    record.append("\"transferId\":");
+    appendString(record, moneyTransfer.getId());
+    record.append(",\"from\":");
+    appendString(record, moneyTransfer.getFromAccountId());
+    record.append(",\"to\":");
+    appendString(record, moneyTransfer.getToAccountId());
+    record.append(",\"amount\":").append(moneyTransfer.getAmount());
+    record.append(",\"outcome\":");
+    appendString(record, outcome);
+    return record.toString();
+  }
+
+  private static void appendString(final StringBuilder record, final String value) {
+    if (value == null) {
+      record.append("null");
+      return;
+    }
+    record.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char character = value.charAt(i);
+      if (character == '"' || character == '\\') {
+        record.append('\\').append(character);
+      } else if (character < 0x20) {
+        record.append(String.format("\\u%04x", (int) character));
+      } else {
+        record.append(character);
+      }
+    }
+    record.append('"');
+  }
+}
@@ -0,0 +1,19 @@
+package de.wlsc.management.logging;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Sampling of the diagnostic log lines written per transfer. Every {@code sampleRate}-th transfer
+ * is logged on average, 1 logs all and 0 none of them, and no more than {@code maxPerSecond}
+ * of them per second, 0 meaning no limit.
+ */
+@ConfigurationProperties("transfer-log")
+@Getter
+@Setter
+public class TransferLogConfiguration {
+
+  private int sampleRate = 100;
+  private int maxPerSecond = 100;
+}
@@ -0,0 +1,47 @@
+package de.wlsc.management.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Decides which transfers get diagnostic log lines. Sampling is random per thread, so transfers
+ * which are not logged never touch shared state.
+ */
+@Singleton
+public class TransferLogSampler {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final int sampleRate;
+  private final int maxPerSecond;
+  private final AtomicLong currentSecond = new AtomicLong();
+  private final AtomicInteger sampledInCurrentSecond = new AtomicInteger();
+
+  @Inject
+  public TransferLogSampler(final TransferLogConfiguration transferLogConfiguration) {
+    this.sampleRate = transferLogConfiguration.getSampleRate();
+    this.maxPerSecond = transferLogConfiguration.getMaxPerSecond();
+  }
+
+  public boolean sample() {
+    if (sampleRate <= 0) {
+      return false;
+    }
+    if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+      return false;
+    }
+    if (maxPerSecond <= 0) {
+      return true;
+    }
+    long second = System.nanoTime() / NANOS_PER_SECOND;
+    long sampledSecond = currentSecond.get();
+    if (second != sampledSecond && currentSecond.compareAndSet(sampledSecond, second)) {
+      sampledInCurrentSecond.set(0);
+    }
+    return sampledInCurrentSecond.incrementAndGet() <= maxPerSecond;
+  }
+}
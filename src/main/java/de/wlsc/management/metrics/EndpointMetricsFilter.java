@@ -0,0 +1,71 @@
+package de.wlsc.management.metrics;
+
+import static de.wlsc.management.metrics.TransferMetrics.HISTOGRAM_EXPIRY;
+import static de.wlsc.management.metrics.TransferMetrics.PERCENTILES;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.http.HttpAttributes;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import io.reactivex.Flowable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.Value;
+import org.reactivestreams.Publisher;
+
+/**
+ * Latency histograms of the account endpoint by method, route and response status, measured
+ * from the routed request until its response is available. The timer of each combination is
+ * registered once and looked up afterwards, so a request only records its latency.
+ */
+@Filter("/accounts/**")
+public class EndpointMetricsFilter implements HttpServerFilter {
+
+  private static final String UNKNOWN_ROUTE = "UNKNOWN";
+  private static final int INTERNAL_SERVER_ERROR = 500;
+
+  private final MeterRegistry meterRegistry;
+  private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+  public EndpointMetricsFilter(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Publisher<MutableHttpResponse<?>> doFilter(final HttpRequest<?> request, final ServerFilterChain chain) {
+    long start = System.nanoTime();
+    return Flowable.fromPublisher(chain.proceed(request))
+        .doOnNext(response -> record(request, response.getStatus().getCode(), start))
+        .doOnError(e -> record(request, INTERNAL_SERVER_ERROR, start));
+  }
+
+  private void record(final HttpRequest<?> request, final int status, final long start) {
+    TimerKey key = new TimerKey(request.getMethod().name(),
+        request.getAttribute(HttpAttributes.URI_TEMPLATE, String.class).orElse(UNKNOWN_ROUTE), status);
+    timers.computeIfAbsent(key, this::register).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private Timer register(final TimerKey key) {
+    return Timer.builder("http.server.requests")
+        .description("Time to answer requests of the account endpoint")
+        .tag("method", key.getMethod())
+        .tag("uri", key.getUri())
+        .tag("status", Integer.toString(key.getStatus()))
+        .publishPercentiles(PERCENTILES)
+        .distributionStatisticExpiry(HISTOGRAM_EXPIRY)
+        .register(meterRegistry);
+  }
+
+  @Value
+  private static class TimerKey {
+
+    private final String method;
+    private final String uri;
+    private final int status;
+  }
+}
@@ -0,0 +1,61 @@
+package de.wlsc.management.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * HDR histogram of latencies in nanoseconds. Recording is wait-free, readers collect what was
+ * recorded since the last read into a window which starts over once it is older than the expiry,
+ * so percentiles follow the current load instead of the whole uptime.
+ */
+final class LatencyHistogram {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+  private final Histogram window = new Histogram(SIGNIFICANT_DIGITS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final long expiryNanos;
+  private Histogram interval;
+  private long windowStart = System.nanoTime();
+
+  LatencyHistogram(final Duration expiry) {
+    this.expiryNanos = expiry.toNanos();
+  }
+
+  void record(final long nanos) {
+    recorder.recordValue(Math.max(0, nanos));
+    count.increment();
+    totalNanos.add(nanos);
+  }
+
+  long count() {
+    return count.sum();
+  }
+
+  double totalNanos() {
+    return totalNanos.sum();
+  }
+
+  synchronized double percentileNanos(final double percentile) {
+    return collect().getValueAtPercentile(percentile * 100);
+  }
+
+  synchronized double maxNanos() {
+    return collect().getMaxValue();
+  }
+
+  private Histogram collect() {
+    interval = recorder.getIntervalHistogram(interval);
+    long now = System.nanoTime();
+    if (now - windowStart >= expiryNanos) {
+      window.reset();
+      windowStart = now;
+    }
+    window.add(interval);
+    return window;
+  }
+}
@@ -0,0 +1,23 @@
+package de.wlsc.management.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.context.annotation.Factory;
+import java.util.List;
+import javax.inject.Singleton;
+
+/**
+ * Registry holding the application's meters. Every {@link MeterBinder} bean registers its meters
+ * on it.
+ */
+@Factory
+public class MeterRegistryFactory {
+
+  @Singleton
+  public MeterRegistry meterRegistry(final List<MeterBinder> meterBinders) {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    meterBinders.forEach(meterBinder -> meterBinder.bindTo(meterRegistry));
+    return meterRegistry;
+  }
+}
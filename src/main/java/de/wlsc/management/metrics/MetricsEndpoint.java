@@ -0,0 +1,63 @@
+package de.wlsc.management.metrics;
+
+import static java.util.stream.Collectors.toList;
+
+import de.wlsc.model.MeterSnapshot;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Selector;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Current values of all meters, {@code GET /metrics} lists the meter names and
+ * {@code GET /metrics/{name}} the measurements of every meter with that name.
+ */
+@Endpoint(id = "metrics", defaultSensitive = false)
+public class MetricsEndpoint {
+
+  private final MeterRegistry meterRegistry;
+
+  public MetricsEndpoint(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Read
+  public List<String> listNames() {
+    return meterRegistry.getMeters().stream()
+        .map(meter -> meter.getId().getName())
+        .distinct()
+        .sorted()
+        .collect(toList());
+  }
+
+  @Read
+  public List<MeterSnapshot> getMeters(@Selector final String name) {
+    List<MeterSnapshot> meters = meterRegistry.find(name).meters().stream()
+        .map(MetricsEndpoint::snapshot)
+        .collect(toList());
+    return meters.isEmpty() ? null : meters;
+  }
+
+  private static MeterSnapshot snapshot(final Meter meter) {
+    Map<String, String> tags = new LinkedHashMap<>();
+    for (Tag tag : meter.getId().getTags()) {
+      tags.put(tag.getKey(), tag.getValue());
+    }
+    Map<String, Double> measurements = new LinkedHashMap<>();
+    for (Measurement measurement : meter.measure()) {
+      measurements.put(measurement.getStatistic().getTagValueRepresentation(), measurement.getValue());
+    }
+    return MeterSnapshot.builder()
+        .name(meter.getId().getName())
+        .tags(tags)
+        .baseUnit(meter.getId().getBaseUnit())
+        .measurements(measurements)
+        .build();
+  }
+}
@@ -0,0 +1,106 @@
+package de.wlsc.management.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import javax.inject.Singleton;
+
+/**
+ * Meters of {@link de.wlsc.management.AccountManagement}: the latency of every transfer in a
+ * HDR histogram, the number of transfers per outcome and how often transfers had to wait for a
+ * lock. Recording a transfer reads the clock twice and only updates lock-free adders and a
+ * wait-free histogram, the histogram is only evaluated when the meters are read.
+ */
+@Singleton
+public class TransferMetrics {
+
+  static final Duration HISTOGRAM_EXPIRY = Duration.ofMinutes(1);
+  static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+  private static final String SUCCESS = "success";
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final MeterRegistry meterRegistry;
+  private final LatencyHistogram duration = new LatencyHistogram(HISTOGRAM_EXPIRY);
+  private final Counter succeeded;
+  private final Map<Class<?>, Counter> failed = new ConcurrentHashMap<>();
+
+  public TransferMetrics(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    FunctionTimer.builder("transfer.duration", duration, LatencyHistogram::count, LatencyHistogram::totalNanos,
+        TimeUnit.NANOSECONDS)
+        .description("Time to apply a single money transfer, regardless of its outcome")
+        .register(meterRegistry);
+    for (double percentile : PERCENTILES) {
+      Gauge.builder("transfer.duration.percentile", duration,
+          histogram -> histogram.percentileNanos(percentile) / NANOS_PER_SECOND)
+          .description("Percentile of the transfer duration within the last minute")
+          .tag("phi", Double.toString(percentile))
+          .baseUnit("seconds")
+          .register(meterRegistry);
+    }
+    Gauge.builder("transfer.duration.max", duration, histogram -> histogram.maxNanos() / NANOS_PER_SECOND)
+        .description("Longest transfer duration within the last minute")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    this.succeeded = transfers(SUCCESS);
+  }
+
+  /**
+   * Metrics recorded nowhere, for account management created outside of the application context.
+   */
+  public static TransferMetrics disabled() {
+    return new TransferMetrics(new CompositeMeterRegistry());
+  }
+
+  public long start() {
+    return System.nanoTime();
+  }
+
+  public void succeeded(final long startNanos) {
+    duration.record(System.nanoTime() - startNanos);
+    succeeded.increment();
+  }
+
+  public void failed(final long startNanos, final RuntimeException failure) {
+    duration.record(System.nanoTime() - startNanos);
+    failed.computeIfAbsent(failure.getClass(), failureClass -> transfers(failureClass.getSimpleName())).increment();
+  }
+
+  /**
+   * Reports lock acquisitions which had to wait for another thread and the time they waited.
+   */
+  public <T> void monitorLockContention(final T locks,
+                                        final ToLongFunction<T> contendedAcquisitions,
+                                        final ToDoubleFunction<T> contendedNanos) {
+    FunctionTimer.builder("transfer.lock.contention", locks, contendedAcquisitions, contendedNanos,
+        TimeUnit.NANOSECONDS)
+        .description("Lock acquisitions of transfers which had to wait for another transfer")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Reports the estimated memory the secondary account indexes take on top of the accounts.
+   */
+  public <T> void monitorIndexFootprint(final T indexes, final ToDoubleFunction<T> estimatedBytes) {
+    Gauge.builder("accounts.index.memory", indexes, estimatedBytes)
+        .description("Estimated heap taken by the secondary indexes of accounts")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  private Counter transfers(final String outcome) {
+    return Counter.builder("transfers")
+        .description("Money transfers by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,317 @@
+package de.wlsc.management.replication;
+
+import static io.micronaut.http.HttpHeaders.LOCATION;
+import static io.micronaut.http.HttpHeaders.RETRY_AFTER;
+import static io.micronaut.http.HttpStatus.GONE;
+import static io.micronaut.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.AccountManagement;
+import de.wlsc.management.journal.ReplicationLog;
+import de.wlsc.model.Account;
+import de.wlsc.model.ReplicaSnapshot;
+import de.wlsc.model.ReplicationRole;
+import de.wlsc.model.ReplicationStatus;
+import io.micronaut.context.annotation.Context;
+import io.micronaut.http.HttpMethod;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.http.client.exceptions.HttpClientException;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.uri.UriBuilder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Role of this node in the replication. A follower pulls the changes of the leader on a thread of
+ * its own, starting over from a snapshot of the leader's store whenever the leader's log cannot
+ * continue where the follower stopped, and forwards all changes requested from it to the leader.
+ * <p>
+ * There is no election: a follower becomes leader when it is promoted, the other followers have
+ * to be pointed to it. Changes the former leader did not replicate before it was lost are lost
+ * with it, unless changes wait for acknowledgements of the followers.
+ */
+@Context
+@Slf4j
+public class Replica implements AutoCloseable {
+
+  static final String LOG = "/replication/log";
+  static final String SNAPSHOT = "/replication/snapshot";
+  static final String LOG_ID_HEADER = "X-Replication-Log";
+  static final String POSITION_HEADER = "X-Replication-Position";
+  static final String LAST_POSITION_HEADER = "X-Replication-Last-Position";
+
+  private static final String[] FORWARDED_HEADERS = {LOCATION, RETRY_AFTER};
+
+  private final AccountManagement accountManagement;
+  private final ReplicationLog replicationLog;
+  private final ReplicationConfiguration replicationConfiguration;
+  private final ObjectMapper objectMapper;
+  private final String nodeId;
+  private volatile ReplicationRole role;
+  private volatile String leaderUrl;
+  private volatile RxHttpClient leader;
+  private volatile Thread follower;
+  private volatile String logId;
+  private volatile long position;
+  private volatile long leaderPosition;
+  private volatile long caughtUpNanos = System.nanoTime();
+
+  @Inject
+  public Replica(final AccountManagement accountManagement,
+                 final ReplicationLog replicationLog,
+                 final ReplicationConfiguration replicationConfiguration,
+                 final ObjectMapper objectMapper) {
+    this.accountManagement = accountManagement;
+    this.replicationLog = replicationLog;
+    this.replicationConfiguration = replicationConfiguration;
+    this.objectMapper = objectMapper;
+    this.nodeId = replicationConfiguration.getNodeId() != null
+        ? replicationConfiguration.getNodeId()
+        : UUID.randomUUID().toString();
+    this.role = replicationConfiguration.getRole();
+    if (role == ReplicationRole.FOLLOWER) {
+      follow(replicationConfiguration.getLeaderUrl());
+    }
+  }
+
+  public boolean isFollower() {
+    return role == ReplicationRole.FOLLOWER;
+  }
+
+  /**
+   * Follows the leader from where this node stands: a former leader offers its own log, which the
+   * new leader continues if it was promoted at its last position.
+   */
+  public synchronized void follow(final String url) {
+    if (role == ReplicationRole.NONE) {
+      throw new IllegalStateException("Replication is not enabled");
+    }
+    RxHttpClient formerLeader = leader;
+    leader = RxHttpClient.create(toUrl(url));
+    leaderUrl = url;
+    if (formerLeader != null) {
+      formerLeader.close();
+    }
+    if (role == ReplicationRole.LEADER) {
+      logId = replicationLog.id();
+      position = replicationLog.lastPosition();
+    }
+    role = ReplicationRole.FOLLOWER;
+    replicationLog.follow();
+    if (follower == null) {
+      follower = new Thread(this::pull, "replication-follower");
+      follower.setDaemon(true);
+      follower.start();
+    }
+  }
+
+  /**
+   * Turns the follower into the leader at the position it reached. Changes are applied under the
+   * same monitor, so none arrives after the promotion.
+   */
+  public synchronized void promote() {
+    if (role != ReplicationRole.FOLLOWER) {
+      return;
+    }
+    follower = null;
+    replicationLog.continueFrom(logId, position);
+    role = ReplicationRole.LEADER;
+    leaderUrl = null;
+    log.info("Promoted to leader at position {}", position);
+  }
+
+  public ReplicationStatus status() {
+    if (role != ReplicationRole.FOLLOWER) {
+      long lastPosition = replicationLog.lastPosition();
+      return ReplicationStatus.builder()
+          .role(role)
+          .logId(replicationLog.id())
+          .position(lastPosition)
+          .leaderPosition(lastPosition)
+          .acknowledgedPositions(replicationLog.acknowledgedPositions())
+          .build();
+    }
+    long currentPosition = position;
+    long currentLeaderPosition = leaderPosition;
+    boolean caughtUp = currentPosition >= currentLeaderPosition;
+    return ReplicationStatus.builder()
+        .role(role)
+        .leaderUrl(leaderUrl)
+        .logId(logId)
+        .position(currentPosition)
+        .leaderPosition(currentLeaderPosition)
+        .lag(caughtUp ? 0 : currentLeaderPosition - currentPosition)
+        .lagMillis(caughtUp ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - caughtUpNanos))
+        .acknowledgedPositions(Collections.emptyMap())
+        .build();
+  }
+
+  /**
+   * Sends the change to the leader and answers with the leader's response, or with service
+   * unavailable if the leader cannot be reached.
+   */
+  public CompletableFuture<HttpResponse<?>> forward(final HttpMethod method, final String uri, final Object body) {
+    MutableHttpRequest<Object> request = HttpRequest.create(method, uri);
+    if (body != null) {
+      request.contentType(MediaType.APPLICATION_JSON_TYPE).body(toJson(body));
+    }
+    CompletableFuture<HttpResponse<?>> response = new CompletableFuture<>();
+    leader.exchange(request, String.class).firstOrError().subscribe(
+        forwarded -> response.complete(copy(forwarded, forwarded.getBody().orElse(null))),
+        e -> response.complete(forwardingFailed(e)));
+    return response;
+  }
+
+  private HttpResponse<?> forwardingFailed(final Throwable e) {
+    if (e instanceof HttpClientResponseException) {
+      HttpResponse<?> forwarded = ((HttpClientResponseException) e).getResponse();
+      return copy(forwarded, forwarded.getBody(String.class).orElse(null));
+    }
+    log.warn("Leader {} is not reachable: {}", leaderUrl, e.getMessage());
+    return HttpResponse.status(SERVICE_UNAVAILABLE).header(RETRY_AFTER, "1").body("Leader is not reachable");
+  }
+
+  private static MutableHttpResponse<String> copy(final HttpResponse<?> forwarded, final String body) {
+    MutableHttpResponse<String> response = HttpResponse.status(forwarded.status());
+    for (String header : FORWARDED_HEADERS) {
+      forwarded.getHeaders().getFirst(header).ifPresent(value -> response.header(header, value));
+    }
+    forwarded.getContentType().ifPresent(response::contentType);
+    return body == null ? response : response.body(body);
+  }
+
+  private void pull() {
+    Thread self = Thread.currentThread();
+    while (follower == self) {
+      try {
+        boolean caughtUp = logId == null ? bootstrap(self) : pullChanges(self);
+        if (caughtUp) {
+          pause();
+        }
+      } catch (HttpClientResponseException e) {
+        if (e.getStatus() == GONE) {
+          log.info("Leader cannot continue at position {}, starting over from its snapshot", position);
+          logId = null;
+        } else {
+          log.warn("Pulling changes from {} has failed: {}", leaderUrl, e.getMessage());
+          pause();
+        }
+      } catch (HttpClientException e) {
+        log.debug("Leader {} is not reachable: {}", leaderUrl, e.getMessage());
+        pause();
+      } catch (RuntimeException e) {
+        log.error("Applying changes of the leader has failed, starting over from its snapshot", e);
+        logId = null;
+        pause();
+      }
+    }
+  }
+
+  private boolean bootstrap(final Thread self) {
+    ReplicaSnapshot replicaSnapshot = fromJson(leader.toBlocking().retrieve(HttpRequest.GET(SNAPSHOT), String.class));
+    List<Account> accounts = replicaSnapshot.getAccounts() == null
+        ? Collections.emptyList()
+        : replicaSnapshot.getAccounts();
+    synchronized (this) {
+      if (follower != self) {
+        return false;
+      }
+      accountManagement.restoreReplica(accounts);
+      logId = replicaSnapshot.getLogId();
+      position = replicaSnapshot.getPosition();
+      leaderPosition = position;
+      caughtUpNanos = System.nanoTime();
+    }
+    log.info("Restored {} accounts of the leader at position {}", accounts.size(), position);
+    return false;
+  }
+
+  /**
+   * Applies the next changes of the leader and tells whether the follower caught up with it.
+   */
+  private boolean pullChanges(final Thread self) {
+    String uri = UriBuilder.of(LOG)
+        .queryParam("log", logId)
+        .queryParam("after", position)
+        .queryParam("limit", replicationConfiguration.getBatchSize())
+        .queryParam("follower", nodeId)
+        .toString();
+    HttpResponse<byte[]> response = leader.toBlocking().exchange(HttpRequest.GET(uri), byte[].class);
+    byte[] changes = response.getBody().orElse(new byte[0]);
+    long batchPosition = Long.parseLong(response.header(POSITION_HEADER));
+    long lastPosition = Long.parseLong(response.header(LAST_POSITION_HEADER));
+    synchronized (this) {
+      if (follower != self) {
+        return false;
+      }
+      accountManagement.replicate(ByteBuffer.wrap(changes));
+      logId = response.header(LOG_ID_HEADER);
+      position = batchPosition;
+      leaderPosition = lastPosition;
+      if (batchPosition >= lastPosition) {
+        caughtUpNanos = System.nanoTime();
+      }
+    }
+    return batchPosition >= lastPosition;
+  }
+
+  private void pause() {
+    LockSupport.parkNanos(replicationConfiguration.getPollInterval().toNanos());
+  }
+
+  private String toJson(final Object body) {
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private ReplicaSnapshot fromJson(final String body) {
+    try {
+      return objectMapper.readValue(body, ReplicaSnapshot.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static URL toUrl(final String url) {
+    if (url == null) {
+      throw new IllegalArgumentException("Leader URL is missing");
+    }
+    try {
+      return new URL(url);
+    } catch (MalformedURLException e) {
+      throw new IllegalArgumentException("Leader URL " + url + " is not valid", e);
+    }
+  }
+
+  /**
+   * Stops following and closes the connection to the leader.
+   */
+  @PreDestroy
+  @Override
+  public synchronized void close() {
+    follower = null;
+    if (leader != null) {
+      leader.close();
+    }
+  }
+}
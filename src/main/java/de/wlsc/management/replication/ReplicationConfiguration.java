@@ -0,0 +1,54 @@
+package de.wlsc.management.replication;
+
+import de.wlsc.model.ReplicationRole;
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("replication")
+@Getter
+@Setter
+public class ReplicationConfiguration {
+
+  /**
+   * Role the node starts in, promotion and demotion change it at runtime.
+   */
+  private ReplicationRole role = ReplicationRole.NONE;
+
+  /**
+   * Base URL of the leader a follower pulls the changes from and forwards changes to.
+   */
+  private String leaderUrl;
+
+  /**
+   * Name of this node towards the leader, which counts the acknowledgements per node.
+   */
+  private String nodeId;
+
+  /**
+   * Number of most recent changes a leader keeps for followers which fell behind.
+   */
+  private int logCapacity = 65_536;
+
+  /**
+   * How long a follower waits before it asks again after it caught up or lost the leader.
+   */
+  private Duration pollInterval = Duration.ofMillis(10);
+
+  /**
+   * Changes a follower pulls at most at once.
+   */
+  private int batchSize = 4096;
+
+  /**
+   * Followers which have to apply a change before it is acknowledged, 0 replicates asynchronously.
+   */
+  private int minAcks;
+
+  /**
+   * How long a change waits for the followers before it is answered as applied but not yet
+   * replicated.
+   */
+  private Duration ackTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,118 @@
+package de.wlsc.management.replication;
+
+import static de.wlsc.management.replication.Replica.LAST_POSITION_HEADER;
+import static de.wlsc.management.replication.Replica.LOG_ID_HEADER;
+import static de.wlsc.management.replication.Replica.POSITION_HEADER;
+import static io.micronaut.http.HttpStatus.GONE;
+import static io.micronaut.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static io.micronaut.http.MediaType.APPLICATION_JSON;
+import static io.micronaut.http.MediaType.APPLICATION_OCTET_STREAM;
+
+import de.wlsc.management.AccountManagement;
+import de.wlsc.management.execution.EndpointExecutor;
+import de.wlsc.management.journal.ReplicationLog;
+import de.wlsc.model.ReplicaSnapshot;
+import de.wlsc.model.ReplicationStatus;
+import io.micronaut.core.version.annotation.Version;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.QueryValue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Changes and snapshots of the store for the followers, and the administration of the replication.
+ */
+@Controller
+@Slf4j
+public class ReplicationEndpoint {
+
+  static final String STATUS = "/replication/status";
+  static final String PROMOTE = "/replication/promote";
+  static final String FOLLOW = "/replication/follow";
+
+  private final AccountManagement accountManagement;
+  private final ReplicationLog replicationLog;
+  private final Replica replica;
+  private final EndpointExecutor endpointExecutor;
+
+  @Inject
+  public ReplicationEndpoint(final AccountManagement accountManagement,
+                             final ReplicationLog replicationLog,
+                             final Replica replica,
+                             final EndpointExecutor endpointExecutor) {
+    this.accountManagement = accountManagement;
+    this.replicationLog = replicationLog;
+    this.replica = replica;
+    this.endpointExecutor = endpointExecutor;
+  }
+
+  /**
+   * Changes following the position the follower applied, which also acknowledges the changes up
+   * to that position. Gone if the follower has to start over from a snapshot.
+   */
+  @Get(uri = Replica.LOG, produces = APPLICATION_OCTET_STREAM)
+  @Version("1")
+  public HttpResponse<byte[]> changes(@QueryValue final String log,
+                                      @QueryValue final long after,
+                                      @QueryValue final int limit,
+                                      @QueryValue final String follower) {
+    if (replica.isFollower()) {
+      return HttpResponse.status(SERVICE_UNAVAILABLE);
+    }
+    ReplicationLog.Batch batch = replicationLog.read(log, after, limit);
+    if (batch == null) {
+      return HttpResponse.status(GONE);
+    }
+    replicationLog.acknowledge(follower, after);
+    ByteBuffer buffer = ByteBuffer.allocate(batch.size());
+    batch.writeTo(buffer);
+    return HttpResponse.ok(buffer.array())
+        .header(LOG_ID_HEADER, batch.getLogId())
+        .header(POSITION_HEADER, Long.toString(batch.getPosition()))
+        .header(LAST_POSITION_HEADER, Long.toString(batch.getLastPosition()));
+  }
+
+  /**
+   * All accounts together with the position of the last change applied to them.
+   */
+  @Get(uri = Replica.SNAPSHOT, produces = APPLICATION_JSON)
+  @Version("1")
+  public CompletableFuture<HttpResponse<ReplicaSnapshot>> snapshot() {
+    if (replica.isFollower()) {
+      return CompletableFuture.completedFuture(HttpResponse.status(SERVICE_UNAVAILABLE));
+    }
+    return endpointExecutor.supply(() -> HttpResponse.ok(accountManagement.atomically(() -> ReplicaSnapshot.builder()
+        .logId(replicationLog.id())
+        .position(replicationLog.lastPosition())
+        .accounts(new ArrayList<>(accountManagement.listAccounts()))
+        .build())));
+  }
+
+  @Get(uri = STATUS, produces = APPLICATION_JSON)
+  @Version("1")
+  public ReplicationStatus status() {
+    return replica.status();
+  }
+
+  @Post(uri = PROMOTE, produces = APPLICATION_JSON)
+  @Version("1")
+  public ReplicationStatus promote() {
+    log.info("Requested promotion to leader");
+    replica.promote();
+    return replica.status();
+  }
+
+  @Post(uri = FOLLOW, produces = APPLICATION_JSON)
+  @Version("1")
+  public ReplicationStatus follow(@QueryValue final String leader) {
+    log.info("Requested to follow {}", leader);
+    replica.follow(leader);
+    return replica.status();
+  }
+}
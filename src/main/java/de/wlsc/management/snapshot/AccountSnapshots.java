@@ -0,0 +1,183 @@
+package de.wlsc.management.snapshot;
+
+import static de.wlsc.management.snapshot.SnapshotLayout.ACCOUNT_COUNT_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.ACCOUNT_RECORD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.CURRENCY_FIELD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.CUSTOMERS_OFFSET_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.CUSTOMER_COUNT_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.CUSTOMER_RECORD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.HEADER_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.MAGIC;
+import static de.wlsc.management.snapshot.SnapshotLayout.NO_CUSTOMER;
+import static de.wlsc.management.snapshot.SnapshotLayout.START_SEQUENCE_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.STRING_FIELD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.VERSION;
+import static de.wlsc.management.snapshot.SnapshotLayout.readCurrency;
+import static de.wlsc.management.snapshot.SnapshotLayout.readString;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.stream.Collectors.toList;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Directory of account snapshots, named after the journal sequence they start from. Only the
+ * latest complete snapshot is kept.
+ */
+@Singleton
+@Slf4j
+public class AccountSnapshots {
+
+  /**
+   * Longest account id or customer field, in UTF-8 bytes, that fits into the fixed-width fields of
+   * a snapshot. Accounts with longer fields are refused when they are created.
+   */
+  public static final int MAX_FIELD_BYTES = SnapshotLayout.MAX_STRING_BYTES;
+
+  private static final Pattern SNAPSHOT_FILE = Pattern.compile("accounts-(\\d{20})\\.snapshot");
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  private final boolean enabled;
+  private final Path directory;
+
+  public AccountSnapshots(final SnapshotConfiguration snapshotConfiguration) {
+    this.enabled = snapshotConfiguration.isEnabled();
+    this.directory = Paths.get(snapshotConfiguration.getDirectory());
+  }
+
+  /**
+   * Feeds every account of the latest snapshot to the listener and returns the journal sequence
+   * the snapshot starts from, all journal records up to it are contained in the snapshot. Returns
+   * 0 when there is no snapshot.
+   */
+  public long load(final SnapshotListener snapshotListener) {
+    if (!enabled) {
+      return 0;
+    }
+    try {
+      List<Long> snapshots = snapshots();
+      if (snapshots.isEmpty()) {
+        return 0;
+      }
+      Path file = directory.resolve(snapshotFileName(snapshots.get(snapshots.size() - 1)));
+      try (FileChannel channel = FileChannel.open(file, READ)) {
+        return load(file, channel, snapshotListener);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Snapshot could not be loaded", e);
+    }
+  }
+
+  /**
+   * Starts a snapshot of exactly {@code accountCount} accounts. The writer has to be committed to
+   * become the latest snapshot, closing it without commit discards it.
+   */
+  public SnapshotWriter write(final long startSequence, final int accountCount) {
+    if (!enabled) {
+      throw new IllegalStateException("Snapshots are disabled");
+    }
+    try {
+      Files.createDirectories(directory);
+      Path targetFile = directory.resolve(snapshotFileName(startSequence));
+      Path temporaryFile = directory.resolve(snapshotFileName(startSequence) + TEMPORARY_SUFFIX);
+      Files.deleteIfExists(temporaryFile);
+      return new SnapshotWriter(temporaryFile, targetFile, startSequence, accountCount);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Snapshot could not be created", e);
+    }
+  }
+
+  public void deleteSnapshotsBefore(final long startSequence) {
+    try {
+      for (long snapshot : snapshots()) {
+        if (snapshot < startSequence) {
+          Files.deleteIfExists(directory.resolve(snapshotFileName(snapshot)));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Snapshots could not be deleted", e);
+    }
+  }
+
+  private long load(final Path file, final FileChannel channel, final SnapshotListener snapshotListener) throws IOException {
+    MappedByteBuffer header = channel.map(READ_ONLY, 0, HEADER_SIZE);
+    if (header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != VERSION) {
+      throw new IllegalStateException("File " + file + " is not a snapshot of version " + VERSION);
+    }
+    long startSequence = header.getLong(START_SEQUENCE_OFFSET);
+    long accountCount = header.getLong(ACCOUNT_COUNT_OFFSET);
+    long customerCount = header.getLong(CUSTOMER_COUNT_OFFSET);
+    long customersOffset = header.getLong(CUSTOMERS_OFFSET_OFFSET);
+    byte[] scratch = new byte[STRING_FIELD_SIZE];
+
+    Customer[] customers = new Customer[(int) customerCount];
+    MappedRecords customerRecords = new MappedRecords(channel, READ_ONLY, customersOffset, CUSTOMER_RECORD_SIZE, customerCount);
+    for (int i = 0; i < customerCount; i++) {
+      MappedByteBuffer window = customerRecords.window(i);
+      int offset = customerRecords.offsetOf(i);
+      String languageTag = readString(window, offset + STRING_FIELD_SIZE * 3, scratch);
+      customers[i] = Customer.builder()
+          .id(readString(window, offset, scratch))
+          .firstname(readString(window, offset + STRING_FIELD_SIZE, scratch))
+          .lastname(readString(window, offset + STRING_FIELD_SIZE * 2, scratch))
+          .locale(languageTag == null ? null : Locale.forLanguageTag(languageTag))
+          .build();
+    }
+
+    MappedRecords accountRecords = new MappedRecords(channel, READ_ONLY, HEADER_SIZE, ACCOUNT_RECORD_SIZE, accountCount);
+    for (long i = 0; i < accountCount; i++) {
+      MappedByteBuffer window = accountRecords.window(i);
+      int offset = accountRecords.offsetOf(i);
+      String id = readString(window, offset, scratch);
+      offset += STRING_FIELD_SIZE;
+      long amount = window.getLong(offset);
+      offset += Long.BYTES;
+      long lastSequence = window.getLong(offset);
+      offset += Long.BYTES;
+      Account.AccountBuilder account = Account.builder()
+          .id(id)
+          .amount(amount)
+          .currency(readCurrency(window, offset, scratch));
+      offset += CURRENCY_FIELD_SIZE;
+      int customerIndex = window.getInt(offset);
+      snapshotListener.onAccount(account
+          .customer(customerIndex == NO_CUSTOMER ? null : customers[customerIndex])
+          .build(), lastSequence);
+    }
+    log.info("Loaded {} accounts from snapshot {}", accountCount, file);
+    return startSequence;
+  }
+
+  private List<Long> snapshots() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> SNAPSHOT_FILE.matcher(file.getFileName().toString()))
+          .filter(Matcher::matches)
+          .map(matcher -> Long.parseLong(matcher.group(1)))
+          .sorted()
+          .collect(toList());
+    }
+  }
+
+  private static String snapshotFileName(final long startSequence) {
+    return String.format("accounts-%020d.snapshot", startSequence);
+  }
+}
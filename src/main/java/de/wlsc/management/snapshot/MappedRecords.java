@@ -0,0 +1,61 @@
+package de.wlsc.management.snapshot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Fixed-size records of a file region, mapped in windows so that regions larger than the 2 GB
+ * limit of a single {@link MappedByteBuffer} can be addressed.
+ */
+final class MappedRecords {
+
+  private static final int WINDOW_SIZE = 1 << 28;
+
+  private final FileChannel channel;
+  private final MapMode mapMode;
+  private final long regionOffset;
+  private final int recordSize;
+  private final int recordsPerWindow;
+  private final long recordCount;
+  private final MappedByteBuffer[] windows;
+
+  MappedRecords(final FileChannel channel,
+                final MapMode mapMode,
+                final long regionOffset,
+                final int recordSize,
+                final long recordCount) {
+    this.channel = channel;
+    this.mapMode = mapMode;
+    this.regionOffset = regionOffset;
+    this.recordSize = recordSize;
+    this.recordsPerWindow = WINDOW_SIZE / recordSize;
+    this.recordCount = recordCount;
+    this.windows = new MappedByteBuffer[(int) ((recordCount + recordsPerWindow - 1) / recordsPerWindow)];
+  }
+
+  MappedByteBuffer window(final long record) throws IOException {
+    int window = (int) (record / recordsPerWindow);
+    MappedByteBuffer mappedWindow = windows[window];
+    if (mappedWindow == null) {
+      long firstRecord = (long) window * recordsPerWindow;
+      long records = Math.min(recordsPerWindow, recordCount - firstRecord);
+      mappedWindow = channel.map(mapMode, regionOffset + firstRecord * recordSize, records * recordSize);
+      windows[window] = mappedWindow;
+    }
+    return mappedWindow;
+  }
+
+  int offsetOf(final long record) {
+    return (int) (record % recordsPerWindow) * recordSize;
+  }
+
+  void force() {
+    for (MappedByteBuffer window : windows) {
+      if (window != null) {
+        window.force();
+      }
+    }
+  }
+}
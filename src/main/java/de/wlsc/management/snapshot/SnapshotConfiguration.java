@@ -0,0 +1,16 @@
+package de.wlsc.management.snapshot;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("snapshot")
+@Getter
+@Setter
+public class SnapshotConfiguration {
+
+  private boolean enabled;
+  private String directory = "snapshot";
+  private Duration interval = Duration.ofMinutes(5);
+}
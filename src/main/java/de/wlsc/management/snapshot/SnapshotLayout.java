@@ -0,0 +1,84 @@
+package de.wlsc.management.snapshot;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.Currency;
+
+/**
+ * Fixed-width binary layout of a snapshot file:
+ *
+ * <pre>
+ * header    magic, version, start sequence, account count, customer count, customers offset
+ * accounts  account count times: id, amount, last sequence, currency code, customer index
+ * customers customer count times: id, firstname, lastname, locale language tag
+ * </pre>
+ *
+ * <p>Strings are stored as {@code short byteLength} (-1 for null) followed by their UTF-8 bytes
+ * and zero padding up to the width of the field.
+ */
+final class SnapshotLayout {
+
+  static final int MAGIC = 0x534E4150;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 64;
+  static final int START_SEQUENCE_OFFSET = 8;
+  static final int ACCOUNT_COUNT_OFFSET = 16;
+  static final int CUSTOMER_COUNT_OFFSET = 24;
+  static final int CUSTOMERS_OFFSET_OFFSET = 32;
+
+  static final int STRING_FIELD_SIZE = 64;
+  static final int CURRENCY_FIELD_SIZE = 4;
+  static final int ACCOUNT_RECORD_SIZE = STRING_FIELD_SIZE + Long.BYTES + Long.BYTES + CURRENCY_FIELD_SIZE + Integer.BYTES;
+  static final int CUSTOMER_RECORD_SIZE = STRING_FIELD_SIZE * 4;
+  static final int NO_CUSTOMER = -1;
+
+  static final int MAX_STRING_BYTES = STRING_FIELD_SIZE - Short.BYTES;
+
+  private SnapshotLayout() {
+    // utility
+  }
+
+  static void writeString(final ByteBuffer buffer, final int offset, final String value) {
+    if (value == null) {
+      buffer.putShort(offset, (short) -1);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    if (bytes.length > MAX_STRING_BYTES) {
+      throw new IllegalStateException("Value '" + value + "' exceeds " + MAX_STRING_BYTES + " bytes and cannot be snapshotted");
+    }
+    buffer.putShort(offset, (short) bytes.length);
+    for (int i = 0; i < bytes.length; i++) {
+      buffer.put(offset + Short.BYTES + i, bytes[i]);
+    }
+  }
+
+  static String readString(final ByteBuffer buffer, final int offset, final byte[] scratch) {
+    short length = buffer.getShort(offset);
+    if (length < 0) {
+      return null;
+    }
+    for (int i = 0; i < length; i++) {
+      scratch[i] = buffer.get(offset + Short.BYTES + i);
+    }
+    return new String(scratch, 0, length, UTF_8);
+  }
+
+  static void writeCurrency(final ByteBuffer buffer, final int offset, final Currency currency) {
+    String code = currency == null ? "" : currency.getCurrencyCode();
+    for (int i = 0; i < CURRENCY_FIELD_SIZE; i++) {
+      buffer.put(offset + i, i < code.length() ? (byte) code.charAt(i) : 0);
+    }
+  }
+
+  static Currency readCurrency(final ByteBuffer buffer, final int offset, final byte[] scratch) {
+    int length = 0;
+    while (length < CURRENCY_FIELD_SIZE && buffer.get(offset + length) != 0) {
+      scratch[length] = buffer.get(offset + length);
+      length++;
+    }
+    return length == 0 ? null : Currency.getInstance(new String(scratch, 0, length, US_ASCII));
+  }
+}
@@ -0,0 +1,8 @@
+package de.wlsc.management.snapshot;
+
+import de.wlsc.model.Account;
+
+public interface SnapshotListener {
+
+  void onAccount(Account account, long lastSequence);
+}
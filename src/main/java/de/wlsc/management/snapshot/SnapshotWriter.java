@@ -0,0 +1,157 @@
+package de.wlsc.management.snapshot;
+
+import static de.wlsc.management.snapshot.SnapshotLayout.ACCOUNT_COUNT_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.ACCOUNT_RECORD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.CURRENCY_FIELD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.CUSTOMERS_OFFSET_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.CUSTOMER_COUNT_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.CUSTOMER_RECORD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.HEADER_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.MAGIC;
+import static de.wlsc.management.snapshot.SnapshotLayout.NO_CUSTOMER;
+import static de.wlsc.management.snapshot.SnapshotLayout.START_SEQUENCE_OFFSET;
+import static de.wlsc.management.snapshot.SnapshotLayout.STRING_FIELD_SIZE;
+import static de.wlsc.management.snapshot.SnapshotLayout.VERSION;
+import static de.wlsc.management.snapshot.SnapshotLayout.writeCurrency;
+import static de.wlsc.management.snapshot.SnapshotLayout.writeString;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import de.wlsc.model.Customer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a snapshot into a temporary file which only replaces the previous snapshot on
+ * {@link #commit()}, so a crash while snapshotting always leaves the last complete snapshot.
+ */
+public final class SnapshotWriter implements AutoCloseable {
+
+  private final Path temporaryFile;
+  private final Path targetFile;
+  private final long startSequence;
+  private final int accountCount;
+  private final FileChannel channel;
+  private final MappedRecords accounts;
+  private final Map<Customer, Integer> customerIndexes = new HashMap<>();
+  private final List<Customer> customers = new ArrayList<>();
+  private int writtenAccounts;
+  private boolean committed;
+
+  SnapshotWriter(final Path temporaryFile, final Path targetFile, final long startSequence, final int accountCount) {
+    this.temporaryFile = temporaryFile;
+    this.targetFile = targetFile;
+    this.startSequence = startSequence;
+    this.accountCount = accountCount;
+    try {
+      this.channel = FileChannel.open(temporaryFile, CREATE_NEW, READ, WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Snapshot could not be created", e);
+    }
+    this.accounts = new MappedRecords(channel, READ_WRITE, HEADER_SIZE, ACCOUNT_RECORD_SIZE, accountCount);
+  }
+
+  public void writeAccount(final String id,
+                           final long amount,
+                           final long lastSequence,
+                           final Currency currency,
+                           final Customer customer) {
+    if (writtenAccounts == accountCount) {
+      throw new IllegalStateException("Snapshot was created for " + accountCount + " accounts only");
+    }
+    try {
+      MappedByteBuffer window = accounts.window(writtenAccounts);
+      int offset = accounts.offsetOf(writtenAccounts);
+      writeString(window, offset, id);
+      offset += STRING_FIELD_SIZE;
+      window.putLong(offset, amount);
+      offset += Long.BYTES;
+      window.putLong(offset, lastSequence);
+      offset += Long.BYTES;
+      writeCurrency(window, offset, currency);
+      offset += CURRENCY_FIELD_SIZE;
+      window.putInt(offset, customerIndexOf(customer));
+      writtenAccounts++;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Snapshot could not be written", e);
+    }
+  }
+
+  public void commit() {
+    if (writtenAccounts != accountCount) {
+      throw new IllegalStateException("Snapshot expects " + accountCount + " accounts but got " + writtenAccounts);
+    }
+    try {
+      long customersOffset = HEADER_SIZE + (long) accountCount * ACCOUNT_RECORD_SIZE;
+      MappedRecords customerRecords = new MappedRecords(channel, READ_WRITE, customersOffset, CUSTOMER_RECORD_SIZE, customers.size());
+      for (int i = 0; i < customers.size(); i++) {
+        Customer customer = customers.get(i);
+        MappedByteBuffer window = customerRecords.window(i);
+        int offset = customerRecords.offsetOf(i);
+        writeString(window, offset, customer.getId());
+        writeString(window, offset + STRING_FIELD_SIZE, customer.getFirstname());
+        writeString(window, offset + STRING_FIELD_SIZE * 2, customer.getLastname());
+        writeString(window, offset + STRING_FIELD_SIZE * 3, customer.getLocale() == null ? null : customer.getLocale().toLanguageTag());
+      }
+      accounts.force();
+      customerRecords.force();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(0, MAGIC);
+      header.putInt(Integer.BYTES, VERSION);
+      header.putLong(START_SEQUENCE_OFFSET, startSequence);
+      header.putLong(ACCOUNT_COUNT_OFFSET, accountCount);
+      header.putLong(CUSTOMER_COUNT_OFFSET, customers.size());
+      header.putLong(CUSTOMERS_OFFSET_OFFSET, customersOffset);
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      channel.force(true);
+      channel.close();
+
+      Files.move(temporaryFile, targetFile, ATOMIC_MOVE);
+      committed = true;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Snapshot could not be committed", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (committed) {
+      return;
+    }
+    try {
+      channel.close();
+      Files.deleteIfExists(temporaryFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Incomplete snapshot could not be removed", e);
+    }
+  }
+
+  private int customerIndexOf(final Customer customer) {
+    if (customer == null) {
+      return NO_CUSTOMER;
+    }
+    Integer index = customerIndexes.get(customer);
+    if (index == null) {
+      index = customers.size();
+      customerIndexes.put(customer, index);
+      customers.add(customer);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,25 @@
+package de.wlsc.management.startup;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.runtime.server.event.ServerStartupEvent;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exits once the server is ready, so a training run loads the classes of a regular startup and
+ * of the warm-up and then ends on its own. The exit runs on a thread of its own, as the shutdown
+ * hook closes the context the startup event is still being published by.
+ */
+@Singleton
+@Requires(property = "warm-up.exit-when-ready", value = "true")
+@Slf4j
+public class TrainingRun implements ApplicationEventListener<ServerStartupEvent> {
+
+  @Override
+  public void onApplicationEvent(final ServerStartupEvent event) {
+    log.info("Training run has finished, exiting");
+    Thread exit = new Thread(() -> System.exit(0), "training-run-exit");
+    exit.start();
+  }
+}
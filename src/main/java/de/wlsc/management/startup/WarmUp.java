@@ -0,0 +1,178 @@
+package de.wlsc.management.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.AccountManagement;
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.wire.BinaryWireFormat;
+import de.wlsc.management.wire.NdjsonAccounts;
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import de.wlsc.model.MoneyTransfer;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs transfers, batches, rejections and their JSON and binary serialization against a scratch
+ * store while the application starts. Micronaut starts the server only after the startup event
+ * was handled, so the port opens, and the container reports ready, once the hot paths were loaded
+ * and compiled. The scratch store is dropped afterwards, the accounts of the service stay untouched.
+ */
+@Singleton
+@Requires(property = "warm-up.enabled", value = "true")
+@Slf4j
+public class WarmUp implements ApplicationEventListener<StartupEvent> {
+
+  private static final int ACCOUNTS = 64;
+  private static final int BATCH_SIZE = 8;
+  private static final long INITIAL_AMOUNT = Long.MAX_VALUE / 4;
+  private static final Currency EUR = Currency.getInstance("EUR");
+  private static final Currency USD = Currency.getInstance("USD");
+
+  private final WarmUpConfiguration warmUpConfiguration;
+  private final ObjectMapper objectMapper;
+
+  @Inject
+  public WarmUp(final WarmUpConfiguration warmUpConfiguration, final ObjectMapper objectMapper) {
+    this.warmUpConfiguration = warmUpConfiguration;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void onApplicationEvent(final StartupEvent event) {
+    long start = System.nanoTime();
+    int transfers = run();
+    log.info("Warmed up with {} transfers in {} ms", transfers,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Applies the configured number of transfers to a scratch store.
+   *
+   * @return the number of transfers that were applied
+   */
+  int run() {
+    int applied = 0;
+    try (AccountManagement scratch = new AccountManagement()) {
+      for (int i = 0; i < ACCOUNTS; i++) {
+        scratch.create(roundTrip(account(i)));
+      }
+
+      List<MoneyTransfer> batch = new ArrayList<>(BATCH_SIZE);
+      for (int i = 0; i < warmUpConfiguration.getIterations(); i++) {
+        MoneyTransfer moneyTransfer = roundTrip(transfer(i));
+        try {
+          scratch.transferMoney(moneyTransfer);
+          applied++;
+        } catch (TransferRejectedException e) {
+          // rejections are part of the warm-up
+        }
+
+        batch.add(batchTransfer(moneyTransfer));
+        if (batch.size() == BATCH_SIZE) {
+          try {
+            scratch.transferMoney(batch);
+            applied += batch.size();
+          } catch (BatchTransferFailedException e) {
+            // batches with a rejected transfer roll back
+          }
+          batch.clear();
+        }
+      }
+      scratch.listAccounts().forEach(account -> NdjsonAccounts.write(objectMapper, account));
+      scratch.aggregates();
+    }
+    return applied;
+  }
+
+  /**
+   * Every 16th transfer comes with an id, every 64th is rejected for lack of money, every other
+   * one crosses currencies.
+   */
+  private static MoneyTransfer transfer(final int iteration) {
+    boolean rejected = iteration % 64 == 63;
+    return MoneyTransfer.builder()
+        .id(iteration % 16 == 0 ? "warm-up-" + iteration : null)
+        .fromAccountId(accountId(iteration % ACCOUNTS))
+        .toAccountId(accountId((iteration * 7 + 1) % ACCOUNTS))
+        .amount(rejected ? Long.MAX_VALUE : 1 + iteration % 100)
+        .build();
+  }
+
+  /**
+   * Batches take their transfers under ids of their own, as the transfers were applied one by one
+   * before and the deduplication would refuse them.
+   */
+  private static MoneyTransfer batchTransfer(final MoneyTransfer moneyTransfer) {
+    return moneyTransfer.getId() == null ? moneyTransfer : moneyTransfer.toBuilder()
+        .id(moneyTransfer.getId() + "-batch")
+        .build();
+  }
+
+  private static Account account(final int number) {
+    return Account.builder()
+        .id(accountId(number))
+        .amount(INITIAL_AMOUNT)
+        .currency(number % 2 == 0 ? EUR : USD)
+        .customer(Customer.builder()
+            .id("warm-up-customer" + number % 16)
+            .firstname("first")
+            .lastname("last")
+            .locale(Locale.GERMANY)
+            .build())
+        .build();
+  }
+
+  private static String accountId(final int number) {
+    return "warm-up-acc" + number;
+  }
+
+  private Account roundTrip(final Account account) {
+    ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+    try {
+      BinaryWireFormat.writeAccount(fromJson(toJson(account), Account.class), buffer);
+      return BinaryWireFormat.readAccount(buffer);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  private MoneyTransfer roundTrip(final MoneyTransfer moneyTransfer) {
+    ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+    try {
+      BinaryWireFormat.writeTransfer(fromJson(toJson(moneyTransfer), MoneyTransfer.class), buffer);
+      return BinaryWireFormat.readTransfer(buffer);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  private byte[] toJson(final Object value) {
+    try {
+      return objectMapper.writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private <T> T fromJson(final byte[] json, final Class<T> type) {
+    try {
+      return objectMapper.readValue(json, type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
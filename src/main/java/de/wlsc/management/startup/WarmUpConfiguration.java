@@ -0,0 +1,27 @@
+package de.wlsc.management.startup;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@ConfigurationProperties("warm-up")
+@Getter
+@Setter
+public class WarmUpConfiguration {
+
+  /**
+   * Exercises transfers and serialization on a scratch store before the server opens its port.
+   */
+  private boolean enabled;
+
+  /**
+   * Transfers applied during the warm-up, enough for the JIT to compile the hot paths.
+   */
+  private int iterations = 20_000;
+
+  /**
+   * Exits as soon as the server is ready, for training runs recording the classes loaded at
+   * startup into a class-data sharing archive.
+   */
+  private boolean exitWhenReady;
+}
@@ -0,0 +1,21 @@
+package de.wlsc.management.wire;
+
+import de.wlsc.model.Account;
+import java.util.List;
+
+/**
+ * Incremental reader of a stream of account records, fed with the body chunk by chunk as it
+ * arrives, so the whole body is never held in memory. A record may be split across chunks.
+ */
+public interface AccountRecordReader {
+
+  /**
+   * Returns the records completed by the chunk and keeps the rest for the next chunk.
+   */
+  List<Account> read(byte[] chunk);
+
+  /**
+   * Returns the record left at the end of the body, which is not terminated by a line break.
+   */
+  List<Account> finish();
+}
@@ -0,0 +1,239 @@
+package de.wlsc.management.wire;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.model.Account;
+import de.wlsc.model.BatchMode;
+import de.wlsc.model.BatchTransfer;
+import de.wlsc.model.Customer;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.TransferResult;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compact binary alternative to the JSON representation of the API models. Every message is
+ * {@code int payloadLength, payload}, so messages can be concatenated into a stream. A payload
+ * starts with its message type followed by the type specific fields, strings are written as
+ * {@code int byteLength} (-1 for null) followed by their UTF-8 bytes, like in the journal.
+ * Messages are read from and written to Netty buffers directly, the only copy made while
+ * decoding is the one into the resulting strings.
+ */
+public final class BinaryWireFormat {
+
+  public static final String MEDIA_TYPE = "application/x-money-transfer";
+
+  private static final byte ACCOUNT = 1;
+  private static final byte TRANSFER = 2;
+  private static final byte BATCH = 3;
+  private static final byte RESULTS = 4;
+
+  private BinaryWireFormat() {
+    // utility
+  }
+
+  public static Account readAccount(final ByteBuf buffer) {
+    return read(buffer, ACCOUNT, BinaryWireFormat::readAccountFields);
+  }
+
+  public static MoneyTransfer readTransfer(final ByteBuf buffer) {
+    return read(buffer, TRANSFER, BinaryWireFormat::readTransferFields);
+  }
+
+  public static BatchTransfer readBatch(final ByteBuf buffer) {
+    return read(buffer, BATCH, payload -> {
+      byte mode = payload.readByte();
+      int size = payload.readInt();
+      if (size < 0 || size > payload.readableBytes()) {
+        throw new MalformedPayloadException("Batch size " + size + " does not match the payload");
+      }
+      List<MoneyTransfer> transfers = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        transfers.add(readTransferFields(payload));
+      }
+      return BatchTransfer.builder()
+          .mode(mode < 0 ? null : BatchMode.values()[mode])
+          .transfers(transfers)
+          .build();
+    });
+  }
+
+  public static List<TransferResult> readResults(final ByteBuf buffer) {
+    return read(buffer, RESULTS, payload -> {
+      int size = payload.readInt();
+      if (size < 0 || size > payload.readableBytes()) {
+        throw new MalformedPayloadException("Number of results " + size + " does not match the payload");
+      }
+      List<TransferResult> results = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        results.add(TransferResult.builder()
+            .id(readString(payload))
+            .successful(payload.readBoolean())
+            .message(readString(payload))
+            .build());
+      }
+      return results;
+    });
+  }
+
+  public static void writeAccount(final Account account, final ByteBuf buffer) {
+    int start = startMessage(buffer, ACCOUNT);
+    writeString(account.getId(), buffer);
+    buffer.writeLong(account.getAmount());
+    writeString(account.getCurrency() == null ? null : account.getCurrency().getCurrencyCode(), buffer);
+    Customer customer = account.getCustomer();
+    buffer.writeBoolean(customer != null);
+    if (customer != null) {
+      writeString(customer.getId(), buffer);
+      writeString(customer.getFirstname(), buffer);
+      writeString(customer.getLastname(), buffer);
+      writeString(customer.getLocale() == null ? null : customer.getLocale().toLanguageTag(), buffer);
+    }
+    endMessage(buffer, start);
+  }
+
+  public static void writeTransfer(final MoneyTransfer moneyTransfer, final ByteBuf buffer) {
+    int start = startMessage(buffer, TRANSFER);
+    writeTransferFields(moneyTransfer, buffer);
+    endMessage(buffer, start);
+  }
+
+  public static void writeBatch(final BatchTransfer batchTransfer, final ByteBuf buffer) {
+    int start = startMessage(buffer, BATCH);
+    buffer.writeByte(batchTransfer.getMode() == null ? -1 : batchTransfer.getMode().ordinal());
+    Collection<MoneyTransfer> transfers = batchTransfer.getTransfers() == null ? List.of() : batchTransfer.getTransfers();
+    buffer.writeInt(transfers.size());
+    for (MoneyTransfer moneyTransfer : transfers) {
+      writeTransferFields(moneyTransfer, buffer);
+    }
+    endMessage(buffer, start);
+  }
+
+  public static void writeResults(final Collection<TransferResult> results, final ByteBuf buffer) {
+    int start = startMessage(buffer, RESULTS);
+    buffer.writeInt(results.size());
+    for (TransferResult result : results) {
+      writeString(result.getId(), buffer);
+      buffer.writeBoolean(result.isSuccessful());
+      writeString(result.getMessage(), buffer);
+    }
+    endMessage(buffer, start);
+  }
+
+  /**
+   * Reads the next message of the expected type, which has to fit completely into the readable
+   * bytes of the buffer.
+   */
+  private static <T> T read(final ByteBuf buffer, final byte type, final PayloadReader<T> payloadReader) {
+    try {
+      int payloadLength = buffer.readInt();
+      if (payloadLength <= 0 || payloadLength > buffer.readableBytes()) {
+        throw new MalformedPayloadException("Payload length " + payloadLength + " does not match the message");
+      }
+      ByteBuf payload = buffer.readSlice(payloadLength);
+      byte actualType = payload.readByte();
+      if (actualType != type) {
+        throw new MalformedPayloadException("Expected message type " + type + " but got " + actualType);
+      }
+      T message = payloadReader.read(payload);
+      if (payload.isReadable()) {
+        throw new MalformedPayloadException("Message has " + payload.readableBytes() + " unexpected trailing bytes");
+      }
+      return message;
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      if (e instanceof MalformedPayloadException) {
+        throw e;
+      }
+      throw new MalformedPayloadException("Message is malformed", e);
+    }
+  }
+
+  private static Account readAccountFields(final ByteBuf payload) {
+    String id = readString(payload);
+    long amount = payload.readLong();
+    String currencyCode = readString(payload);
+    Customer customer = null;
+    if (payload.readBoolean()) {
+      String customerId = readString(payload);
+      String firstname = readString(payload);
+      String lastname = readString(payload);
+      String languageTag = readString(payload);
+      customer = Customer.builder()
+          .id(customerId)
+          .firstname(firstname)
+          .lastname(lastname)
+          .locale(languageTag == null ? null : Locale.forLanguageTag(languageTag))
+          .build();
+    }
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(currencyCode == null ? null : Currency.getInstance(currencyCode))
+        .customer(customer)
+        .build();
+  }
+
+  private static MoneyTransfer readTransferFields(final ByteBuf payload) {
+    return MoneyTransfer.builder()
+        .id(readString(payload))
+        .fromAccountId(readString(payload))
+        .toAccountId(readString(payload))
+        .amount(payload.readLong())
+        .build();
+  }
+
+  private static void writeTransferFields(final MoneyTransfer moneyTransfer, final ByteBuf buffer) {
+    writeString(moneyTransfer.getId(), buffer);
+    writeString(moneyTransfer.getFromAccountId(), buffer);
+    writeString(moneyTransfer.getToAccountId(), buffer);
+    buffer.writeLong(moneyTransfer.getAmount());
+  }
+
+  private static int startMessage(final ByteBuf buffer, final byte type) {
+    int start = buffer.writerIndex();
+    buffer.writeInt(0);
+    buffer.writeByte(type);
+    return start;
+  }
+
+  private static void endMessage(final ByteBuf buffer, final int start) {
+    buffer.setInt(start, buffer.writerIndex() - start - Integer.BYTES);
+  }
+
+  /**
+   * Writes the length first and the characters encoded straight into the buffer afterwards.
+   */
+  private static void writeString(final String value, final ByteBuf buffer) {
+    if (value == null) {
+      buffer.writeInt(-1);
+      return;
+    }
+    int lengthIndex = buffer.writerIndex();
+    buffer.writeInt(0);
+    int length = ByteBufUtil.writeUtf8(buffer, value);
+    buffer.setInt(lengthIndex, length);
+  }
+
+  private static String readString(final ByteBuf payload) {
+    int length = payload.readInt();
+    if (length == -1) {
+      return null;
+    }
+    if (length < 0) {
+      throw new MalformedPayloadException("String length " + length + " is negative");
+    }
+    return payload.readCharSequence(length, UTF_8).toString();
+  }
+
+  @FunctionalInterface
+  private interface PayloadReader<T> {
+
+    T read(ByteBuf payload);
+  }
+}
@@ -0,0 +1,173 @@
+package de.wlsc.management.wire;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Accounts as comma separated values with the header {@value #HEADER}, one account per line.
+ * Empty fields stand for absent values, fields containing commas, quotes or line breaks are
+ * quoted as of RFC 4180. Lines are split as the bytes arrive, only the line which is incomplete
+ * at the end of a chunk is kept for the next one.
+ */
+public final class CsvAccounts {
+
+  public static final String MEDIA_TYPE = "text/csv";
+  public static final String HEADER = "id,amount,currency,customerId,firstname,lastname,locale";
+
+  private static final int FIELDS = 7;
+
+  private CsvAccounts() {
+    // utility
+  }
+
+  public static AccountRecordReader reader() {
+    return new Reader();
+  }
+
+  public static String header() {
+    return HEADER + "\n";
+  }
+
+  public static String write(final Account account) {
+    Customer customer = account.getCustomer();
+    StringBuilder line = new StringBuilder();
+    appendField(line, account.getId()).append(',');
+    line.append(account.getAmount()).append(',');
+    appendField(line, account.getCurrency() == null ? null : account.getCurrency().getCurrencyCode()).append(',');
+    appendField(line, customer == null ? null : customer.getId()).append(',');
+    appendField(line, customer == null ? null : customer.getFirstname()).append(',');
+    appendField(line, customer == null ? null : customer.getLastname()).append(',');
+    appendField(line, customer == null || customer.getLocale() == null ? null : customer.getLocale().toLanguageTag());
+    return line.append('\n').toString();
+  }
+
+  private static StringBuilder appendField(final StringBuilder line, final String value) {
+    if (value == null) {
+      return line;
+    }
+    if (value.isEmpty() || value.chars().anyMatch(character -> character == ',' || character == '"'
+        || character == '\n' || character == '\r')) {
+      return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+    return line.append(value);
+  }
+
+  private static final class Reader implements AccountRecordReader {
+
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private boolean quoted;
+    private boolean headerRead;
+
+    @Override
+    public List<Account> read(final byte[] chunk) {
+      List<Account> accounts = new ArrayList<>();
+      int start = 0;
+      for (int i = 0; i < chunk.length; i++) {
+        if (chunk[i] == '"') {
+          quoted = !quoted;
+        } else if (chunk[i] == '\n' && !quoted) {
+          line.write(chunk, start, i - start);
+          parseLine(accounts);
+          start = i + 1;
+        }
+      }
+      line.write(chunk, start, chunk.length - start);
+      return accounts;
+    }
+
+    @Override
+    public List<Account> finish() {
+      if (quoted) {
+        throw new MalformedPayloadException("Last account record ends within a quoted field");
+      }
+      List<Account> accounts = new ArrayList<>();
+      parseLine(accounts);
+      if (!headerRead) {
+        throw new MalformedPayloadException("Account records lack the header " + HEADER);
+      }
+      return accounts;
+    }
+
+    private void parseLine(final List<Account> accounts) {
+      String text = new String(line.toByteArray(), UTF_8);
+      line.reset();
+      if (text.endsWith("\r")) {
+        text = text.substring(0, text.length() - 1);
+      }
+      if (!headerRead) {
+        if (!text.isEmpty() && !text.equals(HEADER)) {
+          throw new MalformedPayloadException("Account records have to start with the header " + HEADER);
+        }
+        headerRead = !text.isEmpty();
+        return;
+      }
+      if (!text.isEmpty()) {
+        accounts.add(toAccount(split(text)));
+      }
+    }
+
+    private static List<String> split(final String text) {
+      List<String> fields = new ArrayList<>(FIELDS);
+      StringBuilder field = new StringBuilder();
+      boolean inQuotes = false;
+      boolean wasQuoted = false;
+      for (int i = 0; i < text.length(); i++) {
+        char character = text.charAt(i);
+        if (inQuotes) {
+          if (character == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+            field.append('"');
+            i++;
+          } else if (character == '"') {
+            inQuotes = false;
+          } else {
+            field.append(character);
+          }
+        } else if (character == '"') {
+          inQuotes = true;
+          wasQuoted = true;
+        } else if (character == ',') {
+          fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+          field.setLength(0);
+          wasQuoted = false;
+        } else {
+          field.append(character);
+        }
+      }
+      fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+      if (fields.size() != FIELDS) {
+        throw new MalformedPayloadException("Account record has " + fields.size() + " instead of " + FIELDS + " fields");
+      }
+      return fields;
+    }
+
+    private static Account toAccount(final List<String> fields) {
+      if (fields.get(0) == null) {
+        throw new MalformedPayloadException("Account record lacks an id");
+      }
+      try {
+        boolean hasCustomer = fields.subList(3, FIELDS).stream().anyMatch(field -> field != null);
+        return Account.builder()
+            .id(fields.get(0))
+            .amount(fields.get(1) == null ? 0 : Long.parseLong(fields.get(1)))
+            .currency(fields.get(2) == null ? null : Currency.getInstance(fields.get(2)))
+            .customer(hasCustomer ? Customer.builder()
+                .id(fields.get(3))
+                .firstname(fields.get(4))
+                .lastname(fields.get(5))
+                .locale(fields.get(6) == null ? null : Locale.forLanguageTag(fields.get(6)))
+                .build() : null)
+            .build();
+      } catch (IllegalArgumentException e) {
+        throw new MalformedPayloadException("Account record " + fields.get(0) + " is not valid: " + e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package de.wlsc.management.wire;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.model.Account;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accounts as newline delimited JSON, one account object per line in its usual JSON
+ * representation. Records are parsed by Jackson's non-blocking parser as the bytes arrive and
+ * buffered token by token until an object is complete.
+ */
+public final class NdjsonAccounts {
+
+  public static final String MEDIA_TYPE = "application/x-ndjson";
+
+  private NdjsonAccounts() {
+    // utility
+  }
+
+  public static AccountRecordReader reader(final ObjectMapper objectMapper) {
+    return new Reader(objectMapper);
+  }
+
+  public static byte[] write(final ObjectMapper objectMapper, final Account account) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(account);
+      byte[] line = new byte[json.length + 1];
+      System.arraycopy(json, 0, line, 0, json.length);
+      line[json.length] = '\n';
+      return line;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static final class Reader implements AccountRecordReader {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private TokenBuffer record;
+    private int depth;
+
+    Reader(final ObjectMapper objectMapper) {
+      this.objectMapper = objectMapper;
+      try {
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public List<Account> read(final byte[] chunk) {
+      try {
+        ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(chunk, 0, chunk.length);
+        return parseAvailable();
+      } catch (IOException e) {
+        throw new MalformedPayloadException("Account records are not valid JSON: " + e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public List<Account> finish() {
+      try {
+        ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+        List<Account> accounts = parseAvailable();
+        if (record != null) {
+          throw new MalformedPayloadException("Last account record is incomplete");
+        }
+        return accounts;
+      } catch (IOException e) {
+        throw new MalformedPayloadException("Account records are not valid JSON: " + e.getMessage(), e);
+      }
+    }
+
+    private List<Account> parseAvailable() throws IOException {
+      List<Account> accounts = new ArrayList<>();
+      JsonToken token;
+      while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+        if (record == null) {
+          if (token != JsonToken.START_OBJECT) {
+            throw new MalformedPayloadException("Account record has to be a JSON object, but starts with " + token);
+          }
+          record = new TokenBuffer(parser);
+        }
+        record.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+          depth++;
+        } else if (token.isStructEnd() && --depth == 0) {
+          Account account = objectMapper.readValue(record.asParser(objectMapper), Account.class);
+          if (account.getId() == null) {
+            throw new MalformedPayloadException("Account record lacks an id");
+          }
+          accounts.add(account);
+          record = null;
+        }
+      }
+      return accounts;
+    }
+  }
+}
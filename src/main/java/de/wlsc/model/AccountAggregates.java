@@ -0,0 +1,14 @@
+package de.wlsc.model;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class AccountAggregates {
+
+  private final long accounts;
+  private final long transfers;
+  private final Map<String, CurrencyAggregate> currencies;
+}
@@ -0,0 +1,7 @@
+package de.wlsc.model;
+
+public enum BatchMode {
+
+  ALL_OR_NOTHING,
+  BEST_EFFORT
+}
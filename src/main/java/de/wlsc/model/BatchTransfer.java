@@ -0,0 +1,13 @@
+package de.wlsc.model;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class BatchTransfer {
+
+  private final BatchMode mode;
+  private final List<MoneyTransfer> transfers;
+}
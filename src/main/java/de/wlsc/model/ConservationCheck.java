@@ -0,0 +1,14 @@
+package de.wlsc.model;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class ConservationCheck {
+
+  private final boolean conserved;
+  private final Map<String, Long> recounted;
+  private final Map<String, Long> discrepancies;
+}
@@ -0,0 +1,15 @@
+package de.wlsc.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class CurrencyAggregate {
+
+  private final long accounts;
+  private final long balance;
+  private final long opened;
+  private final long deposited;
+  private final long withdrawn;
+}
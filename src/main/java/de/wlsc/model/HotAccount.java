@@ -0,0 +1,14 @@
+package de.wlsc.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class HotAccount {
+
+  private final String accountId;
+  private final double share;
+  private final boolean rateLimited;
+  private final long rejectedTransfers;
+}
@@ -0,0 +1,13 @@
+package de.wlsc.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class ImportConflict {
+
+  private final long record;
+  private final String accountId;
+  private final String message;
+}
@@ -0,0 +1,15 @@
+package de.wlsc.model;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class MeterSnapshot {
+
+  private final String name;
+  private final Map<String, String> tags;
+  private final String baseUnit;
+  private final Map<String, Double> measurements;
+}
@@ -0,0 +1,14 @@
+package de.wlsc.model;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class ReplicaSnapshot {
+
+  private final String logId;
+  private final long position;
+  private final List<Account> accounts;
+}
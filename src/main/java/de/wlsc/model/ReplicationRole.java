@@ -0,0 +1,19 @@
+package de.wlsc.model;
+
+public enum ReplicationRole {
+
+  /**
+   * Takes no part in replication.
+   */
+  NONE,
+
+  /**
+   * Applies all changes and keeps them in the replication log for the followers.
+   */
+  LEADER,
+
+  /**
+   * Applies the changes of the leader, serves reads and forwards changes to the leader.
+   */
+  FOLLOWER
+}
@@ -0,0 +1,19 @@
+package de.wlsc.model;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class ReplicationStatus {
+
+  private final ReplicationRole role;
+  private final String leaderUrl;
+  private final String logId;
+  private final long position;
+  private final long leaderPosition;
+  private final long lag;
+  private final long lagMillis;
+  private final Map<String, Long> acknowledgedPositions;
+}
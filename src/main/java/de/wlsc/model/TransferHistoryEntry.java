@@ -0,0 +1,14 @@
+package de.wlsc.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class TransferHistoryEntry {
+
+  private final long sequence;
+  private final String counterpartyAccountId;
+  private final long amount;
+  private final long epochSecond;
+}
@@ -0,0 +1,13 @@
+package de.wlsc.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class TransferLeg {
+
+  private final String fromAccountId;
+  private final String toAccountId;
+  private final long amount;
+}
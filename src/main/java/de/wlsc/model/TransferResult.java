@@ -0,0 +1,13 @@
+package de.wlsc.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class TransferResult {
+
+  private final String id;
+  private final boolean successful;
+  private final String message;
+}
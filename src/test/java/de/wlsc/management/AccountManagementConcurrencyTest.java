@@ -0,0 +1,180 @@
+package de.wlsc.management;
+
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferLeg;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Account management under contention")
+class AccountManagementConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final int TRANSFERS_PER_THREAD = 20_000;
+  private static final long INITIAL_AMOUNT = 1_000;
+
+  private AccountManagement accountManagement;
+  private ExecutorService executorService;
+
+  @BeforeEach
+  void setUp() {
+    executorService = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Concurrent transfers between few hot accounts conserve the total amount of money")
+  void transferMoney_when_fewHotAccounts_then_moneyIsConserved(final StoreMemory storeMemory) {
+    assertTimeoutPreemptively(ofSeconds(30), () -> runTransfers(storeMemory, 4));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Concurrent transfers between many accounts conserve the total amount of money")
+  void transferMoney_when_manyAccounts_then_moneyIsConserved(final StoreMemory storeMemory) {
+    assertTimeoutPreemptively(ofSeconds(30), () -> runTransfers(storeMemory, 1_000));
+  }
+
+  @ParameterizedTest(name = "sharded: {0}")
+  @ValueSource(booleans = {false, true})
+  @DisplayName("Concurrent multi-leg transfers between few hot accounts conserve the total amount of money")
+  void transferMoney_when_multiLegBetweenFewHotAccounts_then_moneyIsConserved(final boolean sharded) {
+    assertTimeoutPreemptively(ofSeconds(30), () -> runMultiLegTransfers(sharded, 6));
+  }
+
+  @ParameterizedTest(name = "sharded: {0}")
+  @ValueSource(booleans = {false, true})
+  @DisplayName("Concurrent multi-leg transfers between many accounts conserve the total amount of money")
+  void transferMoney_when_multiLegBetweenManyAccounts_then_moneyIsConserved(final boolean sharded) {
+    assertTimeoutPreemptively(ofSeconds(30), () -> runMultiLegTransfers(sharded, 1_000));
+  }
+
+  private void runTransfers(final StoreMemory storeMemory, final int numberOfAccounts) throws Exception {
+    StoreConfiguration storeConfiguration = new StoreConfiguration();
+    storeConfiguration.setMemory(storeMemory);
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()), new ShardingConfiguration(), storeConfiguration);
+    createAccounts(numberOfAccounts);
+
+    runConcurrently(random -> accountManagement.transferMoney(MoneyTransfer.builder()
+        .id(UUID.randomUUID().toString())
+        .fromAccountId("acc" + random.nextInt(numberOfAccounts))
+        .toAccountId("acc" + random.nextInt(numberOfAccounts))
+        .amount(random.nextInt(200))
+        .build()));
+
+    assertMoneyConserved(numberOfAccounts);
+  }
+
+  /**
+   * Each transfer splits a debit across up to four creditors and a fee account, all of them drawn
+   * at random, so that legs of concurrent transfers overlap in arbitrary order.
+   */
+  private void runMultiLegTransfers(final boolean sharded, final int numberOfAccounts) throws Exception {
+    ShardingConfiguration shardingConfiguration = new ShardingConfiguration();
+    shardingConfiguration.setEnabled(sharded);
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()), shardingConfiguration);
+    createAccounts(numberOfAccounts);
+
+    try {
+      runConcurrently(random -> {
+        String payer = "acc" + random.nextInt(numberOfAccounts);
+        List<TransferLeg> legs = new ArrayList<>();
+        for (int leg = random.nextInt(1, 5); leg > 0; leg--) {
+          legs.add(TransferLeg.builder()
+              .fromAccountId(payer)
+              .toAccountId("acc" + random.nextInt(numberOfAccounts))
+              .amount(random.nextInt(100))
+              .build());
+        }
+        legs.add(TransferLeg.builder()
+            .fromAccountId("acc" + random.nextInt(numberOfAccounts))
+            .toAccountId("acc" + random.nextInt(numberOfAccounts))
+            .amount(random.nextInt(10))
+            .build());
+        accountManagement.transferMoney(MultiLegTransfer.builder()
+            .id(UUID.randomUUID().toString())
+            .legs(legs)
+            .build());
+      });
+
+      assertMoneyConserved(numberOfAccounts);
+    } finally {
+      accountManagement.close();
+    }
+  }
+
+  private void createAccounts(final int numberOfAccounts) {
+    for (int i = 0; i < numberOfAccounts; i++) {
+      accountManagement.create(Account.builder()
+          .id("acc" + i)
+          .amount(INITIAL_AMOUNT)
+          .currency(Currency.getInstance("EUR"))
+          .build());
+    }
+  }
+
+  private void runConcurrently(final Consumer<ThreadLocalRandom> transfer) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      futures.add(executorService.submit(() -> {
+        start.await();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+          try {
+            transfer.accept(random);
+          } catch (TransferRejectedException e) {
+            // not enough money is an expected outcome of random transfers
+          }
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+
+  private void assertMoneyConserved(final int numberOfAccounts) {
+    long total = 0;
+    for (Account account : accountManagement.listAccounts()) {
+      assertThat(account.getAmount()).isNotNegative();
+      total += account.getAmount();
+    }
+    assertThat(accountManagement.listAccounts()).hasSize(numberOfAccounts);
+    assertThat(total).isEqualTo(numberOfAccounts * INITIAL_AMOUNT);
+    assertThat(accountManagement.aggregates().getCurrencies().get("EUR").getBalance()).isEqualTo(total);
+    assertThat(accountManagement.checkConservation().getDiscrepancies()).isEmpty();
+  }
+}
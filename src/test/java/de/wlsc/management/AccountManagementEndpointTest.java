@@ -1,10 +1,24 @@
 package de.wlsc.management;
 
 import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_CONSERVATION;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_EXPORT;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_EXPORT_CSV;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_EXPORT_NDJSON;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_IMPORT;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_IN_CURRENCY;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_OF_CUSTOMER;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_PAGE;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNTS_TOTALS;
+import static de.wlsc.management.AccountManagementEndpoint.ACCOUNT_HISTORY;
+import static de.wlsc.management.AccountManagementEndpoint.TRANSFER_MONEY_BATCH;
 import static de.wlsc.management.AccountManagementEndpoint.TRANSFER_MONEY_FROM_TO_ACCOUNT;
+import static de.wlsc.management.AccountManagementEndpoint.TRANSFER_MONEY_MULTI_LEG;
 import static de.wlsc.management.AccountTransferCreator.createJohnsAccount;
 import static de.wlsc.management.AccountTransferCreator.createMoneyTransfer;
 import static de.wlsc.management.AccountTransferCreator.createSilversAccount;
+import static de.wlsc.model.BatchMode.ALL_OR_NOTHING;
+import static de.wlsc.model.BatchMode.BEST_EFFORT;
 import static io.micronaut.http.HttpRequest.DELETE;
 import static io.micronaut.http.HttpRequest.GET;
 import static io.micronaut.http.HttpRequest.POST;
@@ -13,23 +27,47 @@ import static io.micronaut.http.HttpStatus.BAD_REQUEST;
 import static io.micronaut.http.HttpStatus.CREATED;
 import static io.micronaut.http.HttpStatus.NOT_MODIFIED;
 import static io.micronaut.http.HttpStatus.OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
 import static org.assertj.core.api.Assertions.fail;
 import static org.junit.jupiter.params.provider.Arguments.of;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.wire.BinaryWireFormat;
+import de.wlsc.management.wire.CsvAccounts;
+import de.wlsc.management.wire.NdjsonAccounts;
 import de.wlsc.model.Account;
+import de.wlsc.model.AccountAggregates;
+import de.wlsc.model.AccountPage;
+import de.wlsc.model.BatchTransfer;
+import de.wlsc.model.ConservationCheck;
+import de.wlsc.model.ImportConflict;
+import de.wlsc.model.ImportReport;
 import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferHistoryEntry;
+import de.wlsc.model.TransferHistoryPage;
+import de.wlsc.model.TransferLeg;
+import de.wlsc.model.TransferResult;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.client.HttpClient;
 import io.micronaut.http.client.annotation.Client;
 import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.client.multipart.MultipartBody;
 import io.micronaut.test.annotation.MicronautTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +83,8 @@ class AccountManagementEndpointTest {
 
   private static final TypeReference<List<Account>> LIST_ACCOUNTS_REFERENCE = new TypeReference<>() {
   };
+  private static final TypeReference<List<TransferResult>> LIST_TRANSFER_RESULTS_REFERENCE = new TypeReference<>() {
+  };
 
   @Inject
   @Client("/")
@@ -126,6 +166,93 @@ class AccountManagementEndpointTest {
     assertThat(requestAccountsList()).isEmpty();
   }
 
+  @Test
+  @DisplayName("Page through registered accounts with a cursor")
+  void pageThroughAccounts() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+
+    AccountPage firstPage = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(ACCOUNTS_PAGE + "?limit=1")), AccountPage.class);
+    AccountPage secondPage = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(ACCOUNTS_PAGE + "?limit=1&cursor=" + firstPage.getNextCursor())), AccountPage.class);
+
+    assertThat(firstPage.getAccounts()).containsExactly(createJohnsAccount());
+    assertThat(secondPage.getAccounts()).containsExactly(createSilversAccount());
+    assertThat(secondPage.getNextCursor()).isNull();
+  }
+
+  @Test
+  @DisplayName("Find accounts by customer and currency")
+  void findAccountsByCustomerAndCurrency() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+
+    List<Account> ofCustomer = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(ACCOUNTS_OF_CUSTOMER.replace("{customerId}", "cust2"))), LIST_ACCOUNTS_REFERENCE);
+    List<Account> inCurrency = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(ACCOUNTS_IN_CURRENCY.replace("{currency}", "EUR"))), LIST_ACCOUNTS_REFERENCE);
+
+    assertThat(ofCustomer).containsExactly(createSilversAccount());
+    assertThat(inCurrency).containsExactly(createJohnsAccount(), createSilversAccount());
+  }
+
+  @Test
+  @DisplayName("Read totals and check conservation of money")
+  void readTotalsAndCheckConservation() throws Exception {
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+
+    AccountAggregates aggregates = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(ACCOUNTS_TOTALS)), AccountAggregates.class);
+    ConservationCheck conservationCheck = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(ACCOUNTS_CONSERVATION)), ConservationCheck.class);
+
+    assertThat(aggregates.getAccounts()).isEqualTo(2);
+    assertThat(aggregates.getCurrencies().get("EUR").getBalance())
+        .isEqualTo(createJohnsAccount().getAmount() + createSilversAccount().getAmount());
+    assertThat(conservationCheck.isConserved()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Page through the transfer history of an account")
+  void pageThroughTransferHistory() throws Exception {
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    for (int amount = 1; amount <= 3; amount++) {
+      client.toBlocking().exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT,
+          objectMapper.writeValueAsString(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), amount))));
+    }
+
+    String history = ACCOUNT_HISTORY.replace("{accountId}", createJohnsAccount().getId());
+    TransferHistoryPage firstPage = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(history + "?limit=2")), TransferHistoryPage.class);
+    TransferHistoryPage secondPage = objectMapper.readValue(client.toBlocking()
+        .retrieve(GET(history + "?limit=2&cursor=" + firstPage.getNextCursor())), TransferHistoryPage.class);
+
+    assertThat(firstPage.getTransfers()).extracting(TransferHistoryEntry::getAmount).containsExactly(-3L, -2L);
+    assertThat(secondPage.getTransfers()).extracting(TransferHistoryEntry::getAmount).containsExactly(-1L);
+    assertThat(secondPage.getNextCursor()).isNull();
+  }
+
+  @Test
+  @DisplayName("Find accounts in an unknown currency")
+  void findAccountsInUnknownCurrency() {
+
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .retrieve(GET(ACCOUNTS_IN_CURRENCY.replace("{currency}", "XYZ"))), HttpClientResponseException.class);
+
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+  }
+
+  @Test
+  @DisplayName("Page through accounts with an invalid cursor")
+  void pageThroughAccountsWithInvalidCursor() {
+
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .retrieve(GET(ACCOUNTS_PAGE + "?cursor=invalid")), HttpClientResponseException.class);
+
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+  }
+
   @ParameterizedTest
   @MethodSource("transferMoney")
   @DisplayName("Transfer money")
@@ -164,6 +291,259 @@ class AccountManagementEndpointTest {
     assertThat(actualResponse.code()).isEqualTo(expectedHttpStatus.getCode());
   }
 
+  @Test
+  @DisplayName("Transfer money in a best effort batch")
+  void transferMoneyInBestEffortBatch() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    BatchTransfer batchTransfer = BatchTransfer.builder()
+        .mode(BEST_EFFORT)
+        .transfers(asList(
+            createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 400),
+            createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 400)))
+        .build();
+
+    List<TransferResult> results = objectMapper.readValue(client.toBlocking()
+        .retrieve(POST(TRANSFER_MONEY_BATCH, objectMapper.writeValueAsString(batchTransfer))), LIST_TRANSFER_RESULTS_REFERENCE);
+
+    assertThat(results).extracting(TransferResult::isSuccessful).containsExactly(true, false);
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(), () -> 100L, () -> 2400L);
+  }
+
+  @Test
+  @DisplayName("Transfer money in an all or nothing batch which fails")
+  void transferMoneyInFailingAllOrNothingBatch() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    BatchTransfer batchTransfer = BatchTransfer.builder()
+        .mode(ALL_OR_NOTHING)
+        .transfers(asList(
+            createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 400),
+            createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 400)))
+        .build();
+
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .exchange(POST(TRANSFER_MONEY_BATCH, objectMapper.writeValueAsString(batchTransfer))), HttpClientResponseException.class);
+
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(), () -> 500L, () -> 2000L);
+  }
+
+  @Test
+  @DisplayName("Transfer money in multiple legs which are applied together or not at all")
+  void transferMoneyInLegs() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    MultiLegTransfer multiLegTransfer = MultiLegTransfer.builder()
+        .legs(asList(leg(createSilversAccount(), createJohnsAccount(), 300), leg(createJohnsAccount(), createSilversAccount(), 50)))
+        .build();
+    MultiLegTransfer failingTransfer = MultiLegTransfer.builder()
+        .legs(asList(leg(createJohnsAccount(), createSilversAccount(), 100), leg(createJohnsAccount(), createSilversAccount(), 1000)))
+        .build();
+
+    HttpResponse<?> response = client.toBlocking()
+        .exchange(POST(TRANSFER_MONEY_MULTI_LEG, objectMapper.writeValueAsString(multiLegTransfer)));
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .exchange(POST(TRANSFER_MONEY_MULTI_LEG, objectMapper.writeValueAsString(failingTransfer)), String.class),
+        HttpClientResponseException.class);
+
+    assertThat(response.code()).isEqualTo(OK.getCode());
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+    assertThat(responseException.getResponse().getBody(String.class)).hasValueSatisfying(
+        body -> assertThat(body).startsWith("Leg 1: "));
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(), () -> 750L, () -> 1750L);
+  }
+
+  @Test
+  @DisplayName("Rejected transfer is answered with the message of the rejection every time")
+  void transferMoneyRejected() throws Exception {
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    String overdraft = objectMapper.writeValueAsString(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500000));
+
+    for (int i = 0; i < 2; i++) {
+      HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+          .exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT, overdraft), String.class), HttpClientResponseException.class);
+
+      assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+      assertThat(responseException.getResponse().getBody(String.class))
+          .hasValue(NotEnoughMoneyException.SOURCE_ACCOUNT.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Transfer money in multiple legs without any leg is a bad request")
+  void transferMoneyInNoLegs() throws Exception {
+
+    MultiLegTransfer multiLegTransfer = MultiLegTransfer.builder()
+        .legs(emptyList())
+        .build();
+
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .exchange(POST(TRANSFER_MONEY_MULTI_LEG, objectMapper.writeValueAsString(multiLegTransfer))),
+        HttpClientResponseException.class);
+
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+  }
+
+  @Test
+  @DisplayName("Retried money transfer is applied once and counted as deduplication hit")
+  void transferMoneyRetried() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    String payload = objectMapper.writeValueAsString(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100));
+
+    client.toBlocking().exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT, payload));
+    HttpResponse<?> retriedResponse = client.toBlocking().exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT, payload));
+
+    assertThat(retriedResponse.code()).isEqualTo(OK.getCode());
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(), () -> 400L, () -> 2100L);
+    assertThat(client.toBlocking().retrieve(GET("/metrics/transfer.deduplication.requests")))
+        .contains("\"result\":\"hit\"");
+  }
+
+  @Test
+  @DisplayName("Transfer money is timed per route and counted per outcome")
+  void transferMoneyMetrics() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    catchThrowableOfType(() -> client.toBlocking().exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT,
+        objectMapper.writeValueAsString(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 1000)))),
+        HttpClientResponseException.class);
+
+    assertThat(client.toBlocking().retrieve(GET("/metrics/http.server.requests")))
+        .contains("\"uri\":\"" + TRANSFER_MONEY_FROM_TO_ACCOUNT + "\"", "\"status\":\"400\"");
+    assertThat(client.toBlocking().retrieve(GET("/metrics/transfers")))
+        .contains("\"outcome\":\"NotEnoughMoneyException\"");
+  }
+
+  @Test
+  @DisplayName("Register accounts, transfer money and export accounts in the binary wire format")
+  void transferMoneyInBinaryWireFormat() throws Exception {
+
+    HttpResponse<?> createdResponse = client.toBlocking()
+        .exchange(PUT(ACCOUNTS, binary(buffer -> BinaryWireFormat.writeAccount(createJohnsAccount(), buffer)))
+            .contentType(BinaryWireFormat.MEDIA_TYPE));
+    client.toBlocking().exchange(PUT(ACCOUNTS, binary(buffer -> BinaryWireFormat.writeAccount(createSilversAccount(), buffer)))
+        .contentType(BinaryWireFormat.MEDIA_TYPE));
+    HttpResponse<?> transferResponse = client.toBlocking().exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT,
+        binary(buffer -> BinaryWireFormat.writeTransfer(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100), buffer)))
+        .contentType(BinaryWireFormat.MEDIA_TYPE));
+
+    byte[] export = client.toBlocking().retrieve(GET(ACCOUNTS_EXPORT).accept(new MediaType(BinaryWireFormat.MEDIA_TYPE)), byte[].class);
+    ByteBuf exportBuffer = Unpooled.wrappedBuffer(export);
+
+    assertThat(createdResponse.code()).isEqualTo(CREATED.getCode());
+    assertThat(transferResponse.code()).isEqualTo(OK.getCode());
+    assertThat(BinaryWireFormat.readAccount(exportBuffer).getAmount()).isEqualTo(400);
+    assertThat(BinaryWireFormat.readAccount(exportBuffer)).isEqualTo(createSilversAccount().toBuilder().amount(2100).build());
+    assertThat(exportBuffer.isReadable()).isFalse();
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(), () -> 400L, () -> 2100L);
+  }
+
+  @Test
+  @DisplayName("Transfer money in a batch in the binary wire format")
+  void transferMoneyInBatchInBinaryWireFormat() throws Exception {
+
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    BatchTransfer batchTransfer = BatchTransfer.builder()
+        .mode(BEST_EFFORT)
+        .transfers(asList(
+            createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 400),
+            createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 400)))
+        .build();
+
+    byte[] results = client.toBlocking().retrieve(POST(TRANSFER_MONEY_BATCH,
+        binary(buffer -> BinaryWireFormat.writeBatch(batchTransfer, buffer)))
+        .contentType(BinaryWireFormat.MEDIA_TYPE)
+        .accept(new MediaType(BinaryWireFormat.MEDIA_TYPE)), byte[].class);
+
+    assertThat(BinaryWireFormat.readResults(Unpooled.wrappedBuffer(results)))
+        .extracting(TransferResult::isSuccessful).containsExactly(true, false);
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(), () -> 100L, () -> 2400L);
+  }
+
+  @Test
+  @DisplayName("Import accounts as NDJSON, duplicates are reported per record")
+  void importAccountsFromNdjson() throws Exception {
+    registerExpectedAccounts(asList(createJohnsAccount()));
+    String body = objectMapper.writeValueAsString(createSilversAccount()) + "\n"
+        + objectMapper.writeValueAsString(createJohnsAccount()) + "\n";
+
+    ImportReport report = client.toBlocking().retrieve(POST(ACCOUNTS_IMPORT, body)
+        .contentType(NdjsonAccounts.MEDIA_TYPE), ImportReport.class);
+
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getConflicts()).containsExactly(ImportConflict.builder()
+        .record(2).accountId(createJohnsAccount().getId()).message(AccountImporter.CONFLICT_MESSAGE).build());
+    assertAccountHaveRightAmountOfMoney(createJohnsAccount(), createSilversAccount(),
+        createJohnsAccount()::getAmount, createSilversAccount()::getAmount);
+  }
+
+  @Test
+  @DisplayName("Accounts exported as CSV and NDJSON are imported again")
+  void exportAndImportAccounts() throws Exception {
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+
+    String csv = client.toBlocking().retrieve(GET(ACCOUNTS_EXPORT_CSV).accept(new MediaType(CsvAccounts.MEDIA_TYPE)));
+    String ndjson = client.toBlocking().retrieve(GET(ACCOUNTS_EXPORT_NDJSON).accept(new MediaType(NdjsonAccounts.MEDIA_TYPE)));
+    removeAllAccounts();
+    ImportReport csvReport = client.toBlocking().retrieve(POST(ACCOUNTS_IMPORT, csv)
+        .contentType(CsvAccounts.MEDIA_TYPE), ImportReport.class);
+    ImportReport ndjsonReport = client.toBlocking().retrieve(POST(ACCOUNTS_IMPORT, ndjson)
+        .contentType(NdjsonAccounts.MEDIA_TYPE), ImportReport.class);
+
+    assertThat(csv).startsWith(CsvAccounts.HEADER);
+    assertThat(csvReport.getImported()).isEqualTo(2);
+    assertThat(ndjsonReport.getConflicts()).extracting(ImportConflict::getRecord).containsExactly(1L, 2L);
+    List<Account> accounts = objectMapper.readValue(client.toBlocking().retrieve(GET(ACCOUNTS)), LIST_ACCOUNTS_REFERENCE);
+    assertThat(accounts).containsExactly(createJohnsAccount(), createSilversAccount());
+  }
+
+  @Test
+  @DisplayName("Import accounts uploaded as a CSV file")
+  void importAccountsFromUpload() throws Exception {
+    registerExpectedAccounts(asList(createJohnsAccount(), createSilversAccount()));
+    String csv = client.toBlocking().retrieve(GET(ACCOUNTS_EXPORT_CSV).accept(new MediaType(CsvAccounts.MEDIA_TYPE)));
+    removeAllAccounts();
+
+    ImportReport report = client.toBlocking().retrieve(POST(ACCOUNTS_IMPORT, MultipartBody.builder()
+        .addPart("accounts", "accounts.csv", new MediaType(CsvAccounts.MEDIA_TYPE), csv.getBytes(UTF_8))
+        .build())
+        .contentType(MediaType.MULTIPART_FORM_DATA_TYPE), ImportReport.class);
+
+    assertThat(report.getImported()).isEqualTo(2);
+    List<Account> accounts = objectMapper.readValue(client.toBlocking().retrieve(GET(ACCOUNTS)), LIST_ACCOUNTS_REFERENCE);
+    assertThat(accounts).containsExactly(createJohnsAccount(), createSilversAccount());
+  }
+
+  @Test
+  @DisplayName("Malformed import is rejected")
+  void importMalformedAccounts() {
+
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .exchange(POST(ACCOUNTS_IMPORT, "acc1,1,,,,,\n").contentType(CsvAccounts.MEDIA_TYPE)),
+        HttpClientResponseException.class);
+
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+  }
+
+  @Test
+  @DisplayName("Malformed binary payload is rejected")
+  void transferMoneyWithMalformedBinaryPayload() {
+
+    HttpClientResponseException responseException = catchThrowableOfType(() -> client.toBlocking()
+        .exchange(POST(TRANSFER_MONEY_FROM_TO_ACCOUNT, new byte[] {0, 0, 0, 9, 2, 0})
+            .contentType(BinaryWireFormat.MEDIA_TYPE)), HttpClientResponseException.class);
+
+    assertThat(responseException.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+  }
+
+  private static byte[] binary(final Consumer<ByteBuf> writer) {
+    ByteBuf buffer = Unpooled.buffer();
+    writer.accept(buffer);
+    return ByteBufUtil.getBytes(buffer);
+  }
+
   private void assertAccountHaveRightAmountOfMoney(
       final Account sourceAccount,
       final Account destinationAccount,
@@ -194,4 +574,12 @@ class AccountManagementEndpointTest {
   private HttpResponse<?> removeAllAccounts() {
     return client.toBlocking().exchange(DELETE(ACCOUNTS).body(""));
   }
-}
\ No newline at end of file
+
+  private static TransferLeg leg(final Account fromAccount, final Account toAccount, final long amount) {
+    return TransferLeg.builder()
+        .fromAccountId(fromAccount.getId())
+        .toAccountId(toAccount.getId())
+        .amount(amount)
+        .build();
+  }
+}
@@ -8,9 +8,33 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.params.provider.Arguments.of;
 
+import de.wlsc.management.deduplication.DeduplicationConfiguration;
+import de.wlsc.management.deduplication.TransferDeduplication;
+import de.wlsc.management.exception.AccountNotFoundException;
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.management.exception.NegativeAmountTransferException;
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.exception.TransferIdConflictException;
+import de.wlsc.management.exception.TransferRateExceededException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.exception.UnknownCurrencyException;
+import de.wlsc.management.fx.FxRateTable;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.logging.TransferAudit;
+import de.wlsc.management.metrics.TransferMetrics;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
 import de.wlsc.model.Account;
+import de.wlsc.model.AccountAggregates;
+import de.wlsc.model.CurrencyAggregate;
 import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferHistoryEntry;
+import de.wlsc.model.TransferHistoryPage;
+import de.wlsc.model.TransferLeg;
 import java.util.Collection;
+import java.util.Currency;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -34,10 +58,10 @@ class AccountManagementTest {
 
   private static Iterable<Arguments> transferMoneyFailedScenarios() {
     return asList(
-        of(createJohnsAccount(), createSilversAccount(), 500000, asList(createJohnsAccount(), createSilversAccount()), IllegalArgumentException.class),
-        of(createSilversAccount(), createJohnsAccount(), -1245, asList(createJohnsAccount(), createSilversAccount()), IllegalArgumentException.class),
-        of(createJohnsAccount(), createSilversAccount(), 1, asList(createJohnsAccount()), IllegalArgumentException.class),
-        of(createSilversAccount(), createJohnsAccount(), 1, asList(createSilversAccount()), IllegalArgumentException.class)
+        of(createJohnsAccount(), createSilversAccount(), 500000, asList(createJohnsAccount(), createSilversAccount()), TransferRejectedException.class),
+        of(createSilversAccount(), createJohnsAccount(), -1245, asList(createJohnsAccount(), createSilversAccount()), TransferRejectedException.class),
+        of(createJohnsAccount(), createSilversAccount(), 1, asList(createJohnsAccount()), TransferRejectedException.class),
+        of(createSilversAccount(), createJohnsAccount(), 1, asList(createSilversAccount()), TransferRejectedException.class)
     );
   }
 
@@ -132,4 +156,287 @@ class AccountManagementTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("Retried transfer moves the money only once")
+  void transferMoney_when_retried_then_moneyMovedOnce() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+    MoneyTransfer moneyTransfer = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100);
+
+    accountManagement.transferMoney(moneyTransfer);
+    accountManagement.transferMoney(moneyTransfer);
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(400L, 2100L);
+  }
+
+  @Test
+  @DisplayName("Rejected transfers throw the preallocated exceptions without stack trace")
+  void transferMoney_when_rejected_then_preallocatedExceptionThrown() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+
+    assertThatThrownBy(() -> accountManagement.transferMoney(
+        createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500000)))
+        .isSameAs(NotEnoughMoneyException.SOURCE_ACCOUNT);
+    assertThatThrownBy(() -> accountManagement.transferMoney(
+        createMoneyTransfer(createJohnsAccount(), createSilversAccount(), -1)))
+        .isSameAs(NegativeAmountTransferException.NEGATIVE_AMOUNT);
+    assertThatThrownBy(() -> accountManagement.transferMoney(
+        createMoneyTransfer(createJohnsAccount(), createJohnsAccount().toBuilder().id("unknown").build(), 1)))
+        .isSameAs(AccountNotFoundException.DESTINATION_ACCOUNT);
+    assertThat(NotEnoughMoneyException.SOURCE_ACCOUNT.getStackTrace()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Transfer between accounts in different currencies deposits the converted amount")
+  void transferMoney_when_currenciesDiffer_then_convertedAmountDeposited() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount().toBuilder().currency(Currency.getInstance("USD")).build());
+
+    accountManagement.transferMoney(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100));
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(400L, 2108L);
+  }
+
+  @Test
+  @DisplayName("Accounts are found by customer and currency, removal drops them from the indexes")
+  void accountsOfCustomer_when_created_then_foundInIndexes() {
+    Account usdAccount = createJohnsAccount().toBuilder().id("acc3").currency(Currency.getInstance("USD")).build();
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+    accountManagement.create(usdAccount);
+    accountManagement.create(Account.builder().id("acc4").amount(1).build());
+    accountManagement.transferMoney(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100));
+
+    assertThat(accountManagement.accountsOfCustomer("cust1")).containsExactly(
+        createJohnsAccount().toBuilder().amount(400).build(), usdAccount);
+    assertThat(accountManagement.accountsInCurrency("USD")).containsExactly(usdAccount);
+    assertThat(accountManagement.accountsInCurrency("EUR")).extracting(Account::getId).containsExactly("acc1", "acc2");
+    assertThat(accountManagement.accountsOfCustomer("unknown")).isEmpty();
+    assertThat(accountManagement.indexEstimatedBytes()).isPositive();
+
+    accountManagement.removeAccounts();
+
+    assertThat(accountManagement.accountsOfCustomer("cust1")).isEmpty();
+    assertThat(accountManagement.accountsInCurrency("EUR")).isEmpty();
+    assertThat(accountManagement.indexEstimatedBytes()).isZero();
+  }
+
+  @Test
+  @DisplayName("Accounts in an unknown currency are rejected")
+  void accountsInCurrency_when_unknownCurrency_then_rejected() {
+    assertThatThrownBy(() -> accountManagement.accountsInCurrency("XYZ"))
+        .isInstanceOf(UnknownCurrencyException.class);
+  }
+
+  @Test
+  @DisplayName("Totals follow creations and transfers per currency and are reset by removal")
+  void aggregates_when_transferredAcrossCurrencies_then_totalsPerCurrency() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount().toBuilder().currency(Currency.getInstance("USD")).build());
+    accountManagement.create(Account.builder().id("acc3").amount(7).build());
+
+    accountManagement.transferMoney(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100));
+
+    AccountAggregates aggregates = accountManagement.aggregates();
+    assertThat(aggregates.getAccounts()).isEqualTo(3);
+    assertThat(aggregates.getTransfers()).isEqualTo(1);
+    assertThat(aggregates.getCurrencies()).containsOnlyKeys("EUR", "USD");
+    assertThat(aggregates.getCurrencies().get("EUR")).isEqualTo(CurrencyAggregate.builder()
+        .accounts(1).balance(400).opened(500).withdrawn(100).build());
+    assertThat(aggregates.getCurrencies().get("USD")).isEqualTo(CurrencyAggregate.builder()
+        .accounts(1).balance(2108).opened(2000).deposited(108).build());
+    assertThat(accountManagement.checkConservation().isConserved()).isTrue();
+    assertThat(accountManagement.checkConservation().getRecounted()).containsEntry("EUR", 400L).containsEntry("USD", 2108L);
+
+    accountManagement.removeAccounts();
+
+    assertThat(accountManagement.aggregates().getAccounts()).isZero();
+    assertThat(accountManagement.aggregates().getCurrencies()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Creating many accounts skips duplicates and creates all others")
+  void createAll_when_duplicates_then_othersCreated() {
+    accountManagement.create(createJohnsAccount());
+
+    List<Integer> conflicts = accountManagement.createAll(asList(createSilversAccount(), createJohnsAccount(),
+        createSilversAccount(), Account.builder().id("acc3").amount(1).build()));
+
+    assertThat(conflicts).containsExactly(1, 2);
+    assertThat(accountManagement.listAccounts()).extracting(Account::getId).containsExactly("acc1", "acc2", "acc3");
+  }
+
+  @Test
+  @DisplayName("Transfers are kept in the history of both accounts, newest first and paged")
+  void transferHistory_when_transferred_then_pagedNewestFirst() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+    accountManagement.transferMoney(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 10));
+    accountManagement.transferMoney(createMoneyTransfer(createSilversAccount(), createJohnsAccount(), 20));
+    accountManagement.transferMoney(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 30));
+
+    TransferHistoryPage firstPage = accountManagement.transferHistory("acc1", null, 2);
+    TransferHistoryPage secondPage = accountManagement.transferHistory("acc1", firstPage.getNextCursor(), 2);
+
+    assertThat(firstPage.getTransfers()).extracting(TransferHistoryEntry::getAmount).containsExactly(-30L, 20L);
+    assertThat(firstPage.getTransfers()).extracting(TransferHistoryEntry::getCounterpartyAccountId)
+        .containsOnly("acc2");
+    assertThat(secondPage.getTransfers()).extracting(TransferHistoryEntry::getAmount).containsExactly(-10L);
+    assertThat(secondPage.getNextCursor()).isNull();
+    assertThat(accountManagement.transferHistory("acc2", null, 10).getTransfers())
+        .extracting(TransferHistoryEntry::getAmount).containsExactly(30L, -20L, 10L);
+    assertThatThrownBy(() -> accountManagement.transferHistory("unknown", null, 10))
+        .isInstanceOf(AccountNotFoundException.class);
+  }
+
+  @Test
+  @DisplayName("Multi-leg transfer splits one debit across creditors and a fee account")
+  void transferMoney_when_multiLeg_then_allLegsApplied() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+    accountManagement.create(createJohnsAccount().toBuilder().id("fees").amount(0).build());
+
+    accountManagement.transferMoney(MultiLegTransfer.builder()
+        .id("payout")
+        .legs(asList(leg("acc2", "acc1", 300), leg("acc2", "fees", 5), leg("acc1", "fees", 1)))
+        .build());
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(799L, 1695L, 6L);
+  }
+
+  @Test
+  @DisplayName("Multi-leg transfer with a failing leg applies none of its legs and names the leg")
+  void transferMoney_when_legFails_then_noLegApplied() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+
+    assertThatThrownBy(() -> accountManagement.transferMoney(MultiLegTransfer.builder()
+        .legs(asList(leg("acc2", "acc1", 300), leg("acc1", "acc2", 700), leg("acc1", "unknown", 1)))
+        .build()))
+        .isInstanceOfSatisfying(BatchTransferFailedException.class,
+            e -> assertThat(e.getFailedTransferIndex()).isEqualTo(2));
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(500L, 2000L);
+  }
+
+  @Test
+  @DisplayName("Multi-leg transfer without legs is rejected as malformed")
+  void transferMoney_when_noLegs_then_malformed() {
+    assertThatThrownBy(() -> accountManagement.transferMoney(MultiLegTransfer.builder().id("empty").build()))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> accountManagement.transferMoney(MultiLegTransfer.builder()
+        .id("empty")
+        .legs(List.of())
+        .build()))
+        .isInstanceOf(MalformedPayloadException.class);
+  }
+
+  @Test
+  @DisplayName("Batch or multi-leg transfer with a missing element is rejected and names the element")
+  void transferMoney_when_elementMissing_then_failedAtIndex() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+
+    assertThatThrownBy(() -> accountManagement.transferMoney(
+        asList(createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100), null)))
+        .isInstanceOfSatisfying(BatchTransferFailedException.class,
+            e -> assertThat(e.getFailedTransferIndex()).isEqualTo(1));
+    assertThatThrownBy(() -> accountManagement.transferMoney(MultiLegTransfer.builder()
+        .legs(asList(null, leg("acc1", "acc2", 100)))
+        .build()))
+        .isInstanceOfSatisfying(BatchTransferFailedException.class,
+            e -> assertThat(e.getFailedTransferIndex()).isEqualTo(0));
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(500L, 2000L);
+  }
+
+  @Test
+  @DisplayName("Retried batch is not applied again and its transfer ids are refused")
+  void transferMoney_when_batchRetried_then_appliedOnce() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+    List<MoneyTransfer> batch = asList(
+        createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 100).toBuilder().id("t1").build(),
+        createMoneyTransfer(createSilversAccount(), createJohnsAccount(), 50).toBuilder().id("t2").build());
+    accountManagement.transferMoney(batch);
+
+    assertThatThrownBy(() -> accountManagement.transferMoney(batch))
+        .isInstanceOfSatisfying(BatchTransferFailedException.class,
+            e -> assertThat(e.getFailedTransferIndex()).isEqualTo(0));
+    assertThatThrownBy(() -> accountManagement.transferMoney(asList(batch.get(1))))
+        .isInstanceOf(BatchTransferFailedException.class);
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(450L, 2050L);
+  }
+
+  @Test
+  @DisplayName("Retried multi-leg transfer is applied once, its id cannot be reused by a single transfer")
+  void transferMoney_when_multiLegRetried_then_appliedOnce() {
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+    MultiLegTransfer multiLegTransfer = MultiLegTransfer.builder()
+        .id("split")
+        .legs(asList(leg("acc1", "acc2", 100), leg("acc1", "acc2", 50)))
+        .build();
+
+    accountManagement.transferMoney(multiLegTransfer);
+    accountManagement.transferMoney(multiLegTransfer);
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(350L, 2150L);
+    assertThatThrownBy(() -> accountManagement.transferMoney(
+        createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 1).toBuilder().id("split").build()))
+        .isInstanceOf(TransferIdConflictException.class);
+  }
+
+  @Test
+  @DisplayName("Retried transfer of a rate limited account gets its outcome without taking a slot")
+  void transferMoney_when_retriedWhileRateLimited_then_outcomeReplayed() {
+    RateLimitConfiguration rateLimitConfiguration = new RateLimitConfiguration();
+    rateLimitConfiguration.setHotAccounts(1);
+    rateLimitConfiguration.setSampleRate(1);
+    rateLimitConfiguration.setTransfersPerSecond(1);
+    rateLimitConfiguration.setBurst(2);
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()),
+        new TransferDeduplication(new DeduplicationConfiguration()),
+        TransferMetrics.disabled(),
+        TransferAudit.disabled(),
+        FxRateTable.bundled(),
+        new ShardingConfiguration(),
+        new StoreConfiguration(),
+        rateLimitConfiguration);
+    accountManagement.create(Account.builder().id("customer").amount(1000).currency(Currency.getInstance("EUR")).build());
+    accountManagement.create(Account.builder().id("merchant").amount(0).currency(Currency.getInstance("EUR")).build());
+    for (int i = 0; i < 256; i++) {
+      accountManagement.transferMoney(transfer("customer", "merchant", 1).toBuilder().id("heat" + i).build());
+    }
+    MoneyTransfer moneyTransfer = transfer("customer", "merchant", 1).toBuilder().id("t1").build();
+    accountManagement.transferMoney(moneyTransfer);
+    accountManagement.transferMoney(transfer("customer", "merchant", 1).toBuilder().id("t2").build());
+
+    accountManagement.transferMoney(moneyTransfer);
+
+    assertThatThrownBy(() -> accountManagement.transferMoney(
+        transfer("customer", "merchant", 1).toBuilder().id("t3").build()))
+        .isSameAs(TransferRateExceededException.ACCOUNT);
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactlyInAnyOrder(742L, 258L);
+  }
+
+  private static MoneyTransfer transfer(final String from, final String to, final long amount) {
+    return MoneyTransfer.builder()
+        .fromAccountId(from)
+        .toAccountId(to)
+        .amount(amount)
+        .build();
+  }
+
+  private static TransferLeg leg(final String from, final String to, final long amount) {
+    return TransferLeg.builder()
+        .fromAccountId(from)
+        .toAccountId(to)
+        .amount(amount)
+        .build();
+  }
+}
@@ -0,0 +1,125 @@
+package de.wlsc.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.util.Currency;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+@DisplayName("Account store")
+class AccountStoreTest {
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Accounts are found by id across chunks and after the id table grew")
+  void find_when_manyAccountsAdded_then_everyAccountFound(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    int accounts = 10_000;
+    for (int i = 0; i < accounts; i++) {
+      assertThat(accountStore.add(account("acc" + i, i), i)).isNotNull();
+    }
+
+    for (int i = 0; i < accounts; i++) {
+      StoredAccount storedAccount = accountStore.find("acc" + i);
+      assertThat(storedAccount.getId()).isEqualTo("acc" + i);
+      assertThat(storedAccount.getAmount()).isEqualTo(i);
+      assertThat(storedAccount.getLastSequence()).isEqualTo(i);
+    }
+    assertThat(accountStore.find("acc" + accounts)).isNull();
+    assertThat(accountStore.size()).isEqualTo(accounts);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Ids beyond Latin-1 are stored and found like any other id")
+  void find_when_idBeyondLatin1_then_found(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    accountStore.add(account("konto-ż", 1), 0);
+    accountStore.add(account("konto-ü", 2), 0);
+
+    assertThat(accountStore.find("konto-ż").toAccount()).isEqualTo(account("konto-ż", 1));
+    assertThat(accountStore.find("konto-ü").toAccount()).isEqualTo(account("konto-ü", 2));
+    assertThat(accountStore.find("konto-z")).isNull();
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Account without customer and currency keeps balance and sequence at their limits")
+  void add_when_noCustomerAndCurrency_then_storedAsIs(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    Account account = Account.builder().id("acc1").amount(Long.MIN_VALUE).build();
+    StoredAccount storedAccount = accountStore.add(account, Long.MAX_VALUE);
+
+    assertThat(storedAccount.toAccount()).isEqualTo(account);
+    assertThat(storedAccount.getLastSequence()).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Account with an existing id is not added")
+  void add_when_idExists_then_null(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    accountStore.add(account("acc1", 1), 0);
+
+    assertThat(accountStore.add(account("acc1", 2), 0)).isNull();
+    assertThat(accountStore.find("acc1").getAmount()).isEqualTo(1);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Equal customers of different accounts are stored once")
+  void add_when_equalCustomers_then_deduplicated(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    accountStore.add(account("acc1", 1), 0);
+    accountStore.add(account("acc2", 2), 0);
+
+    assertThat(accountStore.find("acc1").getCustomer())
+        .isEqualTo(account("acc1", 1).getCustomer())
+        .isSameAs(accountStore.find("acc2").getCustomer());
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Balance changes are visible through every view of the account")
+  void withdraw_when_viewsOfSameAccount_then_sameBalance(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    StoredAccount added = accountStore.add(account("acc1", 100), 0);
+    added.withdraw(30);
+    accountStore.find("acc1").deposit(5);
+
+    assertThat(added).isEqualTo(accountStore.find("acc1"));
+    assertThat(added.getAmount()).isEqualTo(75);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(StoreMemory.class)
+  @DisplayName("Cleared store finds no account, while views of the old generation stay readable")
+  void clear_when_accountsPresent_then_noneFound(final StoreMemory storeMemory) {
+    AccountStore accountStore = new AccountStore(storeMemory);
+    StoredAccount added = accountStore.add(account("acc1", 100), 0);
+
+    accountStore.clear();
+
+    assertThat(accountStore.find("acc1")).isNull();
+    assertThat(accountStore.size()).isZero();
+    assertThat(added.getAmount()).isEqualTo(100);
+  }
+
+  private static Account account(final String id, final long amount) {
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(Currency.getInstance("PLN"))
+        .customer(Customer.builder()
+            .id("cust1")
+            .firstname("first")
+            .lastname("last")
+            .locale(new Locale("pl", "PL"))
+            .build())
+        .build();
+  }
+}
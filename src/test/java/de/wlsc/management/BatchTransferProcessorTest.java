@@ -0,0 +1,185 @@
+package de.wlsc.management;
+
+import static de.wlsc.management.AccountTransferCreator.createJohnsAccount;
+import static de.wlsc.management.AccountTransferCreator.createMoneyTransfer;
+import static de.wlsc.management.AccountTransferCreator.createSilversAccount;
+import static de.wlsc.management.BatchTransferProcessor.ROLLED_BACK_MESSAGE;
+import static de.wlsc.model.BatchMode.ALL_OR_NOTHING;
+import static de.wlsc.model.BatchMode.BEST_EFFORT;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.model.Account;
+import de.wlsc.model.BatchMode;
+import de.wlsc.model.BatchTransfer;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.TransferResult;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Batch transfer processor")
+class BatchTransferProcessorTest {
+
+  private AccountManagement accountManagement;
+  private ExecutorService executorService;
+  private BatchTransferProcessor batchTransferProcessor;
+
+  @BeforeEach
+  void setUp() {
+    accountManagement = new AccountManagement();
+    executorService = Executors.newFixedThreadPool(4);
+    batchTransferProcessor = new BatchTransferProcessor(accountManagement, executorService, 4);
+    accountManagement.create(createJohnsAccount());
+    accountManagement.create(createSilversAccount());
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("All or nothing batch applies every transfer when all of them are valid")
+  void process_when_allOrNothingAndAllValid_then_allApplied() {
+    List<TransferResult> results = batchTransferProcessor.process(batchOf(ALL_OR_NOTHING,
+        createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500),
+        createMoneyTransfer(createSilversAccount(), createJohnsAccount(), 100)));
+
+    assertThat(results).extracting(TransferResult::isSuccessful).containsExactly(true, true);
+    assertThat(amountOf("acc1")).isEqualTo(100);
+    assertThat(amountOf("acc2")).isEqualTo(2400);
+  }
+
+  @Test
+  @DisplayName("All or nothing batch applies nothing when a single transfer fails")
+  void process_when_allOrNothingAndOneInvalid_then_noneApplied() {
+    MoneyTransfer valid = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500);
+    MoneyTransfer overdraft = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 1);
+
+    List<TransferResult> results = batchTransferProcessor.process(batchOf(ALL_OR_NOTHING, valid, overdraft));
+
+    assertThat(results).extracting(TransferResult::isSuccessful).containsExactly(false, false);
+    assertThat(results.get(0).getMessage()).isEqualTo(ROLLED_BACK_MESSAGE);
+    assertThat(results.get(1).getMessage()).isEqualTo("Source account has not enough money to transfer");
+    assertThat(amountOf("acc1")).isEqualTo(500);
+    assertThat(amountOf("acc2")).isEqualTo(2000);
+  }
+
+  @Test
+  @DisplayName("Best effort batch applies valid transfers and reports failed ones")
+  void process_when_bestEffortAndOneInvalid_then_validApplied() {
+    MoneyTransfer valid = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500);
+    MoneyTransfer overdraft = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 1);
+    MoneyTransfer unknownAccount = createMoneyTransfer(createJohnsAccount(), Account.builder().id("unknown").build(), 1);
+
+    List<TransferResult> results = batchTransferProcessor.process(batchOf(BEST_EFFORT, valid, overdraft, unknownAccount));
+
+    assertThat(results).extracting(TransferResult::getId).containsExactly(valid.getId(), overdraft.getId(), unknownAccount.getId());
+    assertThat(results).extracting(TransferResult::isSuccessful).containsExactly(true, false, false);
+    assertThat(amountOf("acc1")).isEqualTo(0);
+    assertThat(amountOf("acc2")).isEqualTo(2500);
+  }
+
+  @Test
+  @DisplayName("Best effort batch reports a missing transfer and applies the others")
+  void process_when_bestEffortAndOneMissing_then_othersApplied() {
+    MoneyTransfer valid = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500);
+
+    List<TransferResult> results = batchTransferProcessor.process(batchOf(BEST_EFFORT, null, valid));
+
+    assertThat(results).extracting(TransferResult::isSuccessful).containsExactly(false, true);
+    assertThat(results.get(0).getMessage()).isEqualTo(MalformedPayloadException.MISSING_TRANSFER);
+    assertThat(amountOf("acc1")).isEqualTo(0);
+    assertThat(amountOf("acc2")).isEqualTo(2500);
+  }
+
+  @Test
+  @DisplayName("Best effort batch reports a transfer failing unexpectedly and keeps the other results")
+  void process_when_bestEffortAndUnexpectedFailure_then_otherResultsKept() {
+    MoneyTransfer valid = createMoneyTransfer(createJohnsAccount(), createSilversAccount(), 500);
+    MoneyTransfer withoutSource = valid.toBuilder().id("t2").fromAccountId(null).build();
+
+    List<TransferResult> results = batchTransferProcessor.process(batchOf(BEST_EFFORT, valid, withoutSource));
+
+    assertThat(results).extracting(TransferResult::isSuccessful).containsExactly(true, false);
+    assertThat(amountOf("acc1")).isEqualTo(0);
+    assertThat(amountOf("acc2")).isEqualTo(2500);
+  }
+
+  @Test
+  @DisplayName("Best effort batch of many independent groups conserves money and keeps order inside a group")
+  void process_when_bestEffortAndManyGroups_then_moneyConserved() {
+    List<MoneyTransfer> moneyTransfers = new ArrayList<>();
+    for (int group = 0; group < 100; group++) {
+      Account first = createAccount("first" + group, 10);
+      Account second = createAccount("second" + group, 0);
+      accountManagement.create(first);
+      accountManagement.create(second);
+      moneyTransfers.add(createMoneyTransfer(first, second, 10));
+      moneyTransfers.add(createMoneyTransfer(second, first, 10));
+      moneyTransfers.add(createMoneyTransfer(second, first, 1));
+    }
+
+    List<TransferResult> results = batchTransferProcessor.process(BatchTransfer.builder()
+        .mode(BEST_EFFORT)
+        .transfers(moneyTransfers)
+        .build());
+
+    for (int i = 0; i < results.size(); i++) {
+      assertThat(results.get(i).isSuccessful()).isEqualTo(i % 3 != 2);
+    }
+    for (int group = 0; group < 100; group++) {
+      assertThat(amountOf("first" + group)).isEqualTo(10);
+      assertThat(amountOf("second" + group)).isEqualTo(0);
+    }
+  }
+
+  @Test
+  @DisplayName("Transfers sharing an account are grouped together")
+  void groupByAccounts_when_transfersShareAccounts_then_sameGroup() {
+    List<int[]> groups = BatchTransferProcessor.groupByAccounts(asList(
+        transfer("a", "b"), transfer("c", "d"), transfer("b", "e"), transfer("f", "f"), transfer("d", "a")));
+
+    assertThat(groups).hasSize(2);
+    assertThat(groups).anySatisfy(group -> assertThat(group).containsExactly(0, 1, 2, 4));
+    assertThat(groups).anySatisfy(group -> assertThat(group).containsExactly(3));
+  }
+
+  private static BatchTransfer batchOf(final BatchMode mode, final MoneyTransfer... moneyTransfers) {
+    return BatchTransfer.builder()
+        .mode(mode)
+        .transfers(asList(moneyTransfers))
+        .build();
+  }
+
+  private static MoneyTransfer transfer(final String fromAccountId, final String toAccountId) {
+    return MoneyTransfer.builder()
+        .fromAccountId(fromAccountId)
+        .toAccountId(toAccountId)
+        .build();
+  }
+
+  private static Account createAccount(final String id, final long amount) {
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(Currency.getInstance("EUR"))
+        .build();
+  }
+
+  private long amountOf(final String accountId) {
+    return accountManagement.listAccounts().stream()
+        .filter(account -> accountId.equals(account.getId()))
+        .findFirst()
+        .map(Account::getAmount)
+        .orElseThrow(IllegalStateException::new);
+  }
+}
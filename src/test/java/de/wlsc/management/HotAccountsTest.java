@@ -0,0 +1,136 @@
+package de.wlsc.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import de.wlsc.management.exception.TransferRateExceededException;
+import de.wlsc.model.HotAccount;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Hot accounts")
+class HotAccountsTest {
+
+  private static final int SAMPLES_UNTIL_REFRESH = 256;
+
+  @Test
+  @DisplayName("Account taking part in most transfers is reported hottest first")
+  void hotAccounts_when_oneAccountReceivesMostTransfers_then_reportedFirst() {
+    HotAccounts hotAccounts = new HotAccounts(configuration(4, 0, 0, Duration.ZERO));
+
+    for (int i = 0; i < 1000; i++) {
+      hotAccounts.admit("customer" + i, i % 4 == 0 ? "other" + i : "merchant");
+    }
+
+    assertThat(hotAccounts.hotAccounts()).hasSize(4);
+    HotAccount hottest = hotAccounts.hotAccounts().get(0);
+    assertThat(hottest.getAccountId()).isEqualTo("merchant");
+    assertThat(hottest.getShare()).isGreaterThan(0.5);
+    assertThat(hottest.isRateLimited()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Transfers of a hot account beyond its burst are rejected")
+  void admit_when_burstExceeded_then_rejected() {
+    HotAccounts hotAccounts = new HotAccounts(configuration(1, 1, 2, Duration.ZERO));
+    heatUp(hotAccounts);
+
+    hotAccounts.admit("customer", "merchant");
+    hotAccounts.admit("customer", "merchant");
+
+    assertThatThrownBy(() -> hotAccounts.admit("customer", "merchant"))
+        .isSameAs(TransferRateExceededException.ACCOUNT);
+    assertThat(hotAccounts.hotAccounts())
+        .extracting(HotAccount::getAccountId, HotAccount::isRateLimited, HotAccount::getRejectedTransfers)
+        .containsExactly(tuple("merchant", true, 1L));
+  }
+
+  @Test
+  @DisplayName("Transfer rejected for its destination leaves the slot of its source to other transfers")
+  void admit_when_destinationRejected_then_sourceSlotReleased() {
+    HotAccounts hotAccounts = new HotAccounts(configuration(2, 1, 2, Duration.ZERO));
+    for (int i = 0; i < SAMPLES_UNTIL_REFRESH; i++) {
+      hotAccounts.admit("customer" + i, i % 2 == 0 ? "merchant" : "shop");
+    }
+    hotAccounts.admit("customer", "shop");
+    hotAccounts.admit("customer", "shop");
+
+    assertThatThrownBy(() -> hotAccounts.admit("merchant", "shop"))
+        .isSameAs(TransferRateExceededException.ACCOUNT);
+    for (int i = 0; i < 3; i++) {
+      hotAccounts.admit("customer", "merchant");
+    }
+    assertThatThrownBy(() -> hotAccounts.admit("customer", "merchant"))
+        .isSameAs(TransferRateExceededException.ACCOUNT);
+  }
+
+  @Test
+  @DisplayName("Multi-leg transfer rejected for one leg takes the slot of no other leg")
+  void admit_when_legRejected_then_noSlotTaken() {
+    HotAccounts hotAccounts = new HotAccounts(configuration(2, 1, 2, Duration.ZERO));
+    for (int i = 0; i < SAMPLES_UNTIL_REFRESH; i++) {
+      hotAccounts.admit("customer" + i, i % 2 == 0 ? "merchant" : "shop");
+    }
+    hotAccounts.admit("customer", "shop");
+    hotAccounts.admit("customer", "shop");
+
+    assertThatThrownBy(() -> hotAccounts.admit(new String[] {"customer", "customer"}, new String[] {"merchant", "shop"}))
+        .isSameAs(TransferRateExceededException.ACCOUNT);
+    hotAccounts.admit(new String[] {"customer", "merchant"}, new String[] {"merchant", "customer"});
+    hotAccounts.admit("customer", "merchant");
+    hotAccounts.admit("customer", "merchant");
+    assertThatThrownBy(() -> hotAccounts.admit("customer", "merchant"))
+        .isSameAs(TransferRateExceededException.ACCOUNT);
+  }
+
+  @Test
+  @DisplayName("Transfers of a hot account beyond its rate wait for their turn up to the maximum delay")
+  void admit_when_rateExceededWithinMaxDelay_then_delayed() {
+    HotAccounts hotAccounts = new HotAccounts(configuration(1, 100, 0, Duration.ofSeconds(1)));
+    heatUp(hotAccounts);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 6; i++) {
+      hotAccounts.admit("customer", "merchant");
+    }
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+  }
+
+  @Test
+  @DisplayName("Accounts which are not hot are not rate limited")
+  void admit_when_accountsNotHot_then_notLimited() {
+    HotAccounts hotAccounts = new HotAccounts(configuration(1, 1, 0, Duration.ZERO));
+    heatUp(hotAccounts);
+
+    for (int i = 0; i < 100; i++) {
+      hotAccounts.admit("customer", "shop");
+    }
+
+    assertThat(hotAccounts.hotAccounts()).filteredOn(HotAccount::isRateLimited)
+        .extracting(HotAccount::getAccountId).doesNotContain("customer", "shop");
+  }
+
+  /**
+   * Makes the merchant the hottest account and determines the hot accounts, the last transfer
+   * already taking the first slot of the merchant.
+   */
+  private static void heatUp(final HotAccounts hotAccounts) {
+    for (int i = 0; i < SAMPLES_UNTIL_REFRESH; i++) {
+      hotAccounts.admit("customer" + i, "merchant");
+    }
+  }
+
+  private static RateLimitConfiguration configuration(final int hotAccounts, final int transfersPerSecond,
+                                                      final int burst, final Duration maxDelay) {
+    RateLimitConfiguration rateLimitConfiguration = new RateLimitConfiguration();
+    rateLimitConfiguration.setHotAccounts(hotAccounts);
+    rateLimitConfiguration.setSampleRate(1);
+    rateLimitConfiguration.setTransfersPerSecond(transfersPerSecond);
+    rateLimitConfiguration.setBurst(burst);
+    rateLimitConfiguration.setMaxDelay(maxDelay);
+    return rateLimitConfiguration;
+  }
+}
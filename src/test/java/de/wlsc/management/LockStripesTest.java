@@ -0,0 +1,44 @@
+package de.wlsc.management;
+
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Lock stripes")
+class LockStripesTest {
+
+  private final LockStripes lockStripes = new LockStripes(16);
+
+  @Test
+  @DisplayName("Uncontended locking is not counted as contention")
+  void lock_when_uncontended_then_noContentionCounted() {
+    lockStripes.lock(1, 2);
+    lockStripes.unlock(1, 2);
+
+    assertThat(lockStripes.contendedAcquisitions()).isZero();
+  }
+
+  @Test
+  @DisplayName("Waiting for a stripe held by another thread is counted as contention")
+  void lock_when_heldByAnotherThread_then_contentionCounted() {
+    assertTimeoutPreemptively(ofSeconds(10), () -> {
+      lockStripes.lock(1, 1);
+      Thread waitingThread = new Thread(() -> {
+        lockStripes.lock(1, 2);
+        lockStripes.unlock(1, 2);
+      });
+      waitingThread.start();
+      while (waitingThread.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+      lockStripes.unlock(1, 1);
+      waitingThread.join();
+
+      assertThat(lockStripes.contendedAcquisitions()).isEqualTo(1);
+      assertThat(lockStripes.contendedNanos()).isPositive();
+    });
+  }
+}
@@ -0,0 +1,46 @@
+package de.wlsc.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Shard ring buffer")
+class ShardRingBufferTest {
+
+  private final ShardRingBuffer<Integer> ringBuffer = new ShardRingBuffer<>(4);
+
+  @Test
+  @DisplayName("Elements are polled in the order they were offered, also after wrapping around")
+  void poll_when_wrappedAround_then_elementsInOfferOrder() {
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 3; i++) {
+        assertThat(ringBuffer.offer(round * 10 + i)).isTrue();
+      }
+      for (int i = 0; i < 3; i++) {
+        assertThat(ringBuffer.poll()).isEqualTo(round * 10 + i);
+      }
+    }
+    assertThat(ringBuffer.poll()).isNull();
+    assertThat(ringBuffer.isEmpty()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Full ring buffer refuses elements until one was polled")
+  void offer_when_full_then_refused() {
+    for (int i = 0; i < 4; i++) {
+      assertThat(ringBuffer.offer(i)).isTrue();
+    }
+
+    assertThat(ringBuffer.offer(4)).isFalse();
+    assertThat(ringBuffer.poll()).isZero();
+    assertThat(ringBuffer.offer(4)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Capacity must be a power of two")
+  void constructor_when_capacityNotPowerOfTwo_then_refused() {
+    assertThatThrownBy(() -> new ShardRingBuffer<>(3)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
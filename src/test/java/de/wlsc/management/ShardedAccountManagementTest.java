@@ -0,0 +1,269 @@
+package de.wlsc.management;
+
+import static java.time.Duration.ofSeconds;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import de.wlsc.management.exception.AccountAlreadyExistException;
+import de.wlsc.management.exception.AccountNotFoundException;
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.NegativeAmountTransferException;
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.journal.DurabilityMode;
+import de.wlsc.management.journal.FileTransferJournal;
+import de.wlsc.management.journal.JournalConfiguration;
+import de.wlsc.management.journal.TransferJournal;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.TransferHistoryEntry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Account management with sharding")
+class ShardedAccountManagementTest {
+
+  private static final int THREADS = 8;
+  private static final long INITIAL_AMOUNT = 1_000;
+
+  @TempDir
+  Path directory;
+
+  private AccountManagement accountManagement;
+  private ExecutorService executorService;
+
+  @BeforeEach
+  void setUp() {
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()), shardingConfiguration());
+    executorService = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+    accountManagement.close();
+  }
+
+  @Test
+  @DisplayName("Transfers within and across shards move the money")
+  void transferMoney_when_withinAndAcrossShards_then_moneyMoved() {
+    createAccounts(accountManagement, 16);
+
+    for (int i = 0; i < 16; i++) {
+      accountManagement.transferMoney(transfer("acc" + i, "acc" + ((i + 1) % 16), 10 * (i + 1)));
+    }
+
+    List<Account> accounts = new ArrayList<>(accountManagement.listAccounts());
+    for (int i = 0; i < 16; i++) {
+      long received = 10 * (i == 0 ? 16 : i);
+      assertThat(accounts.get(i).getAmount()).isEqualTo(INITIAL_AMOUNT - 10 * (i + 1) + received);
+    }
+    assertThat(accountManagement.transferHistory("acc1", null, 10).getTransfers())
+        .extracting(TransferHistoryEntry::getCounterpartyAccountId, TransferHistoryEntry::getAmount)
+        .containsExactly(tuple("acc2", -20L), tuple("acc0", 10L));
+  }
+
+  @Test
+  @DisplayName("Failed creations and transfers are reported to the caller and change nothing")
+  void transferMoney_when_invalid_then_failureReportedToCaller() {
+    createAccounts(accountManagement, 2);
+
+    assertThatThrownBy(() -> accountManagement.create(account("acc0")))
+        .isInstanceOf(AccountAlreadyExistException.class);
+    assertThatThrownBy(() -> accountManagement.transferMoney(transfer("acc0", "acc1", INITIAL_AMOUNT + 1)))
+        .isInstanceOf(NotEnoughMoneyException.class);
+    assertThatThrownBy(() -> accountManagement.transferMoney(transfer("acc0", "unknown", 1)))
+        .isInstanceOf(AccountNotFoundException.class);
+    assertThatThrownBy(() -> accountManagement.transferMoney(transfer("unknown", "acc0", 1)))
+        .isInstanceOf(AccountNotFoundException.class);
+    assertThatThrownBy(() -> accountManagement.transferMoney(transfer("acc0", "acc1", -1)))
+        .isInstanceOf(NegativeAmountTransferException.class);
+
+    assertThat(accountManagement.listAccounts()).extracting(Account::getAmount)
+        .containsExactly(INITIAL_AMOUNT, INITIAL_AMOUNT);
+  }
+
+  @Test
+  @DisplayName("Concurrent transfers between few hot accounts conserve the total amount of money")
+  void transferMoney_when_fewHotAccounts_then_moneyIsConserved() {
+    assertTimeoutPreemptively(ofSeconds(30), () -> {
+      createAccounts(accountManagement, 4);
+
+      runTransfers(4, 20_000, new AtomicBoolean(true));
+
+      assertMoneyConserved(accountManagement.listAccounts(), 4);
+    });
+  }
+
+  @Test
+  @DisplayName("Batches and removals wait for transfers in flight and conserve the total amount of money")
+  void transferMoney_when_batchesDuringTransfers_then_moneyIsConserved() {
+    assertTimeoutPreemptively(ofSeconds(30), () -> {
+      createAccounts(accountManagement, 100);
+      AtomicBoolean running = new AtomicBoolean(true);
+      List<Future<?>> futures = submitTransfers(100, running);
+
+      for (int i = 0; i < 200; i++) {
+        try {
+          accountManagement.transferMoney(asList(transfer("acc" + i % 100, "acc" + (i + 1) % 100, 10),
+              transfer("acc" + (i + 1) % 100, "acc" + (i + 2) % 100, 10)));
+        } catch (BatchTransferFailedException e) {
+          // not enough money is an expected outcome of random transfers
+        }
+      }
+      running.set(false);
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      assertMoneyConserved(accountManagement.listAccounts(), 100);
+
+      accountManagement.removeAccounts();
+      assertThat(accountManagement.listAccounts()).isEmpty();
+    });
+  }
+
+  @Test
+  @DisplayName("Snapshots taken while sharded transfers are running restore the same state as the running store")
+  void takeSnapshot_when_transfersRunning_then_consistentStateRestored() {
+    assertTimeoutPreemptively(ofSeconds(60), () -> {
+      Collection<Account> expectedAccounts;
+      try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration());
+           AccountManagement shardedAccountManagement = new AccountManagement(transferJournal, accountSnapshots(),
+               shardingConfiguration())) {
+        accountManagement.close();
+        accountManagement = shardedAccountManagement;
+        createAccounts(accountManagement, 200);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> futures = submitTransfers(200, running);
+
+        for (int snapshot = 0; snapshot < 5; snapshot++) {
+          Thread.sleep(50);
+          accountManagement.takeSnapshot();
+        }
+        Thread.sleep(50);
+        running.set(false);
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        expectedAccounts = accountManagement.listAccounts();
+      }
+
+      try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration());
+           AccountManagement restartedAccountManagement = new AccountManagement(transferJournal, accountSnapshots(),
+               shardingConfiguration())) {
+        assertThat(restartedAccountManagement.listAccounts()).containsExactlyElementsOf(expectedAccounts);
+        assertMoneyConserved(expectedAccounts, 200);
+      }
+    });
+  }
+
+  private void runTransfers(final int numberOfAccounts,
+                            final int transfersPerThread,
+                            final AtomicBoolean running) throws Exception {
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      futures.add(executorService.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < transfersPerThread && running.get(); i++) {
+          transferRandomly(numberOfAccounts, random);
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+
+  private List<Future<?>> submitTransfers(final int numberOfAccounts, final AtomicBoolean running) {
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      futures.add(executorService.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running.get()) {
+          transferRandomly(numberOfAccounts, random);
+        }
+      }));
+    }
+    return futures;
+  }
+
+  private void transferRandomly(final int numberOfAccounts, final ThreadLocalRandom random) {
+    try {
+      accountManagement.transferMoney(transfer("acc" + random.nextInt(numberOfAccounts),
+          "acc" + random.nextInt(numberOfAccounts), random.nextInt(200)));
+    } catch (TransferRejectedException e) {
+      // not enough money is an expected outcome of random transfers
+    }
+  }
+
+  private static void createAccounts(final AccountManagement accountManagement, final int numberOfAccounts) {
+    for (int i = 0; i < numberOfAccounts; i++) {
+      accountManagement.create(account("acc" + i));
+    }
+  }
+
+  private static void assertMoneyConserved(final Collection<Account> accounts, final int numberOfAccounts) {
+    assertThat(accounts).hasSize(numberOfAccounts);
+    assertThat(accounts).allSatisfy(account -> assertThat(account.getAmount()).isNotNegative());
+    assertThat(accounts.stream().mapToLong(Account::getAmount).sum()).isEqualTo(numberOfAccounts * INITIAL_AMOUNT);
+  }
+
+  private static ShardingConfiguration shardingConfiguration() {
+    ShardingConfiguration shardingConfiguration = new ShardingConfiguration();
+    shardingConfiguration.setEnabled(true);
+    shardingConfiguration.setShards(4);
+    shardingConfiguration.setQueueCapacity(64);
+    return shardingConfiguration;
+  }
+
+  private JournalConfiguration journalConfiguration() {
+    JournalConfiguration journalConfiguration = new JournalConfiguration();
+    journalConfiguration.setMode(DurabilityMode.FLUSH_INTERVAL);
+    journalConfiguration.setDirectory(directory.resolve("journal").toString());
+    return journalConfiguration;
+  }
+
+  private AccountSnapshots accountSnapshots() {
+    SnapshotConfiguration snapshotConfiguration = new SnapshotConfiguration();
+    snapshotConfiguration.setEnabled(true);
+    snapshotConfiguration.setDirectory(directory.resolve("snapshot").toString());
+    return new AccountSnapshots(snapshotConfiguration);
+  }
+
+  private static Account account(final String id) {
+    return Account.builder()
+        .id(id)
+        .amount(INITIAL_AMOUNT)
+        .currency(Currency.getInstance("EUR"))
+        .build();
+  }
+
+  private static MoneyTransfer transfer(final String fromAccountId, final String toAccountId, final long amount) {
+    return MoneyTransfer.builder()
+        .fromAccountId(fromAccountId)
+        .toAccountId(toAccountId)
+        .amount(amount)
+        .build();
+  }
+}
@@ -0,0 +1,102 @@
+package de.wlsc.management;
+
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Transfer history")
+class TransferHistoryTest {
+
+  @Test
+  @DisplayName("Account without transfers has an empty history")
+  void read_when_noTransfer_then_empty() {
+    TransferHistory transferHistory = new TransferHistory(4);
+    transferHistory.added(0);
+
+    TransferHistory.Slice slice = transferHistory.read(0, Long.MAX_VALUE, 10);
+
+    assertThat(slice.entries).isEmpty();
+    assertThat(slice.hasOlder()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Entries are read newest first and the oldest ones age out of the ring")
+  void read_when_moreTransfersThanDepth_then_lastOnesNewestFirst() {
+    TransferHistory transferHistory = new TransferHistory(4);
+    transferHistory.added(0);
+    transferHistory.added(1);
+    for (int i = 0; i < 6; i++) {
+      transferHistory.record(0, i, 1, -i, TransferHistory.now());
+    }
+
+    TransferHistory.Slice slice = transferHistory.read(0, Long.MAX_VALUE, 10);
+
+    assertThat(slice.entries).extracting(entry -> entry.sequence).containsExactly(5L, 4L, 3L, 2L);
+    assertThat(slice.entries).extracting(entry -> entry.amount).containsExactly(-5L, -4L, -3L, -2L);
+    assertThat(slice.entries).allSatisfy(entry -> {
+      assertThat(entry.counterparty).isEqualTo(1);
+      assertThat(entry.epochSecond).isPositive();
+    });
+    assertThat(slice.hasOlder()).isFalse();
+    assertThat(transferHistory.read(1, Long.MAX_VALUE, 10).entries).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Pages continue below the cursor of the previous page")
+  void read_when_paged_then_pagesContinue() {
+    TransferHistory transferHistory = new TransferHistory(8);
+    transferHistory.added(0);
+    for (int i = 0; i < 5; i++) {
+      transferHistory.record(0, i, 0, i, TransferHistory.now());
+    }
+
+    TransferHistory.Slice first = transferHistory.read(0, Long.MAX_VALUE, 3);
+    TransferHistory.Slice second = transferHistory.read(0, first.from, 3);
+
+    assertThat(first.entries).extracting(entry -> entry.sequence).containsExactly(4L, 3L, 2L);
+    assertThat(first.hasOlder()).isTrue();
+    assertThat(second.entries).extracting(entry -> entry.sequence).containsExactly(1L, 0L);
+    assertThat(second.hasOlder()).isFalse();
+  }
+
+  @Test
+  @DisplayName("History of depth 0 records nothing")
+  void record_when_depthZero_then_nothingRecorded() {
+    TransferHistory transferHistory = new TransferHistory(0);
+    transferHistory.added(0);
+    transferHistory.record(0, 1, 0, 1, TransferHistory.now());
+
+    assertThat(transferHistory.read(0, Long.MAX_VALUE, 10).entries).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Readers concurrent to the writer only see complete entries")
+  void read_when_writtenConcurrently_then_entriesComplete() {
+    TransferHistory transferHistory = new TransferHistory(4);
+    transferHistory.added(0);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Thread writer = new Thread(() -> {
+      for (long i = 1; writing.get(); i++) {
+        transferHistory.record(0, i, 0, -i, TransferHistory.now());
+      }
+    });
+    writer.start();
+
+    assertTimeoutPreemptively(ofSeconds(10), () -> {
+      for (int i = 0; i < 100_000; i++) {
+        TransferHistory.Slice slice = transferHistory.read(0, Long.MAX_VALUE, 4);
+        long previous = Long.MAX_VALUE;
+        for (TransferHistory.Entry entry : slice.entries) {
+          assertThat(entry.amount).isEqualTo(-entry.sequence);
+          assertThat(entry.sequence).isLessThan(previous);
+          previous = entry.sequence;
+        }
+      }
+    });
+    writing.set(false);
+  }
+}
@@ -0,0 +1,250 @@
+package de.wlsc.management.deduplication;
+
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import de.wlsc.management.exception.BatchTransferFailedException;
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.exception.TransferIdConflictException;
+import de.wlsc.model.MoneyTransfer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Transfer deduplication")
+class TransferDeduplicationTest {
+
+  private final AtomicLong nanoTime = new AtomicLong();
+  private final AtomicInteger executions = new AtomicInteger();
+  private TransferDeduplication transferDeduplication;
+
+  @BeforeEach
+  void setUp() {
+    transferDeduplication = deduplication(3, Duration.ofMinutes(1));
+  }
+
+  @Test
+  @DisplayName("Retried transfer is executed only once")
+  void execute_when_sameTransferRetried_then_executedOnce() {
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Retried transfer that was rejected is rejected again with the original exception")
+  void execute_when_rejectedTransferRetried_then_originalExceptionRethrown() {
+    NotEnoughMoneyException rejection = new NotEnoughMoneyException("Source account has not enough money to transfer");
+    Throwable firstOutcome = catchThrowable(() -> transferDeduplication.execute(transfer("t1", 10), () -> {
+      executions.incrementAndGet();
+      throw rejection;
+    }));
+    Throwable retriedOutcome = catchThrowable(() -> transferDeduplication.execute(transfer("t1", 10),
+        executions::incrementAndGet));
+
+    assertThat(firstOutcome).isSameAs(rejection);
+    assertThat(retriedOutcome).isSameAs(rejection);
+    assertThat(executions).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Transfer failed for other reasons than a rejection is executed again when retried")
+  void execute_when_failedTransferRetried_then_executedAgain() {
+    assertThatThrownBy(() -> transferDeduplication.execute(transfer("t1", 10), () -> {
+      throw new IllegalStateException("Journal is not writable anymore");
+    })).isInstanceOf(IllegalStateException.class);
+
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(1);
+    assertThat(transferDeduplication.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Transfer failed after it was applied is not executed again when retried")
+  void execute_when_failedAfterApplied_then_retrySucceedsWithoutExecuting() {
+    assertThatThrownBy(() -> transferDeduplication.execute(transfer("t1", 10), applied -> {
+      executions.incrementAndGet();
+      applied.run();
+      throw new IllegalStateException("Journal is not writable anymore");
+    })).isInstanceOf(IllegalStateException.class);
+
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Known id reused for a different transfer is rejected")
+  void execute_when_idReusedForDifferentTransfer_then_conflict() {
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+
+    assertThatThrownBy(() -> transferDeduplication.execute(transfer("t1", 20), executions::incrementAndGet))
+        .isInstanceOf(TransferIdConflictException.class);
+    assertThat(executions).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Transfers without id are never deduplicated")
+  void execute_when_noId_then_alwaysExecuted() {
+    transferDeduplication.execute(transfer(null, 10), executions::incrementAndGet);
+    transferDeduplication.execute(transfer(null, 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(2);
+    assertThat(transferDeduplication.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("Expired transfer is executed again")
+  void execute_when_expired_then_executedAgain() {
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+    nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(2);
+    assertThat(transferDeduplication.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Oldest transfers are forgotten when the maximum size is exceeded")
+  void execute_when_maxSizeExceeded_then_oldestForgotten() {
+    for (int i = 0; i < 5; i++) {
+      transferDeduplication.execute(transfer("t" + i, 10), executions::incrementAndGet);
+    }
+    transferDeduplication.execute(transfer("t0", 10), executions::incrementAndGet);
+    transferDeduplication.execute(transfer("t4", 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(6);
+    assertThat(transferDeduplication.size()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Concurrent retries of a transfer execute it only once and all wait for its outcome")
+  void execute_when_retriedConcurrently_then_executedOnce() {
+    assertTimeoutPreemptively(ofSeconds(10), () -> {
+      ExecutorService executorService = Executors.newFixedThreadPool(8);
+      CountDownLatch start = new CountDownLatch(1);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+          futures.add(executorService.submit(() -> {
+            start.await();
+            transferDeduplication.execute(transfer("t1", 10), () -> {
+              sleep();
+              executions.incrementAndGet();
+            });
+            return null;
+          }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executorService.shutdownNow();
+      }
+
+      assertThat(executions).hasValue(1);
+    });
+  }
+
+  @Test
+  @DisplayName("Hits, misses, size and memory footprint are exposed as meters")
+  void bindTo_when_transfersDeduplicated_then_metersReflectThem() {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    transferDeduplication.bindTo(meterRegistry);
+
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+    transferDeduplication.execute(transfer("t2", 10), executions::incrementAndGet);
+
+    assertThat(meterRegistry.get("transfer.deduplication.requests").tag("result", "hit").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("transfer.deduplication.requests").tag("result", "miss").functionCounter().count())
+        .isEqualTo(2);
+    assertThat(meterRegistry.get("transfer.deduplication.size").gauge().value()).isEqualTo(2);
+    assertThat(meterRegistry.get("transfer.deduplication.memory").gauge().value()).isPositive();
+  }
+
+  private TransferDeduplication deduplication(final int maxSize, final Duration expireAfter) {
+    DeduplicationConfiguration deduplicationConfiguration = new DeduplicationConfiguration();
+    deduplicationConfiguration.setMaxSize(maxSize);
+    deduplicationConfiguration.setExpireAfter(expireAfter);
+    return new TransferDeduplication(deduplicationConfiguration, nanoTime::get);
+  }
+
+  @Test
+  @DisplayName("Retried batch fails at the first known id without being executed again")
+  void execute_when_batchRetried_then_failedAtKnownId() {
+    List<MoneyTransfer> batch = List.of(transfer(null, 5), transfer("t1", 10), transfer("t2", 20));
+    transferDeduplication.execute(batch, applied -> executions.incrementAndGet());
+
+    assertThatThrownBy(() -> transferDeduplication.execute(batch, applied -> executions.incrementAndGet()))
+        .isInstanceOfSatisfying(BatchTransferFailedException.class, e -> {
+          assertThat(e.getFailedTransferIndex()).isEqualTo(1);
+          assertThat(e).hasCauseInstanceOf(TransferIdConflictException.class);
+        });
+    assertThat(executions).hasValue(1);
+    assertThat(transferDeduplication.size()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Batch reusing an id within itself is rejected and forgets its ids again")
+  void execute_when_idTwiceInBatch_then_rejectedAndForgotten() {
+    assertThatThrownBy(() -> transferDeduplication.execute(List.of(transfer("t1", 10), transfer("t2", 20),
+        transfer("t1", 10)), applied -> executions.incrementAndGet()))
+        .isInstanceOfSatisfying(BatchTransferFailedException.class,
+            e -> assertThat(e.getFailedTransferIndex()).isEqualTo(2));
+
+    transferDeduplication.execute(transfer("t1", 10), executions::incrementAndGet);
+
+    assertThat(executions).hasValue(1);
+    assertThat(transferDeduplication.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Rejected batch forgets its ids, as none of its transfers was applied")
+  void execute_when_batchRejected_then_idsForgotten() {
+    NotEnoughMoneyException rejection = new NotEnoughMoneyException("Source account has not enough money to transfer");
+    List<MoneyTransfer> batch = List.of(transfer("t1", 10), transfer("t2", 20));
+    assertThatThrownBy(() -> transferDeduplication.execute(batch, applied -> {
+      throw new BatchTransferFailedException(1, rejection);
+    })).isInstanceOf(BatchTransferFailedException.class);
+
+    transferDeduplication.execute(batch, applied -> executions.incrementAndGet());
+
+    assertThat(executions).hasValue(1);
+  }
+
+  private static MoneyTransfer transfer(final String id, final long amount) {
+    return MoneyTransfer.builder()
+        .id(id)
+        .fromAccountId("acc1")
+        .toAccountId("acc2")
+        .amount(amount)
+        .build();
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(50);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package de.wlsc.management.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Endpoint executor")
+class EndpointExecutorTest {
+
+  private static final int VIRTUAL_THREADS_VERSION = 21;
+
+  private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "io"));
+
+  @AfterEach
+  void tearDown() {
+    ioExecutor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Requests are handed to the I/O pool")
+  void supply_when_ioPool_then_runOnIoThread() throws Exception {
+    try (EndpointExecutor endpointExecutor = endpointExecutor(ExecutionModel.IO_POOL)) {
+      assertThat(endpointExecutor.supply(() -> Thread.currentThread().getName()).get()).isEqualTo("io");
+    }
+  }
+
+  @Test
+  @DisplayName("Requests run on the calling event loop thread")
+  void supply_when_eventLoop_then_runOnCallingThread() {
+    try (EndpointExecutor endpointExecutor = endpointExecutor(ExecutionModel.EVENT_LOOP)) {
+      CompletableFuture<Thread> thread = endpointExecutor.supply(Thread::currentThread);
+
+      assertThat(thread).isCompletedWithValue(Thread.currentThread());
+    }
+  }
+
+  @Test
+  @DisplayName("Failed requests complete with the original exception")
+  void supply_when_actionFails_then_completedWithOriginalException() {
+    try (EndpointExecutor endpointExecutor = endpointExecutor(ExecutionModel.IO_POOL)) {
+      CompletableFuture<Object> result = endpointExecutor.supply(() -> {
+        throw new NotEnoughMoneyException("Source account has not enough money to transfer");
+      });
+
+      assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+          .hasCauseExactlyInstanceOf(NotEnoughMoneyException.class);
+      result.whenComplete((value, failure) -> assertThat(failure).isInstanceOf(NotEnoughMoneyException.class));
+    }
+  }
+
+  @Test
+  @DisplayName("Requests run on virtual threads on Java 21 or newer")
+  void supply_when_virtualThreads_then_runOnVirtualThread() throws Exception {
+    assumeTrue(Runtime.version().feature() >= VIRTUAL_THREADS_VERSION);
+    try (EndpointExecutor endpointExecutor = endpointExecutor(ExecutionModel.VIRTUAL_THREADS)) {
+      Thread thread = endpointExecutor.supply(Thread::currentThread).get();
+
+      assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+    }
+  }
+
+  @Test
+  @DisplayName("Virtual threads are refused before Java 21")
+  void constructor_when_virtualThreadsBeforeJava21_then_refused() {
+    assumeTrue(Runtime.version().feature() < VIRTUAL_THREADS_VERSION);
+
+    assertThatThrownBy(() -> endpointExecutor(ExecutionModel.VIRTUAL_THREADS))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Java 21");
+  }
+
+  private EndpointExecutor endpointExecutor(final ExecutionModel executionModel) {
+    ExecutionConfiguration executionConfiguration = new ExecutionConfiguration();
+    executionConfiguration.setExecution(executionModel);
+    return new EndpointExecutor(executionConfiguration, ioExecutor);
+  }
+}
@@ -0,0 +1,95 @@
+package de.wlsc.management.fx;
+
+import static de.wlsc.management.fx.FxRatesTest.rate;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Exchange rate table")
+class FxRateTableTest {
+
+  private static final Currency EUR = Currency.getInstance("EUR");
+  private static final Currency USD = Currency.getInstance("USD");
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("Refreshed rates are published as new version while the previous version stays unchanged")
+  void refresh_when_ratesChanged_then_newVersionPublished() {
+    AtomicReference<List<FxRate>> rates = new AtomicReference<>(List.of(rate(EUR, USD, "1.1")));
+    FxRateTable fxRateTable = new FxRateTable(rates::get);
+    FxRates previousRates = fxRateTable.current();
+
+    rates.set(List.of(rate(EUR, USD, "1.2")));
+    fxRateTable.refresh();
+
+    assertThat(fxRateTable.current().getVersion()).isEqualTo(previousRates.getVersion() + 1);
+    assertThat(fxRateTable.convert(EUR, USD, 100)).isEqualTo(120);
+    assertThat(previousRates.convert(EUR, USD, 100)).isEqualTo(110);
+  }
+
+  @Test
+  @DisplayName("Failed refresh keeps the previous rates")
+  void refresh_when_providerFails_then_previousRatesKept() {
+    AtomicReference<List<FxRate>> rates = new AtomicReference<>(List.of(rate(EUR, USD, "1.1")));
+    FxRateTable fxRateTable = new FxRateTable(rates::get);
+
+    rates.set(List.of(rate(EUR, USD, "-1")));
+
+    assertThatThrownBy(fxRateTable::refresh).isInstanceOf(IllegalStateException.class);
+    assertThat(fxRateTable.convert(EUR, USD, 100)).isEqualTo(110);
+  }
+
+  @Test
+  @DisplayName("Rates are read from the configured file")
+  void fetchRates_when_fileConfigured_then_ratesRead() throws IOException {
+    Path ratesFile = directory.resolve("rates.properties");
+    Files.writeString(ratesFile, "# test rates\nEUR/USD = 1.25\n");
+    FxConfiguration fxConfiguration = new FxConfiguration();
+    fxConfiguration.setRatesFile(ratesFile.toString());
+
+    FxRateTable fxRateTable = new FxRateTable(new FileFxRateProvider(fxConfiguration));
+
+    assertThat(fxRateTable.convert(EUR, USD, 100)).isEqualTo(125);
+    assertThat(fxRateTable.convert(USD, EUR, 125)).isEqualTo(100);
+  }
+
+  @Test
+  @DisplayName("Malformed rates file is refused")
+  void fetchRates_when_fileMalformed_then_refused() throws IOException {
+    Path ratesFile = directory.resolve("rates.properties");
+    Files.writeString(ratesFile, "EURUSD=1.25\n");
+    FxConfiguration fxConfiguration = new FxConfiguration();
+    fxConfiguration.setRatesFile(ratesFile.toString());
+
+    assertThatThrownBy(() -> new FileFxRateProvider(fxConfiguration).fetchRates())
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("Bundled rates are complete for all their currencies")
+  void bundled_when_loaded_then_allPairsConvertible() {
+    FxRateTable fxRateTable = FxRateTable.bundled();
+    List<String> currencies = List.of("EUR", "USD", "GBP", "CHF", "JPY", "PLN", "BHD");
+
+    for (String source : currencies) {
+      for (String destination : currencies) {
+        if (!source.equals(destination)) {
+          assertThat(fxRateTable.convert(Currency.getInstance(source), Currency.getInstance(destination), 10_000))
+              .as("%s to %s", source, destination)
+              .isPositive();
+        }
+      }
+    }
+  }
+}
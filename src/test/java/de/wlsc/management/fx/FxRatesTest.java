@@ -0,0 +1,112 @@
+package de.wlsc.management.fx;
+
+import static java.math.RoundingMode.HALF_EVEN;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.wlsc.management.exception.CurrencyConversionException;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("Exchange rates")
+class FxRatesTest {
+
+  private static final Currency EUR = Currency.getInstance("EUR");
+  private static final Currency USD = Currency.getInstance("USD");
+  private static final Currency JPY = Currency.getInstance("JPY");
+  private static final Currency BHD = Currency.getInstance("BHD");
+
+  private final FxRates fxRates = FxRates.of(1, asList(
+      rate(EUR, USD, "1.0842"),
+      rate(EUR, JPY, "161.87"),
+      rate(EUR, BHD, "0.4087"),
+      rate(USD, JPY, "1.5")));
+
+  @ParameterizedTest(name = "{1} {0} are {3} {2}")
+  @CsvSource({
+      "EUR, 1000, USD, 1084",
+      "EUR, 1000, JPY, 1619",
+      "JPY, 1619, EUR, 1000",
+      "EUR, 100, BHD, 409",
+      "BHD, 409, EUR, 100",
+      "USD, 1, JPY, 0",
+      "USD, 100, JPY, 2",
+      "USD, 300, JPY, 4",
+      "EUR, 0, USD, 0"
+  })
+  @DisplayName("Amounts are converted into minor units of the destination currency, rounded half even")
+  void convert_when_rateAvailable_then_roundedToMinorUnitOfDestination(final String source,
+                                                                         final long amount,
+                                                                         final String destination,
+                                                                         final long expectedAmount) {
+    assertThat(fxRates.convert(Currency.getInstance(source), Currency.getInstance(destination), amount))
+        .isEqualTo(expectedAmount);
+  }
+
+  @Test
+  @DisplayName("Conversion matches exact decimal arithmetic for random amounts and rates")
+  void convert_when_randomAmounts_then_sameAsDecimalArithmetic() {
+    SplittableRandom random = new SplittableRandom(42);
+    List<Currency> currencies = asList(EUR, USD, JPY, BHD);
+    for (int i = 0; i < 10_000; i++) {
+      Currency source = currencies.get(random.nextInt(currencies.size()));
+      Currency destination = currencies.get(random.nextInt(currencies.size()));
+      if (source.equals(destination)) {
+        continue;
+      }
+      BigDecimal rate = BigDecimal.valueOf(1 + random.nextLong(1_000_000_000_000L), FxRates.RATE_SCALE);
+      long amount = random.nextLong(1L << (10 + random.nextInt(30)));
+
+      long converted = FxRates.of(1, List.of(rate(source, destination, rate.toPlainString())))
+          .convert(source, destination, amount);
+
+      BigDecimal expected = BigDecimal.valueOf(amount)
+          .movePointLeft(source.getDefaultFractionDigits())
+          .multiply(rate)
+          .movePointRight(destination.getDefaultFractionDigits())
+          .setScale(0, HALF_EVEN);
+      assertThat(converted).as("%d %s at %s into %s", amount, source, rate, destination)
+          .isEqualTo(expected.longValueExact());
+    }
+  }
+
+  @Test
+  @DisplayName("Conversion without rate for the currency pair is rejected")
+  void convert_when_noRate_then_rejected() {
+    Currency chf = Currency.getInstance("CHF");
+
+    assertThatThrownBy(() -> fxRates.convert(EUR, chf, 100)).isInstanceOf(CurrencyConversionException.class);
+    assertThatThrownBy(() -> fxRates.convert(EUR, null, 100)).isInstanceOf(CurrencyConversionException.class);
+  }
+
+  @Test
+  @DisplayName("Conversion of an amount which does not fit into the destination currency is rejected")
+  void convert_when_resultTooLarge_then_rejected() {
+    assertThatThrownBy(() -> fxRates.convert(EUR, JPY, Long.MAX_VALUE))
+        .isInstanceOf(CurrencyConversionException.class);
+  }
+
+  @Test
+  @DisplayName("Rates which are not positive or too small for the fixed-point scale are refused")
+  void of_when_rateInvalid_then_refused() {
+    assertThatThrownBy(() -> FxRates.of(1, List.of(rate(EUR, USD, "0"))))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> FxRates.of(1, List.of(rate(EUR, USD, "0.0000000001"))))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  static FxRate rate(final Currency source, final Currency destination, final String rate) {
+    return FxRate.builder()
+        .source(source)
+        .destination(destination)
+        .rate(new BigDecimal(rate))
+        .build();
+  }
+}
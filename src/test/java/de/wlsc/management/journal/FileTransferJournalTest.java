@@ -0,0 +1,224 @@
+package de.wlsc.management.journal;
+
+import static de.wlsc.management.journal.DurabilityMode.FSYNC_PER_BATCH;
+import static de.wlsc.management.journal.FileTransferJournal.segmentFileName;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.wlsc.management.AccountManagement;
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferLeg;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+@DisplayName("File transfer journal")
+class FileTransferJournalTest {
+
+  private static final Account JOHNS_ACCOUNT = Account.builder()
+      .id("acc1")
+      .amount(500)
+      .currency(Currency.getInstance("EUR"))
+      .customer(Customer.builder()
+          .id("cust1")
+          .firstname("first")
+          .lastname("last")
+          .locale(Locale.GERMANY)
+          .build())
+      .build();
+  private static final Account SILVERS_ACCOUNT = Account.builder()
+      .id("acc2")
+      .amount(2000)
+      .currency(Currency.getInstance("EUR"))
+      .build();
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @EnumSource(value = DurabilityMode.class, names = {"FLUSH_INTERVAL", "FSYNC_PER_BATCH"})
+  @DisplayName("Accounts and transfers are recovered after a restart")
+  void replay_when_restarted_then_accountsRecovered(final DurabilityMode mode) {
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration(mode))) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+      accountManagement.create(JOHNS_ACCOUNT);
+      accountManagement.create(SILVERS_ACCOUNT);
+      accountManagement.transferMoney(transfer("acc1", "acc2", 100));
+      accountManagement.transferMoney(transfer("acc2", "acc1", 1000));
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration(mode))) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+
+      assertThat(accountManagement.listAccounts()).containsExactly(
+          JOHNS_ACCOUNT.toBuilder().amount(1400).build(),
+          SILVERS_ACCOUNT.toBuilder().amount(1100).build());
+    }
+  }
+
+  @Test
+  @DisplayName("Legs of a multi-leg transfer are journaled as one record and all recovered")
+  void replay_when_multiLegTransfer_then_allLegsRecovered() {
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+      accountManagement.create(JOHNS_ACCOUNT);
+      accountManagement.create(SILVERS_ACCOUNT);
+      accountManagement.transferMoney(MultiLegTransfer.builder()
+          .legs(List.of(leg("acc1", "acc2", 100), leg("acc1", "acc2", 50), leg("acc2", "acc1", 30)))
+          .build());
+
+      assertThat(transferJournal.lastSequence()).isEqualTo(3);
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+
+      assertThat(accountManagement.listAccounts()).containsExactlyInAnyOrder(
+          JOHNS_ACCOUNT.toBuilder().amount(380).build(),
+          SILVERS_ACCOUNT.toBuilder().amount(2120).build());
+    }
+  }
+
+  @Test
+  @DisplayName("Removal of all accounts is recovered and later accounts are kept")
+  void replay_when_accountsRemoved_then_onlyLaterAccountsRecovered() {
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+      accountManagement.create(JOHNS_ACCOUNT);
+      accountManagement.removeAccounts();
+      accountManagement.create(SILVERS_ACCOUNT);
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+
+      assertThat(accountManagement.listAccounts()).containsExactly(SILVERS_ACCOUNT);
+    }
+  }
+
+  @Test
+  @DisplayName("A torn record at the end of the journal is dropped and appending continues")
+  void replay_when_lastRecordTorn_then_truncatedAndAppendable() throws Exception {
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+      accountManagement.create(JOHNS_ACCOUNT);
+    }
+    Files.write(directory.resolve(segmentFileName(1)), new byte[] {0, 0, 0, 42, 1, 2, 3}, APPEND);
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+      accountManagement.create(SILVERS_ACCOUNT);
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+
+      assertThat(accountManagement.listAccounts()).containsExactly(JOHNS_ACCOUNT, SILVERS_ACCOUNT);
+    }
+  }
+
+  @Test
+  @DisplayName("Records written out of sequence order continue after the highest sequence")
+  void replay_when_recordsOutOfOrder_then_continuesAfterHighestSequence() throws Exception {
+    Files.createDirectories(directory);
+    Files.write(directory.resolve(segmentFileName(1)),
+        concat(record(JournalRecord.creation(2, SILVERS_ACCOUNT)), record(JournalRecord.creation(1, JOHNS_ACCOUNT))));
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+
+      assertThat(transferJournal.lastSequence()).isEqualTo(2);
+      accountManagement.transferMoney(transfer("acc1", "acc2", 100));
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+
+      assertThat(accountManagement.listAccounts()).containsExactlyInAnyOrder(
+          JOHNS_ACCOUNT.toBuilder().amount(400).build(),
+          SILVERS_ACCOUNT.toBuilder().amount(2100).build());
+    }
+  }
+
+  @Test
+  @DisplayName("Transfers and creations after the writer has died are refused without changing any account")
+  void append_when_writerDied_then_accountsUnchanged() throws Exception {
+    try (TransferJournal transferJournal = new FileTransferJournal(configuration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal);
+      accountManagement.create(JOHNS_ACCOUNT);
+      accountManagement.create(SILVERS_ACCOUNT);
+      Files.delete(directory.resolve(segmentFileName(1)));
+      Files.delete(directory);
+
+      assertThatThrownBy(transferJournal::roll).isInstanceOf(IllegalStateException.class);
+      assertThatThrownBy(() -> accountManagement.transferMoney(transfer("acc1", "acc2", 100)))
+          .isInstanceOf(IllegalStateException.class);
+      assertThatThrownBy(() -> accountManagement.transferMoney(List.of(transfer("acc1", "acc2", 100))))
+          .isInstanceOf(IllegalStateException.class);
+      assertThatThrownBy(() -> accountManagement.create(JOHNS_ACCOUNT.toBuilder().id("acc3").build()))
+          .isInstanceOf(IllegalStateException.class);
+
+      assertThat(accountManagement.listAccounts()).containsExactly(JOHNS_ACCOUNT, SILVERS_ACCOUNT);
+    } finally {
+      Files.createDirectories(directory);
+    }
+  }
+
+  private static byte[] record(final JournalRecord journalRecord) {
+    ByteBuffer payload = JournalCodec.encodePayload(journalRecord, ByteBuffer.allocate(256));
+    CRC32 crc32 = new CRC32();
+    crc32.update(payload.duplicate());
+    ByteBuffer record = ByteBuffer.allocate(JournalCodec.HEADER_SIZE + payload.remaining());
+    record.putInt(payload.remaining());
+    record.putInt((int) crc32.getValue());
+    record.put(payload);
+    return record.array();
+  }
+
+  private static byte[] concat(final byte[] first, final byte[] second) {
+    byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, bytes, first.length, second.length);
+    return bytes;
+  }
+
+  private JournalConfiguration configuration() {
+    return configuration(FSYNC_PER_BATCH);
+  }
+
+  private JournalConfiguration configuration(final DurabilityMode mode) {
+    JournalConfiguration journalConfiguration = new JournalConfiguration();
+    journalConfiguration.setMode(mode);
+    journalConfiguration.setDirectory(directory.toString());
+    return journalConfiguration;
+  }
+
+  private static TransferLeg leg(final String fromAccountId, final String toAccountId, final long amount) {
+    return TransferLeg.builder()
+        .fromAccountId(fromAccountId)
+        .toAccountId(toAccountId)
+        .amount(amount)
+        .build();
+  }
+
+  private static MoneyTransfer transfer(final String fromAccountId, final String toAccountId, final long amount) {
+    return MoneyTransfer.builder()
+        .fromAccountId(fromAccountId)
+        .toAccountId(toAccountId)
+        .amount(amount)
+        .build();
+  }
+}
@@ -0,0 +1,300 @@
+package de.wlsc.management.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import de.wlsc.management.AccountManagement;
+import de.wlsc.management.exception.ReplicationPendingException;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.MultiLegTransfer;
+import de.wlsc.model.TransferHistoryEntry;
+import de.wlsc.model.TransferLeg;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Replication log")
+class ReplicationLogTest {
+
+  private static final Account JOHNS_ACCOUNT = Account.builder()
+      .id("acc1")
+      .amount(500)
+      .currency(Currency.getInstance("EUR"))
+      .build();
+  private static final Account SILVERS_ACCOUNT = Account.builder()
+      .id("acc2")
+      .amount(2000)
+      .currency(Currency.getInstance("EUR"))
+      .build();
+
+  @Test
+  @DisplayName("Follower applying the changes of the log ends up with the leader's accounts")
+  void read_when_changesApplied_then_followerEqualsLeader() {
+    ReplicationLog replicationLog = new ReplicationLog(16);
+    AccountManagement leader = new AccountManagement(replicatingJournal(replicationLog, 0));
+    AccountManagement follower = new AccountManagement();
+
+    leader.create(JOHNS_ACCOUNT);
+    leader.create(SILVERS_ACCOUNT);
+    leader.transferMoney(transfer("acc1", "acc2", 100));
+    leader.transferMoney(transfer("acc2", "acc1", 1000));
+    ReplicationLog.Batch batch = replicationLog.read(replicationLog.id(), 0, 16);
+    follower.replicate(toBuffer(batch));
+
+    assertThat(batch.getPosition()).isEqualTo(4);
+    assertThat(batch.getLastPosition()).isEqualTo(4);
+    assertThat(follower.listAccounts()).containsExactlyElementsOf(leader.listAccounts());
+    assertThat(follower.transferHistory("acc1", null, 10).getTransfers())
+        .extracting(TransferHistoryEntry::getSequence, TransferHistoryEntry::getCounterpartyAccountId,
+            TransferHistoryEntry::getAmount)
+        .containsExactly(tuple(4L, "acc2", 1000L), tuple(3L, "acc2", -100L));
+  }
+
+  @Test
+  @DisplayName("Legs of a multi-leg transfer are replicated as one change")
+  void read_when_multiLegTransfer_then_oneChange() {
+    ReplicationLog replicationLog = new ReplicationLog(16);
+    AccountManagement leader = new AccountManagement(replicatingJournal(replicationLog, 0));
+    AccountManagement follower = new AccountManagement();
+    leader.create(JOHNS_ACCOUNT);
+    leader.create(SILVERS_ACCOUNT);
+
+    leader.transferMoney(MultiLegTransfer.builder()
+        .legs(List.of(leg("acc1", "acc2", 100), leg("acc2", "acc1", 30)))
+        .build());
+    ReplicationLog.Batch batch = replicationLog.read(replicationLog.id(), 0, 16);
+    follower.replicate(toBuffer(batch));
+
+    assertThat(batch.getPosition()).isEqualTo(3);
+    assertThat(follower.listAccounts()).containsExactlyElementsOf(leader.listAccounts());
+  }
+
+  @Test
+  @DisplayName("Changes appended concurrently are all read in the order of their positions")
+  void append_when_concurrent_then_followerEqualsLeader() throws Exception {
+    ReplicationLog replicationLog = new ReplicationLog(1 << 14);
+    AccountManagement leader = new AccountManagement(replicatingJournal(replicationLog, 0));
+    AccountManagement follower = new AccountManagement();
+    leader.create(JOHNS_ACCOUNT);
+    leader.create(SILVERS_ACCOUNT);
+
+    CompletableFuture<?>[] transfers = new CompletableFuture<?>[4];
+    for (int i = 0; i < transfers.length; i++) {
+      transfers[i] = CompletableFuture.runAsync(() -> {
+        for (int j = 0; j < 1000; j++) {
+          leader.transferMoney(transfer("acc1", "acc2", 1));
+          leader.transferMoney(transfer("acc2", "acc1", 1));
+        }
+      });
+    }
+    CompletableFuture.allOf(transfers).get(30, TimeUnit.SECONDS);
+    ReplicationLog.Batch batch = replicationLog.read(replicationLog.id(), 0, 1 << 14);
+    follower.replicate(toBuffer(batch));
+
+    assertThat(batch.getPosition()).isEqualTo(2 + 8000);
+    assertThat(follower.listAccounts()).containsExactlyInAnyOrderElementsOf(leader.listAccounts());
+  }
+
+  @Test
+  @DisplayName("Changes read while more appends than slots are in flight are never torn")
+  void read_when_slotsReusedConcurrently_then_changesComplete() throws Exception {
+    ReplicationLog replicationLog = new ReplicationLog(4);
+    ExecutorService executorService = Executors.newFixedThreadPool(9);
+    AtomicBoolean running = new AtomicBoolean(true);
+    List<String> tornChanges = new CopyOnWriteArrayList<>();
+    JournalListener completeTransfers = new JournalListener() {
+      @Override
+      public void onCreation(final long sequence, final Account account) {
+      }
+
+      @Override
+      public void onTransfer(final long sequence, final String fromAccountId, final String toAccountId,
+                             final long withdrawal, final long deposit) {
+        String expectedToAccountId = "acc" + (withdrawal * 2 - 1);
+        String expectedFromAccountId = "acc" + (withdrawal * 2 - 2);
+        if (!fromAccountId.equals(expectedFromAccountId) || !toAccountId.equals(expectedToAccountId)
+            || deposit != withdrawal) {
+          tornChanges.add(sequence + ": " + fromAccountId + " " + toAccountId + " " + withdrawal + " " + deposit);
+        }
+      }
+
+      @Override
+      public void onTransfers(final long sequence, final String[] fromAccountIds, final String[] toAccountIds,
+                              final long[] withdrawals, final long[] deposits) {
+      }
+
+      @Override
+      public void onRemoval(final long sequence) {
+      }
+    };
+
+    CompletableFuture<?> follower = CompletableFuture.runAsync(() -> {
+      long after = 0;
+      while (running.get()) {
+        ReplicationLog.Batch batch = replicationLog.read(replicationLog.id(), after, 16);
+        if (batch == null) {
+          after = replicationLog.lastPosition();
+        } else {
+          ReplicationLog.apply(toBuffer(batch), completeTransfers);
+          after = batch.getPosition();
+        }
+      }
+    }, executorService);
+    CompletableFuture<?>[] transfers = new CompletableFuture<?>[8];
+    for (int i = 0; i < transfers.length; i++) {
+      String from = "acc" + (i * 2);
+      String to = "acc" + (i * 2 + 1);
+      long amount = i + 1;
+      transfers[i] = CompletableFuture.runAsync(() -> {
+        for (int j = 0; j < 20_000; j++) {
+          replicationLog.append(JournalRecord.transfer(0, from, to, amount, amount), null);
+        }
+      }, executorService);
+    }
+    try {
+      CompletableFuture.allOf(transfers).get(30, TimeUnit.SECONDS);
+      running.set(false);
+      follower.get(30, TimeUnit.SECONDS);
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    assertThat(tornChanges).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Follower behind the oldest kept change has to start over")
+  void read_when_changesOverwritten_then_null() {
+    ReplicationLog replicationLog = new ReplicationLog(2);
+    AccountManagement leader = new AccountManagement(replicatingJournal(replicationLog, 0));
+
+    leader.create(JOHNS_ACCOUNT);
+    leader.create(SILVERS_ACCOUNT);
+    leader.transferMoney(transfer("acc1", "acc2", 100));
+
+    assertThat(replicationLog.read(replicationLog.id(), 0, 16)).isNull();
+    assertThat(replicationLog.read(replicationLog.id(), 1, 16).getPosition()).isEqualTo(3);
+    assertThat(replicationLog.read("other", 3, 16)).isNull();
+  }
+
+  @Test
+  @DisplayName("Log of a promoted follower continues for followers at the promotion position only")
+  void read_when_promoted_then_continuesPredecessorAtPromotionPosition() {
+    ReplicationLog formerLog = new ReplicationLog(16);
+    AccountManagement formerLeader = new AccountManagement(replicatingJournal(formerLog, 0));
+    formerLeader.create(JOHNS_ACCOUNT);
+    formerLeader.create(SILVERS_ACCOUNT);
+    ReplicationLog promotedLog = new ReplicationLog(16);
+    AccountManagement promoted = new AccountManagement(replicatingJournal(promotedLog, 0));
+    promoted.replicate(toBuffer(formerLog.read(formerLog.id(), 0, 16)));
+
+    promotedLog.continueFrom(formerLog.id(), 2);
+    promoted.transferMoney(transfer("acc1", "acc2", 100));
+
+    ReplicationLog.Batch batch = promotedLog.read(formerLog.id(), 2, 16);
+    assertThat(batch.getLogId()).isEqualTo(promotedLog.id()).isNotEqualTo(formerLog.id());
+    assertThat(batch.getPosition()).isEqualTo(3);
+    assertThat(promotedLog.read(formerLog.id(), 1, 16)).isNull();
+  }
+
+  @Test
+  @DisplayName("Promoted follower recovers the replicated accounts from its own journal")
+  void replicate_when_followerRestarted_then_replicatedChangesReplayed(@TempDir final Path directory) {
+    ReplicationLog leaderLog = new ReplicationLog(16);
+    AccountManagement leader = new AccountManagement(replicatingJournal(leaderLog, 0));
+    leader.create(JOHNS_ACCOUNT);
+    leader.create(SILVERS_ACCOUNT);
+    leader.transferMoney(transfer("acc1", "acc2", 100));
+    ReplicationLog followerLog = new ReplicationLog(16);
+    followerLog.follow();
+
+    try (TransferJournal transferJournal = new ReplicatingTransferJournal(
+        new FileTransferJournal(journalConfiguration(directory)), followerLog, 1, Duration.ofSeconds(5))) {
+      AccountManagement follower = new AccountManagement(transferJournal);
+      follower.restoreReplica(List.of(JOHNS_ACCOUNT));
+      follower.replicate(toBuffer(leaderLog.read(leaderLog.id(), 1, 16)));
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration(directory))) {
+      AccountManagement restarted = new AccountManagement(transferJournal);
+
+      assertThat(restarted.listAccounts()).containsExactlyInAnyOrderElementsOf(leader.listAccounts());
+    }
+  }
+
+  @Test
+  @DisplayName("Change waits until enough followers acknowledged it")
+  void awaitDurable_when_acknowledgementsRequired_then_waitsForFollower() throws Exception {
+    ReplicationLog replicationLog = new ReplicationLog(16);
+    AccountManagement leader = new AccountManagement(replicatingJournal(replicationLog, 1));
+
+    CompletableFuture<Void> creation = CompletableFuture.runAsync(() -> leader.create(JOHNS_ACCOUNT));
+    Thread.sleep(50);
+    assertThat(creation).isNotDone();
+    replicationLog.acknowledge("follower", 1);
+
+    creation.get(5, TimeUnit.SECONDS);
+    assertThat(replicationLog.acknowledgedPositions()).containsEntry("follower", 1L);
+  }
+
+  @Test
+  @DisplayName("Change not acknowledged in time stays applied and is reported as not yet replicated")
+  void awaitDurable_when_notAcknowledgedInTime_then_pending() {
+    ReplicationLog replicationLog = new ReplicationLog(16);
+    TransferJournal transferJournal = new ReplicatingTransferJournal(new DisabledTransferJournal(), replicationLog, 1,
+        Duration.ofMillis(10));
+    AccountManagement leader = new AccountManagement(transferJournal);
+
+    assertThatThrownBy(() -> leader.create(JOHNS_ACCOUNT))
+        .isInstanceOf(ReplicationPendingException.class)
+        .hasMessageContaining("not yet replicated");
+    assertThat(leader.listAccounts()).containsExactly(JOHNS_ACCOUNT);
+  }
+
+  private static JournalConfiguration journalConfiguration(final Path directory) {
+    JournalConfiguration journalConfiguration = new JournalConfiguration();
+    journalConfiguration.setMode(DurabilityMode.FSYNC_PER_BATCH);
+    journalConfiguration.setDirectory(directory.toString());
+    return journalConfiguration;
+  }
+
+  private static TransferJournal replicatingJournal(final ReplicationLog replicationLog, final int minAcks) {
+    return new ReplicatingTransferJournal(new DisabledTransferJournal(), replicationLog, minAcks, Duration.ofSeconds(5));
+  }
+
+  private static ByteBuffer toBuffer(final ReplicationLog.Batch batch) {
+    ByteBuffer buffer = ByteBuffer.allocate(batch.size());
+    batch.writeTo(buffer);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static TransferLeg leg(final String from, final String to, final long amount) {
+    return TransferLeg.builder()
+        .fromAccountId(from)
+        .toAccountId(to)
+        .amount(amount)
+        .build();
+  }
+
+  private static MoneyTransfer transfer(final String from, final String to, final long amount) {
+    return MoneyTransfer.builder()
+        .fromAccountId(from)
+        .toAccountId(to)
+        .amount(amount)
+        .build();
+  }
+}
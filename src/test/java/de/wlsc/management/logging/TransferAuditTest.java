@@ -0,0 +1,31 @@
+package de.wlsc.management.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.model.MoneyTransfer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Transfer audit")
+class TransferAuditTest {
+
+  @Test
+  @DisplayName("Audit record is valid JSON, even when ids contain characters to escape")
+  void record_when_idsContainSpecialCharacters_then_validJson() throws Exception {
+    MoneyTransfer moneyTransfer = MoneyTransfer.builder()
+        .id("id \"1\"\n")
+        .fromAccountId("acc\\1")
+        .amount(100)
+        .build();
+
+    JsonNode record = new ObjectMapper().readTree("{" + TransferAudit.record(moneyTransfer, "success") + "}");
+
+    assertThat(record.get("transferId").asText()).isEqualTo("id \"1\"\n");
+    assertThat(record.get("from").asText()).isEqualTo("acc\\1");
+    assertThat(record.get("to").isNull()).isTrue();
+    assertThat(record.get("amount").asLong()).isEqualTo(100);
+    assertThat(record.get("outcome").asText()).isEqualTo("success");
+  }
+}
@@ -0,0 +1,50 @@
+package de.wlsc.management.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Transfer log sampler")
+class TransferLogSamplerTest {
+
+  @Test
+  @DisplayName("Sample rate 1 without limit samples every transfer")
+  void sample_when_sampleRateOne_then_everyTransferSampled() {
+    TransferLogSampler transferLogSampler = sampler(1, 0);
+
+    assertThat(IntStream.range(0, 1000).filter(i -> transferLogSampler.sample()).count()).isEqualTo(1000);
+  }
+
+  @Test
+  @DisplayName("Sample rate 0 samples no transfer")
+  void sample_when_sampleRateZero_then_noTransferSampled() {
+    TransferLogSampler transferLogSampler = sampler(0, 0);
+
+    assertThat(IntStream.range(0, 1000).filter(i -> transferLogSampler.sample()).count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Sample rate 10 samples roughly every tenth transfer")
+  void sample_when_sampleRateTen_then_everyTenthTransferSampled() {
+    TransferLogSampler transferLogSampler = sampler(10, 0);
+
+    assertThat(IntStream.range(0, 100_000).filter(i -> transferLogSampler.sample()).count()).isBetween(9000L, 11000L);
+  }
+
+  @Test
+  @DisplayName("No more transfers than the maximum per second are sampled")
+  void sample_when_maxPerSecondReached_then_noMoreTransfersSampled() {
+    TransferLogSampler transferLogSampler = sampler(1, 5);
+
+    assertThat(IntStream.range(0, 1000).filter(i -> transferLogSampler.sample()).count()).isBetween(5L, 10L);
+  }
+
+  private static TransferLogSampler sampler(final int sampleRate, final int maxPerSecond) {
+    TransferLogConfiguration transferLogConfiguration = new TransferLogConfiguration();
+    transferLogConfiguration.setSampleRate(sampleRate);
+    transferLogConfiguration.setMaxPerSecond(maxPerSecond);
+    return new TransferLogSampler(transferLogConfiguration);
+  }
+}
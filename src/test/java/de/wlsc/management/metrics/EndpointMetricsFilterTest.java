@@ -0,0 +1,41 @@
+package de.wlsc.management.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpAttributes;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Endpoint metrics filter")
+class EndpointMetricsFilterTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final EndpointMetricsFilter filter = new EndpointMetricsFilter(meterRegistry);
+
+  @Test
+  @DisplayName("Requests of the same route and status are recorded by one timer")
+  void doFilter_when_sameRouteAndStatus_then_oneTimerRecordsAll() {
+    filter(HttpResponse.ok());
+    Timer timer = meterRegistry.get("http.server.requests").tag("status", "200").timer();
+    filter(HttpResponse.ok());
+    filter(HttpResponse.badRequest());
+
+    assertThat(meterRegistry.get("http.server.requests").tag("status", "200").timer()).isSameAs(timer);
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(meterRegistry.get("http.server.requests").tag("status", "400").timer().count()).isEqualTo(1);
+  }
+
+  private void filter(final MutableHttpResponse<?> response) {
+    MutableHttpRequest<Object> request = HttpRequest.GET("/accounts/acc1");
+    request.setAttribute(HttpAttributes.URI_TEMPLATE, "/accounts/{accountId}");
+    Flowable.fromPublisher(filter.doFilter(request, ignored -> Flowable.just(response))).blockingSubscribe();
+  }
+}
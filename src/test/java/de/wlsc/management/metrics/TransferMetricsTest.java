@@ -0,0 +1,91 @@
+package de.wlsc.management.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.wlsc.management.AccountManagement;
+import de.wlsc.management.ShardingConfiguration;
+import de.wlsc.management.StoreConfiguration;
+import de.wlsc.management.deduplication.DeduplicationConfiguration;
+import de.wlsc.management.deduplication.TransferDeduplication;
+import de.wlsc.management.exception.AccountNotFoundException;
+import de.wlsc.management.exception.NotEnoughMoneyException;
+import de.wlsc.management.fx.FxRateTable;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.logging.TransferAudit;
+import de.wlsc.management.snapshot.AccountSnapshots;
+import de.wlsc.management.snapshot.SnapshotConfiguration;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Transfer metrics")
+class TransferMetricsTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private AccountManagement accountManagement;
+
+  @BeforeEach
+  void setUp() {
+    accountManagement = new AccountManagement(new DisabledTransferJournal(),
+        new AccountSnapshots(new SnapshotConfiguration()),
+        new TransferDeduplication(new DeduplicationConfiguration()),
+        new TransferMetrics(meterRegistry),
+        TransferAudit.disabled(),
+        FxRateTable.bundled(),
+        new ShardingConfiguration(),
+        new StoreConfiguration());
+    accountManagement.create(account("acc1", 100));
+    accountManagement.create(account("acc2", 100));
+  }
+
+  @Test
+  @DisplayName("Transfers are counted by outcome and all of them are timed")
+  void transferMoney_when_transfersSucceedAndFail_then_countedByOutcome() {
+    accountManagement.transferMoney(transfer("acc1", "acc2", 50));
+    accountManagement.transferMoney(transfer("acc1", "acc2", 50));
+    assertThatThrownBy(() -> accountManagement.transferMoney(transfer("acc1", "acc2", 50)))
+        .isInstanceOf(NotEnoughMoneyException.class);
+    assertThatThrownBy(() -> accountManagement.transferMoney(transfer("acc1", "unknown", 50)))
+        .isInstanceOf(AccountNotFoundException.class);
+
+    assertThat(transfers("success")).isEqualTo(2);
+    assertThat(transfers("NotEnoughMoneyException")).isEqualTo(1);
+    assertThat(transfers("AccountNotFoundException")).isEqualTo(1);
+    assertThat(meterRegistry.get("transfer.duration").functionTimer().count()).isEqualTo(4);
+    assertThat(meterRegistry.get("transfer.duration.percentile").tag("phi", "0.99").gauge().value()).isPositive();
+  }
+
+  @Test
+  @DisplayName("Transfers without concurrent transfers report no lock contention")
+  void transferMoney_when_noConcurrentTransfers_then_noLockContention() {
+    accountManagement.transferMoney(transfer("acc1", "acc2", 50));
+
+    assertThat(meterRegistry.get("transfer.lock.contention").functionTimer().count()).isZero();
+  }
+
+  private double transfers(final String outcome) {
+    return meterRegistry.get("transfers").tag("outcome", outcome).counter().count();
+  }
+
+  private static Account account(final String id, final long amount) {
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(Currency.getInstance("EUR"))
+        .build();
+  }
+
+  private static MoneyTransfer transfer(final String fromAccountId, final String toAccountId, final long amount) {
+    return MoneyTransfer.builder()
+        .fromAccountId(fromAccountId)
+        .toAccountId(toAccountId)
+        .amount(amount)
+        .build();
+  }
+}
@@ -0,0 +1,212 @@
+package de.wlsc.management.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.Application;
+import de.wlsc.model.ReplicationRole;
+import de.wlsc.model.ReplicationStatus;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.http.client.exceptions.HttpClientException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Nodes running in processes of their own on localhost, the first one leading and the others
+ * following it. Each node writes its output to a file in the given directory.
+ */
+final class LocalCluster implements AutoCloseable {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+  private final List<Node> nodes = new ArrayList<>();
+
+  private LocalCluster() {
+  }
+
+  /**
+   * Starts the nodes at once and waits until all of them answer.
+   */
+  static LocalCluster start(final int size, final Map<String, String> properties, final Path directory) {
+    LocalCluster localCluster = new LocalCluster();
+    try {
+      for (int i = 0; i < size; i++) {
+        localCluster.nodes.add(new Node("node" + i, freePort(), i == 0 ? null : localCluster.nodes.get(0),
+            properties, directory));
+      }
+      for (Node node : localCluster.nodes) {
+        await(STARTUP_TIMEOUT, node + " has not started", node::isUp);
+      }
+    } catch (RuntimeException e) {
+      localCluster.close();
+      throw e;
+    }
+    return localCluster;
+  }
+
+  Node node(final int index) {
+    return nodes.get(index);
+  }
+
+  /**
+   * Waits until every running follower applied all changes of the node it follows.
+   */
+  void awaitReplicated(final Duration timeout) {
+    for (Node node : nodes) {
+      if (node.isAlive()) {
+        await(timeout, node + " has not caught up", () -> {
+          ReplicationStatus status = node.status();
+          return status.getRole() != ReplicationRole.FOLLOWER
+              || (status.getLogId() != null && status.getLag() == 0 && status.getLeaderPosition() > 0);
+        });
+      }
+    }
+  }
+
+  static void await(final Duration timeout, final String failure, final BooleanSupplier condition) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new IllegalStateException(failure + " within " + timeout);
+      }
+      try {
+        Thread.sleep(POLL_INTERVAL.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static int freePort() {
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      return serverSocket.getLocalPort();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    nodes.forEach(Node::kill);
+  }
+
+  static final class Node {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final String url;
+    private final Process process;
+    private final RxHttpClient client;
+
+    Node(final String name,
+         final int port,
+         final Node leader,
+         final Map<String, String> properties,
+         final Path directory) {
+      this.name = name;
+      this.url = "http://localhost:" + port;
+      List<String> command = new ArrayList<>();
+      command.add(ProcessHandle.current().info().command().orElse("java"));
+      command.add("-XX:TieredStopAtLevel=1");
+      command.add("-Dmicronaut.server.port=" + port);
+      command.add("-Dreplication.node-id=" + name);
+      command.add("-Dreplication.role=" + (leader == null ? ReplicationRole.LEADER : ReplicationRole.FOLLOWER));
+      if (leader != null) {
+        command.add("-Dreplication.leader-url=" + leader.url);
+      }
+      properties.forEach((key, value) -> command.add("-D" + key + "=" + value));
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(Application.class.getName());
+      try {
+        File output = Files.createDirectories(directory).resolve(name + ".log").toFile();
+        this.process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(output))
+            .start();
+        this.client = RxHttpClient.create(new URL(url));
+      } catch (MalformedURLException e) {
+        throw new IllegalArgumentException(e);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    String url() {
+      return url;
+    }
+
+    RxHttpClient client() {
+      return client;
+    }
+
+    boolean isAlive() {
+      return process.isAlive();
+    }
+
+    ReplicationStatus status() {
+      return read(client.toBlocking().retrieve(ReplicationEndpoint.STATUS), ReplicationStatus.class);
+    }
+
+    ReplicationStatus promote() {
+      return read(client.toBlocking().retrieve(HttpRequest.POST(ReplicationEndpoint.PROMOTE, "")),
+          ReplicationStatus.class);
+    }
+
+    ReplicationStatus follow(final Node leader) {
+      return read(client.toBlocking().retrieve(HttpRequest.POST(ReplicationEndpoint.FOLLOW + "?leader=" + leader.url,
+          "")), ReplicationStatus.class);
+    }
+
+    /**
+     * Kills the process without giving it the chance to shut down, as a lost node would.
+     */
+    void kill() {
+      process.destroyForcibly();
+      try {
+        process.waitFor();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      client.close();
+    }
+
+    static <T> T read(final String json, final Class<T> type) {
+      try {
+        return OBJECT_MAPPER.readValue(json, type);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private boolean isUp() {
+      if (!process.isAlive()) {
+        throw new IllegalStateException(name + " has exited with " + process.exitValue());
+      }
+      try {
+        status();
+        return true;
+      } catch (HttpClientException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
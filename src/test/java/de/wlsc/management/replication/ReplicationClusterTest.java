@@ -0,0 +1,130 @@
+package de.wlsc.management.replication;
+
+import static io.micronaut.http.HttpRequest.POST;
+import static io.micronaut.http.HttpRequest.PUT;
+import static io.micronaut.http.HttpStatus.BAD_REQUEST;
+import static io.micronaut.http.HttpStatus.CREATED;
+import static io.micronaut.http.HttpStatus.OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.model.Account;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.ReplicationRole;
+import de.wlsc.model.ReplicationStatus;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Replication across processes")
+class ReplicationClusterTest {
+
+  private static final Duration REPLICATION_TIMEOUT = Duration.ofSeconds(10);
+  private static final TypeReference<List<Account>> LIST_ACCOUNTS_REFERENCE = new TypeReference<>() {
+  };
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @TempDir
+  Path directory;
+
+  private LocalCluster localCluster;
+
+  @BeforeEach
+  void setUp() {
+    localCluster = LocalCluster.start(3, Map.of("replication.poll-interval", "5ms"), directory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    localCluster.close();
+  }
+
+  @Test
+  @DisplayName("Followers serve the accounts of the leader and forward transfers to it")
+  void transfer_when_sentToFollower_then_forwardedAndReplicated() throws Exception {
+    LocalCluster.Node leader = localCluster.node(0);
+    LocalCluster.Node follower = localCluster.node(1);
+    assertThat(create(leader, account("acc1", 500)).status().getCode()).isEqualTo(CREATED.getCode());
+    assertThat(create(follower, account("acc2", 2000)).status().getCode()).isEqualTo(CREATED.getCode());
+
+    HttpResponse<String> transferred = transfer(follower, "acc1", "acc2", 100);
+    HttpClientResponseException rejected = catchThrowableOfType(() -> transfer(follower, "acc1", "acc2", 1000),
+        HttpClientResponseException.class);
+
+    assertThat(transferred.status().getCode()).isEqualTo(OK.getCode());
+    assertThat(rejected.getStatus().getCode()).isEqualTo(BAD_REQUEST.getCode());
+    localCluster.awaitReplicated(REPLICATION_TIMEOUT);
+    for (int i = 0; i < 3; i++) {
+      assertThat(accounts(localCluster.node(i))).containsExactly(account("acc1", 400), account("acc2", 2100));
+    }
+  }
+
+  @Test
+  @DisplayName("Promoted follower takes over from a lost leader and the other follower continues with it")
+  void promote_when_leaderLost_then_followerTakesOver() throws Exception {
+    LocalCluster.Node formerLeader = localCluster.node(0);
+    LocalCluster.Node promoted = localCluster.node(1);
+    LocalCluster.Node follower = localCluster.node(2);
+    create(formerLeader, account("acc1", 500));
+    create(formerLeader, account("acc2", 2000));
+    transfer(formerLeader, "acc1", "acc2", 100);
+    localCluster.awaitReplicated(REPLICATION_TIMEOUT);
+    ReplicationStatus replicated = follower.status();
+
+    formerLeader.kill();
+    ReplicationStatus promotion = promoted.promote();
+    follower.follow(promoted);
+    transfer(follower, "acc2", "acc1", 1000);
+    localCluster.awaitReplicated(REPLICATION_TIMEOUT);
+
+    assertThat(promotion.getRole()).isEqualTo(ReplicationRole.LEADER);
+    assertThat(promotion.getPosition()).isEqualTo(replicated.getPosition());
+    ReplicationStatus continued = follower.status();
+    assertThat(continued.getLogId()).isEqualTo(promotion.getLogId());
+    assertThat(continued.getPosition()).isEqualTo(replicated.getPosition() + 1);
+    assertThat(accounts(promoted)).containsExactly(account("acc1", 1400), account("acc2", 1100));
+    assertThat(accounts(follower)).containsExactly(account("acc1", 1400), account("acc2", 1100));
+  }
+
+  private HttpResponse<String> create(final LocalCluster.Node node, final Account account) throws IOException {
+    return node.client().toBlocking().exchange(PUT("/accounts", objectMapper.writeValueAsString(account)), String.class);
+  }
+
+  private HttpResponse<String> transfer(final LocalCluster.Node node,
+                                        final String from,
+                                        final String to,
+                                        final long amount) throws IOException {
+    MoneyTransfer moneyTransfer = MoneyTransfer.builder()
+        .fromAccountId(from)
+        .toAccountId(to)
+        .amount(amount)
+        .build();
+    return node.client().toBlocking()
+        .exchange(POST("/accounts/transfer", objectMapper.writeValueAsString(moneyTransfer)), String.class);
+  }
+
+  private List<Account> accounts(final LocalCluster.Node node) throws IOException {
+    return objectMapper.readValue(node.client().toBlocking().retrieve("/accounts"), LIST_ACCOUNTS_REFERENCE);
+  }
+
+  private static Account account(final String id, final long amount) {
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(Currency.getInstance("EUR"))
+        .build();
+  }
+}
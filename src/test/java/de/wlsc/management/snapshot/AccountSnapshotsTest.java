@@ -0,0 +1,212 @@
+package de.wlsc.management.snapshot;
+
+import static de.wlsc.management.journal.FileTransferJournal.segmentFileName;
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import de.wlsc.management.AccountManagement;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.management.exception.TransferRejectedException;
+import de.wlsc.management.journal.DisabledTransferJournal;
+import de.wlsc.management.journal.DurabilityMode;
+import de.wlsc.management.journal.FileTransferJournal;
+import de.wlsc.management.journal.JournalConfiguration;
+import de.wlsc.management.journal.TransferJournal;
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import de.wlsc.model.MoneyTransfer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Account snapshots")
+class AccountSnapshotsTest {
+
+  private static final Customer JOHN = Customer.builder()
+      .id("cust1")
+      .firstname("first")
+      .lastname("last")
+      .locale(Locale.GERMANY)
+      .build();
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("Snapshot and newer journal records restore the accounts and older segments are deleted")
+  void load_when_snapshotAndNewerRecords_then_accountsRestored() {
+    Collection<Account> expectedAccounts;
+    try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+      accountManagement.create(account("acc1", 500, JOHN));
+      accountManagement.create(account("acc2", 2000, JOHN));
+      accountManagement.transferMoney(transfer("acc1", "acc2", 100));
+      accountManagement.takeSnapshot();
+      accountManagement.transferMoney(transfer("acc2", "acc1", 1000));
+      accountManagement.create(account("acc3", 10, null));
+      accountManagement.transferMoney(transfer("acc3", "acc3", 10));
+      expectedAccounts = accountManagement.listAccounts();
+    }
+
+    assertThat(directory.resolve("journal").resolve(segmentFileName(1))).doesNotExist();
+    assertThat(directory.resolve("journal").resolve(segmentFileName(2))).exists();
+
+    try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+
+      assertThat(accountManagement.listAccounts()).containsExactlyElementsOf(expectedAccounts);
+      assertThat(accountManagement.listAccounts()).extracting(Account::getAmount).containsExactly(1400L, 1100L, 10L);
+    }
+  }
+
+  @Test
+  @DisplayName("Removal of all accounts after a snapshot is restored")
+  void load_when_accountsRemovedAfterSnapshot_then_onlyNewerAccountsRestored() {
+    try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+      accountManagement.create(account("acc1", 500, JOHN));
+      accountManagement.takeSnapshot();
+      accountManagement.removeAccounts();
+      accountManagement.create(account("acc2", 2000, null));
+    }
+
+    try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+      AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+
+      assertThat(accountManagement.listAccounts()).containsExactly(account("acc2", 2000, null));
+    }
+  }
+
+  @Test
+  @DisplayName("Account ids longer than a snapshot field are refused and snapshots keep succeeding")
+  void create_when_idExceedsSnapshotField_then_refused() {
+    AccountManagement accountManagement = new AccountManagement(new DisabledTransferJournal(), accountSnapshots());
+    String longestId = "a".repeat(AccountSnapshots.MAX_FIELD_BYTES);
+    accountManagement.create(account(longestId, 500, JOHN));
+
+    assertThatThrownBy(() -> accountManagement.create(account(longestId + "a", 500, JOHN)))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> accountManagement.create(account("acc2", 500, JOHN.toBuilder()
+        .lastname("\u00e4".repeat(AccountSnapshots.MAX_FIELD_BYTES / 2 + 1))
+        .build())))
+        .isInstanceOf(MalformedPayloadException.class);
+    accountManagement.takeSnapshot();
+
+    assertThat(new AccountManagement(new DisabledTransferJournal(), accountSnapshots()).listAccounts())
+        .containsExactly(account(longestId, 500, JOHN));
+  }
+
+  @Test
+  @DisplayName("Snapshot without journal restores the accounts as they were when it was taken")
+  void load_when_noJournal_then_snapshotRestored() throws Exception {
+    AccountManagement accountManagement = new AccountManagement(new DisabledTransferJournal(), accountSnapshots());
+    accountManagement.create(account("acc1", 500, JOHN));
+    accountManagement.create(account("acc2", 2000, JOHN));
+    accountManagement.transferMoney(transfer("acc1", "acc2", 100));
+    accountManagement.takeSnapshot();
+    accountManagement.takeSnapshot();
+
+    try (Stream<Path> files = Files.list(directory.resolve("snapshot"))) {
+      assertThat(files).hasSize(1);
+    }
+    assertThat(new AccountManagement(new DisabledTransferJournal(), accountSnapshots()).listAccounts())
+        .containsExactly(account("acc1", 400, JOHN), account("acc2", 2100, JOHN));
+  }
+
+  @Test
+  @DisplayName("Snapshots taken while transfers are running restore the same state as the running store")
+  void load_when_snapshotsTakenDuringTransfers_then_consistentStateRestored() {
+    assertTimeoutPreemptively(ofSeconds(60), () -> {
+      int numberOfAccounts = 200;
+      Collection<Account> expectedAccounts;
+      ExecutorService executorService = Executors.newFixedThreadPool(4);
+      try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+        AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+        for (int i = 0; i < numberOfAccounts; i++) {
+          accountManagement.create(account("acc" + i, 1000, null));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+          futures.add(executorService.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+              try {
+                accountManagement.transferMoney(transfer("acc" + random.nextInt(numberOfAccounts),
+                    "acc" + random.nextInt(numberOfAccounts), random.nextInt(100)));
+              } catch (TransferRejectedException e) {
+                // not enough money is an expected outcome of random transfers
+              }
+            }
+          }));
+        }
+        for (int snapshot = 0; snapshot < 5; snapshot++) {
+          Thread.sleep(50);
+          accountManagement.takeSnapshot();
+        }
+        Thread.sleep(50);
+        running.set(false);
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        expectedAccounts = accountManagement.listAccounts();
+      } finally {
+        executorService.shutdownNow();
+      }
+
+      try (TransferJournal transferJournal = new FileTransferJournal(journalConfiguration())) {
+        AccountManagement accountManagement = new AccountManagement(transferJournal, accountSnapshots());
+
+        assertThat(accountManagement.listAccounts()).containsExactlyElementsOf(expectedAccounts);
+        assertThat(expectedAccounts.stream().mapToLong(Account::getAmount).sum()).isEqualTo(numberOfAccounts * 1000L);
+      }
+    });
+  }
+
+  private JournalConfiguration journalConfiguration() {
+    JournalConfiguration journalConfiguration = new JournalConfiguration();
+    journalConfiguration.setMode(DurabilityMode.FLUSH_INTERVAL);
+    journalConfiguration.setDirectory(directory.resolve("journal").toString());
+    return journalConfiguration;
+  }
+
+  private AccountSnapshots accountSnapshots() {
+    SnapshotConfiguration snapshotConfiguration = new SnapshotConfiguration();
+    snapshotConfiguration.setEnabled(true);
+    snapshotConfiguration.setDirectory(directory.resolve("snapshot").toString());
+    return new AccountSnapshots(snapshotConfiguration);
+  }
+
+  private static Account account(final String id, final long amount, final Customer customer) {
+    return Account.builder()
+        .id(id)
+        .amount(amount)
+        .currency(Currency.getInstance("EUR"))
+        .customer(customer)
+        .build();
+  }
+
+  private static MoneyTransfer transfer(final String fromAccountId, final String toAccountId, final long amount) {
+    return MoneyTransfer.builder()
+        .fromAccountId(fromAccountId)
+        .toAccountId(toAccountId)
+        .amount(amount)
+        .build();
+  }
+}
@@ -0,0 +1,37 @@
+package de.wlsc.management.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.AccountManagement;
+import io.micronaut.context.ApplicationContext;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Warm-up")
+class WarmUpTest {
+
+  @Test
+  @DisplayName("Warm-up applies transfers and rolls back batches with a rejected transfer")
+  void run_when_iterationsConfigured_then_transfersApplied() {
+    WarmUpConfiguration warmUpConfiguration = new WarmUpConfiguration();
+    warmUpConfiguration.setIterations(128);
+
+    int applied = new WarmUp(warmUpConfiguration, new ObjectMapper()).run();
+
+    assertThat(applied).isEqualTo(126 + 14 * 8);
+  }
+
+  @Test
+  @DisplayName("Warm-up at startup leaves the accounts of the service untouched")
+  void onApplicationEvent_when_enabled_then_serviceStoreEmpty() {
+    try (ApplicationContext applicationContext = ApplicationContext.run(Map.of(
+        "warm-up.enabled", true,
+        "warm-up.iterations", 1000))) {
+
+      assertThat(applicationContext.containsBean(WarmUp.class)).isTrue();
+      assertThat(applicationContext.getBean(AccountManagement.class).listAccounts()).isEmpty();
+    }
+  }
+}
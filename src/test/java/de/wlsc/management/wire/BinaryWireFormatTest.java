@@ -0,0 +1,149 @@
+package de.wlsc.management.wire;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.model.Account;
+import de.wlsc.model.BatchMode;
+import de.wlsc.model.BatchTransfer;
+import de.wlsc.model.Customer;
+import de.wlsc.model.MoneyTransfer;
+import de.wlsc.model.TransferResult;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Binary wire format")
+class BinaryWireFormatTest {
+
+  private static final Account ACCOUNT = Account.builder()
+      .id("acc1")
+      .amount(1_000_000)
+      .currency(Currency.getInstance("EUR"))
+      .customer(Customer.builder()
+          .id("cust1")
+          .firstname("Zoë")
+          .lastname("Müller")
+          .locale(Locale.GERMANY)
+          .build())
+      .build();
+  private static final MoneyTransfer MONEY_TRANSFER = MoneyTransfer.builder()
+      .id("t1")
+      .fromAccountId("acc1")
+      .toAccountId("acc2")
+      .amount(250)
+      .build();
+
+  @Test
+  @DisplayName("Account with customer survives a round trip")
+  void readAccount_when_writtenWithCustomer_then_equal() {
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeAccount(ACCOUNT, buffer);
+
+    assertThat(BinaryWireFormat.readAccount(buffer)).isEqualTo(ACCOUNT);
+    assertThat(buffer.isReadable()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Account without customer and currency survives a round trip")
+  void readAccount_when_writtenWithoutOptionalFields_then_equal() {
+    Account account = Account.builder().id("acc2").amount(0).build();
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeAccount(account, buffer);
+
+    assertThat(BinaryWireFormat.readAccount(buffer)).isEqualTo(account);
+  }
+
+  @Test
+  @DisplayName("Concatenated transfers are read one after the other")
+  void readTransfer_when_concatenated_then_readInOrder() {
+    MoneyTransfer withoutId = MONEY_TRANSFER.toBuilder().id(null).amount(1).build();
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeTransfer(MONEY_TRANSFER, buffer);
+    BinaryWireFormat.writeTransfer(withoutId, buffer);
+
+    assertThat(BinaryWireFormat.readTransfer(buffer)).isEqualTo(MONEY_TRANSFER);
+    assertThat(BinaryWireFormat.readTransfer(buffer)).isEqualTo(withoutId);
+  }
+
+  @Test
+  @DisplayName("Batch and its results survive a round trip")
+  void readBatch_when_written_then_equal() {
+    BatchTransfer batchTransfer = BatchTransfer.builder()
+        .mode(BatchMode.ALL_OR_NOTHING)
+        .transfers(Arrays.asList(MONEY_TRANSFER, MONEY_TRANSFER.toBuilder().id("t2").build()))
+        .build();
+    List<TransferResult> results = Arrays.asList(
+        TransferResult.builder().id("t1").successful(true).build(),
+        TransferResult.builder().id("t2").successful(false).message("Source account not found").build());
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeBatch(batchTransfer, buffer);
+    BinaryWireFormat.writeResults(results, buffer);
+
+    assertThat(BinaryWireFormat.readBatch(buffer)).isEqualTo(batchTransfer);
+    assertThat(BinaryWireFormat.readResults(buffer)).isEqualTo(results);
+  }
+
+  @Test
+  @DisplayName("Message of another type is rejected")
+  void readTransfer_when_accountWritten_then_malformed() {
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeAccount(ACCOUNT, buffer);
+
+    assertThatThrownBy(() -> BinaryWireFormat.readTransfer(buffer))
+        .isInstanceOf(MalformedPayloadException.class)
+        .hasMessageContaining("message type");
+  }
+
+  @Test
+  @DisplayName("Truncated message is rejected")
+  void readTransfer_when_truncated_then_malformed() {
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeTransfer(MONEY_TRANSFER, buffer);
+    ByteBuf truncated = buffer.slice(0, buffer.readableBytes() - 1);
+
+    assertThatThrownBy(() -> BinaryWireFormat.readTransfer(truncated))
+        .isInstanceOf(MalformedPayloadException.class);
+  }
+
+  @Test
+  @DisplayName("Payload with trailing bytes is rejected")
+  void readTransfer_when_trailingBytes_then_malformed() {
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeTransfer(MONEY_TRANSFER, buffer);
+    buffer.writeByte(0);
+    buffer.setInt(0, buffer.getInt(0) + 1);
+
+    assertThatThrownBy(() -> BinaryWireFormat.readTransfer(buffer))
+        .isInstanceOf(MalformedPayloadException.class)
+        .hasMessageContaining("trailing bytes");
+  }
+
+  @Test
+  @DisplayName("String length exceeding the payload is rejected")
+  void readTransfer_when_stringLengthTooLarge_then_malformed() {
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeTransfer(MONEY_TRANSFER, buffer);
+    buffer.setInt(Integer.BYTES + 1, Integer.MAX_VALUE);
+
+    assertThatThrownBy(() -> BinaryWireFormat.readTransfer(buffer))
+        .isInstanceOf(MalformedPayloadException.class);
+  }
+
+  @Test
+  @DisplayName("Transfer is smaller than its JSON representation")
+  void writeTransfer_when_comparedToJson_then_smaller() throws Exception {
+    ByteBuf buffer = Unpooled.buffer();
+    BinaryWireFormat.writeTransfer(MONEY_TRANSFER, buffer);
+
+    assertThat(buffer.readableBytes())
+        .isLessThan(new ObjectMapper().writeValueAsBytes(MONEY_TRANSFER).length);
+  }
+}
@@ -0,0 +1,108 @@
+package de.wlsc.management.wire;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.wlsc.management.exception.MalformedPayloadException;
+import de.wlsc.model.Account;
+import de.wlsc.model.Customer;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Bulk account formats")
+class BulkAccountFormatsTest {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final Account FULL_ACCOUNT = Account.builder()
+      .id("acc1")
+      .amount(500)
+      .currency(Currency.getInstance("PLN"))
+      .customer(Customer.builder()
+          .id("cust1")
+          .firstname("Zażółć, \"gęślą\"")
+          .lastname("jaźń\nnew line")
+          .locale(new Locale("pl", "PL"))
+          .build())
+      .build();
+
+  private static final Account BARE_ACCOUNT = Account.builder().id("acc2").amount(-1).build();
+
+  @Test
+  @DisplayName("NDJSON records split at every byte are read back")
+  void ndjson_when_fedBytewise_then_accountsRead() {
+    byte[] body = concat(NdjsonAccounts.write(OBJECT_MAPPER, FULL_ACCOUNT), NdjsonAccounts.write(OBJECT_MAPPER, BARE_ACCOUNT));
+
+    assertThat(readBytewise(NdjsonAccounts.reader(OBJECT_MAPPER), body)).containsExactly(FULL_ACCOUNT, BARE_ACCOUNT);
+  }
+
+  @Test
+  @DisplayName("NDJSON record which is no object or lacks an id is rejected")
+  void ndjson_when_malformed_then_rejected() {
+    assertThatThrownBy(() -> NdjsonAccounts.reader(OBJECT_MAPPER).read("[1]\n".getBytes(UTF_8)))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> NdjsonAccounts.reader(OBJECT_MAPPER).read("{\"amount\":1}\n".getBytes(UTF_8)))
+        .isInstanceOf(MalformedPayloadException.class);
+    AccountRecordReader truncated = NdjsonAccounts.reader(OBJECT_MAPPER);
+    truncated.read("{\"id\":\"acc1\"".getBytes(UTF_8));
+    assertThatThrownBy(truncated::finish).isInstanceOf(MalformedPayloadException.class);
+  }
+
+  @Test
+  @DisplayName("CSV records with quoted fields split at every byte are read back")
+  void csv_when_fedBytewise_then_accountsRead() {
+    byte[] body = (CsvAccounts.header() + CsvAccounts.write(FULL_ACCOUNT) + CsvAccounts.write(BARE_ACCOUNT)
+        .replace("\n", "")).getBytes(UTF_8);
+
+    assertThat(readBytewise(CsvAccounts.reader(), body)).containsExactly(FULL_ACCOUNT, BARE_ACCOUNT);
+  }
+
+  @Test
+  @DisplayName("CSV records with CRLF line ends and empty lines are read")
+  void csv_when_crlf_then_accountsRead() {
+    AccountRecordReader reader = CsvAccounts.reader();
+    List<Account> accounts = new ArrayList<>(reader.read((CsvAccounts.HEADER + "\r\nacc2,-1,,,,,\r\n\r\n").getBytes(UTF_8)));
+    accounts.addAll(reader.finish());
+
+    assertThat(accounts).containsExactly(BARE_ACCOUNT);
+  }
+
+  @Test
+  @DisplayName("CSV without header, with wrong field count or invalid values is rejected")
+  void csv_when_malformed_then_rejected() {
+    assertThatThrownBy(() -> CsvAccounts.reader().read("acc1,1,,,,,\n".getBytes(UTF_8)))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> CsvAccounts.reader().read((CsvAccounts.header() + "acc1,1\n").getBytes(UTF_8)))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> CsvAccounts.reader().read((CsvAccounts.header() + "acc1,x,,,,,\n").getBytes(UTF_8)))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> CsvAccounts.reader().read((CsvAccounts.header() + ",1,,,,,\n").getBytes(UTF_8)))
+        .isInstanceOf(MalformedPayloadException.class);
+    assertThatThrownBy(() -> CsvAccounts.reader().finish()).isInstanceOf(MalformedPayloadException.class);
+  }
+
+  private static List<Account> readBytewise(final AccountRecordReader reader, final byte[] body) {
+    List<Account> accounts = new ArrayList<>();
+    for (int i = 0; i < body.length; i++) {
+      accounts.addAll(reader.read(Arrays.copyOfRange(body, i, i + 1)));
+    }
+    accounts.addAll(reader.finish());
+    return accounts;
+  }
+
+  private static byte[] concat(final byte[]... parts) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      output.writeBytes(part);
+    }
+    return output.toByteArray();
+  }
+}